@@ -0,0 +1,68 @@
+"""
+Input helpers shared by the engine scripts.
+
+Datasets stored compressed are not handed to the scripts as files: the backend
+passes '-' as the data path and streams the decompressed CSV to stdin.
+"""
+import io
+import json
+import os
+import sys
+import pandas as pd
+
+STDIN = '-'
+
+
+def input_available(path):
+    return path == STDIN or bool(path and os.path.exists(path))
+
+
+def buffered_input(path):
+    """A source read_input_csv can read more than once (stdin is kept in memory)."""
+    if path == STDIN:
+        return io.BytesIO(sys.stdin.buffer.read())
+    return path
+
+
+def read_input_csv(source, **kwargs):
+    if source == STDIN:
+        return pd.read_csv(sys.stdin.buffer, **kwargs)
+    if hasattr(source, 'seek'):
+        source.seek(0)
+    return pd.read_csv(source, **kwargs)
+
+
+# Spellings the backend's schema inference accepts as booleans
+TRUE_VALUES = ['true', 'True', 'TRUE', 'yes', 'Yes', 'YES']
+FALSE_VALUES = ['false', 'False', 'FALSE', 'no', 'No', 'NO']
+
+
+def schema_read_options(schema_path):
+    """
+    read_csv options that give each column the type stored with the dataset
+    instead of letting pandas guess, plus the stored type of each column.
+    Integer columns with nulls are read as floats, as pandas does itself.
+    """
+    with open(schema_path) as f:
+        columns = json.load(f).get('columns') or []
+
+    dtype, parse_dates, na_values = {}, [], {}
+    for column in columns:
+        name, kind = column['name'], column['type']
+        markers = [m for m in column.get('nullMarkers') or [] if m]
+        if markers:
+            na_values[name] = markers
+        if kind == 'INTEGER':
+            dtype[name] = 'int64' if not column.get('nullCount') else 'float64'
+        elif kind == 'DOUBLE':
+            dtype[name] = 'float64'
+        elif kind in ('DATE', 'DATETIME'):
+            parse_dates.append(name)
+        elif kind == 'STRING':
+            dtype[name] = str
+
+    options = {'dtype': dtype, 'na_values': na_values,
+               'true_values': TRUE_VALUES, 'false_values': FALSE_VALUES}
+    if parse_dates:
+        options['parse_dates'] = parse_dates
+    return options, {column['name']: column['type'] for column in columns}
@@ -4,6 +4,7 @@ import numpy as np
 import json
 import sys
 import logging
+from csv_input import read_input_csv
 from sdv.evaluation.single_table import evaluate_quality
 from sdv.single_table import CTGANSynthesizer, TVAESynthesizer, GaussianCopulaSynthesizer, CopulaGANSynthesizer
 
@@ -17,7 +18,7 @@ def evaluate_model(model_path, original_data_path, sample_count=1000):
     """
     logger.info(f"Loading original data from {original_data_path}...")
     try:
-        real_data = pd.read_csv(original_data_path)
+        real_data = read_input_csv(original_data_path)
     except Exception as e:
         logger.error(f"Error reading original CSV: {e}")
         sys.exit(1)
@@ -94,7 +95,7 @@ def evaluate_model(model_path, original_data_path, sample_count=1000):
 if __name__ == "__main__":
     parser = argparse.ArgumentParser(description='Evaluate Synthetic Data Quality')
     parser.add_argument('--model', required=True, help='Path to trained model (.pkl)')
-    parser.add_argument('--original', required=True, help='Path to original CSV data')
+    parser.add_argument('--original', required=True, help="Path to original CSV data, or '-' for stdin")
     parser.add_argument('--samples', type=int, default=1000, help='Number of samples to generate for evaluation')
 
     args = parser.parse_args()
@@ -2,8 +2,8 @@ import argparse
 import pandas as pd
 import json
 import sys
-import os
 import logging
+from csv_input import input_available, read_input_csv
 from sdv.single_table import CTGANSynthesizer
 
 logging.basicConfig(level=logging.INFO, format='%(asctime)s - %(levelname)s - %(message)s')
@@ -48,9 +48,9 @@ def generate(model_path, count, output_path, original_path=None, anomaly_json=No
         sys.exit(1)
 
     original_df = None
-    if original_path and os.path.exists(original_path):
+    if input_available(original_path):
         logger.info(f"Loading original data for leakage protection from {original_path}")
-        original_df = pd.read_csv(original_path)
+        original_df = read_input_csv(original_path)
 
     generated_data = pd.DataFrame()
     
@@ -121,7 +121,7 @@ if __name__ == "__main__":
     parser.add_argument('--model', required=True, help='Path to trained model (.pkl)')
     parser.add_argument('--count', type=int, default=1000, help='Number of records to generate')
     parser.add_argument('--output', required=True, help='Path to save synthetic CSV')
-    parser.add_argument('--original', help='Path to original CSV for leakage protection')
+    parser.add_argument('--original', help="Path to original CSV for leakage protection, or '-' for stdin")
     parser.add_argument('--anomalies', help='JSON string for anomaly injection')
 
     args = parser.parse_args()
@@ -4,21 +4,35 @@ import json
 import sys
 import numpy as np
 import logging
+from csv_input import buffered_input, read_input_csv, schema_read_options
 
 logging.basicConfig(level=logging.ERROR, format='%(message)s')
 logger = logging.getLogger(__name__)
 
-def calculate_stats(data_path):
+def calculate_stats(data_path, schema_path=None):
+    schema_types = {}
     try:
-        # Try default reading
-        try:
-            df = pd.read_csv(data_path)
-        except UnicodeDecodeError:
-            # Fallback to latin1 if utf-8 fails
-            df = pd.read_csv(data_path, encoding='latin1')
-        except pd.errors.ParserError:
-             # Fallback to python engine for smarter separator detection
-            df = pd.read_csv(data_path, sep=None, engine='python')
+        # Fallbacks below re-read the input, so stdin is buffered once
+        source = buffered_input(data_path)
+        df = None
+        if schema_path:
+            # Column types stored with the dataset, inferred from every value at upload
+            try:
+                options, schema_types = schema_read_options(schema_path)
+                df = read_input_csv(source, **options)
+            except Exception as e:
+                # e.g. integers beyond int64; the generic reads below still work
+                logger.warning(f"Reading with stored schema failed: {e}")
+        if df is None:
+            # Try default reading
+            try:
+                df = read_input_csv(source)
+            except UnicodeDecodeError:
+                # Fallback to latin1 if utf-8 fails
+                df = read_input_csv(source, encoding='latin1')
+            except pd.errors.ParserError:
+                 # Fallback to python engine for smarter separator detection
+                df = read_input_csv(source, sep=None, engine='python')
             
     except Exception as e:
         # Return error as JSON so frontend can display it nicely
@@ -42,6 +56,8 @@ def calculate_stats(data_path):
             "nullPercentage": round((null_count / len(df)) * 100, 2) if len(df) > 0 else 0,
             "uniqueCount": unique_count
         }
+        if col in schema_types:
+            col_info["schemaType"] = schema_types[col]
 
         # Distribution logic
         # For object/categorical or low unique counts
@@ -94,7 +110,9 @@ def calculate_stats(data_path):
 
     # Improved role detection for BI visuals
     stats["metadata"] = {
-        "datetimeCols": [c for c in df.columns if 'date' in c.lower() or 'time' in c.lower() or 'year' in c.lower()],
+        "datetimeCols": [c for c in df.columns if schema_types.get(c) in ('DATE', 'DATETIME')] +
+                        [c for c in df.columns if schema_types.get(c) not in ('DATE', 'DATETIME') and
+                         ('date' in c.lower() or 'time' in c.lower() or 'year' in c.lower())],
         "geoCols": {
             "lat": next((c for c in df.columns if c.lower() in ['lat', 'latitude']), None),
             "lng": next((c for c in df.columns if c.lower() in ['lng', 'longitude', 'long']), None),
@@ -109,8 +127,9 @@ def calculate_stats(data_path):
 if __name__ == "__main__":
     parser = argparse.ArgumentParser()
     parser.add_argument("--data", required=True)
+    parser.add_argument("--schema", help="JSON column schema stored with the dataset")
     args = parser.parse_args()
     
-    result = calculate_stats(args.data)
+    result = calculate_stats(args.data, args.schema)
     # Ensure only JSON is printed to stdout for Java to parse
     print(json.dumps(result))
@@ -2,6 +2,7 @@ import argparse
 import pandas as pd
 import sys
 import logging
+from csv_input import read_input_csv
 from sdv.metadata import SingleTableMetadata
 from sdv.single_table import CTGANSynthesizer, TVAESynthesizer, GaussianCopulaSynthesizer, CopulaGANSynthesizer
 
@@ -13,7 +14,7 @@ def train_model(data_path, output_path, algorithm='CTGAN', epochs=300, batch_siz
                 discriminator_dim=None):
     logger.info(f"Loading data from {data_path}...")
     try:
-        data = pd.read_csv(data_path)
+        data = read_input_csv(data_path)
     except Exception as e:
         logger.error(f"Error reading CSV: {e}")
         sys.exit(1)
@@ -148,7 +149,7 @@ def train_model(data_path, output_path, algorithm='CTGAN', epochs=300, batch_siz
 
 if __name__ == "__main__":
     parser = argparse.ArgumentParser(description='Train Synthetic Data Model with Hyperparameter Optimization')
-    parser.add_argument('--data', required=True, help='Path to input CSV file')
+    parser.add_argument('--data', required=True, help="Path to input CSV file, or '-' for stdin")
     parser.add_argument('--output', required=True, help='Path to save trained model (.pkl)')
     parser.add_argument('--algorithm', default='CTGAN', choices=['CTGAN', 'TVAE', 'GaussianCopula', 'CopulaGAN'], help='Algorithm to use')
     
@@ -0,0 +1,182 @@
+package com.synthetic.platform.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.synthetic.platform.cache.SingleFlight;
+import com.synthetic.platform.config.JacksonConfig;
+import com.synthetic.platform.data.CsvSampler;
+import com.synthetic.platform.data.MappedCsvReader;
+import com.synthetic.platform.data.RowIndexService;
+import com.synthetic.platform.data.SchemaInferencer;
+import com.synthetic.platform.model.Dataset;
+import com.synthetic.platform.privacy.AnonymityEvaluator;
+import com.synthetic.platform.privacy.AttackSimulator;
+import com.synthetic.platform.service.DatasetService;
+import com.synthetic.platform.service.PrivacyBudgetService;
+import com.synthetic.platform.service.PrivacyReportService;
+import com.synthetic.platform.storage.LocalBlobStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Generated datasets and the services that read them, wired by hand instead
+ * of by Spring: storage is a {@link LocalBlobStore} in a temporary directory,
+ * and collaborators the benchmarked paths never reach (repositories, project
+ * service) are left null. Datasets carry their inferred schema, so the
+ * dataset service never has to save one.
+ */
+final class BenchmarkData implements AutoCloseable {
+
+    /** Column shapes, cycled through up to the requested column count. */
+    private static final String[] COLUMN_NAMES = { "age", "income", "city", "gender", "zip_code", "diagnosis",
+            "heart_rate", "device_id", "score", "status" };
+    private static final String[] CITIES = new String[200];
+    private static final String[] DIAGNOSES = { "none", "asthma", "diabetes", "hypertension", "migraine",
+            "arthritis" };
+    private static final String[] STATUSES = { "active", "inactive", "pending" };
+
+    static {
+        for (int i = 0; i < CITIES.length; i++) {
+            CITIES[i] = "City " + i;
+        }
+    }
+
+    final Path root;
+    final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+    final LocalBlobStore blobStore;
+    final MappedCsvReader mappedCsvReader = new MappedCsvReader(ForkJoinPool.commonPool());
+    final RowIndexService rowIndexService = new RowIndexService();
+    final CsvSampler csvSampler = new CsvSampler(rowIndexService, mappedCsvReader);
+    final SchemaInferencer schemaInferencer = new SchemaInferencer(mappedCsvReader, ForkJoinPool.commonPool());
+    final DatasetService datasetService;
+    final PrivacyReportService privacyReportService;
+
+    private final Map<Long, Dataset> datasets = new HashMap<>();
+
+    BenchmarkData() throws IOException {
+        this.root = Files.createTempDirectory("synthesis-bench");
+        this.blobStore = new LocalBlobStore(root.toString());
+        this.datasetService = new DatasetService(null, null, null, rowIndexService, null, blobStore,
+                schemaInferencer, objectMapper) {
+            @Override
+            public Dataset findById(Long id) {
+                return datasets.get(id);
+            }
+        };
+        PrivacyBudgetService privacyBudgetService = new PrivacyBudgetService(null, null) {
+            @Override
+            public double getEpsilonSpent(Dataset dataset) {
+                return 0;
+            }
+        };
+        this.privacyReportService = new PrivacyReportService(objectMapper, mappedCsvReader, blobStore,
+                datasetService, new AnonymityEvaluator(ForkJoinPool.commonPool()),
+                new AttackSimulator(ForkJoinPool.commonPool()), privacyBudgetService,
+                new SingleFlight(new SimpleMeterRegistry()));
+    }
+
+    /**
+     * Writes a CSV of {@code rows} rows and {@code columns} columns mixing
+     * numeric, categorical and identifier-like values, and registers it as a
+     * dataset with its schema. The same seed always writes the same file.
+     */
+    Dataset dataset(long id, int rows, int columns, long seed) throws IOException {
+        String key = "blobs/bench-" + id + ".csv";
+        Path file = blobStore.localPath(key);
+        Files.createDirectories(file.getParent());
+        writeCsv(file, rows, columns, seed);
+
+        Dataset dataset = new Dataset();
+        dataset.setId(id);
+        dataset.setName("bench-" + id);
+        dataset.setFilePath(key);
+        dataset.setColumnSchema(objectMapper.writeValueAsString(schemaInferencer.infer(file)));
+        datasets.put(id, dataset);
+        return dataset;
+    }
+
+    Path file(Dataset dataset) throws IOException {
+        return blobStore.fetch(dataset.getFilePath());
+    }
+
+    static String columnName(int column) {
+        String name = COLUMN_NAMES[column % COLUMN_NAMES.length];
+        return column < COLUMN_NAMES.length ? name : name + "_" + column / COLUMN_NAMES.length;
+    }
+
+    private static void writeCsv(Path file, int rows, int columns, long seed) throws IOException {
+        Random random = new Random(seed);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int c = 0; c < columns; c++) {
+                if (c > 0)
+                    out.write(',');
+                out.write(columnName(c));
+            }
+            out.write('\n');
+            StringBuilder line = new StringBuilder();
+            for (int r = 0; r < rows; r++) {
+                line.setLength(0);
+                for (int c = 0; c < columns; c++) {
+                    if (c > 0)
+                        line.append(',');
+                    appendValue(line, c % COLUMN_NAMES.length, r, random);
+                }
+                out.append(line).append('\n');
+            }
+        }
+    }
+
+    private static void appendValue(StringBuilder line, int shape, int row, Random random) {
+        switch (shape) {
+            case 0:
+                line.append(18 + random.nextInt(70));
+                break;
+            case 1:
+                line.append(Math.round(Math.exp(10.5 + 0.6 * random.nextGaussian()) * 100) / 100.0);
+                break;
+            case 2:
+                line.append(CITIES[Math.min(CITIES.length - 1, (int) Math.abs(random.nextGaussian() * 40))]);
+                break;
+            case 3:
+                line.append(random.nextBoolean() ? "F" : "M");
+                break;
+            case 4:
+                line.append(10000 + random.nextInt(900));
+                break;
+            case 5:
+                line.append(DIAGNOSES[random.nextInt(DIAGNOSES.length)]);
+                break;
+            case 6:
+                line.append(Math.round((72 + 9 * random.nextGaussian()) * 10) / 10.0);
+                break;
+            case 7:
+                line.append("dev-").append(Integer.toHexString(row * 31 + 7));
+                break;
+            case 8:
+                line.append(random.nextInt(5) == 0 ? "" : Double.toString(random.nextDouble()));
+                break;
+            default:
+                line.append(STATUSES[random.nextInt(STATUSES.length)]);
+                break;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
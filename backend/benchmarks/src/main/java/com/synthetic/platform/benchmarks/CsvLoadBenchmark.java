@@ -0,0 +1,99 @@
+package com.synthetic.platform.benchmarks;
+
+import com.synthetic.platform.data.ColumnarTable;
+import com.synthetic.platform.data.SchemaInferencer;
+import com.synthetic.platform.dto.DatasetSchemaDTO;
+import com.synthetic.platform.dto.ExportRequestDTO;
+import com.synthetic.platform.model.Dataset;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading CSV datasets: whole columnar tables (reports, synthesis), schema
+ * inference (uploads) and the record slices exports read, one per sampling
+ * mode of {@code ExportController.loadCsvData}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvLoadBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    int rows;
+
+    @Param({ "8", "32" })
+    int columns;
+
+    BenchmarkData data;
+    Path file;
+    Map<String, ColumnarTable.Kind> kinds;
+
+    @State(Scope.Benchmark)
+    public static class Sampling {
+        @Param({ "HEAD", "RESERVOIR", "STRATIFIED", "PAGE" })
+        ExportRequestDTO.SamplingMode mode;
+
+        @Param({ "1000" })
+        int records;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = new BenchmarkData();
+        Dataset dataset = data.dataset(1, rows, columns, 1);
+        file = data.file(dataset);
+        DatasetSchemaDTO schema = data.datasetService.getSchema(dataset);
+        kinds = SchemaInferencer.kinds(schema);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        data.close();
+    }
+
+    @Benchmark
+    public ColumnarTable readTable() throws IOException {
+        return data.mappedCsvReader.readTable(file, kinds);
+    }
+
+    @Benchmark
+    public DatasetSchemaDTO inferSchema() throws IOException {
+        return data.schemaInferencer.infer(file);
+    }
+
+    @Benchmark
+    public List<List<String>> sample(Sampling sampling) throws IOException {
+        switch (sampling.mode) {
+            case RESERVOIR:
+                return data.csvSampler.reservoir(file, sampling.records, 42L);
+            case STRATIFIED:
+                return data.csvSampler.stratified(file, sampling.records, "status", 42L);
+            case PAGE:
+                // A page from the middle, as a paging client deep into the file reads
+                return data.csvSampler.page(file, rows / 2, sampling.records);
+            case HEAD:
+            default:
+                return data.csvSampler.head(file, sampling.records);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.synthetic.platform.benchmarks;
+
+import com.synthetic.platform.controller.ExportController;
+import com.synthetic.platform.dto.DatasetSchemaDTO;
+import com.synthetic.platform.dto.ExportRequestDTO;
+import com.synthetic.platform.dto.PrivacyReportDTO;
+import com.synthetic.platform.model.Dataset;
+import com.synthetic.platform.service.ExcelExportService;
+import com.synthetic.platform.service.PdfExportService;
+import com.synthetic.platform.service.ReportChartRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering exports from a report computed once per trial: the Excel
+ * workbook with its data sheet, the PDF report with its charts, and the JSON
+ * export end to end through the controller (record loading, typing and
+ * serialization).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportBenchmark {
+
+    @Param({ "10000", "100000" })
+    int rows;
+
+    @Param({ "8", "32" })
+    int columns;
+
+    @Param({ "1000", "10000" })
+    int records; // exported data records, numberOfRecords in the request
+
+    BenchmarkData data;
+    PrivacyReportDTO report;
+    List<List<String>> syntheticData;
+    DatasetSchemaDTO schema;
+    ExcelExportService excelExportService;
+    PdfExportService pdfExportService;
+    ExportController exportController;
+    ExportRequestDTO jsonRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        data = new BenchmarkData();
+        Dataset original = data.dataset(1, rows, columns, 1);
+        Dataset synthetic = data.dataset(2, rows, columns, 2);
+        report = data.privacyReportService.generateReport(original, synthetic);
+        syntheticData = data.csvSampler.head(data.file(synthetic), records);
+        schema = data.datasetService.getSchema(synthetic);
+
+        excelExportService = new ExcelExportService();
+        pdfExportService = new PdfExportService(new ReportChartRenderer(), ForkJoinPool.commonPool());
+        exportController = new ExportController(data.datasetService, data.privacyReportService, pdfExportService,
+                excelExportService, null, data.csvSampler, data.objectMapper, data.blobStore);
+        jsonRequest = ExportRequestDTO.builder()
+                .datasetId(original.getId())
+                .syntheticDatasetId(synthetic.getId())
+                .format(ExportRequestDTO.ExportFormat.JSON)
+                .includePrivacyReport(false)
+                .numberOfRecords(records)
+                .build();
+        // The controller answers failures with a 500 rather than throwing
+        if (!exportJson().getStatusCode().is2xxSuccessful()) {
+            throw new IllegalStateException("JSON export failed during setup");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        data.close();
+    }
+
+    @Benchmark
+    public byte[] excel() throws Exception {
+        return excelExportService.generatePrivacyReport(report, syntheticData, schema);
+    }
+
+    @Benchmark
+    public byte[] pdf() throws Exception {
+        return pdfExportService.renderPrivacyReport(report);
+    }
+
+    @Benchmark
+    public ResponseEntity<Resource> exportJson() {
+        return exportController.exportJson(jsonRequest);
+    }
+}
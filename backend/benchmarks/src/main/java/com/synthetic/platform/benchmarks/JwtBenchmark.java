@@ -0,0 +1,83 @@
+package com.synthetic.platform.benchmarks;
+
+import com.synthetic.platform.security.JwtTokenProvider;
+import com.synthetic.platform.security.model.User;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issuing and validating JWTs, with the verified-token cache on (up to its
+ * default size) or off, over a pool of distinct tokens as from many users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtBenchmark {
+
+    private static final String SECRET = "BenchmarkSecretKeyForJWTTokenGenerationMustBe256BitsLongForHS256";
+
+    @Param({ "true", "false" })
+    boolean cache;
+
+    @Param({ "1000" })
+    int tokens;
+
+    JwtTokenProvider tokenProvider;
+    User user;
+    String[] issued;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider(SECRET, 86_400_000L, cache ? 10_000 : 0, 900);
+        issued = new String[tokens];
+        for (int i = 0; i < tokens; i++) {
+            issued[i] = tokenProvider.generateToken(user("user" + i));
+        }
+        user = user("bench");
+    }
+
+    @Benchmark
+    public Claims validate(Cursor cursor) {
+        String token = issued[cursor.next];
+        cursor.next = (cursor.next + 1) % issued.length;
+        return tokenProvider.getVerifiedClaims(token);
+    }
+
+    @Benchmark
+    public String generate() {
+        return tokenProvider.generateToken(user);
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setRoles(Set.of("ROLE_USER"));
+        user.setEnabled(true);
+        user.setTokenVersion(0);
+        return user;
+    }
+}
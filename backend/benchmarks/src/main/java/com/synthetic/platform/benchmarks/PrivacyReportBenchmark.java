@@ -0,0 +1,61 @@
+package com.synthetic.platform.benchmarks;
+
+import com.synthetic.platform.dto.PrivacyReportDTO;
+import com.synthetic.platform.model.Dataset;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full privacy report of a synthetic dataset against its original, from
+ * loading both files to the simulated attacks. The service is not proxied
+ * here, so the report cache is bypassed and every call computes the report.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PrivacyReportBenchmark {
+
+    @Param({ "10000", "100000" })
+    int rows;
+
+    @Param({ "8", "32" })
+    int columns;
+
+    BenchmarkData data;
+    Dataset original;
+    Dataset synthetic;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = new BenchmarkData();
+        original = data.dataset(1, rows, columns, 1);
+        synthetic = data.dataset(2, rows, columns, 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        data.close();
+    }
+
+    @Benchmark
+    public PrivacyReportDTO generateReport() throws Exception {
+        return data.privacyReportService.generateReport(original, synthetic);
+    }
+}
@@ -0,0 +1,85 @@
+package com.synthetic.platform.benchmarks;
+
+import com.synthetic.platform.config.RateLimitingFilter;
+import com.synthetic.platform.ratelimit.InMemoryTokenLeaseStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The rate limiting filter under contention: every available core sends
+ * requests from a shared set of clients, so with one client all threads
+ * update the same bucket. The benchmark returns the response status, so
+ * rejections stay visible in a profile rather than being optimized away.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+public class RateLimitingFilterBenchmark {
+
+    private static final FilterChain CHAIN = (request, response) -> {
+    };
+
+    @Param({ "1", "64", "10000" })
+    int clients;
+
+    RateLimitingFilter filter;
+
+    @State(Scope.Thread)
+    public static class Requests {
+        MockHttpServletRequest[] requests;
+        SplittableRandom random = new SplittableRandom();
+
+        @Setup(Level.Trial)
+        public void setUp(RateLimitingFilterBenchmark benchmark) {
+            requests = new MockHttpServletRequest[benchmark.clients];
+            for (int i = 0; i < requests.length; i++) {
+                // Mostly plain requests, every tenth an export at a higher weight
+                requests[i] = new MockHttpServletRequest("GET",
+                        i % 10 == 9 ? "/api/export/json" : "/api/datasets/" + i + "/stats");
+                requests[i].setRemoteAddr("10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255));
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Refilling at the highest rate the store takes, so even one client shared by every thread
+        // is rarely turned away
+        filter = new RateLimitingFilter(new InMemoryTokenLeaseStore(Integer.MAX_VALUE), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "exportWeight", 10);
+        ReflectionTestUtils.setField(filter, "generationWeight", 5);
+    }
+
+    @Benchmark
+    public int filter(Requests requests) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(requests.requests[requests.random.nextInt(requests.requests.length)], response, CHAIN);
+        return response.getStatus();
+    }
+}
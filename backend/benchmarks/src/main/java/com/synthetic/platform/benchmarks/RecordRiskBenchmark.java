@@ -0,0 +1,87 @@
+package com.synthetic.platform.benchmarks;
+
+import com.synthetic.platform.data.ColumnarTable;
+import com.synthetic.platform.data.SchemaInferencer;
+import com.synthetic.platform.dto.AnonymityReportDTO;
+import com.synthetic.platform.dto.AttackReportDTO;
+import com.synthetic.platform.model.Dataset;
+import com.synthetic.platform.privacy.AnonymityEvaluator;
+import com.synthetic.platform.privacy.AttackSimulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Record-level leakage checks on tables already in memory: exact matching of
+ * synthetic records against the original on quasi-identifiers (k-anonymity
+ * and re-identification risk), and the nearest-neighbour record distance
+ * searches of the membership and attribute inference attacks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordRiskBenchmark {
+
+    private static final List<String> QUASI_IDENTIFIERS = List.of("age", "gender", "zip_code", "city");
+    private static final List<String> SENSITIVE = List.of("diagnosis");
+
+    @Param({ "10000", "100000", "1000000" })
+    int rows;
+
+    @Param({ "8", "32" })
+    int columns;
+
+    BenchmarkData data;
+    ColumnarTable original;
+    ColumnarTable synthetic;
+    ColumnarTable holdout;
+    final AnonymityEvaluator anonymityEvaluator = new AnonymityEvaluator(ForkJoinPool.commonPool());
+    final AttackSimulator attackSimulator = new AttackSimulator(ForkJoinPool.commonPool());
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = new BenchmarkData();
+        original = load(data.dataset(1, rows, columns, 1));
+        synthetic = load(data.dataset(2, rows, columns, 2));
+        holdout = load(data.dataset(3, rows, columns, 3));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        data.close();
+    }
+
+    @Benchmark
+    public AnonymityReportDTO anonymity() {
+        return anonymityEvaluator.evaluate(synthetic, original, QUASI_IDENTIFIERS, SENSITIVE.get(0), 5, 0);
+    }
+
+    @Benchmark
+    public AttackReportDTO attacks() {
+        return attackSimulator.simulate(original, synthetic, holdout, QUASI_IDENTIFIERS, SENSITIVE);
+    }
+
+    private ColumnarTable load(Dataset dataset) throws IOException {
+        Map<String, ColumnarTable.Kind> kinds = SchemaInferencer.kinds(data.datasetService.getSchema(dataset));
+        return data.mappedCsvReader.readTable(data.file(dataset), kinds);
+    }
+}
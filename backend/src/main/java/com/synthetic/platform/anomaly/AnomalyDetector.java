@@ -0,0 +1,464 @@
+package com.synthetic.platform.anomaly;
+
+import com.synthetic.platform.data.ColumnarTable;
+import com.synthetic.platform.dto.AnomalyReportDTO;
+import com.synthetic.platform.service.ParallelTasks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+
+/**
+ * Finds anomalous rows of a table with three detectors: robust z-scores
+ * (distance from the median in median absolute deviations) per numeric
+ * column, rare categories per categorical column, and an
+ * {@link IsolationForest} over all scored columns, which also catches rows
+ * whose values are only unusual in combination. A row's score is the highest
+ * of the three, the first two mapped onto the forest's 0-1 scale, since a
+ * forest over many columns dilutes a single extreme value.
+ * <p>
+ * Columns are profiled in parallel, then rows are scored in one streaming
+ * pass over parallel slices. Each slice keeps only counts and its top rows in
+ * a bounded heap, so no per-row state is held whatever the table size; the
+ * slices' heaps are merged at the end. Medians and deviations come from a
+ * fixed-size stride sample of each column, and the forest uses a fixed seed,
+ * so results are reproducible.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AnomalyDetector {
+
+    public static final int MAX_ANOMALIES = 1000;
+
+    private static final int ROWS_PER_TASK = 1 << 18;
+    private static final int BLOCK_ROWS = 256; // rows walked through each tree together
+    private static final int MEDIAN_SAMPLE = 1 << 16;
+    private static final double Z_THRESHOLD = 3.5; // Iglewicz and Hoaglin's cut-off for modified z-scores
+    private static final double MAD_TO_SIGMA = 1.4826; // MAD of a normal distribution is 0.6745 sigma
+    private static final double MEAN_AD_TO_SIGMA = 1.2533; // fallback when more than half the values are equal
+    private static final double RARE_SHARE = 0.002; // categories below 0.2% of a column's values are rare...
+    private static final double RARE_TO_UNIFORM = 0.1; // ... and under a tenth as common as the average category
+    private static final double MAX_CATEGORY_SHARE = 0.1; // more distinct values than this look like identifiers
+    private static final int MIN_CATEGORIES_SCORED = 20;
+    private static final int RARE_CATEGORIES_LISTED = 5;
+    private static final int TREES = 100;
+    private static final int TREE_SAMPLE = 256;
+    private static final double SCORE_THRESHOLD = 0.6;
+    private static final long SEED = 42;
+
+    @Qualifier("computeExecutor")
+    private final Executor executor;
+
+    /**
+     * @param limit most anomalous rows to return, at most {@link #MAX_ANOMALIES}
+     */
+    public AnomalyReportDTO detect(ColumnarTable table, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        long start = System.currentTimeMillis();
+        int rowCount = table.getRowCount();
+        int top = Math.min(limit, MAX_ANOMALIES);
+
+        List<ColumnProfile> profiles = ParallelTasks.map(table.getColumnCount(),
+                c -> profile(table.column(c), rowCount), executor);
+        List<ColumnProfile> numeric = new ArrayList<>();
+        List<ColumnProfile> categorical = new ArrayList<>();
+        List<IsolationForest.Feature> features = new ArrayList<>();
+        for (ColumnProfile profile : profiles) {
+            if (!profile.scored)
+                continue;
+            (profile.column.isNumeric() ? numeric : categorical).add(profile);
+            // Categories enter the forest as their frequency, so rare ones isolate early
+            features.add(profile.column.isNumeric() ? IsolationForest.Feature.numeric(profile.column.getValues())
+                    : IsolationForest.Feature.coded(profile.column.getCodes(), profile.shareByCode));
+        }
+        IsolationForest.Feature[] featureArray = features.toArray(new IsolationForest.Feature[0]);
+        IsolationForest forest = featureArray.length > 0 && rowCount > 0
+                ? IsolationForest.fit(featureArray, rowCount, TREES, TREE_SAMPLE, SEED, executor)
+                : null;
+
+        int tasks = (rowCount + ROWS_PER_TASK - 1) / ROWS_PER_TASK;
+        List<SliceResult> slices = ParallelTasks.map(tasks, t -> scoreSlice(t * ROWS_PER_TASK,
+                Math.min(rowCount, (t + 1) * ROWS_PER_TASK), forest, featureArray, numeric, categorical, top),
+                executor);
+        TopRows best = new TopRows(top);
+        long anomalyCount = 0;
+        long[] outliers = new long[numeric.size()];
+        for (SliceResult slice : slices) {
+            best.addAll(slice.best);
+            anomalyCount += slice.flagged;
+            for (int n = 0; n < outliers.length; n++) {
+                outliers[n] += slice.outliers[n];
+            }
+        }
+        for (int n = 0; n < outliers.length; n++) {
+            numeric.get(n).outlierCount = outliers[n];
+        }
+
+        List<AnomalyReportDTO.RowAnomaly> anomalies = new ArrayList<>();
+        for (int i : best.descending()) {
+            int row = best.rows[i];
+            anomalies.add(AnomalyReportDTO.RowAnomaly.builder()
+                    .row((long) row)
+                    .score(best.scores[i])
+                    .reasons(reasons(row, numeric, categorical))
+                    .build());
+        }
+        List<AnomalyReportDTO.ColumnSummary> columns = new ArrayList<>(profiles.size());
+        for (ColumnProfile profile : profiles) {
+            columns.add(profile.summary());
+        }
+
+        log.debug("Scored {} rows over {} columns for anomalies in {} ms", rowCount, featureArray.length,
+                System.currentTimeMillis() - start);
+        return AnomalyReportDTO.builder()
+                .status("COMPLETED")
+                .rowCount((long) rowCount)
+                .anomalyCount(anomalyCount)
+                .trees(forest != null ? forest.getTrees() : 0)
+                .scoreThreshold(SCORE_THRESHOLD)
+                .columns(columns)
+                .anomalies(anomalies)
+                .build();
+    }
+
+    private ColumnProfile profile(ColumnarTable.Column column, int rowCount) {
+        ColumnProfile profile = new ColumnProfile(column);
+        if (column.isNumeric()) {
+            double[] values = column.getValues();
+            long missing = 0;
+            for (int row = 0; row < rowCount; row++) {
+                if (Double.isNaN(values[row]))
+                    missing++;
+            }
+            profile.missingCount = missing;
+            double[] sample = strideSample(values, rowCount);
+            if (sample.length == 0)
+                return profile;
+            profile.median = median(sample, sample.length);
+            for (int i = 0; i < sample.length; i++) {
+                sample[i] = Math.abs(sample[i] - profile.median);
+            }
+            profile.mad = median(sample, sample.length);
+            double scale = MAD_TO_SIGMA * profile.mad;
+            if (scale == 0) {
+                double sum = 0;
+                for (double deviation : sample) {
+                    sum += deviation;
+                }
+                scale = MEAN_AD_TO_SIGMA * sum / sample.length;
+            }
+            // Zero only if the sampled values are all equal; any other value is then an outlier
+            profile.scale = scale;
+            profile.scored = true;
+            return profile;
+        }
+
+        int[] codes = column.getCodes();
+        String[] dictionary = column.getDictionary();
+        long[] counts = new long[dictionary.length];
+        for (int row = 0; row < rowCount; row++) {
+            counts[codes[row]]++;
+        }
+        long present = 0;
+        long distinct = 0;
+        for (int code = 0; code < dictionary.length; code++) {
+            if (dictionary[code].isEmpty()) {
+                profile.missingCount += counts[code];
+            } else if (counts[code] > 0) {
+                present += counts[code];
+                distinct++;
+            }
+        }
+        profile.distinctCount = distinct;
+        profile.presentCount = present;
+        profile.countByCode = counts;
+        if (distinct < 2 || distinct > Math.max(MIN_CATEGORIES_SCORED, MAX_CATEGORY_SHARE * present))
+            return profile;
+
+        double rareShare = Math.min(RARE_SHARE, RARE_TO_UNIFORM / distinct);
+        profile.shareByCode = new double[dictionary.length];
+        profile.rarityByCode = new double[dictionary.length];
+        List<Integer> rare = new ArrayList<>();
+        for (int code = 0; code < dictionary.length; code++) {
+            if (dictionary[code].isEmpty()) {
+                profile.shareByCode[code] = Double.NaN;
+                continue;
+            }
+            profile.shareByCode[code] = (double) counts[code] / present;
+            if (counts[code] > 0 && profile.shareByCode[code] < rareShare) {
+                profile.rarityByCode[code] = tail(Math.log(profile.shareByCode[code]) / Math.log(rareShare));
+                profile.rareCount += counts[code];
+                rare.add(code);
+            }
+        }
+        rare.sort((a, b) -> Long.compare(counts[a], counts[b]));
+        for (int i = 0; i < Math.min(RARE_CATEGORIES_LISTED, rare.size()); i++) {
+            profile.rareCategories.add(dictionary[rare.get(i)]);
+        }
+        profile.scored = true;
+        return profile;
+    }
+
+    private SliceResult scoreSlice(int from, int to, IsolationForest forest, IsolationForest.Feature[] features,
+            List<ColumnProfile> numeric, List<ColumnProfile> categorical, int top) {
+        SliceResult result = new SliceResult(top, numeric.size());
+        if (forest == null)
+            return result;
+        int width = forest.getWidth();
+        double[] values = new double[BLOCK_ROWS * width];
+        double[] scores = new double[BLOCK_ROWS];
+        for (int block = from; block < to; block += BLOCK_ROWS) {
+            int count = Math.min(BLOCK_ROWS, to - block);
+            for (int f = 0; f < width; f++) {
+                for (int r = 0; r < count; r++) {
+                    values[r * width + f] = features[f].value(block + r);
+                }
+            }
+            forest.score(values, count, scores);
+
+            for (int r = 0; r < count; r++) {
+                int row = block + r;
+                double maxZ = 0;
+                for (int n = 0; n < numeric.size(); n++) {
+                    double z = Math.abs(numeric.get(n).z(row));
+                    if (z > Z_THRESHOLD)
+                        result.outliers[n]++;
+                    if (z > maxZ)
+                        maxZ = z;
+                }
+                double score = Math.max(scores[r], maxZ > 0 ? tail(maxZ / Z_THRESHOLD) : 0);
+                for (int c = 0; c < categorical.size(); c++) {
+                    score = Math.max(score, categorical.get(c).rarity(row));
+                }
+                if (score > SCORE_THRESHOLD)
+                    result.flagged++;
+                result.best.offer(score, row);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Maps how far past a detector's threshold a value is ({@code 1} at the
+     * threshold) onto the isolation score's scale, so that a row crosses
+     * {@link #SCORE_THRESHOLD} exactly when one of its values crosses the
+     * detector's threshold.
+     */
+    private static double tail(double ratio) {
+        return 1 - Math.pow(1 - SCORE_THRESHOLD, ratio);
+    }
+
+    private static List<String> reasons(int row, List<ColumnProfile> numeric, List<ColumnProfile> categorical) {
+        List<String> reasons = new ArrayList<>();
+        for (ColumnProfile profile : numeric) {
+            if (profile.isOutlier(row)) {
+                double z = profile.z(row);
+                reasons.add(Double.isInfinite(z)
+                        ? String.format(Locale.ROOT, "%s = %s differs from every sampled value (%s)",
+                                profile.column.getName(), profile.column.text(row), format(profile.median))
+                        : String.format(Locale.ROOT, "%s = %s is %.1f robust deviations from the median (%s)",
+                                profile.column.getName(), profile.column.text(row), Math.abs(z),
+                                format(profile.median)));
+            }
+        }
+        for (ColumnProfile profile : categorical) {
+            if (profile.isRare(row)) {
+                int code = profile.column.getCodes()[row];
+                reasons.add(String.format(Locale.ROOT, "%s = '%s' occurs in %d of %d values",
+                        profile.column.getName(), profile.column.getDictionary()[code], profile.countByCode[code],
+                        profile.presentCount));
+            }
+        }
+        return reasons;
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value)
+                : String.format(Locale.ROOT, "%.4g", value);
+    }
+
+    /** Up to {@link #MEDIAN_SAMPLE} non-missing values, evenly spaced over the column. */
+    private static double[] strideSample(double[] values, int rowCount) {
+        int stride = Math.max(1, rowCount / MEDIAN_SAMPLE);
+        double[] sample = new double[Math.min(rowCount, MEDIAN_SAMPLE + 1)];
+        int size = 0;
+        for (int row = 0; row < rowCount && size < sample.length; row += stride) {
+            if (!Double.isNaN(values[row]))
+                sample[size++] = values[row];
+        }
+        return Arrays.copyOf(sample, size);
+    }
+
+    /** Median of the first {@code size} values, which are reordered. */
+    private static double median(double[] values, int size) {
+        Arrays.sort(values, 0, size);
+        return size % 2 == 1 ? values[size / 2] : (values[size / 2 - 1] + values[size / 2]) / 2;
+    }
+
+    private static final class ColumnProfile {
+        private final ColumnarTable.Column column;
+        private boolean scored;
+        private long missingCount;
+        private long distinctCount;
+        // Numeric columns
+        private double median = Double.NaN;
+        private double mad = Double.NaN;
+        private double scale;
+        private long outlierCount;
+        // Categorical columns, indexed by code
+        private double[] shareByCode;
+        private long presentCount;
+        private long[] countByCode;
+        private double[] rarityByCode; // score of a rare category, 0 for the others
+        private long rareCount;
+        private final List<String> rareCategories = new ArrayList<>();
+
+        private ColumnProfile(ColumnarTable.Column column) {
+            this.column = column;
+        }
+
+        /** Robust z-score of a numeric value; infinite if the column has no spread but the value differs. */
+        private double z(int row) {
+            double deviation = column.getValues()[row] - median;
+            if (scale == 0 && !Double.isNaN(deviation))
+                return deviation == 0 ? 0 : Math.copySign(Double.POSITIVE_INFINITY, deviation);
+            return deviation / scale;
+        }
+
+        private boolean isOutlier(int row) {
+            // False for missing values, whose z-score is NaN
+            return Math.abs(z(row)) > Z_THRESHOLD;
+        }
+
+        private double rarity(int row) {
+            return rarityByCode[column.getCodes()[row]];
+        }
+
+        private boolean isRare(int row) {
+            return rarity(row) > 0;
+        }
+
+        private AnomalyReportDTO.ColumnSummary summary() {
+            boolean numeric = column.isNumeric();
+            return AnomalyReportDTO.ColumnSummary.builder()
+                    .name(column.getName())
+                    .kind(column.getKind().name())
+                    .missingCount(missingCount)
+                    .distinctCount(numeric ? null : distinctCount)
+                    .median(numeric && scored ? median : null)
+                    .mad(numeric && scored ? mad : null)
+                    .outlierCount(numeric ? outlierCount : null)
+                    .rareCount(numeric ? null : rareCount)
+                    .rareCategories(numeric ? null : rareCategories)
+                    .scored(scored)
+                    .build();
+        }
+    }
+
+    private static final class SliceResult {
+        private final TopRows best;
+        private final long[] outliers; // per scored numeric column
+        private long flagged;
+
+        private SliceResult(int top, int numericColumns) {
+            this.best = new TopRows(top);
+            this.outliers = new long[numericColumns];
+        }
+    }
+
+    /**
+     * The {@code capacity} highest-scoring rows seen, in a min-heap of
+     * parallel primitive arrays so the weakest is replaced in O(log k). Ties
+     * keep the earlier row.
+     */
+    private static final class TopRows {
+        private final double[] scores;
+        private final int[] rows;
+        private int size;
+
+        private TopRows(int capacity) {
+            this.scores = new double[capacity];
+            this.rows = new int[capacity];
+        }
+
+        private void offer(double score, int row) {
+            if (size < scores.length) {
+                scores[size] = score;
+                rows[size] = row;
+                siftUp(size++);
+            } else if (weaker(0, score, row)) {
+                scores[0] = score;
+                rows[0] = row;
+                siftDown(0);
+            }
+        }
+
+        private void addAll(TopRows other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.scores[i], other.rows[i]);
+            }
+        }
+
+        /** Heap positions from the highest score down. */
+        private int[] descending() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> scores[a] != scores[b] ? Double.compare(scores[b], scores[a])
+                    : Integer.compare(rows[a], rows[b]));
+            int[] positions = new int[size];
+            for (int i = 0; i < size; i++) {
+                positions[i] = order[i];
+            }
+            return positions;
+        }
+
+        /** Whether the entry at {@code i} ranks below ({@code score}, {@code row}). */
+        private boolean weaker(int i, double score, int row) {
+            return scores[i] < score || (scores[i] == score && rows[i] > row);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!weaker(i, scores[parent], rows[parent]))
+                    return;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int weakest = i;
+                for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                    if (weaker(child, scores[weakest], rows[weakest]))
+                        weakest = child;
+                }
+                if (weakest == i)
+                    return;
+                swap(i, weakest);
+                i = weakest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+            int row = rows[a];
+            rows[a] = rows[b];
+            rows[b] = row;
+        }
+    }
+}
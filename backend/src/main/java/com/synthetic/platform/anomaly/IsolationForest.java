@@ -0,0 +1,209 @@
+package com.synthetic.platform.anomaly;
+
+import com.synthetic.platform.service.ParallelTasks;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+
+/**
+ * Isolation forest (Liu, Ting and Zhou, 2008): random trees that split a
+ * small sample on random features at random points, so that rows unlike the
+ * rest are isolated close to the root. A row's score is
+ * {@code 2^(-E[path length] / c(sample size))}: near 1 for anomalies, around
+ * 0.5 and below for ordinary rows.
+ * <p>
+ * Every tree is a complete binary tree of bounded height in flat primitive
+ * arrays, node {@code i} having children {@code 2i+1} and {@code 2i+2}, so
+ * scoring a row is a few array reads per tree with no pointer chasing. Trees
+ * are built in parallel, each from its own seeded sample, and the forest is
+ * read-only once built, so any number of threads can score with it.
+ */
+final class IsolationForest {
+
+    private static final double EULER_GAMMA = 0.5772156649015329;
+
+    private final int trees;
+    private final int width; // features per row
+    private final int maxDepth;
+    private final int nodesPerTree;
+    private final int[] splitFeature;
+    private final double[] splitValue; // NaN where a walk just continues right, below a leaf
+    private final double[] pathLength; // at the bottom level: leaf depth plus the expected depth of its rows
+    private final double normalizer;
+
+    private IsolationForest(int trees, int width, int maxDepth, int sampleSize) {
+        this.trees = trees;
+        this.width = width;
+        this.maxDepth = maxDepth;
+        this.nodesPerTree = (1 << (maxDepth + 1)) - 1;
+        this.splitFeature = new int[trees * nodesPerTree];
+        this.splitValue = new double[trees * nodesPerTree];
+        this.pathLength = new double[trees * nodesPerTree];
+        this.normalizer = Math.max(1.0, averagePathLength(sampleSize));
+    }
+
+    /**
+     * A numeric value per row of a column, read straight from its backing
+     * array; categorical columns are read through a per-code value.
+     */
+    static final class Feature {
+        private final double[] values;
+        private final int[] codes;
+        private final double[] byCode;
+
+        private Feature(double[] values, int[] codes, double[] byCode) {
+            this.values = values;
+            this.codes = codes;
+            this.byCode = byCode;
+        }
+
+        static Feature numeric(double[] values) {
+            return new Feature(values, null, null);
+        }
+
+        static Feature coded(int[] codes, double[] byCode) {
+            return new Feature(null, codes, byCode);
+        }
+
+        /** The row's value; {@link Double#NaN} if missing, which never splits left. */
+        double value(int row) {
+            return codes == null ? values[row] : byCode[codes[row]];
+        }
+    }
+
+    /**
+     * @param sampleSize rows each tree is built from; trees are at most
+     *                   {@code ceil(log2(sampleSize))} deep
+     */
+    static IsolationForest fit(Feature[] features, int rowCount, int trees, int sampleSize, long seed,
+            Executor executor) {
+        int sample = Math.max(1, Math.min(sampleSize, rowCount));
+        int maxDepth = Math.max(1, 32 - Integer.numberOfLeadingZeros(sample - 1));
+        IsolationForest forest = new IsolationForest(trees, features.length, maxDepth, sample);
+
+        // Each tree writes only its own slice of the node arrays
+        ParallelTasks.forEach(trees, tree -> forest.buildTree(tree, features, rowCount, sample,
+                new SplittableRandom(seed + tree)), executor);
+        return forest;
+    }
+
+    int getTrees() {
+        return trees;
+    }
+
+    /** Features per row in the blocks passed to {@link #score}. */
+    int getWidth() {
+        return width;
+    }
+
+    /**
+     * Scores {@code count} rows whose feature values are laid out row after
+     * row in {@code values}, {@link #getWidth()} per row, into {@code scores}.
+     * Every walk is {@code maxDepth} steps with no branches on the data, and
+     * the rows of a block are independent, so the CPU overlaps their walks
+     * instead of stalling on mispredicted branches.
+     */
+    void score(double[] values, int count, double[] scores) {
+        Arrays.fill(scores, 0, count, 0);
+        for (int t = 0; t < trees; t++) {
+            int base = t * nodesPerTree;
+            for (int r = 0; r < count; r++) {
+                int offset = r * width;
+                int node = 0;
+                for (int depth = 0; depth < maxDepth; depth++) {
+                    int index = base + node;
+                    node = 2 * node + 2 - (values[offset + splitFeature[index]] < splitValue[index] ? 1 : 0);
+                }
+                scores[r] += pathLength[base + node];
+            }
+        }
+        for (int r = 0; r < count; r++) {
+            scores[r] = Math.pow(2, -scores[r] / trees / normalizer);
+        }
+    }
+
+    private void buildTree(int tree, Feature[] features, int rowCount, int sample, SplittableRandom random) {
+        // Rows are drawn with replacement: against tables much larger than the sample the
+        // difference is negligible, and drawing stays O(sample) however large the table
+        double[][] values = new double[features.length][sample];
+        for (int i = 0; i < sample; i++) {
+            int row = rowCount <= sample ? i : random.nextInt(rowCount);
+            for (int f = 0; f < features.length; f++) {
+                values[f][i] = features[f].value(row);
+            }
+        }
+        int[] rows = new int[sample];
+        for (int i = 0; i < sample; i++) {
+            rows[i] = i;
+        }
+        int[] order = new int[features.length];
+        build(tree * nodesPerTree, 0, 0, values, rows, 0, sample, order, random);
+    }
+
+    private void build(int base, int node, int depth, double[][] values, int[] rows, int from, int to,
+            int[] order, SplittableRandom random) {
+        int size = to - from;
+        if (depth < maxDepth && size > 1) {
+            // Features in random order, skipping those with no spread among these rows
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            for (int remaining = order.length; remaining > 0; remaining--) {
+                int pick = random.nextInt(remaining);
+                int feature = order[pick];
+                order[pick] = order[remaining - 1];
+
+                double[] column = values[feature];
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int i = from; i < to; i++) {
+                    double value = column[rows[i]];
+                    if (value < min)
+                        min = value;
+                    if (value > max)
+                        max = value;
+                }
+                if (!(max > min)) {
+                    continue;
+                }
+                double split = min + random.nextDouble() * (max - min);
+                int mid = partition(column, rows, from, to, split);
+                splitFeature[base + node] = feature;
+                splitValue[base + node] = split;
+                build(base, 2 * node + 1, depth + 1, values, rows, from, mid, order, random);
+                build(base, 2 * node + 2, depth + 1, values, rows, mid, to, order, random);
+                return;
+            }
+        }
+        // Walks reaching a leaf above the bottom continue right, through NaN splits, to the bottom
+        double leafPathLength = depth + averagePathLength(size);
+        for (; depth < maxDepth; depth++) {
+            splitValue[base + node] = Double.NaN;
+            node = 2 * node + 2;
+        }
+        pathLength[base + node] = leafPathLength;
+    }
+
+    /** Moves the rows whose value is below {@code split} to the front; NaN goes right. */
+    private static int partition(double[] column, int[] rows, int from, int to, double split) {
+        int mid = from;
+        for (int i = from; i < to; i++) {
+            if (column[rows[i]] < split) {
+                int swap = rows[mid];
+                rows[mid++] = rows[i];
+                rows[i] = swap;
+            }
+        }
+        return mid;
+    }
+
+    /** c(n): average path length of an unsuccessful search in a binary search tree of n keys. */
+    static double averagePathLength(int n) {
+        if (n <= 1)
+            return 0;
+        if (n == 2)
+            return 1;
+        return 2 * (Math.log(n - 1) + EULER_GAMMA) - 2.0 * (n - 1) / n;
+    }
+}
@@ -0,0 +1,55 @@
+package com.synthetic.platform.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+/**
+ * Tells the other nodes, over a Redis channel, which keys of a
+ * {@link TwoLevelCache} changed, so they drop their local copies. Messages
+ * from this node are ignored when received, since its own copy is already
+ * current. A lost message leaves a stale local copy only until it expires.
+ */
+@Slf4j
+public class CacheInvalidator {
+
+    private static final String CLEAR = "clear";
+    private static final String EVICT = "evict";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public CacheInvalidator(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    /** Announces that {@code key} of {@code cacheName} changed, or every key when null. */
+    public void publish(String cacheName, String key) {
+        String message = nodeId + '|' + (key == null ? CLEAR : EVICT) + '|' + cacheName + '|'
+                + (key == null ? "" : key);
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (RuntimeException e) {
+            log.warn("Could not announce change to cache {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    /** Applies a message from another node to this node's local tiers. */
+    public void receive(String message, CacheManager cacheManager) {
+        String[] parts = message.split("\\|", 4);
+        if (parts.length < 4 || nodeId.equals(parts[0])) {
+            return;
+        }
+        if (cacheManager.getCache(parts[2]) instanceof TwoLevelCache cache) {
+            cache.evictLocal(CLEAR.equals(parts[1]) ? null : parts[3]);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.synthetic.platform.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical computations: while one is in flight for a
+ * key, later callers share its result instead of starting another. Once it
+ * completes the key is free again, so results are never reused beyond the
+ * calls that overlapped; caching them is left to the caches. Calls are counted
+ * as {@code singleflight.calls}, tagged by group and whether they ran or
+ * shared another call's result.
+ */
+@Component
+@RequiredArgsConstructor
+public class SingleFlight {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Returns the in-flight result for {@code key} in {@code group}, or starts
+     * {@code call} and shares its result. Exceptions thrown by {@code call}
+     * itself, such as a rejected submission, propagate to this caller and
+     * complete the shared result for the others.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> execute(String group, String key, Supplier<CompletableFuture<T>> call) {
+        String flightKey = group + ':' + key;
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            count(group, "shared");
+            // A copy, so a caller completing or cancelling its future cannot affect the others
+            return (CompletableFuture<T>) existing.copy();
+        }
+        count(group, "executed");
+        try {
+            call.get().whenComplete((result, error) -> land(flightKey, flight, result, error));
+        } catch (RuntimeException | Error e) {
+            land(flightKey, flight, null, e);
+            throw e;
+        }
+        return (CompletableFuture<T>) flight.copy();
+    }
+
+    /**
+     * Blocking form of {@link #execute}: the first caller runs {@code call} on
+     * its own thread and the others wait for its result.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T call(String group, String key, Callable<T> call) throws Exception {
+        String flightKey = group + ':' + key;
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            count(group, "shared");
+            return (T) await(existing);
+        }
+        count(group, "executed");
+        try {
+            T result = call.call();
+            land(flightKey, flight, result, null);
+            return result;
+        } catch (Exception | Error e) {
+            land(flightKey, flight, null, e);
+            throw e;
+        }
+    }
+
+    private void land(String flightKey, CompletableFuture<Object> flight, Object result, Throwable error) {
+        // Freed before completing, so callers woken by the result start a fresh call if they retry
+        inFlight.remove(flightKey, flight);
+        if (error != null) {
+            flight.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error);
+        } else {
+            flight.complete(result);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> flight) throws Exception {
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void count(String group, String outcome) {
+        meterRegistry.counter("singleflight.calls", "group", group, "outcome", outcome).increment();
+    }
+}
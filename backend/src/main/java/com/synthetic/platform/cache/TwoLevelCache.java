@@ -0,0 +1,159 @@
+package com.synthetic.platform.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * A Caffeine near cache in front of an optional shared cache (Redis). Reads
+ * are served locally when possible and fall through to the shared tier, whose
+ * hits are copied into the local one. Writes and evictions go to both tiers
+ * and are announced through the {@link CacheInvalidator}, so other nodes drop
+ * their local copies and read the new value from the shared tier. Keys are
+ * compared as strings, as the shared tier stores them.
+ *
+ * <p>
+ * The shared tier is an optimization: when it fails, the cache carries on
+ * with the local tier alone.
+ */
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache shared;
+    private final CacheInvalidator invalidator;
+
+    /**
+     * @param shared      the shared tier, or null to cache on this node only
+     * @param invalidator announces changes to other nodes, or null on a single node
+     */
+    public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local, Cache shared,
+            CacheInvalidator invalidator) {
+        super(false);
+        this.name = name;
+        this.local = local;
+        this.shared = shared;
+        this.invalidator = invalidator;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = String.valueOf(key);
+        Object value = local.getIfPresent(localKey);
+        if (value == null) {
+            value = sharedGet(localKey);
+            if (value != null) {
+                local.put(localKey, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // Concurrent misses for a key on this node wait for one load
+        return (T) fromStoreValue(local.get(String.valueOf(key), localKey -> {
+            Object value = sharedGet(localKey);
+            if (value != null) {
+                return value;
+            }
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            // Null results are returned but not cached
+            sharedPut(localKey, value);
+            return value;
+        }));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = String.valueOf(key);
+        Object storeValue = toStoreValue(value);
+        sharedPut(localKey, storeValue);
+        local.put(localKey, storeValue);
+        announce(localKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = String.valueOf(key);
+        if (shared != null) {
+            try {
+                shared.evict(localKey);
+            } catch (RuntimeException e) {
+                log.warn("Could not evict {} from shared cache {}: {}", localKey, name, e.getMessage());
+            }
+        }
+        local.invalidate(localKey);
+        announce(localKey);
+    }
+
+    @Override
+    public void clear() {
+        if (shared != null) {
+            try {
+                shared.clear();
+            } catch (RuntimeException e) {
+                log.warn("Could not clear shared cache {}: {}", name, e.getMessage());
+            }
+        }
+        local.invalidateAll();
+        announce(null);
+    }
+
+    /** Drops this node's copy of {@code key}, or of every key when null, after a change elsewhere. */
+    public void evictLocal(String key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    private Object sharedGet(String key) {
+        if (shared == null) {
+            return null;
+        }
+        try {
+            ValueWrapper wrapper = shared.get(key);
+            return wrapper != null ? wrapper.get() : null;
+        } catch (RuntimeException e) {
+            log.warn("Could not read {} from shared cache {}: {}", key, name, e.getMessage());
+            return null;
+        }
+    }
+
+    private void sharedPut(String key, Object value) {
+        if (shared == null || value == null) {
+            return;
+        }
+        try {
+            shared.put(key, value);
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} to shared cache {}: {}", key, name, e.getMessage());
+        }
+    }
+
+    private void announce(String key) {
+        if (invalidator != null) {
+            invalidator.publish(name, key);
+        }
+    }
+}
@@ -1,27 +1,158 @@
 package com.synthetic.platform.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.util.concurrent.Executor;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * One bounded pool per workload, so a burst of one kind of work cannot starve
+ * the others. A full queue rejects the task, which the API reports as 503,
+ * instead of running it on the caller. Unless configured, pool sizes follow
+ * the cores and the memory each task needs: AI engine workloads are sized by
+ * physical memory, since their workers are separate processes, and report
+ * rendering by the JVM heap. Pool and queue metrics are exported as
+ * {@code executor.*} tagged with the workload name.
+ *
+ * <p>
+ * CPU-bound parallel steps (parsing, schema inference, privacy metrics,
+ * synthesis, anomaly detection) share the {@code computeExecutor}, one
+ * thread per core, instead of the JVM-wide common pool.
+ * <p>
+ * With {@code spring.threads.virtual.enabled} on Java 21 (the {@code java21}
+ * Maven profile), the pools that wait on worker processes use virtual threads.
+ */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
-    @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    private static final long MB = 1024 * 1024;
+
+    private final MeterRegistry meterRegistry;
+    private final boolean virtualThreads;
+
+    public AsyncConfig(MeterRegistry meterRegistry, Environment environment) {
+        this.meterRegistry = meterRegistry;
+        this.virtualThreads = Threading.VIRTUAL.isActive(environment);
+    }
+
+    @Bean(name = "trainingExecutor")
+    public ThreadPoolTaskExecutor trainingExecutor(
+            @Value("${app.executors.training.threads:0}") int threads,
+            @Value("${app.executors.training.queue-capacity:50}") int queueCapacity,
+            @Value("${app.executors.training.memory-per-task-mb:2048}") long memoryPerTaskMb) {
+        int size = poolSize(threads, cores() / 2, physicalMemoryMb() / memoryPerTaskMb);
+        return boundedExecutor("training", "AI-Engine-", size, queueCapacity, virtualThreads);
+    }
+
+    @Bean(name = "generationExecutor")
+    public ThreadPoolTaskExecutor generationExecutor(
+            @Value("${app.executors.generation.threads:0}") int threads,
+            @Value("${app.executors.generation.queue-capacity:100}") int queueCapacity,
+            @Value("${app.executors.generation.memory-per-task-mb:1024}") long memoryPerTaskMb) {
+        int size = poolSize(threads, cores(), physicalMemoryMb() / memoryPerTaskMb);
+        return boundedExecutor("generation", "Generate-", size, queueCapacity, virtualThreads);
+    }
+
+    @Bean(name = "profilingExecutor")
+    public ThreadPoolTaskExecutor profilingExecutor(
+            @Value("${app.executors.profiling.threads:0}") int threads,
+            @Value("${app.executors.profiling.queue-capacity:100}") int queueCapacity,
+            @Value("${app.executors.profiling.memory-per-task-mb:512}") long memoryPerTaskMb) {
+        int size = poolSize(threads, cores(), physicalMemoryMb() / memoryPerTaskMb);
+        return boundedExecutor("profiling", "Profile-", size, queueCapacity, virtualThreads);
+    }
+
+    /** Rendering is CPU bound, so it always runs on platform threads. */
+    @Bean(name = "reportExecutor")
+    public ThreadPoolTaskExecutor reportExecutor(
+            @Value("${app.executors.report.threads:0}") int threads,
+            @Value("${app.executors.report.queue-capacity:100}") int queueCapacity,
+            @Value("${app.executors.report.memory-per-task-mb:128}") long memoryPerTaskMb) {
+        int size = poolSize(threads, Math.max(2, cores() / 2), Runtime.getRuntime().maxMemory() / MB / memoryPerTaskMb);
+        return boundedExecutor("report", "Report-", size, queueCapacity, false);
+    }
+
+    /**
+     * Always platform threads. A fork-join pool, because its parallel steps
+     * nest (a profiling job reads a table, then scores it in parallel) and a
+     * worker waiting on subtasks runs queued ones instead of blocking, which
+     * a fixed thread pool would do until it deadlocked.
+     */
+    @Bean(name = "computeExecutor", destroyMethod = "shutdown")
+    public ForkJoinPool computeExecutor(@Value("${app.executors.compute.threads:0}") int threads) {
+        AtomicInteger created = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(threads > 0 ? threads : cores(), factory -> {
+            ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(factory);
+            worker.setName("Compute-" + created.incrementAndGet());
+            return worker;
+        }, null, false);
+        new ExecutorServiceMetrics(pool, "compute", Tags.empty()).bindTo(meterRegistry);
+        return pool;
+    }
+
+    /** Threads that copy data to and from worker processes; they block on pipes, not the CPU. */
+    @Bean(name = "processIoExecutor")
+    public TaskExecutor processIoExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("dataset-feeder-");
+        executor.setDaemon(true);
+        executor.setVirtualThreads(virtualThreads);
+        return executor;
+    }
+
+    private ThreadPoolTaskExecutor boundedExecutor(String name, String threadNamePrefix, int size, int queueCapacity,
+            boolean virtual) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(4); // Increased for better parallelism
-        executor.setMaxPoolSize(8); // Increased max pool
-        executor.setQueueCapacity(200); // Increased queue capacity
-        executor.setThreadNamePrefix("AI-Engine-");
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        if (virtual) {
+            // Still a bounded pool with a bounded queue, only of virtual threads; Spring's factory
+            // keeps this compiling on Java 17, and virtual mode is only active on 21
+            executor.setThreadFactory(new VirtualThreadTaskExecutor(threadNamePrefix).getVirtualThreadFactory());
+        }
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
-        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            meterRegistry.counter("executor.rejected", "name", name).increment();
+            throw new RejectedExecutionException("The " + name + " queue is full");
+        });
         executor.initialize();
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), name, Tags.empty()).bindTo(meterRegistry);
         return executor;
     }
+
+    private static int poolSize(int configured, int byCores, long byMemory) {
+        if (configured > 0) {
+            return configured;
+        }
+        return (int) Math.max(1, Math.min(byCores, byMemory));
+    }
+
+    private static int cores() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    private static long physicalMemoryMb() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            return os.getTotalMemorySize() / MB;
+        }
+        return Runtime.getRuntime().maxMemory() / MB;
+    }
 }
@@ -1,36 +1,199 @@
 package com.synthetic.platform.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.synthetic.platform.cache.CacheInvalidator;
+import com.synthetic.platform.cache.TwoLevelCache;
+import com.synthetic.platform.dto.PrivacyReportDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.cache.SpringCacheBasedUserCache;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Every cache has a local Caffeine tier (W-TinyLFU eviction, bounded by
+ * entries or by estimated bytes) with its own TTL and bounds under
+ * {@code app.cache.<name>.*}. With {@code spring.cache.type=redis}, caches
+ * marked {@code shared} also read and write Redis behind the local tier, and
+ * every node's local tier is invalidated through Redis pub/sub when an entry
+ * changes anywhere.
+ */
 @Configuration
 @EnableCaching
-@ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis", matchIfMissing = false)
 public class CacheConfig {
 
+    public static final String DATASET_STATS = "datasetStats";
+    public static final String PRIVACY_REPORTS = "privacyReports";
+    public static final String AUDIT_SCORES = "auditScores";
+    public static final String MODEL_METADATA = "modelMetadata";
+    public static final String USER_DETAILS = "userDetails";
+
+    private static final long MB = 1024 * 1024;
+    // Weight of values whose size is not estimated, such as DTOs and entities
+    private static final int DEFAULT_ENTRY_WEIGHT = 4096;
+
+    /**
+     * Defaults for each cache, with the type of its values on the shared tier;
+     * entities and credentials are kept off it.
+     */
+    private static final List<Spec> SPECS = List.of(
+            new Spec(DATASET_STATS, Duration.ofHours(1), 0, 64, true, String.class),
+            new Spec(PRIVACY_REPORTS, Duration.ofMinutes(10), 0, 32, true, PrivacyReportDTO.class),
+            new Spec(AUDIT_SCORES, Duration.ofMinutes(10), 10_000, 0, true, Integer.class),
+            new Spec(MODEL_METADATA, Duration.ofMinutes(5), 10_000, 0, false, null),
+            new Spec(USER_DETAILS, Duration.ofMinutes(5), 10_000, 0, false, null));
+
+    @Bean
+    public CacheManager cacheManager(Environment environment, MeterRegistry meterRegistry,
+            ObjectProvider<RedisConnectionFactory> redisConnectionFactory,
+            ObjectProvider<CacheInvalidator> cacheInvalidator) {
+        boolean redis = "redis".equalsIgnoreCase(environment.getProperty("spring.cache.type"));
+        CacheInvalidator invalidator = redis ? cacheInvalidator.getIfAvailable() : null;
+
+        Map<String, RedisCacheConfiguration> sharedConfigs = new HashMap<>();
+        List<Spec> specs = new ArrayList<>();
+        for (Spec defaults : SPECS) {
+            Spec spec = defaults.configured(environment);
+            specs.add(spec);
+            if (redis && spec.shared) {
+                sharedConfigs.put(spec.name, redisCacheConfiguration(spec.ttl, spec.type));
+            }
+        }
+        RedisCacheManager sharedManager = null;
+        if (!sharedConfigs.isEmpty()) {
+            sharedManager = RedisCacheManager.builder(redisConnectionFactory.getObject())
+                    .withInitialCacheConfigurations(sharedConfigs)
+                    .build();
+            sharedManager.initializeCaches();
+        }
+
+        List<Cache> caches = new ArrayList<>();
+        for (Spec spec : specs) {
+            com.github.benmanes.caffeine.cache.Cache<String, Object> local = localCache(spec);
+            CaffeineCacheMetrics.monitor(meterRegistry, local, spec.name);
+            Cache shared = sharedManager != null && spec.shared ? sharedManager.getCache(spec.name) : null;
+            caches.add(new TwoLevelCache(spec.name, local, shared, invalidator));
+        }
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
+        return cacheManager;
+    }
+
+    @Bean
+    public UserCache userCache(CacheManager cacheManager) {
+        return new SpringCacheBasedUserCache(cacheManager.getCache(USER_DETAILS));
+    }
+
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10)) // Cache for 10 minutes
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+    public CacheInvalidator cacheInvalidator(StringRedisTemplate redisTemplate,
+            @Value("${app.cache.invalidation-channel:synthesis:cache-invalidations}") String channel) {
+        return new CacheInvalidator(redisTemplate, channel);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory,
+            CacheInvalidator cacheInvalidator, CacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> cacheInvalidator.receive(new String(message.getBody(), StandardCharsets.UTF_8),
+                        cacheManager),
+                new ChannelTopic(cacheInvalidator.getChannel()));
+        return container;
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<String, Object> localCache(Spec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .expireAfterWrite(spec.ttl)
+                .recordStats();
+        if (spec.maxWeightMb > 0) {
+            builder.maximumWeight(spec.maxWeightMb * MB).weigher((key, value) -> weigh(value));
+        } else {
+            builder.maximumSize(spec.maxSize);
+        }
+        return builder.build();
+    }
+
+    /** Approximate retained bytes of a cached value. */
+    private static int weigh(Object value) {
+        if (value instanceof String text) {
+            return 40 + 2 * text.length();
+        }
+        if (value instanceof byte[] bytes) {
+            return 16 + bytes.length;
+        }
+        return DEFAULT_ENTRY_WEIGHT;
+    }
+
+    private static RedisCacheConfiguration redisCacheConfiguration(Duration ttl, Class<?> type) {
+        // JSON read back as the cache's own value type only, never as a type named in the payload, with
+        // java.time support for the dates in report DTOs
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(ttl)
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new GenericJackson2JsonRedisSerializer()))
+                        .fromSerializer(new Jackson2JsonRedisSerializer<>(mapper, type)))
                 .disableCachingNullValues();
+    }
+
+    private static final class Spec {
+        final String name;
+        final Duration ttl;
+        final long maxSize;
+        final long maxWeightMb; // bounds by estimated bytes instead of entries when positive
+        final boolean shared;
+        final Class<?> type; // of the values, for caches that can be shared
+
+        Spec(String name, Duration ttl, long maxSize, long maxWeightMb, boolean shared, Class<?> type) {
+            this.name = name;
+            this.ttl = ttl;
+            this.maxSize = maxSize;
+            this.maxWeightMb = maxWeightMb;
+            this.shared = shared && type != null;
+            this.type = type;
+        }
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(config)
-                .build();
+        Spec configured(Environment environment) {
+            String prefix = "app.cache." + name + ".";
+            return new Spec(name,
+                    Duration.ofSeconds(environment.getProperty(prefix + "ttl-seconds", Long.class, ttl.getSeconds())),
+                    environment.getProperty(prefix + "max-size", Long.class, maxSize),
+                    environment.getProperty(prefix + "max-weight-mb", Long.class, maxWeightMb),
+                    environment.getProperty(prefix + "shared", Boolean.class, shared), type);
+        }
     }
 }
@@ -0,0 +1,51 @@
+package com.synthetic.platform.config;
+
+import com.synthetic.platform.ratelimit.InMemoryTokenLeaseStore;
+import com.synthetic.platform.ratelimit.LeasingTokenLeaseStore;
+import com.synthetic.platform.ratelimit.RedisTokenLeaseStore;
+import com.synthetic.platform.ratelimit.TokenLeaseStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Selects where rate limit buckets live with {@code app.ratelimit.mode}:
+ * {@code local} (default) counts per node; {@code redis} shares the buckets
+ * across nodes, with each node leasing {@code app.ratelimit.lease-size}
+ * tokens per round trip.
+ */
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.ratelimit.mode", havingValue = "local", matchIfMissing = true)
+    public TokenLeaseStore localTokenLeaseStore(
+            @Value("${app.ratelimit.requests-per-minute:100}") int requestsPerMinute,
+            MeterRegistry meterRegistry) {
+        InMemoryTokenLeaseStore store = new InMemoryTokenLeaseStore(requestsPerMinute);
+        meterRegistry.gauge("ratelimit.clients", store, InMemoryTokenLeaseStore::size);
+        return store;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.ratelimit.mode", havingValue = "redis")
+    public TokenLeaseStore redisTokenLeaseStore(
+            @Value("${app.ratelimit.requests-per-minute:100}") int requestsPerMinute,
+            @Value("${app.ratelimit.lease-size:10}") int leaseSize,
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry) {
+        LeasingTokenLeaseStore store = new LeasingTokenLeaseStore(
+                new RedisTokenLeaseStore(redisTemplate, requestsPerMinute),
+                new InMemoryTokenLeaseStore(requestsPerMinute),
+                Math.max(1, leaseSize) * TokenLeaseStore.UNITS_PER_TOKEN);
+        FunctionCounter.builder("ratelimit.lease.round.trips", store, LeasingTokenLeaseStore::getRoundTrips)
+                .register(meterRegistry);
+        FunctionCounter.builder("ratelimit.lease.failures", store, LeasingTokenLeaseStore::getFailures)
+                .register(meterRegistry);
+        return store;
+    }
+}
@@ -1,56 +1,85 @@
 package com.synthetic.platform.config;
 
+import com.synthetic.platform.ratelimit.TokenLeaseStore;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.time.Duration;
-import java.time.Instant;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Per-client token buckets, refilled continuously at
+ * {@code app.ratelimit.requests-per-minute} up to that many tokens. Each
+ * request takes its route's weight in tokens from the {@link TokenLeaseStore}
+ * before the chain runs and holds no lock while it runs, so a slow request
+ * never delays the next one.
+ */
 @Component
+@RequiredArgsConstructor
 public class RateLimitingFilter extends OncePerRequestFilter {
 
-    private final Map<String, RateLimitInfo> requestCounts = new ConcurrentHashMap<>();
-    private static final int MAX_REQUESTS_PER_MINUTE = 100;
+    private final TokenLeaseStore tokenLeaseStore;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    // Weights in tokens per request; every other request costs 1
+    @Value("${app.ratelimit.export-weight:10}")
+    private int exportWeight;
+
+    @Value("${app.ratelimit.generation-weight:5}")
+    private int generationWeight;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || request.getRequestURI().contains("/h2-console");
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-
-        // Skip rate limiting for static assets if needed
-        String path = request.getRequestURI();
-        if (path.contains("/h2-console")) {
+        String route = route(request);
+        long cost = weight(route) * TokenLeaseStore.UNITS_PER_TOKEN;
+        long result = tokenLeaseStore.lease(getClientIP(request), cost, cost);
+        if (result >= 0) {
             filterChain.doFilter(request, response);
             return;
         }
+        meterRegistry.counter("ratelimit.rejected", "route", route).increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((-result + 999) / 1000));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"Too many requests. Please try again later.\"}");
+    }
 
-        String key = getClientIP(request);
-        RateLimitInfo rateLimitInfo = requestCounts.computeIfAbsent(key, k -> new RateLimitInfo());
-
-        synchronized (rateLimitInfo) {
-            Instant now = Instant.now();
-
-            // Reset if more than 1 minute has passed
-            if (Duration.between(rateLimitInfo.windowStart, now).toMinutes() >= 1) {
-                rateLimitInfo.requestCount = 0;
-                rateLimitInfo.windowStart = now;
-            }
+    private static String route(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.startsWith("/api/export")) {
+            return "export";
+        }
+        if (path.startsWith("/api/models") && (path.endsWith("/generate") || path.endsWith("/train"))) {
+            return "generation";
+        }
+        return "default";
+    }
 
-            if (rateLimitInfo.requestCount < MAX_REQUESTS_PER_MINUTE) {
-                rateLimitInfo.requestCount++;
-                filterChain.doFilter(request, response);
-            } else {
-                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
-                response.setContentType("application/json");
-                response.getWriter().write("{\"error\":\"Too many requests. Please try again later.\"}");
-            }
+    private long weight(String route) {
+        switch (route) {
+            case "export":
+                return exportWeight;
+            case "generation":
+                return generationWeight;
+            default:
+                return 1;
         }
     }
 
@@ -59,14 +88,6 @@ public class RateLimitingFilter extends OncePerRequestFilter {
         if (xfHeader == null) {
             return request.getRemoteAddr();
         }
-        return xfHeader.split(",")[0];
+        return xfHeader.split(",")[0].trim();
     }
-
-    // Moved outside of the main class scope in the same file to help some
-    // classloaders
-}
-
-class RateLimitInfo {
-    int requestCount = 0;
-    Instant windowStart = Instant.now();
 }
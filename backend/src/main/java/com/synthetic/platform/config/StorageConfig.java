@@ -0,0 +1,80 @@
+package com.synthetic.platform.config;
+
+import com.synthetic.platform.storage.BlobStore;
+import com.synthetic.platform.storage.LocalBlobStore;
+import com.synthetic.platform.storage.S3BlobStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Selects the blob storage backend with {@code app.storage.backend}: {@code local}
+ * (default) keeps everything under {@code app.storage.location}; {@code s3}
+ * stores objects in an S3-compatible bucket shared by all nodes.
+ */
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.backend", havingValue = "local", matchIfMissing = true)
+    public BlobStore localBlobStore(@Value("${app.storage.location}") String location) {
+        return new LocalBlobStore(location);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.storage.backend", havingValue = "s3")
+    public BlobStore s3BlobStore(
+            @Value("${app.storage.s3.bucket}") String bucket,
+            @Value("${app.storage.s3.prefix:}") String prefix,
+            @Value("${app.storage.s3.endpoint:}") String endpoint,
+            @Value("${app.storage.s3.region:us-east-1}") String region,
+            @Value("${app.storage.s3.access-key:}") String accessKey,
+            @Value("${app.storage.s3.secret-key:}") String secretKey,
+            @Value("${app.storage.s3.part-size-mb:16}") long partSizeMb,
+            @Value("${app.storage.s3.transfer-parallelism:8}") int parallelism,
+            @Value("${app.storage.s3.cache-directory:${app.storage.location}/.cache}") String cacheDirectory,
+            @Value("${app.storage.s3.cache-max-gb:20}") long cacheMaxGb) throws IOException {
+
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials(accessKey, secretKey));
+        if (!endpoint.isBlank()) {
+            // MinIO and most other S3-compatible stores only support path-style addressing
+            builder.endpointOverride(URI.create(endpoint))
+                    .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build());
+        }
+
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService transfers = Executors.newFixedThreadPool(parallelism, task -> {
+            Thread thread = new Thread(task, "Storage-Transfer-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        return new S3BlobStore(builder.build(), bucket, prefix, partSizeMb * 1024 * 1024, transfers,
+                Paths.get(cacheDirectory), cacheMaxGb * 1024 * 1024 * 1024);
+    }
+
+    private AwsCredentialsProvider credentials(String accessKey, String secretKey) {
+        if (accessKey.isBlank()) {
+            return DefaultCredentialsProvider.create();
+        }
+        return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+    }
+}
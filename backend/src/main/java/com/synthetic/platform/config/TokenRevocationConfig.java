@@ -0,0 +1,68 @@
+package com.synthetic.platform.config;
+
+import com.synthetic.platform.security.TokensRevokedEvent;
+import com.synthetic.platform.service.TokenRevocationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * With {@code app.jwt.revocation.broadcast=redis}, token revocations are
+ * published on a Redis channel so every node evicts its cached version at
+ * once instead of waiting out the cache TTL. Without it each node learns of
+ * revocations made elsewhere within the TTL.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.jwt.revocation.broadcast", havingValue = "redis")
+@Slf4j
+public class TokenRevocationConfig {
+
+    @Value("${app.jwt.revocation.channel:synthesis:token-revocations}")
+    private String channel;
+
+    @Bean
+    public RedisMessageListenerContainer tokenRevocationListener(RedisConnectionFactory connectionFactory,
+            TokenRevocationService revocationService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> revocationService.evict(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(channel));
+        return container;
+    }
+
+    @Bean
+    public RevocationPublisher revocationPublisher(StringRedisTemplate redisTemplate) {
+        return new RevocationPublisher(redisTemplate, channel);
+    }
+
+    static class RevocationPublisher {
+
+        private final StringRedisTemplate redisTemplate;
+        private final String channel;
+
+        RevocationPublisher(StringRedisTemplate redisTemplate, String channel) {
+            this.redisTemplate = redisTemplate;
+            this.channel = channel;
+        }
+
+        @EventListener
+        public void onTokensRevoked(TokensRevokedEvent event) {
+            try {
+                redisTemplate.convertAndSend(channel, event.getUsername());
+            } catch (RuntimeException e) {
+                // Other nodes still pick the revocation up when their cached entry expires
+                log.warn("Could not broadcast token revocation for user {}", event.getUsername(), e);
+            }
+        }
+    }
+}
@@ -1,20 +1,26 @@
 package com.synthetic.platform.controller;
 
+import com.synthetic.platform.cache.SingleFlight;
 import com.synthetic.platform.model.AIModel;
 import com.synthetic.platform.service.AIModelService;
 import com.synthetic.platform.service.AIService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/models")
@@ -23,6 +29,9 @@ import java.util.UUID;
 public class AIModelController {
     private final AIModelService modelService;
     private final AIService aiService;
+    private final SingleFlight singleFlight;
+    @Qualifier("generationExecutor")
+    private final AsyncTaskExecutor generationExecutor;
 
     @GetMapping("/dataset/{datasetId}")
     public List<AIModel> getByDataset(@PathVariable Long datasetId) {
@@ -38,28 +47,61 @@ public class AIModelController {
     }
 
     @PostMapping("/{id}/generate")
-    public ResponseEntity<Resource> generate(@PathVariable Long id, @RequestBody GenerateRequest request)
-            throws Exception {
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> generate(@PathVariable Long id,
+            @RequestBody GenerateRequest request) {
         AIModel model = modelService.findById(id);
 
         String fileName = "synthetic_" + UUID.randomUUID() + ".csv";
-        String outputPath = Paths.get(System.getProperty("java.io.tmpdir"), fileName).toString();
+        if (aiService.generatesInProcess(model)) {
+            aiService.validateInProcessGeneration(model, request.getCount(), request.getAnomalyJson());
+            // Rows are generated in parallel batches and written as they are ready
+            StreamingResponseBody body = out -> {
+                try {
+                    aiService.generateData(model, request.getCount(), out, request.getAnomalyJson());
+                } catch (IOException | RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+            };
+            return CompletableFuture.completedFuture(ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                    .contentType(MediaType.parseMediaType("text/csv"))
+                    .body(body));
+        }
 
-        aiService.generateData(model, request.getCount(), outputPath, request.getAnomalyJson());
+        // The worker runs on the generation pool; the request thread is released until it finishes
+        return generationExecutor.submitCompletable(() -> {
+            Path output = Paths.get(System.getProperty("java.io.tmpdir"), fileName);
+            try {
+                aiService.generateData(model, request.getCount(), output.toString(), request.getAnomalyJson());
+            } catch (Exception e) {
+                Files.deleteIfExists(output);
+                throw e;
+            }
 
-        File file = new File(outputPath);
-        Resource resource = new FileSystemResource(file);
+            // The generated file is only a hand-off from the worker; it is removed once streamed
+            StreamingResponseBody body = out -> {
+                try {
+                    Files.copy(output, out);
+                } finally {
+                    Files.deleteIfExists(output);
+                }
+            };
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getName() + "\"")
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .body(resource);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                    .contentType(MediaType.parseMediaType("text/csv"))
+                    .body(body);
+        });
     }
 
     @GetMapping("/{id}/evaluate")
-    public String evaluate(@PathVariable Long id, @RequestParam(defaultValue = "1000") int samples) throws Exception {
+    public CompletableFuture<String> evaluate(@PathVariable Long id, @RequestParam(defaultValue = "1000") int samples) {
         AIModel model = modelService.findById(id);
-        return aiService.evaluateModel(model, samples);
+        // Repeated clicks on evaluate share the run already in progress
+        return singleFlight.execute("evaluate", id + ":" + samples,
+                () -> generationExecutor.submitCompletable(() -> aiService.evaluateModel(model, samples)));
     }
 
     @lombok.Data
@@ -77,6 +119,14 @@ public class AIModelController {
         private Integer discriminatorSteps = 1;
         private String generatorDim = "256,256";
         private String discriminatorDim = "256,256";
+        // DP_MARGINALS only: privacy budget spent by training, and numeric bins per column
+        private Double epsilon = 1.0;
+        private Double delta = 1e-6;
+        private String noiseMechanism = "LAPLACE"; // LAPLACE, GAUSSIAN
+        private Integer maxBins = 32;
+        // DP_MARGINALS only: public [min, max] of numeric columns by name; other columns spend
+        // part of the budget on private bounds
+        private Map<String, List<Double>> bounds;
     }
 
     @lombok.Data
@@ -3,6 +3,7 @@ package com.synthetic.platform.controller;
 import com.synthetic.platform.security.model.User;
 import com.synthetic.platform.security.repository.AuthUserRepository;
 import com.synthetic.platform.security.JwtTokenProvider;
+import com.synthetic.platform.service.TokenRevocationService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -28,6 +29,7 @@ public class AuthController {
     private final AuthUserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationService revocationService;
 
     @PostMapping("/login")
     public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest) {
@@ -38,7 +40,9 @@ public class AuthController {
                             loginRequest.getPassword()));
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            String jwt = tokenProvider.generateToken(loginRequest.getUsername());
+            User user = userRepository.findByUsername(authentication.getName())
+                    .orElseThrow(() -> new BadCredentialsException("User not found"));
+            String jwt = tokenProvider.generateToken(user);
 
             return ResponseEntity.ok(new JwtAuthenticationResponse(jwt));
         } catch (BadCredentialsException e) {
@@ -105,6 +109,18 @@ public class AuthController {
         }
     }
 
+    /** Revokes every token issued to the caller, including the one on this request. */
+    @PostMapping("/revoke")
+    public ResponseEntity<?> revokeTokens(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity
+                    .status(HttpStatus.UNAUTHORIZED)
+                    .body(new ApiResponse(false, "Not authenticated"));
+        }
+        revocationService.revokeTokens(authentication.getName());
+        return ResponseEntity.ok(new ApiResponse(true, "Tokens revoked"));
+    }
+
     @GetMapping("/test")
     public ResponseEntity<?> testEndpoint() {
         return ResponseEntity.ok(new ApiResponse(true, "Auth endpoint is working!"));
@@ -1,13 +1,33 @@
 package com.synthetic.platform.controller;
 
+import com.synthetic.platform.cache.SingleFlight;
+import com.synthetic.platform.dto.AnomalyReportDTO;
+import com.synthetic.platform.dto.AnonymityReportDTO;
+import com.synthetic.platform.dto.AnonymityRequestDTO;
+import com.synthetic.platform.dto.AttackReportDTO;
+import com.synthetic.platform.dto.AttackRequestDTO;
+import com.synthetic.platform.dto.DatasetPageDTO;
+import com.synthetic.platform.dto.DatasetSchemaDTO;
+import com.synthetic.platform.dto.PrivacyBudgetDTO;
+import com.synthetic.platform.dto.UploadRequestDTO;
+import com.synthetic.platform.dto.UploadSessionDTO;
 import com.synthetic.platform.model.Dataset;
 import com.synthetic.platform.service.AIService;
+import com.synthetic.platform.service.AnomalyService;
+import com.synthetic.platform.service.ChunkedUploadService;
 import com.synthetic.platform.service.DatasetService;
+import com.synthetic.platform.service.PrivacyBudgetService;
+import com.synthetic.platform.service.PrivacyReportService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/datasets")
@@ -15,12 +35,31 @@ import java.util.List;
 @CrossOrigin
 public class DatasetController {
     private final DatasetService datasetService;
+    private final ChunkedUploadService chunkedUploadService;
     private final AIService aiService;
+    private final AnomalyService anomalyService;
+    private final PrivacyReportService privacyReportService;
+    private final PrivacyBudgetService privacyBudgetService;
+    private final SingleFlight singleFlight;
+    // Runs profiling work, releasing the request thread while it runs
+    @Qualifier("profilingExecutor")
+    private final AsyncTaskExecutor profilingExecutor;
 
     @GetMapping("/{id}/stats")
-    public String getStats(@PathVariable Long id) throws Exception {
-        Dataset dataset = datasetService.findById(id);
-        return aiService.getDatasetStats(dataset.getFilePath());
+    public CompletableFuture<String> getStats(@PathVariable Long id) {
+        return datasetStats(datasetService.findById(id));
+    }
+
+    @GetMapping("/{id}/schema")
+    public DatasetSchemaDTO getSchema(@PathVariable Long id) throws Exception {
+        return datasetService.getSchema(datasetService.findById(id));
+    }
+
+    @GetMapping("/{id}/rows")
+    public DatasetPageDTO getRows(@PathVariable Long id,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(defaultValue = "100") int limit) throws Exception {
+        return datasetService.getRows(id, offset, limit);
     }
 
     @GetMapping("/project/{projectId}")
@@ -30,24 +69,105 @@ public class DatasetController {
 
     @PostMapping("/upload")
     public Dataset upload(@RequestParam("file") MultipartFile file,
-            @RequestParam("projectId") Long projectId) throws Exception {
-        return datasetService.uploadDataset(file, projectId);
+            @RequestParam("projectId") Long projectId,
+            @RequestParam(value = "sourceDatasetId", required = false) Long sourceDatasetId) throws Exception {
+        return datasetService.uploadDataset(file, projectId, sourceDatasetId);
+    }
+
+    // Chunked uploads: init, PUT chunks (any order, in parallel), then complete.
+    // Chunk bodies are raw bytes, not multipart, so they are never spooled.
+
+    @PostMapping("/uploads")
+    public UploadSessionDTO initUpload(@RequestBody UploadRequestDTO request) throws Exception {
+        return chunkedUploadService.init(request);
+    }
+
+    @GetMapping("/uploads/{uploadId}")
+    public UploadSessionDTO getUpload(@PathVariable String uploadId) throws Exception {
+        return chunkedUploadService.getStatus(uploadId);
+    }
+
+    @PutMapping("/uploads/{uploadId}/chunks/{index}")
+    public ResponseEntity<Void> uploadChunk(@PathVariable String uploadId, @PathVariable int index,
+            @RequestHeader("X-Chunk-Checksum") String checksum, HttpServletRequest request) throws Exception {
+        chunkedUploadService.writeChunk(uploadId, index, request.getInputStream(), request.getContentLengthLong(),
+                checksum);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/uploads/{uploadId}/complete")
+    public Dataset completeUpload(@PathVariable String uploadId) throws Exception {
+        return chunkedUploadService.complete(uploadId);
+    }
+
+    @DeleteMapping("/uploads/{uploadId}")
+    public void abortUpload(@PathVariable String uploadId) throws Exception {
+        chunkedUploadService.abort(uploadId);
     }
 
     @PostMapping("/{id}/privacy-audit")
-    public String privacyAudit(@PathVariable Long id) throws Exception {
+    public CompletableFuture<String> privacyAudit(@PathVariable Long id) {
         Dataset dataset = datasetService.findById(id);
-        return aiService.runPrivacyAudit(dataset.getFilePath());
+        CompletableFuture<Integer> score = singleFlight.execute("audit", String.valueOf(dataset.getId()),
+                () -> profilingExecutor.submitCompletable(() -> privacyReportService.auditScore(dataset)));
+        return datasetStats(dataset).thenCombine(score, AIService::privacyAudit);
     }
 
     @PostMapping("/{id}/anomaly-detection")
-    public String anomalyDetection(@PathVariable Long id) throws Exception {
+    public CompletableFuture<AnomalyReportDTO> anomalyDetection(@PathVariable Long id,
+            @RequestParam(defaultValue = "100") int limit) {
         Dataset dataset = datasetService.findById(id);
-        return aiService.detectAnomalies(dataset.getFilePath());
+        return singleFlight.execute("anomalies", dataset.getFilePath() + ":" + limit,
+                () -> profilingExecutor.submitCompletable(() -> anomalyService.detect(dataset, limit)));
+    }
+
+    @PostMapping("/{id}/anonymity")
+    public CompletableFuture<AnonymityReportDTO> anonymity(@PathVariable Long id,
+            @RequestBody AnonymityRequestDTO request) {
+        Dataset synthetic = datasetService.findById(id);
+        Dataset original = requireOriginal(request.getOriginalDatasetId());
+        return profilingExecutor.submitCompletable(
+                () -> privacyReportService.evaluateAnonymity(synthetic, original, request));
+    }
+
+    @PostMapping("/{id}/attacks")
+    public CompletableFuture<AttackReportDTO> attacks(@PathVariable Long id, @RequestBody AttackRequestDTO request) {
+        Dataset synthetic = datasetService.findById(id);
+        Dataset original = requireOriginal(request.getOriginalDatasetId());
+        Dataset holdout = request.getHoldoutDatasetId() != null
+                ? datasetService.findById(request.getHoldoutDatasetId())
+                : null;
+        return profilingExecutor.submitCompletable(
+                () -> privacyReportService.simulateAttacks(synthetic, original, holdout, request));
+    }
+
+    @GetMapping("/{id}/privacy-budget")
+    public PrivacyBudgetDTO privacyBudget(@PathVariable Long id) {
+        return privacyBudgetService.getBudget(datasetService.findById(id));
     }
 
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
         datasetService.delete(id);
     }
+
+    /** Risk against the dataset itself is meaningless, so the original must be named. */
+    private Dataset requireOriginal(Long originalDatasetId) {
+        if (originalDatasetId == null) {
+            throw new IllegalArgumentException("originalDatasetId is required");
+        }
+        return datasetService.findById(originalDatasetId);
+    }
+
+    /**
+     * Stats from the engine, run on the profiling pool. A dashboard asks for
+     * stats, the privacy audit and anomalies at once; concurrent requests for
+     * the same file share one run. The schema is loaded inside the run too,
+     * since a dataset without a current one has it inferred on first use.
+     */
+    private CompletableFuture<String> datasetStats(Dataset dataset) {
+        return singleFlight.execute("stats", dataset.getFilePath(), () -> profilingExecutor
+                .submitCompletable(() -> aiService.getDatasetStats(dataset.getFilePath(),
+                        datasetService.getSchema(dataset))));
+    }
 }
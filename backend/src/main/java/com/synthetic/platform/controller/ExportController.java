@@ -1,10 +1,13 @@
 package com.synthetic.platform.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.synthetic.platform.data.CsvSampler;
+import com.synthetic.platform.dto.DatasetSchemaDTO;
 import com.synthetic.platform.dto.ExportRequestDTO;
 import com.synthetic.platform.dto.PrivacyReportDTO;
 import com.synthetic.platform.model.Dataset;
 import com.synthetic.platform.service.*;
+import com.synthetic.platform.storage.BlobStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.ByteArrayResource;
@@ -13,15 +16,18 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.BufferedReader;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
  * Controller for handling export operations (PDF, Excel, JSON)
@@ -37,13 +43,16 @@ public class ExportController {
     private final PrivacyReportService privacyReportService;
     private final PdfExportService pdfExportService;
     private final ExcelExportService excelExportService;
+    private final BulkExportService bulkExportService;
+    private final CsvSampler csvSampler;
     private final ObjectMapper objectMapper;
+    private final BlobStore blobStore;
 
     /**
      * Export synthetic dataset with privacy report in PDF format
      */
     @PostMapping("/pdf")
-    public ResponseEntity<Resource> exportPdf(@RequestBody ExportRequestDTO request) {
+    public ResponseEntity<StreamingResponseBody> exportPdf(@RequestBody ExportRequestDTO request) {
         try {
             log.info("Exporting dataset {} as PDF with privacy report", request.getDatasetId());
 
@@ -55,20 +64,7 @@ public class ExportController {
             // Generate privacy report
             PrivacyReportDTO report = privacyReportService.generateReport(originalDataset, syntheticDataset);
 
-            // Generate PDF
-            byte[] pdfBytes = pdfExportService.generatePrivacyReport(report);
-
-            ByteArrayResource resource = new ByteArrayResource(pdfBytes);
-
-            String filename = generateFilename("privacy_report", "pdf");
-
-            log.info("PDF export successful: {} bytes", pdfBytes.length);
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .contentLength(pdfBytes.length)
-                    .body(resource);
+            return streamPdf(report, generateFilename("privacy_report", "pdf"));
         } catch (Exception e) {
             log.error("Failed to export PDF", e);
             return ResponseEntity.status(500).build();
@@ -92,11 +88,11 @@ public class ExportController {
             PrivacyReportDTO report = privacyReportService.generateReport(originalDataset, syntheticDataset);
 
             // Load synthetic data
-            List<List<String>> syntheticData = loadCsvData(syntheticDataset.getFilePath(),
-                    request.getNumberOfRecords() != null ? request.getNumberOfRecords() : 1000);
+            List<List<String>> syntheticData = loadCsvData(syntheticDataset.getFilePath(), request);
 
-            // Generate Excel
-            byte[] excelBytes = excelExportService.generatePrivacyReport(report, syntheticData);
+            // Generate Excel, with cells typed by the dataset's schema
+            byte[] excelBytes = excelExportService.generatePrivacyReport(report, syntheticData,
+                    datasetService.getSchema(syntheticDataset));
 
             ByteArrayResource resource = new ByteArrayResource(excelBytes);
 
@@ -131,8 +127,7 @@ public class ExportController {
                     : originalDataset;
 
             // Load synthetic data
-            List<List<String>> syntheticData = loadCsvData(syntheticDataset.getFilePath(),
-                    request.getNumberOfRecords() != null ? request.getNumberOfRecords() : 1000);
+            List<List<String>> syntheticData = loadCsvData(syntheticDataset.getFilePath(), request);
 
             // Create JSON export object
             JsonExportData exportData = new JsonExportData();
@@ -146,7 +141,7 @@ public class ExportController {
             }
 
             // Convert data to JSON-friendly format
-            List<Object> records = convertToJsonRecords(syntheticData);
+            List<Object> records = convertToJsonRecords(syntheticData, datasetService.getSchema(syntheticDataset));
             exportData.setData(records);
             exportData.setMetadata(createMetadata(syntheticDataset, syntheticData));
 
@@ -175,7 +170,7 @@ public class ExportController {
      * Export only the privacy report (without data) in PDF
      */
     @GetMapping("/privacy-report/pdf/{originalDatasetId}/{syntheticDatasetId}")
-    public ResponseEntity<Resource> exportPrivacyReportPdf(
+    public ResponseEntity<StreamingResponseBody> exportPrivacyReportPdf(
             @PathVariable Long originalDatasetId,
             @PathVariable Long syntheticDatasetId) throws Exception {
 
@@ -185,16 +180,78 @@ public class ExportController {
         Dataset syntheticDataset = datasetService.findById(syntheticDatasetId);
 
         PrivacyReportDTO report = privacyReportService.generateReport(originalDataset, syntheticDataset);
-        byte[] pdfBytes = pdfExportService.generatePrivacyReport(report);
 
-        ByteArrayResource resource = new ByteArrayResource(pdfBytes);
-        String filename = generateFilename("privacy_report", "pdf");
+        return streamPdf(report, generateFilename("privacy_report", "pdf"));
+    }
+
+    /**
+     * Export privacy reports for many dataset pairs as a ZIP of PDFs. Reports are
+     * rendered concurrently on the bounded report pool and written to the
+     * archive in request order.
+     */
+    @PostMapping("/privacy-report/pdf/bulk")
+    public ResponseEntity<StreamingResponseBody> exportPrivacyReportsPdf(@RequestBody List<ReportPair> pairs) {
+        log.info("Exporting {} privacy reports as PDF archive", pairs.size());
+
+        List<Callable<PrivacyReportDTO>> reports = new ArrayList<>(pairs.size());
+        for (ReportPair pair : pairs) {
+            reports.add(() -> privacyReportService.generateReport(
+                    datasetService.findById(pair.getOriginalDatasetId()),
+                    datasetService.findById(pair.getSyntheticDatasetId())));
+        }
+
+        StreamingResponseBody body = out -> {
+            try (ZipOutputStream zip = new ZipOutputStream(out)) {
+                pdfExportService.generatePrivacyReports(reports, (index, pdfBytes) -> {
+                    ReportPair pair = pairs.get(index);
+                    zip.putNextEntry(new ZipEntry(String.format("privacy_report_%d_%d_%d.pdf", index + 1,
+                            pair.getOriginalDatasetId(), pair.getSyntheticDatasetId())));
+                    zip.write(pdfBytes);
+                    zip.closeEntry();
+                });
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Bulk privacy report export failed", e);
+            }
+        };
 
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .contentType(MediaType.APPLICATION_PDF)
-                .contentLength(pdfBytes.length)
-                .body(resource);
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + generateFilename("privacy_reports", "zip") + "\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    /**
+     * Export every dataset of a project as one ZIP with a folder per dataset
+     * holding the requested formats (PDF, JSON, CSV).
+     */
+    @GetMapping("/project/{projectId}")
+    public ResponseEntity<StreamingResponseBody> exportProject(
+            @PathVariable Long projectId,
+            @RequestParam(defaultValue = "PDF,JSON,CSV") Set<ExportRequestDTO.ExportFormat> formats) {
+
+        log.info("Exporting project {} as ZIP archive", projectId);
+
+        List<Dataset> datasets = bulkExportService.findExportableDatasets(projectId, formats);
+
+        StreamingResponseBody body = out -> {
+            try {
+                bulkExportService.writeArchive(datasets, formats, out);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Project export failed for project " + projectId, e);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + generateFilename("project_" + projectId + "_export", "zip")
+                                + "\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
     }
 
     /**
@@ -217,35 +274,66 @@ public class ExportController {
 
     // Helper methods
 
-    private List<List<String>> loadCsvData(String filePath, int maxRecords) throws Exception {
-        List<List<String>> data = new ArrayList<>();
-
-        try (BufferedReader reader = Files.newBufferedReader(Paths.get(filePath))) {
-            String line;
-            int count = 0;
-            while ((line = reader.readLine()) != null && count < maxRecords + 1) { // +1 for header
-                data.add(Arrays.asList(line.split(",")));
-                count++;
+    private ResponseEntity<StreamingResponseBody> streamPdf(PrivacyReportDTO report, String filename) {
+        StreamingResponseBody body = out -> {
+            try {
+                pdfExportService.writePrivacyReport(report, out);
+            } catch (IOException | RuntimeException e) {
+                // Rethrown as is, so a full report queue is still reported as busy
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("PDF rendering failed for report " + report.getReportId(), e);
             }
+        };
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(body);
+    }
+
+    private List<List<String>> loadCsvData(String filePath, ExportRequestDTO request) throws Exception {
+        Path path = blobStore.fetch(filePath);
+        int records = request.getNumberOfRecords() != null ? request.getNumberOfRecords() : 1000;
+        if (records < 0) {
+            throw new IllegalArgumentException("numberOfRecords cannot be negative");
         }
 
-        return data;
+        ExportRequestDTO.SamplingMode mode = request.getSamplingMode() != null ? request.getSamplingMode()
+                : ExportRequestDTO.SamplingMode.HEAD;
+        switch (mode) {
+            case RESERVOIR:
+                return csvSampler.reservoir(path, records, request.getSeed());
+            case STRATIFIED:
+                return csvSampler.stratified(path, records, request.getStratifyColumn(), request.getSeed());
+            case PAGE:
+                long page = request.getPage() != null ? request.getPage() : 0;
+                return csvSampler.page(path, page * records, records);
+            case HEAD:
+            default:
+                return csvSampler.head(path, records);
+        }
     }
 
-    private List<Object> convertToJsonRecords(List<List<String>> csvData) {
+    private List<Object> convertToJsonRecords(List<List<String>> csvData, DatasetSchemaDTO schema) {
         List<Object> records = new ArrayList<>();
 
         if (csvData.isEmpty())
             return records;
 
         List<String> headers = csvData.get(0);
+        List<DatasetSchemaDTO.ColumnSchema> columns = new ArrayList<>(headers.size());
+        for (String header : headers) {
+            columns.add(schema.column(header.trim()));
+        }
 
         for (int i = 1; i < csvData.size(); i++) {
             List<String> row = csvData.get(i);
-            java.util.Map<String, String> record = new java.util.HashMap<>();
+            java.util.Map<String, Object> record = new java.util.HashMap<>();
 
             for (int j = 0; j < Math.min(headers.size(), row.size()); j++) {
-                record.put(headers.get(j), row.get(j));
+                DatasetSchemaDTO.ColumnSchema column = columns.get(j);
+                record.put(headers.get(j), column != null ? column.value(row.get(j)) : row.get(j));
             }
 
             records.add(record);
@@ -274,6 +362,12 @@ public class ExportController {
 
     // Inner classes for JSON export structure
 
+    @lombok.Data
+    public static class ReportPair {
+        private Long originalDatasetId;
+        private Long syntheticDatasetId;
+    }
+
     @lombok.Data
     private static class JsonExportData {
         private LocalDateTime exportDate;
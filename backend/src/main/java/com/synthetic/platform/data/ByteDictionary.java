@@ -0,0 +1,113 @@
+package com.synthetic.platform.data;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Dictionary encoder keyed on raw bytes. Lookups hash and compare the field in
+ * place, so a String is only created the first time a distinct value is seen.
+ * Codes are dense and assigned in first-seen order. Not thread-safe.
+ */
+public final class ByteDictionary {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] slots;        // code + 1 per slot, 0 when empty
+    private int[] hashes;       // per code
+    private byte[][] keys;      // per code
+    private int size;
+
+    public ByteDictionary() {
+        slots = new int[INITIAL_CAPACITY];
+        hashes = new int[INITIAL_CAPACITY];
+        keys = new byte[INITIAL_CAPACITY][];
+    }
+
+    /**
+     * The code of {@code [start, end)}, adding it to the dictionary if absent.
+     */
+    public int encode(ByteBuffer buf, int start, int end) {
+        int hash = hash(buf, start, end);
+        int mask = slots.length - 1;
+        for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == 0) {
+                return insert(slot, hash, copy(buf, start, end));
+            }
+            int code = entry - 1;
+            if (hashes[code] == hash && CsvBytes.equals(buf, start, end, keys[code])) {
+                return code;
+            }
+        }
+    }
+
+    /**
+     * The code of {@code key}, adding it if absent.
+     */
+    public int encode(byte[] key) {
+        return encode(ByteBuffer.wrap(key), 0, key.length);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte[] key(int code) {
+        return keys[code];
+    }
+
+    /**
+     * Materialises the dictionary values in code order.
+     */
+    public String[] values() {
+        String[] values = new String[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = new String(keys[i], StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    private int insert(int slot, int hash, byte[] key) {
+        int code = size++;
+        if (code == keys.length) {
+            keys = Arrays.copyOf(keys, code * 2);
+            hashes = Arrays.copyOf(hashes, code * 2);
+        }
+        keys[code] = key;
+        hashes[code] = hash;
+        slots[slot] = code + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return code;
+    }
+
+    private void rehash() {
+        int[] grown = new int[slots.length * 2];
+        int mask = grown.length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = hashes[code] & mask;
+            while (grown[slot] != 0)
+                slot = (slot + 1) & mask;
+            grown[slot] = code + 1;
+        }
+        slots = grown;
+    }
+
+    private static byte[] copy(ByteBuffer buf, int start, int end) {
+        byte[] key = new byte[end - start];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = buf.get(start + i);
+        }
+        return key;
+    }
+
+    private static int hash(ByteBuffer buf, int start, int end) {
+        int h = 0x811c9dc5;
+        for (int i = start; i < end; i++) {
+            h = (h ^ buf.get(i)) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,70 @@
+package com.synthetic.platform.data;
+
+/**
+ * Comparable 64-bit keys for the cells of one column: the bits of numeric
+ * values, or a 64-bit hash of the text for categorical values (computed once
+ * per dictionary entry). Columns read with different kinds in two tables are
+ * compared by text, so that e.g. a numeric 3 and a categorical "3" match.
+ * Numeric columns can instead be keyed by equal-width bin over a range.
+ */
+public final class CellKeys {
+
+    private final ColumnarTable.Column column;
+    private final boolean asText;
+    private final long[] dictionaryKeys;
+    private final double[] range;
+    private final int bins;
+
+    public CellKeys(ColumnarTable.Column column, boolean asText) {
+        this(column, asText, null, 0);
+    }
+
+    /**
+     * @param range {@code [min, max]} to key numeric values by one of
+     *              {@code bins} bins over, or {@code null} to key them exactly
+     */
+    public CellKeys(ColumnarTable.Column column, boolean asText, double[] range, int bins) {
+        this.column = column;
+        this.asText = asText;
+        this.range = column.isNumeric() ? range : null;
+        this.bins = bins;
+        if (column.isNumeric()) {
+            this.dictionaryKeys = null;
+        } else {
+            String[] dictionary = column.getDictionary();
+            this.dictionaryKeys = new long[dictionary.length];
+            for (int code = 0; code < dictionary.length; code++) {
+                dictionaryKeys[code] = textKey(dictionary[code]);
+            }
+        }
+    }
+
+    public long key(int row) {
+        if (dictionaryKeys != null)
+            return dictionaryKeys[column.getCodes()[row]];
+        if (asText)
+            return textKey(column.text(row));
+        double value = column.getValues()[row];
+        if (range == null)
+            return Double.doubleToLongBits(value + 0.0); // folds -0.0 into 0.0
+        if (Double.isNaN(value))
+            return Long.MIN_VALUE;
+        double width = (range[1] - range[0]) / bins;
+        int bin = width > 0 ? (int) ((value - range[0]) / width) : 0;
+        return Math.max(0, Math.min(bins - 1, bin));
+    }
+
+    /** Folds {@code value} into the running key of a row; start from 1. */
+    public static long combine(long hash, long value) {
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    private static long textKey(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+}
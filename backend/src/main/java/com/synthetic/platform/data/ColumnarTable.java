@@ -0,0 +1,174 @@
+package com.synthetic.platform.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented, in-memory view of a dataset. Numeric columns are primitive
+ * {@code double[]} arrays with {@link Double#NaN} for missing values;
+ * categorical columns are dictionary codes into a per-column array of distinct
+ * values, so each distinct string exists once however many rows use it.
+ */
+public final class ColumnarTable {
+
+    public enum Kind {
+        NUMERIC, CATEGORICAL
+    }
+
+    private final List<Column> columns;
+    private final Map<String, Column> byName;
+    private final int rowCount;
+
+    public ColumnarTable(List<Column> columns, int rowCount) {
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        this.byName = new HashMap<>();
+        for (Column column : columns) {
+            byName.putIfAbsent(column.getName(), column);
+        }
+        this.rowCount = rowCount;
+    }
+
+    public static ColumnarTable empty() {
+        return new ColumnarTable(Collections.emptyList(), 0);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public Column column(int index) {
+        return columns.get(index);
+    }
+
+    /**
+     * The column called {@code name}, or {@code null} if there is none.
+     */
+    public Column column(String name) {
+        return byName.get(name);
+    }
+
+    /** A table of the given rows, in that order; categorical columns share this table's dictionaries. */
+    public ColumnarTable rows(int[] rows) {
+        List<Column> selected = new ArrayList<>(columns.size());
+        for (Column column : columns) {
+            if (column.isNumeric()) {
+                double[] values = new double[rows.length];
+                for (int i = 0; i < rows.length; i++)
+                    values[i] = column.values[rows[i]];
+                selected.add(Column.numeric(column.name, values, column.integral));
+            } else {
+                int[] codes = new int[rows.length];
+                for (int i = 0; i < rows.length; i++)
+                    codes[i] = column.codes[rows[i]];
+                selected.add(Column.categorical(column.name, codes, column.dictionary));
+            }
+        }
+        return new ColumnarTable(selected, rows.length);
+    }
+
+    public List<String> getColumnNames() {
+        List<String> names = new ArrayList<>(columns.size());
+        for (Column column : columns) {
+            names.add(column.getName());
+        }
+        return names;
+    }
+
+    public static final class Column {
+        private final String name;
+        private final Kind kind;
+        private final double[] values;
+        private final boolean integral;
+        private final int[] codes;
+        private final String[] dictionary;
+
+        private Column(String name, Kind kind, double[] values, boolean integral, int[] codes, String[] dictionary) {
+            this.name = name;
+            this.kind = kind;
+            this.values = values;
+            this.integral = integral;
+            this.codes = codes;
+            this.dictionary = dictionary;
+        }
+
+        public static Column numeric(String name, double[] values, boolean integral) {
+            return new Column(name, Kind.NUMERIC, values, integral, null, null);
+        }
+
+        public static Column categorical(String name, int[] codes, String[] dictionary) {
+            return new Column(name, Kind.CATEGORICAL, null, false, codes, dictionary);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public boolean isNumeric() {
+            return kind == Kind.NUMERIC;
+        }
+
+        /**
+         * Whether every non-missing value of a numeric column was written as an
+         * integer literal.
+         */
+        public boolean isIntegral() {
+            return integral;
+        }
+
+        /** Backing values of a numeric column; do not modify. */
+        public double[] getValues() {
+            return values;
+        }
+
+        /** Backing codes of a categorical column; do not modify. */
+        public int[] getCodes() {
+            return codes;
+        }
+
+        /** Distinct values of a categorical column, indexed by code; do not modify. */
+        public String[] getDictionary() {
+            return dictionary;
+        }
+
+        public int getCardinality() {
+            return dictionary != null ? dictionary.length : 0;
+        }
+
+        public boolean isMissing(int row) {
+            return kind == Kind.NUMERIC ? Double.isNaN(values[row]) : dictionary[codes[row]].isEmpty();
+        }
+
+        /**
+         * The value of {@code row} as text, the way it would appear in a CSV
+         * cell. Missing numeric values render as an empty string.
+         */
+        public String text(int row) {
+            if (kind == Kind.CATEGORICAL) {
+                return dictionary[codes[row]];
+            }
+            double value = values[row];
+            if (Double.isNaN(value)) {
+                return "";
+            }
+            if (integral && value == Math.rint(value) && Math.abs(value) < 1e15) {
+                return Long.toString((long) value);
+            }
+            return Double.toString(value);
+        }
+    }
+}
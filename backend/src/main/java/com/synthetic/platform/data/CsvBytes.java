@@ -0,0 +1,304 @@
+package com.synthetic.platform.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Byte-level CSV primitives shared by the mapped readers: delimiter search
+ * eight bytes at a time (SWAR), field trimming and numeric parsing straight from
+ * the buffer without creating intermediate Strings. Buffers passed to the SWAR
+ * methods must be in {@link ByteOrder#LITTLE_ENDIAN} order.
+ */
+public final class CsvBytes {
+
+    public static final byte COMMA = ',';
+    public static final byte NEWLINE = '\n';
+    public static final byte QUOTE = '"';
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+    private static final long COMMAS = ONES * COMMA;
+    private static final long NEWLINES = ONES * NEWLINE;
+
+    // Exact powers of ten representable as doubles (Clinger's fast path)
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+    private static final int MAX_FAST_DIGITS = 15;
+
+    private static final String[] NULL_MARKERS = { "NA", "N/A", "null", "NULL", "None", "nan", "NaN" };
+    private static final byte[][] NULL_MARKER_BYTES = new byte[NULL_MARKERS.length][];
+
+    static {
+        for (int i = 0; i < NULL_MARKERS.length; i++) {
+            NULL_MARKER_BYTES[i] = NULL_MARKERS[i].getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private CsvBytes() {
+    }
+
+    /**
+     * Position of the next comma or newline in {@code [from, limit)}, or
+     * {@code limit} if there is none.
+     */
+    public static int nextDelimiter(ByteBuffer buf, int from, int limit) {
+        int pos = from;
+        while (pos + Long.BYTES <= limit) {
+            long word = buf.getLong(pos);
+            long found = matches(word, COMMAS) | matches(word, NEWLINES);
+            if (found != 0) {
+                return pos + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+            pos += Long.BYTES;
+        }
+        while (pos < limit) {
+            byte b = buf.get(pos);
+            if (b == COMMA || b == NEWLINE) {
+                return pos;
+            }
+            pos++;
+        }
+        return limit;
+    }
+
+    /**
+     * Position of the next newline in {@code [from, limit)}, or {@code limit}.
+     */
+    public static int nextNewline(ByteBuffer buf, int from, int limit) {
+        int pos = from;
+        while (pos + Long.BYTES <= limit) {
+            long found = matches(buf.getLong(pos), NEWLINES);
+            if (found != 0) {
+                return pos + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+            pos += Long.BYTES;
+        }
+        while (pos < limit) {
+            if (buf.get(pos) == NEWLINE) {
+                return pos;
+            }
+            pos++;
+        }
+        return limit;
+    }
+
+    /**
+     * High bit set in every byte of {@code word} equal to the repeated byte in
+     * {@code pattern}. Only the lowest flagged byte is exact, which is all the
+     * little-endian scans above need.
+     */
+    private static long matches(long word, long pattern) {
+        long x = word ^ pattern;
+        return (x - ONES) & ~x & HIGHS;
+    }
+
+    /**
+     * End of the quoted field starting at {@code quoteStart} (the position just
+     * past its closing quote), honouring doubled-quote escapes.
+     */
+    public static int skipQuoted(ByteBuffer buf, int quoteStart, int limit) {
+        int pos = quoteStart + 1;
+        while (pos < limit) {
+            if (buf.get(pos) == QUOTE) {
+                if (pos + 1 < limit && buf.get(pos + 1) == QUOTE) {
+                    pos += 2;
+                    continue;
+                }
+                return pos + 1;
+            }
+            pos++;
+        }
+        return limit;
+    }
+
+    /**
+     * The trimmed, decoded fields of the line {@code [start, end)}. Commas
+     * inside quoted fields do not split, and trailing empty fields are kept.
+     */
+    public static List<String> fields(ByteBuffer buf, int start, int end) {
+        List<String> fields = new ArrayList<>();
+        int pos = start;
+        while (true) {
+            int scan = pos < end && buf.get(pos) == QUOTE ? skipQuoted(buf, pos, end) : pos;
+            int delimiter = nextDelimiter(buf, scan, end);
+            int from = trimStart(buf, pos, delimiter);
+            fields.add(decode(buf, from, trimEnd(buf, from, delimiter)));
+            if (delimiter >= end)
+                break;
+            pos = delimiter + 1;
+        }
+        return fields;
+    }
+
+    /** {@link #fields(ByteBuffer, int, int)} of one line of text. */
+    public static List<String> fields(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return fields(ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN), 0, bytes.length);
+    }
+
+    public static int trimStart(ByteBuffer buf, int start, int end) {
+        while (start < end && isBlank(buf.get(start)))
+            start++;
+        return start;
+    }
+
+    public static int trimEnd(ByteBuffer buf, int start, int end) {
+        while (end > start && isBlank(buf.get(end - 1)))
+            end--;
+        return end;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    /**
+     * Whether the trimmed field is empty or one of the common null markers.
+     */
+    public static boolean isNull(ByteBuffer buf, int start, int end) {
+        return nullMarker(buf, start, end) >= 0;
+    }
+
+    /**
+     * Which null marker the trimmed field is: 0 for an empty field, a positive
+     * number for one of the textual markers (see {@link #nullMarkerText}), or -1
+     * if the field is not null.
+     */
+    public static int nullMarker(ByteBuffer buf, int start, int end) {
+        int length = end - start;
+        if (length == 0)
+            return 0;
+        if (length > 4)
+            return -1;
+        for (int i = 0; i < NULL_MARKER_BYTES.length; i++) {
+            if (equals(buf, start, end, NULL_MARKER_BYTES[i]))
+                return i + 1;
+        }
+        return -1;
+    }
+
+    /** Number of distinct {@link #nullMarker} results, including the empty field. */
+    public static int nullMarkerCount() {
+        return NULL_MARKERS.length + 1;
+    }
+
+    public static String nullMarkerText(int marker) {
+        return marker == 0 ? "" : NULL_MARKERS[marker - 1];
+    }
+
+    public static boolean equals(ByteBuffer buf, int start, int end, byte[] other) {
+        if (end - start != other.length)
+            return false;
+        for (int i = 0; i < other.length; i++) {
+            if (buf.get(start + i) != other[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parses a decimal number from the trimmed field {@code [start, end)}.
+     * Returns {@link Double#NaN} if the field is not a number. Up to 15
+     * significant digits with a small exponent are converted exactly without
+     * allocation; anything longer falls back to {@link Double#parseDouble}.
+     */
+    public static double parseDouble(ByteBuffer buf, int start, int end) {
+        if (start >= end)
+            return Double.NaN;
+
+        int pos = start;
+        boolean negative = false;
+        byte b = buf.get(pos);
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            if (++pos == end)
+                return Double.NaN;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; pos < end; pos++) {
+            b = buf.get(pos);
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (digits < MAX_FAST_DIGITS + 3) {
+                    if (mantissa != 0 || b != '0')
+                        digits++;
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (seenPoint)
+                        scale--;
+                } else if (!seenPoint) {
+                    scale++; // integer digits beyond what we track only shift the magnitude
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if ((b == 'e' || b == 'E') && seenDigit) {
+                return slowParse(buf, start, end);
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (!seenDigit)
+            return Double.NaN;
+        if (digits > MAX_FAST_DIGITS || scale > 0 || -scale >= POWERS_OF_TEN.length)
+            return slowParse(buf, start, end);
+
+        double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[-scale];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Whether the trimmed field is an integer literal (no point or exponent).
+     */
+    public static boolean isIntegral(ByteBuffer buf, int start, int end) {
+        for (int pos = start; pos < end; pos++) {
+            byte b = buf.get(pos);
+            if (b == '.' || b == 'e' || b == 'E')
+                return false;
+        }
+        return true;
+    }
+
+    private static double slowParse(ByteBuffer buf, int start, int end) {
+        try {
+            return Double.parseDouble(decode(buf, start, end));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Decodes {@code [start, end)} as UTF-8. Quoted fields are unwrapped and
+     * doubled quotes unescaped.
+     */
+    public static String decode(ByteBuffer buf, int start, int end) {
+        if (end - start >= 2 && buf.get(start) == QUOTE && buf.get(end - 1) == QUOTE) {
+            return unquote(buf, start, end);
+        }
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buf.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String unquote(ByteBuffer buf, int start, int end) {
+        byte[] bytes = new byte[end - start - 2];
+        int length = 0;
+        for (int pos = start + 1; pos < end - 1; pos++) {
+            byte b = buf.get(pos);
+            bytes[length++] = b;
+            if (b == QUOTE && pos + 1 < end - 1 && buf.get(pos + 1) == QUOTE) {
+                pos++;
+            }
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,287 @@
+package com.synthetic.platform.data;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Slices CSV files into export-sized record sets. Every mode makes at most two
+ * sequential passes over the mapped file and keeps only the selected rows in
+ * memory, never more than {@link #MAX_RECORDS}. Results always start with the
+ * header row.
+ */
+@Component
+@RequiredArgsConstructor
+public class CsvSampler {
+
+    /** Upper bound on distinct strata so a high-cardinality column can't exhaust memory. */
+    static final int MAX_STRATA = 10_000;
+
+    /** Upper bound on records per request; every mode materialises its result. */
+    public static final int MAX_RECORDS = 1_000_000;
+
+    private final RowIndexService rowIndexService;
+    private final MappedCsvReader mappedCsvReader;
+
+    /**
+     * The first {@code count} records.
+     */
+    public List<List<String>> head(Path file, int count) throws IOException {
+        checkCount(count);
+        List<List<String>> rows = new ArrayList<>();
+        String header = rowIndexService.readHeader(file);
+        if (header == null)
+            return rows;
+        rows.add(split(header));
+        if (count <= 0)
+            return rows;
+
+        mappedCsvReader.scanLines(file, (buf, start, end, row) -> {
+            rows.add(split(decode(copy(buf, start, end))));
+            return rows.size() <= count;
+        });
+        return rows;
+    }
+
+    /**
+     * A uniform random sample of {@code count} records (reservoir sampling), in
+     * file order. Lines are scanned as raw bytes and only the ones that enter the
+     * reservoir are copied out.
+     */
+    public List<List<String>> reservoir(Path file, int count, Long seed) throws IOException {
+        checkCount(count);
+        SplittableRandom random = seed != null ? new SplittableRandom(seed) : new SplittableRandom();
+        List<List<String>> result = new ArrayList<>();
+        String header = rowIndexService.readHeader(file);
+        if (header == null)
+            return result;
+        result.add(split(header));
+
+        Reservoir sample = new Reservoir(count);
+        mappedCsvReader.scanLines(file, (buf, start, end, row) -> {
+            sample.offer(buf, start, end, row, random);
+            return true;
+        });
+        result.addAll(inFileOrder(sample.lines, sample.positions, sample.size()));
+        return result;
+    }
+
+    /**
+     * A sample of about {@code count} records in which each distinct value of
+     * {@code column} is represented in proportion to its frequency. A first
+     * pass counts the rows of each stratum and allocates quotas by largest
+     * remainder; the second keeps a reservoir of exactly its quota per
+     * stratum, so memory is bounded by {@code count} however many strata
+     * there are. Strata are keyed on the raw bytes of the column, so no row is
+     * decoded unless it is sampled.
+     */
+    public List<List<String>> stratified(Path file, int count, String column, Long seed) throws IOException {
+        checkCount(count);
+        SplittableRandom random = seed != null ? new SplittableRandom(seed) : new SplittableRandom();
+        List<List<String>> result = new ArrayList<>();
+        String header = rowIndexService.readHeader(file);
+        if (header == null)
+            return result;
+        List<String> headers = split(header);
+        result.add(headers);
+
+        int columnIndex = indexOfColumn(headers, column);
+        ByteDictionary keys = new ByteDictionary();
+        long[][] sizes = { new long[16] };
+        int[] strata = new int[1];
+        long[] seen = new long[1];
+        mappedCsvReader.scanLines(file, (buf, start, end, row) -> {
+            int key = stratumKey(keys, buf, start, end, columnIndex);
+            if (key == strata[0]) {
+                if (strata[0] >= MAX_STRATA) {
+                    throw new IllegalArgumentException("Column '" + column + "' has more than " + MAX_STRATA
+                            + " distinct values and cannot be used for stratified sampling");
+                }
+                if (key == sizes[0].length)
+                    sizes[0] = Arrays.copyOf(sizes[0], key * 2);
+                strata[0]++;
+            }
+            sizes[0][key]++;
+            seen[0] = row + 1;
+            return true;
+        });
+
+        int[] quotas = allocateQuotas(Arrays.copyOf(sizes[0], strata[0]), Math.min(count, seen[0]));
+        Reservoir[] reservoirs = new Reservoir[quotas.length];
+        for (int s = 0; s < quotas.length; s++)
+            reservoirs[s] = new Reservoir(quotas[s]);
+        // Same file and dictionary, so every row gets the key it had in the first pass
+        mappedCsvReader.scanLines(file, (buf, start, end, row) -> {
+            reservoirs[stratumKey(keys, buf, start, end, columnIndex)].offer(buf, start, end, row, random);
+            return true;
+        });
+
+        int total = 0;
+        for (Reservoir reservoir : reservoirs)
+            total += reservoir.size();
+        byte[][] sample = new byte[total][];
+        long[] positions = new long[total];
+        int filled = 0;
+        for (Reservoir reservoir : reservoirs) {
+            System.arraycopy(reservoir.lines, 0, sample, filled, reservoir.size());
+            System.arraycopy(reservoir.positions, 0, positions, filled, reservoir.size());
+            filled += reservoir.size();
+        }
+        result.addAll(inFileOrder(sample, positions, total));
+        return result;
+    }
+
+    private static int stratumKey(ByteDictionary keys, ByteBuffer buf, int start, int end, int columnIndex) {
+        int fieldStart = start;
+        for (int c = 0; c < columnIndex && fieldStart < end; c++) {
+            fieldStart = CsvBytes.nextDelimiter(buf, fieldStart, end) + 1;
+        }
+        fieldStart = Math.min(fieldStart, end);
+        int fieldEnd = CsvBytes.nextDelimiter(buf, fieldStart, end);
+        fieldStart = CsvBytes.trimStart(buf, fieldStart, fieldEnd);
+        return keys.encode(buf, fieldStart, CsvBytes.trimEnd(buf, fieldStart, fieldEnd));
+    }
+
+    /**
+     * Records {@code [firstRow, firstRow + count)} read by seeking to the
+     * nearest indexed byte offset, so the cost is independent of how deep into
+     * the file the page is.
+     */
+    public List<List<String>> page(Path file, long firstRow, int count) throws IOException {
+        checkCount(count);
+        List<List<String>> rows = new ArrayList<>();
+        String header = rowIndexService.readHeader(file);
+        if (header == null)
+            return rows;
+        rows.add(split(header));
+
+        for (String line : rowIndexService.readRows(file, firstRow, count)) {
+            rows.add(split(line));
+        }
+        return rows;
+    }
+
+    private static void checkCount(int count) {
+        if (count > MAX_RECORDS) {
+            throw new IllegalArgumentException("Cannot sample more than " + MAX_RECORDS + " records at once");
+        }
+    }
+
+    private List<String> split(String line) {
+        return CsvBytes.fields(line);
+    }
+
+    private int indexOfColumn(List<String> headers, String column) {
+        if (column == null || column.isEmpty()) {
+            throw new IllegalArgumentException("Stratified sampling requires a column");
+        }
+        for (int i = 0; i < headers.size(); i++) {
+            if (headers.get(i).trim().equals(column)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Column not found: " + column);
+    }
+
+    private List<List<String>> inFileOrder(byte[][] lines, long[] positions, int size) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(positions[a], positions[b]));
+
+        List<List<String>> rows = new ArrayList<>(size);
+        for (Integer i : order) {
+            rows.add(split(decode(lines[i])));
+        }
+        return rows;
+    }
+
+    private static byte[] copy(ByteBuffer buf, int start, int end) {
+        byte[] line = new byte[end - start];
+        buf.get(start, line);
+        return line;
+    }
+
+    private static String decode(byte[] line) {
+        return new String(line, StandardCharsets.UTF_8);
+    }
+
+    /** Splits {@code total} over strata of the given sizes in proportion to them (largest remainder). */
+    private int[] allocateQuotas(long[] sizes, long total) {
+        long population = 0;
+        for (long size : sizes)
+            population += size;
+
+        int[] quotas = new int[sizes.length];
+        if (population == 0)
+            return quotas;
+
+        double[] remainders = new double[sizes.length];
+        long allocated = 0;
+        for (int s = 0; s < sizes.length; s++) {
+            double exact = (double) total * sizes[s] / population;
+            quotas[s] = (int) Math.min(Math.floor(exact), sizes[s]);
+            remainders[s] = exact - quotas[s];
+            allocated += quotas[s];
+        }
+
+        List<Integer> byRemainder = new ArrayList<>();
+        for (int s = 0; s < sizes.length; s++)
+            byRemainder.add(s);
+        byRemainder.sort((a, b) -> Double.compare(remainders[b], remainders[a]));
+        for (int i = 0; allocated < total && i < byRemainder.size(); i++) {
+            int s = byRemainder.get(i);
+            if (quotas[s] < sizes[s]) {
+                quotas[s]++;
+                allocated++;
+            }
+        }
+        return quotas;
+    }
+
+    /** A uniform sample of up to {@code capacity} lines (Algorithm R) with their row numbers. */
+    private static final class Reservoir {
+        private final int capacity;
+        private byte[][] lines;
+        private long[] positions;
+        private long seen;
+
+        private Reservoir(int capacity) {
+            // Grows on demand, so a large capacity costs nothing on a small file
+            this.capacity = capacity;
+            this.lines = new byte[Math.min(capacity, 16)][];
+            this.positions = new long[lines.length];
+        }
+
+        private void offer(ByteBuffer buf, int start, int end, long position, SplittableRandom random) {
+            if (seen < capacity) {
+                if (seen == lines.length) {
+                    int grown = (int) Math.min(capacity, (long) lines.length * 2);
+                    lines = Arrays.copyOf(lines, grown);
+                    positions = Arrays.copyOf(positions, grown);
+                }
+                lines[(int) seen] = copy(buf, start, end);
+                positions[(int) seen] = position;
+            } else if (capacity > 0) {
+                long slot = random.nextLong(seen + 1);
+                if (slot < capacity) {
+                    lines[(int) slot] = copy(buf, start, end);
+                    positions[(int) slot] = position;
+                }
+            }
+            seen++;
+        }
+
+        private int size() {
+            return (int) Math.min(seen, capacity);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.synthetic.platform.data;
+
+import com.synthetic.platform.storage.SeekableZstdReader;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The decompressed content of a stored dataset file, whether it is a plain CSV
+ * or a seekable zstd blob ({@code .zst}). Content is served as line-aligned
+ * chunks for parallel parsing and through positional reads; offsets are always
+ * positions in the decompressed content.
+ * <p>
+ * {@link #chunk} may be called from several threads; {@link #read} may not.
+ */
+public abstract class CsvSource implements Closeable {
+
+    /** Target size of one chunk; a single line may not exceed it. */
+    public static final int CHUNK_SIZE = 32 * 1024 * 1024;
+
+    static final String COMPRESSED_SUFFIX = ".zst";
+
+    public static CsvSource open(Path file) throws IOException {
+        return isCompressed(file) ? new Compressed(file) : new Mapped(file);
+    }
+
+    public static boolean isCompressed(Path file) {
+        return file.getFileName().toString().endsWith(COMPRESSED_SUFFIX);
+    }
+
+    /**
+     * Sequential stream over the decompressed content of {@code file}.
+     */
+    public static InputStream newInputStream(Path file) throws IOException {
+        if (!isCompressed(file)) {
+            return Files.newInputStream(file);
+        }
+        SeekableZstdReader reader = new SeekableZstdReader(file);
+        return new FilterInputStream(reader.openStream()) {
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+
+    /**
+     * Size of the decompressed content of {@code file}, read from the seek
+     * table for compressed files.
+     */
+    public static long contentSize(Path file) throws IOException {
+        if (!isCompressed(file)) {
+            return Files.size(file);
+        }
+        try (SeekableZstdReader reader = new SeekableZstdReader(file)) {
+            return reader.size();
+        }
+    }
+
+    /** Size of the decompressed content. */
+    public abstract long size();
+
+    public abstract int chunkCount();
+
+    /**
+     * Chunk {@code index} in {@code [0, limit)}, little-endian, ending on a
+     * line boundary (except possibly the last).
+     */
+    public abstract ByteBuffer chunk(int index) throws IOException;
+
+    /**
+     * Reads into {@code dst} from {@code position}; returns the number of bytes
+     * read, or -1 at the end of the content.
+     */
+    public abstract int read(ByteBuffer dst, long position) throws IOException;
+
+    private static final class Mapped extends CsvSource {
+        private final FileChannel channel;
+        private final List<ByteBuffer> chunks = new ArrayList<>();
+        private final long size;
+
+        private Mapped(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                size = channel.size();
+                mapChunks();
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Maps the file in windows of about {@link #CHUNK_SIZE} cut at the last
+         * newline. Mapping is lazy, so this only touches the pages around each
+         * boundary.
+         */
+        private void mapChunks() throws IOException {
+            long position = 0;
+            while (position < size) {
+                int length = (int) Math.min(CHUNK_SIZE, size - position);
+                ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, position, length)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                int end = length;
+                if (position + length < size) {
+                    end = lastNewline(buf, length) + 1;
+                    if (end == 0) {
+                        throw new IOException("Line longer than " + CHUNK_SIZE + " bytes at offset " + position);
+                    }
+                }
+                chunks.add(buf.limit(end));
+                position += end;
+            }
+        }
+
+        private static int lastNewline(ByteBuffer buf, int length) {
+            for (int i = length - 1; i >= 0; i--) {
+                if (buf.get(i) == CsvBytes.NEWLINE)
+                    return i;
+            }
+            return -1;
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public int chunkCount() {
+            return chunks.size();
+        }
+
+        @Override
+        public ByteBuffer chunk(int index) {
+            return chunks.get(index);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Seekable zstd content. Frames are line-aligned, so a chunk is a run of
+     * consecutive frames decompressed into one buffer.
+     */
+    private static final class Compressed extends CsvSource {
+        private final SeekableZstdReader reader;
+        private final int[] firstFrames; // chunkCount + 1 entries
+
+        private int cachedFrame = -1;
+        private byte[] cachedContent;
+
+        private Compressed(Path file) throws IOException {
+            reader = new SeekableZstdReader(file);
+            List<Integer> starts = new ArrayList<>();
+            long chunkLength = 0;
+            for (int frame = 0; frame < reader.frameCount(); frame++) {
+                int length = reader.frameLength(frame);
+                if (starts.isEmpty() || chunkLength + length > CHUNK_SIZE) {
+                    starts.add(frame);
+                    chunkLength = 0;
+                }
+                chunkLength += length;
+            }
+            starts.add(reader.frameCount());
+            firstFrames = starts.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        @Override
+        public long size() {
+            return reader.size();
+        }
+
+        @Override
+        public int chunkCount() {
+            return firstFrames.length - 1;
+        }
+
+        @Override
+        public ByteBuffer chunk(int index) throws IOException {
+            int first = firstFrames[index];
+            int last = firstFrames[index + 1];
+            if (last - first == 1) {
+                return ByteBuffer.wrap(reader.decompressFrame(first)).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            long length = reader.frameStart(last) - reader.frameStart(first);
+            byte[] content = new byte[(int) length];
+            int offset = 0;
+            for (int frame = first; frame < last; frame++) {
+                byte[] part = reader.decompressFrame(frame);
+                System.arraycopy(part, 0, content, offset, part.length);
+                offset += part.length;
+            }
+            return ByteBuffer.wrap(content).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            if (position >= reader.size()) {
+                return -1;
+            }
+            int frame = reader.frameAt(position);
+            if (frame != cachedFrame) {
+                cachedContent = reader.decompressFrame(frame);
+                cachedFrame = frame;
+            }
+            int offset = (int) (position - reader.frameStart(frame));
+            int n = Math.min(dst.remaining(), cachedContent.length - offset);
+            dst.put(cachedContent, offset, n);
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.synthetic.platform.data;
+
+/**
+ * Text-side CSV helpers for the in-process generators, which build rows in a
+ * {@link StringBuilder} and write them out in batches.
+ */
+public final class CsvText {
+
+    private CsvText() {
+    }
+
+    /** Appends {@code value}, quoted if it holds a comma, quote or line break. */
+    public static void appendField(StringBuilder text, String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            text.append(value);
+            return;
+        }
+        text.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    /** Appends a header line naming {@code columns}. */
+    public static void appendHeader(StringBuilder text, Iterable<String> columns) {
+        boolean first = true;
+        for (String column : columns) {
+            if (!first)
+                text.append(',');
+            appendField(text, column);
+            first = false;
+        }
+        text.append('\n');
+    }
+
+    /** Appends {@code value} with up to four decimals and never in scientific notation. */
+    public static void appendDecimal(StringBuilder text, double value) {
+        long scaled = Math.round(Math.abs(value) * 10_000);
+        if (value < 0 && scaled != 0)
+            text.append('-');
+        text.append(scaled / 10_000);
+        long fraction = scaled % 10_000;
+        if (fraction != 0) {
+            text.append('.');
+            String digits = Long.toString(10_000 + fraction).substring(1);
+            int end = digits.length();
+            while (digits.charAt(end - 1) == '0')
+                end--;
+            text.append(digits, 0, end);
+        }
+    }
+}
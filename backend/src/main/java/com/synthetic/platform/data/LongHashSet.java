@@ -0,0 +1,72 @@
+package com.synthetic.platform.data;
+
+/**
+ * Open-addressing set of primitive longs, for row fingerprints and other
+ * high-volume keys where boxed {@code Set<Long>} overhead would dominate.
+ * Not thread-safe.
+ */
+public final class LongHashSet {
+
+    private long[] slots;
+    private boolean[] used;
+    private int size;
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        slots = new long[capacity];
+        used = new boolean[capacity];
+    }
+
+    /**
+     * Adds {@code value}; returns {@code false} if it was already present.
+     */
+    public boolean add(long value) {
+        int mask = slots.length - 1;
+        for (int slot = mix(value) & mask;; slot = (slot + 1) & mask) {
+            if (!used[slot]) {
+                used[slot] = true;
+                slots[slot] = value;
+                if (++size * 2 > slots.length)
+                    rehash();
+                return true;
+            }
+            if (slots[slot] == value)
+                return false;
+        }
+    }
+
+    public boolean contains(long value) {
+        int mask = slots.length - 1;
+        for (int slot = mix(value) & mask; used[slot]; slot = (slot + 1) & mask) {
+            if (slots[slot] == value)
+                return true;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void rehash() {
+        long[] oldSlots = slots;
+        boolean[] oldUsed = used;
+        slots = new long[oldSlots.length * 2];
+        used = new boolean[oldSlots.length * 2];
+        int mask = slots.length - 1;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (!oldUsed[i])
+                continue;
+            int slot = mix(oldSlots[i]) & mask;
+            while (used[slot])
+                slot = (slot + 1) & mask;
+            used[slot] = true;
+            slots[slot] = oldSlots[i];
+        }
+    }
+
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
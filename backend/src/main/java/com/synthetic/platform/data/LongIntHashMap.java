@@ -0,0 +1,91 @@
+package com.synthetic.platform.data;
+
+/**
+ * Open-addressing map from primitive longs to int counters, the counting
+ * companion of {@link LongHashSet}. Not thread-safe.
+ */
+public final class LongIntHashMap {
+
+    @FunctionalInterface
+    public interface EntryVisitor {
+        void visit(long key, int value);
+    }
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+    }
+
+    /**
+     * Adds one to the counter of {@code key} (starting from zero) and returns
+     * the new count.
+     */
+    public int increment(long key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask;; slot = (slot + 1) & mask) {
+            if (!used[slot]) {
+                used[slot] = true;
+                keys[slot] = key;
+                values[slot] = 1;
+                if (++size * 2 > keys.length)
+                    rehash();
+                return 1;
+            }
+            if (keys[slot] == key)
+                return ++values[slot];
+        }
+    }
+
+    /** The counter of {@code key}, or 0 if it is absent. */
+    public int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; used[slot]; slot = (slot + 1) & mask) {
+            if (keys[slot] == key)
+                return values[slot];
+        }
+        return 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(EntryVisitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i])
+                visitor.visit(keys[i], values[i]);
+        }
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        used = new boolean[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (!oldUsed[i])
+                continue;
+            int slot = mix(oldKeys[i]) & mask;
+            while (used[slot])
+                slot = (slot + 1) & mask;
+            used[slot] = true;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
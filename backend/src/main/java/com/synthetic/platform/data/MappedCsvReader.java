@@ -0,0 +1,359 @@
+package com.synthetic.platform.data;
+
+import com.synthetic.platform.data.ColumnarTable.Column;
+import com.synthetic.platform.data.ColumnarTable.Kind;
+import com.synthetic.platform.service.ParallelTasks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Reads CSV datasets through line-aligned chunks of a {@link CsvSource}
+ * (memory-mapped for plain files, decompressed frame runs for compressed ones)
+ * and scans them as raw bytes: delimiters are found with {@link CsvBytes}' word-at-a-time
+ * search, numbers are parsed in place and strings are only created for the
+ * distinct values of categorical columns. Chunks are parsed in parallel and
+ * stitched back together in file order.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MappedCsvReader {
+
+    /** Bytes of data sampled to guess column kinds when none are given. */
+    static final int KIND_SAMPLE_SIZE = 1024 * 1024;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    @FunctionalInterface
+    public interface LineVisitor {
+        /**
+         * Called for each data line with its bytes in {@code [start, end)},
+         * excluding the line terminator. Returning {@code false} stops the scan.
+         */
+        boolean visit(ByteBuffer buf, int start, int end, long row) throws IOException;
+    }
+
+    @Qualifier("computeExecutor")
+    private final Executor executor;
+
+    /**
+     * Loads the whole file, guessing each column's kind from the first
+     * megabyte. A column guessed numeric that later turns out to hold text is
+     * re-read as categorical.
+     */
+    public ColumnarTable readTable(Path file) throws IOException {
+        return readTable(file, Collections.emptyMap());
+    }
+
+    /**
+     * Loads the whole file using {@code kinds} for the columns it names and
+     * guessing the rest.
+     */
+    public ColumnarTable readTable(Path file, Map<String, Kind> kinds) throws IOException {
+        long start = System.currentTimeMillis();
+        try (CsvSource source = CsvSource.open(file)) {
+            if (source.chunkCount() == 0) {
+                return ColumnarTable.empty();
+            }
+            Chunk first = new Chunk(source.chunk(0));
+            String[] names = parseHeader(first).toArray(new String[0]);
+            Kind[] resolved = resolveKinds(names, kinds, first);
+
+            List<ChunkParser> parts = parseAll(source, first, resolved);
+            boolean[] demoted = demotedColumns(parts, resolved.length);
+            if (demoted != null) {
+                for (int c = 0; c < resolved.length; c++) {
+                    if (demoted[c])
+                        resolved[c] = Kind.CATEGORICAL;
+                }
+                parts = parseAll(source, first, resolved);
+            }
+
+            ColumnarTable table = merge(names, resolved, parts);
+            log.debug("Read {} rows x {} columns from {} in {} ms", table.getRowCount(), names.length, file,
+                    System.currentTimeMillis() - start);
+            return table;
+        }
+    }
+
+    /**
+     * The trimmed header cells of {@code file}; empty if the file is empty.
+     */
+    public List<String> readHeader(Path file) throws IOException {
+        try (CsvSource source = CsvSource.open(file)) {
+            return source.chunkCount() == 0 ? new ArrayList<>() : parseHeader(new Chunk(source.chunk(0)));
+        }
+    }
+
+    /**
+     * Visits every data line of {@code file} in order without decoding it.
+     */
+    public void scanLines(Path file, LineVisitor visitor) throws IOException {
+        try (CsvSource source = CsvSource.open(file)) {
+            long row = 0;
+            for (int i = 0; i < source.chunkCount(); i++) {
+                Chunk chunk = new Chunk(source.chunk(i));
+                if (i == 0)
+                    parseHeader(chunk);
+                ByteBuffer buf = chunk.buffer;
+                int pos = chunk.start;
+                while (pos < chunk.end) {
+                    int newline = CsvBytes.nextNewline(buf, pos, chunk.end);
+                    int lineEnd = newline > pos && buf.get(newline - 1) == '\r' ? newline - 1 : newline;
+                    if (!visitor.visit(buf, pos, lineEnd, row++))
+                        return;
+                    pos = newline + 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses the header line of the first chunk and moves the chunk's start
+     * past it.
+     */
+    private List<String> parseHeader(Chunk first) {
+        ByteBuffer buf = first.buffer;
+        int newline = CsvBytes.nextNewline(buf, first.start, first.end);
+        List<String> names = CsvBytes.fields(buf, first.start, newline);
+        first.start = Math.min(newline + 1, first.end);
+        return names;
+    }
+
+    private Kind[] resolveKinds(String[] names, Map<String, Kind> kinds, Chunk first) {
+        Kind[] resolved = new Kind[names.length];
+        boolean guess = false;
+        for (int c = 0; c < names.length; c++) {
+            resolved[c] = kinds.get(names[c]);
+            if (resolved[c] == null) {
+                resolved[c] = Kind.NUMERIC;
+                guess = true;
+            }
+        }
+        if (!guess || first.start >= first.end) {
+            return resolved;
+        }
+
+        Kind[] probe = new Kind[names.length];
+        Arrays.fill(probe, Kind.NUMERIC);
+        int sampleEnd = Math.min(first.end, first.start + KIND_SAMPLE_SIZE);
+        if (sampleEnd < first.end) {
+            sampleEnd = CsvBytes.nextNewline(first.buffer, sampleEnd, first.end);
+        }
+        ChunkParser sample = new ChunkParser(probe);
+        sample.parse(first.buffer, first.start, sampleEnd);
+        for (int c = 0; c < names.length; c++) {
+            if (!kinds.containsKey(names[c]) && sample.demoted[c]) {
+                resolved[c] = Kind.CATEGORICAL;
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Parses every chunk in parallel. Chunks after the first are fetched inside
+     * their task, so compressed chunks are also decompressed in parallel and
+     * only live while they are parsed.
+     */
+    private List<ChunkParser> parseAll(CsvSource source, Chunk first, Kind[] kinds) throws IOException {
+        try {
+            return ParallelTasks.map(source.chunkCount(), index -> {
+                Chunk chunk;
+                try {
+                    chunk = index == 0 ? first : new Chunk(source.chunk(index));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                ChunkParser parser = new ChunkParser(kinds);
+                parser.parse(chunk.buffer, chunk.start, chunk.end);
+                return parser;
+            }, executor);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private boolean[] demotedColumns(List<ChunkParser> parts, int columnCount) {
+        boolean[] demoted = null;
+        for (ChunkParser part : parts) {
+            for (int c = 0; c < columnCount; c++) {
+                if (part.demoted[c]) {
+                    if (demoted == null)
+                        demoted = new boolean[columnCount];
+                    demoted[c] = true;
+                }
+            }
+        }
+        return demoted;
+    }
+
+    private ColumnarTable merge(String[] names, Kind[] kinds, List<ChunkParser> parts) {
+        long total = 0;
+        for (ChunkParser part : parts)
+            total += part.rows;
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Dataset has too many rows to load in memory: " + total);
+        }
+        int rowCount = (int) total;
+
+        List<Column> columns = new ArrayList<>(names.length);
+        for (int c = 0; c < names.length; c++) {
+            if (kinds[c] == Kind.NUMERIC) {
+                double[] values = new double[rowCount];
+                boolean integral = true;
+                int offset = 0;
+                for (ChunkParser part : parts) {
+                    System.arraycopy(part.numeric[c], 0, values, offset, part.rows);
+                    integral &= part.integral[c];
+                    offset += part.rows;
+                }
+                columns.add(Column.numeric(names[c], values, integral));
+            } else {
+                ByteDictionary dictionary = new ByteDictionary();
+                int[] codes = new int[rowCount];
+                int offset = 0;
+                for (ChunkParser part : parts) {
+                    ByteDictionary local = part.dictionaries[c];
+                    int[] remap = new int[local.size()];
+                    for (int code = 0; code < remap.length; code++) {
+                        remap[code] = dictionary.encode(local.key(code));
+                    }
+                    int[] localCodes = part.codes[c];
+                    for (int r = 0; r < part.rows; r++) {
+                        codes[offset + r] = remap[localCodes[r]];
+                    }
+                    offset += part.rows;
+                }
+                columns.add(Column.categorical(names[c], codes, dictionary.values()));
+            }
+        }
+        return new ColumnarTable(columns, rowCount);
+    }
+
+    private static final class Chunk {
+        private final ByteBuffer buffer;
+        private int start;
+        private final int end;
+
+        private Chunk(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.start = 0;
+            this.end = buffer.limit();
+        }
+    }
+
+    /**
+     * Parses whole lines into growable per-column arrays. Can be fed several
+     * ranges in sequence; rows are appended.
+     */
+    static final class ChunkParser {
+        private final Kind[] kinds;
+        private final int columnCount;
+        private final double[][] numeric;
+        private final int[][] codes;
+        private final ByteDictionary[] dictionaries;
+        private final boolean[] integral;
+        private final boolean[] demoted;
+        private int capacity = 1024;
+        private int rows;
+
+        ChunkParser(Kind[] kinds) {
+            this.kinds = kinds;
+            this.columnCount = kinds.length;
+            this.numeric = new double[columnCount][];
+            this.codes = new int[columnCount][];
+            this.dictionaries = new ByteDictionary[columnCount];
+            this.integral = new boolean[columnCount];
+            this.demoted = new boolean[columnCount];
+            for (int c = 0; c < columnCount; c++) {
+                if (kinds[c] == Kind.NUMERIC) {
+                    numeric[c] = new double[capacity];
+                    integral[c] = true;
+                } else {
+                    codes[c] = new int[capacity];
+                    dictionaries[c] = new ByteDictionary();
+                }
+            }
+        }
+
+        void parse(ByteBuffer buf, int start, int end) {
+            int pos = start;
+            while (pos < end) {
+                if (rows == capacity)
+                    grow();
+                int column = 0;
+                while (true) {
+                    int fieldStart = pos;
+                    if (pos < end && buf.get(pos) == CsvBytes.QUOTE) {
+                        pos = CsvBytes.skipQuoted(buf, pos, end);
+                    }
+                    pos = CsvBytes.nextDelimiter(buf, pos, end);
+                    if (column < columnCount) {
+                        accept(column, buf, fieldStart, pos);
+                    }
+                    column++;
+                    if (pos >= end || buf.get(pos++) == CsvBytes.NEWLINE)
+                        break;
+                }
+                for (; column < columnCount; column++) {
+                    accept(column, buf, 0, 0);
+                }
+                rows++;
+            }
+        }
+
+        private void accept(int column, ByteBuffer buf, int start, int end) {
+            start = CsvBytes.trimStart(buf, start, end);
+            end = CsvBytes.trimEnd(buf, start, end);
+            boolean quoted = end - start >= 2 && buf.get(start) == CsvBytes.QUOTE && buf.get(end - 1) == CsvBytes.QUOTE;
+
+            if (kinds[column] == Kind.NUMERIC) {
+                if (quoted) {
+                    start++;
+                    end--;
+                }
+                double value = Double.NaN;
+                if (!CsvBytes.isNull(buf, start, end)) {
+                    value = CsvBytes.parseDouble(buf, start, end);
+                    if (Double.isNaN(value)) {
+                        demoted[column] = true;
+                    } else if (integral[column] && !CsvBytes.isIntegral(buf, start, end)) {
+                        integral[column] = false;
+                    }
+                }
+                numeric[column][rows] = value;
+            } else if (quoted) {
+                byte[] unquoted = CsvBytes.decode(buf, start, end).getBytes(StandardCharsets.UTF_8);
+                codes[column][rows] = dictionaries[column].encode(unquoted);
+            } else if (start == end) {
+                codes[column][rows] = dictionaries[column].encode(EMPTY);
+            } else {
+                codes[column][rows] = dictionaries[column].encode(buf, start, end);
+            }
+        }
+
+        private void grow() {
+            capacity *= 2;
+            for (int c = 0; c < columnCount; c++) {
+                if (numeric[c] != null)
+                    numeric[c] = Arrays.copyOf(numeric[c], capacity);
+                else
+                    codes[c] = Arrays.copyOf(codes[c], capacity);
+            }
+        }
+    }
+}
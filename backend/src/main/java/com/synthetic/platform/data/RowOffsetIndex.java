@@ -0,0 +1,191 @@
+package com.synthetic.platform.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Sparse index of data row start offsets in a CSV file. Every {@code stride}-th
+ * row's byte offset is recorded, so any row can be reached by seeking to the
+ * nearest checkpoint and skipping at most {@code stride - 1} lines. Row 0 is the
+ * first line after the header; records are assumed to be one per line.
+ * <p>
+ * Offsets are positions in the decompressed content (see {@link CsvSource}),
+ * while the staleness stamp is taken from the file as stored.
+ */
+public final class RowOffsetIndex {
+
+    public static final int DEFAULT_STRIDE = 1024;
+    public static final String SIDECAR_SUFFIX = ".idx";
+
+    private static final long MAGIC = 0x53594e4944583031L; // "SYNIDX01"
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+
+    private final int stride;
+    private final long rowCount;
+    private final long fileSize;
+    private final long lastModified;
+    private final long[] offsets;
+
+    RowOffsetIndex(int stride, long rowCount, long fileSize, long lastModified, long[] offsets) {
+        this.stride = stride;
+        this.rowCount = rowCount;
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Builds the index in a single sequential pass over the file.
+     */
+    public static RowOffsetIndex build(Path file, int stride) throws IOException {
+        if (stride < 1) {
+            throw new IllegalArgumentException("Stride must be positive");
+        }
+
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        long storedSize = Files.size(file);
+        try (CsvSource source = CsvSource.open(file)) {
+            long size = source.size();
+            long[] offsets = new long[16];
+            int checkpoints = 0;
+            long row = -1; // the header line
+            long position = 0;
+
+            byte[] chunk = new byte[READ_BUFFER_SIZE];
+            ByteBuffer buffer = ByteBuffer.wrap(chunk);
+            int read;
+            while ((read = source.read(buffer, position)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    if (chunk[i] == '\n') {
+                        long next = position + i + 1;
+                        if (next < size) {
+                            row++;
+                            if (row % stride == 0) {
+                                if (checkpoints == offsets.length) {
+                                    offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                                }
+                                offsets[checkpoints++] = next;
+                            }
+                        }
+                    }
+                }
+                position += read;
+                buffer.clear();
+            }
+
+            return new RowOffsetIndex(stride, row + 1, storedSize, lastModified, Arrays.copyOf(offsets, checkpoints));
+        }
+    }
+
+    /**
+     * Writes the index next to {@code file} as {@code <file>.idx}. The sidecar is
+     * written to a temporary file first and moved into place, so readers never
+     * see a partial index.
+     */
+    public void writeSidecar(Path file) throws IOException {
+        Path sidecar = sidecarOf(file);
+        Path tmp = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeLong(MAGIC);
+            out.writeInt(stride);
+            out.writeLong(rowCount);
+            out.writeLong(fileSize);
+            out.writeLong(lastModified);
+            out.writeInt(offsets.length);
+            for (long offset : offsets) {
+                out.writeLong(offset);
+            }
+        }
+        Files.move(tmp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads the sidecar of {@code file}, or returns {@code null} if it is missing,
+     * unreadable or describes a different version of the file.
+     */
+    public static RowOffsetIndex readSidecar(Path file) throws IOException {
+        Path sidecar = sidecarOf(file);
+        if (!Files.exists(sidecar)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar)))) {
+            if (in.readLong() != MAGIC) {
+                return null;
+            }
+            int stride = in.readInt();
+            long rowCount = in.readLong();
+            long fileSize = in.readLong();
+            long lastModified = in.readLong();
+            long[] offsets = new long[in.readInt()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = in.readLong();
+            }
+            RowOffsetIndex index = new RowOffsetIndex(stride, rowCount, fileSize, lastModified, offsets);
+            return index.isCurrent(file) ? index : null;
+        } catch (java.io.EOFException e) {
+            return null;
+        }
+    }
+
+    public static Path sidecarOf(Path file) {
+        return file.resolveSibling(file.getFileName() + SIDECAR_SUFFIX);
+    }
+
+    /**
+     * Whether the index still describes {@code file} as it is on disk.
+     */
+    public boolean isCurrent(Path file) throws IOException {
+        return Files.size(file) == fileSize && Files.getLastModifiedTime(file).toMillis() == lastModified;
+    }
+
+    /**
+     * Byte offset of the closest indexed row at or before {@code row}.
+     */
+    public long checkpointOffset(long row) {
+        checkRow(row);
+        return offsets[(int) (row / stride)];
+    }
+
+    /**
+     * Number of lines to skip after {@link #checkpointOffset(long)} to reach
+     * {@code row}.
+     */
+    public int linesToSkip(long row) {
+        checkRow(row);
+        return (int) (row % stride);
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    long[] offsets() {
+        return offsets;
+    }
+
+    private void checkRow(long row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " outside dataset of " + rowCount + " rows");
+        }
+    }
+}
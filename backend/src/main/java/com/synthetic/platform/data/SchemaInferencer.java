@@ -0,0 +1,368 @@
+package com.synthetic.platform.data;
+
+import com.synthetic.platform.dto.DatasetSchemaDTO;
+import com.synthetic.platform.dto.DatasetSchemaDTO.ColumnSchema;
+import com.synthetic.platform.dto.DatasetSchemaDTO.ColumnType;
+import com.synthetic.platform.privacy.ColumnNameClassifier;
+import com.synthetic.platform.privacy.PiiDetector;
+import com.synthetic.platform.privacy.PiiType;
+import com.synthetic.platform.service.ParallelTasks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Infers a dataset's schema from every value: each field is classified in
+ * place as integer, decimal, boolean, date or date-time without decoding it,
+ * and a column gets the narrowest type all of its non-null values fit. Null
+ * markers and an approximate distinct count are collected on the way, and
+ * the first values of each chunk are run through the {@link PiiDetector}s.
+ * Chunks are scanned in parallel and their statistics merged.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SchemaInferencer {
+
+    /** Bumped whenever inference adds or changes fields; older stored schemas are inferred again. */
+    public static final int VERSION = 2;
+
+    /** Values per column and chunk checked for personal data. */
+    static final int PII_SAMPLE_PER_CHUNK = 512;
+
+    /** Share of sampled values that must match for a column to be flagged. */
+    static final double PII_MATCH_THRESHOLD = 0.8;
+
+    // Candidate types a value fits, as bits; a column keeps those all its values share
+    private static final int INTEGER = 1;
+    private static final int DOUBLE = 1 << 1;
+    private static final int BOOLEAN = 1 << 2;
+    private static final int DATE = 1 << 3;
+    private static final int DATETIME = 1 << 4;
+    private static final int ANY = INTEGER | DOUBLE | BOOLEAN | DATE | DATETIME;
+
+    private static final byte[][] BOOLEAN_LITERALS = { bytes("true"), bytes("false"), bytes("yes"), bytes("no") };
+
+    private final MappedCsvReader mappedCsvReader;
+    @Qualifier("computeExecutor")
+    private final Executor executor;
+
+    public DatasetSchemaDTO infer(Path file) throws IOException {
+        long start = System.currentTimeMillis();
+        List<String> names = mappedCsvReader.readHeader(file);
+        ColumnStats[] totals = newStats(names.size());
+        long rows = 0;
+
+        try (CsvSource source = CsvSource.open(file)) {
+            List<ChunkScanner> parts;
+            try {
+                parts = ParallelTasks.map(source.chunkCount(), index -> scan(source, index, names.size()), executor);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            for (ChunkScanner part : parts) {
+                rows += part.rows;
+                for (int c = 0; c < totals.length; c++) {
+                    totals[c].merge(part.stats[c]);
+                }
+            }
+        }
+
+        List<ColumnSchema> columns = new ArrayList<>(names.size());
+        for (int c = 0; c < names.size(); c++) {
+            columns.add(totals[c].toSchema(names.get(c)));
+        }
+        log.debug("Inferred schema of {} ({} rows x {} columns) in {} ms", file, rows, columns.size(),
+                System.currentTimeMillis() - start);
+        return DatasetSchemaDTO.builder().version(VERSION).rowCount(rows).columns(columns).build();
+    }
+
+    public static boolean isCurrent(DatasetSchemaDTO schema) {
+        return schema.getVersion() != null && schema.getVersion() >= VERSION;
+    }
+
+    /**
+     * Reader column kinds for {@code schema}: numeric types are read as
+     * numbers, everything else as categories.
+     */
+    public static Map<String, ColumnarTable.Kind> kinds(DatasetSchemaDTO schema) {
+        Map<String, ColumnarTable.Kind> kinds = new LinkedHashMap<>();
+        for (ColumnSchema column : schema.getColumns()) {
+            kinds.put(column.getName(),
+                    column.getType().isNumeric() ? ColumnarTable.Kind.NUMERIC : ColumnarTable.Kind.CATEGORICAL);
+        }
+        return kinds;
+    }
+
+    private static ChunkScanner scan(CsvSource source, int index, int columnCount) {
+        ByteBuffer buf;
+        try {
+            buf = source.chunk(index);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int start = 0;
+        int end = buf.limit();
+        if (index == 0) {
+            // Skip the header line
+            start = Math.min(CsvBytes.nextNewline(buf, 0, end) + 1, end);
+        }
+        ChunkScanner scanner = new ChunkScanner(columnCount);
+        scanner.scan(buf, start, end);
+        return scanner;
+    }
+
+    private static ColumnStats[] newStats(int columnCount) {
+        ColumnStats[] stats = new ColumnStats[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            stats[c] = new ColumnStats();
+        }
+        return stats;
+    }
+
+    /** Splits lines into fields the same way the table reader does. */
+    private static final class ChunkScanner {
+        private final ColumnStats[] stats;
+        private long rows;
+
+        private ChunkScanner(int columnCount) {
+            this.stats = newStats(columnCount);
+        }
+
+        void scan(ByteBuffer buf, int start, int end) {
+            int pos = start;
+            while (pos < end) {
+                int column = 0;
+                while (true) {
+                    int fieldStart = pos;
+                    if (pos < end && buf.get(pos) == CsvBytes.QUOTE) {
+                        pos = CsvBytes.skipQuoted(buf, pos, end);
+                    }
+                    pos = CsvBytes.nextDelimiter(buf, pos, end);
+                    if (column < stats.length) {
+                        stats[column].accept(buf, fieldStart, pos);
+                    }
+                    column++;
+                    if (pos >= end || buf.get(pos++) == CsvBytes.NEWLINE)
+                        break;
+                }
+                for (; column < stats.length; column++) {
+                    stats[column].accept(buf, 0, 0);
+                }
+                rows++;
+            }
+        }
+    }
+
+    private static final class ColumnStats {
+        private int candidates = ANY;
+        private long values;
+        private long nulls;
+        private int markers; // bit per CsvBytes null marker seen
+        private final HyperLogLog distinct = new HyperLogLog();
+        private int piiSampled;
+        private final int[] piiMatches = new int[PiiType.values().length];
+
+        void accept(ByteBuffer buf, int start, int end) {
+            start = CsvBytes.trimStart(buf, start, end);
+            end = CsvBytes.trimEnd(buf, start, end);
+            if (end - start >= 2 && buf.get(start) == CsvBytes.QUOTE && buf.get(end - 1) == CsvBytes.QUOTE) {
+                start++;
+                end--;
+            }
+
+            int marker = CsvBytes.nullMarker(buf, start, end);
+            if (marker >= 0) {
+                nulls++;
+                markers |= 1 << marker;
+                return;
+            }
+            values++;
+            distinct.add(HyperLogLog.hash(buf, start, end));
+            boolean sample = piiSampled < PII_SAMPLE_PER_CHUNK;
+            if (candidates != 0 || sample) {
+                int fits = classify(buf, start, end);
+                candidates &= fits;
+                if (sample) {
+                    piiSampled++;
+                    PiiType pii = (fits & (DATE | DATETIME)) == 0 ? PiiDetector.detect(buf, start, end) : null;
+                    if (pii != null)
+                        piiMatches[pii.ordinal()]++;
+                }
+            }
+        }
+
+        void merge(ColumnStats other) {
+            candidates &= other.candidates;
+            values += other.values;
+            nulls += other.nulls;
+            markers |= other.markers;
+            distinct.merge(other.distinct);
+            piiSampled += other.piiSampled;
+            for (int i = 0; i < piiMatches.length; i++) {
+                piiMatches[i] += other.piiMatches[i];
+            }
+        }
+
+        ColumnSchema toSchema(String name) {
+            List<String> seen = new ArrayList<>();
+            for (int marker = 0; marker < CsvBytes.nullMarkerCount(); marker++) {
+                if ((markers & (1 << marker)) != 0)
+                    seen.add(CsvBytes.nullMarkerText(marker));
+            }
+            PiiType pii = null;
+            int best = 0;
+            for (PiiType type : PiiType.values()) {
+                if (piiMatches[type.ordinal()] > best) {
+                    best = piiMatches[type.ordinal()];
+                    pii = type;
+                }
+            }
+            double rate = piiSampled == 0 ? 0 : (double) best / piiSampled;
+            boolean flagged = pii != null && rate >= PII_MATCH_THRESHOLD;
+            return ColumnSchema.builder()
+                    .name(name)
+                    .type(resolve())
+                    .nullCount(nulls)
+                    .nullMarkers(seen)
+                    .distinctCount(values == 0 ? 0 : Math.min(distinct.estimate(), values))
+                    .nameCategory(ColumnNameClassifier.getDefault().classify(name))
+                    .detectedPii(flagged ? pii : null)
+                    .detectedPiiRate(flagged ? Math.round(rate * 1000) / 1000.0 : null)
+                    .build();
+        }
+
+        private ColumnType resolve() {
+            if (values == 0)
+                return ColumnType.STRING;
+            if ((candidates & INTEGER) != 0)
+                return ColumnType.INTEGER;
+            if ((candidates & DOUBLE) != 0)
+                return ColumnType.DOUBLE;
+            if ((candidates & BOOLEAN) != 0)
+                return ColumnType.BOOLEAN;
+            if ((candidates & DATE) != 0)
+                return ColumnType.DATE;
+            if ((candidates & DATETIME) != 0)
+                return ColumnType.DATETIME;
+            return ColumnType.STRING;
+        }
+    }
+
+    /**
+     * Candidate bits for one non-null field. Only the first byte is looked at
+     * before picking which detector to run.
+     */
+    static int classify(ByteBuffer buf, int start, int end) {
+        byte first = buf.get(start);
+        if ((first >= '0' && first <= '9') || first == '-' || first == '+' || first == '.') {
+            int date = dateTime(buf, start, end);
+            if (date != 0)
+                return date;
+            if (Double.isNaN(CsvBytes.parseDouble(buf, start, end)))
+                return 0;
+            return CsvBytes.isIntegral(buf, start, end) ? INTEGER | DOUBLE : DOUBLE;
+        }
+        return isBoolean(buf, start, end) ? BOOLEAN : 0;
+    }
+
+    private static boolean isBoolean(ByteBuffer buf, int start, int end) {
+        for (byte[] literal : BOOLEAN_LITERALS) {
+            if (equalsIgnoreCase(buf, start, end, literal))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * {@code DATE | DATETIME} for {@code yyyy-MM-dd}, {@code DATETIME} for a
+     * date followed by {@code T} or a space, {@code HH:mm[:ss[.fraction]]} and an
+     * optional {@code Z} or {@code ±HH[:]mm} offset, 0 otherwise. A date alone
+     * also fits date-time columns.
+     */
+    static int dateTime(ByteBuffer buf, int start, int end) {
+        if (end - start < 10 || buf.get(start + 4) != '-' || buf.get(start + 7) != '-')
+            return 0;
+        int month = digits(buf, start + 5, 2, end);
+        int day = digits(buf, start + 8, 2, end);
+        if (digits(buf, start, 4, end) < 0 || month < 1 || month > 12 || day < 1 || day > 31)
+            return 0;
+        int pos = start + 10;
+        if (pos == end)
+            return DATE | DATETIME;
+
+        byte separator = buf.get(pos++);
+        if ((separator != 'T' && separator != ' ') || end - pos < 5 || buf.get(pos + 2) != ':')
+            return 0;
+        int hour = digits(buf, pos, 2, end);
+        int minute = digits(buf, pos + 3, 2, end);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59)
+            return 0;
+        pos += 5;
+        if (pos + 3 <= end && buf.get(pos) == ':') {
+            int second = digits(buf, pos + 1, 2, end);
+            if (second < 0 || second > 60)
+                return 0;
+            pos += 3;
+            if (pos < end && buf.get(pos) == '.') {
+                int fraction = ++pos;
+                while (pos < end && digits(buf, pos, 1, end) >= 0)
+                    pos++;
+                if (pos == fraction)
+                    return 0;
+            }
+        }
+        if (pos == end)
+            return DATETIME;
+
+        byte zone = buf.get(pos++);
+        if (zone == 'Z')
+            return pos == end ? DATETIME : 0;
+        if ((zone != '+' && zone != '-') || digits(buf, pos, 2, end) < 0)
+            return 0;
+        pos += 2;
+        if (pos < end && buf.get(pos) == ':')
+            pos++;
+        return end - pos == 2 && digits(buf, pos, 2, end) >= 0 ? DATETIME : 0;
+    }
+
+    /** The decimal value of {@code count} digits at {@code pos}, or -1 if they run past {@code end}. */
+    private static int digits(ByteBuffer buf, int pos, int count, int end) {
+        if (pos + count > end)
+            return -1;
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            byte b = buf.get(pos + i);
+            if (b < '0' || b > '9')
+                return -1;
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private static boolean equalsIgnoreCase(ByteBuffer buf, int start, int end, byte[] lower) {
+        if (end - start != lower.length)
+            return false;
+        for (int i = 0; i < lower.length; i++) {
+            if ((buf.get(start + i) | 0x20) != lower[i])
+                return false;
+        }
+        return true;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
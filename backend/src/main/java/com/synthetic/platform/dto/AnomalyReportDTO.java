@@ -0,0 +1,60 @@
+package com.synthetic.platform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the anomalous records and columns of a dataset
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnomalyReportDTO {
+
+    private String status;
+    private Long rowCount;
+    private Long anomalyCount; // rows flagged by any detector
+    private Integer trees; // isolation trees scored per row, 0 without usable columns
+    private Double scoreThreshold; // rows scoring above this count as anomalies
+    private List<ColumnSummary> columns;
+    private List<RowAnomaly> anomalies; // most anomalous rows first
+
+    /**
+     * Robust statistics (numeric) or category frequencies (categorical) of
+     * one column, with how many of its values look anomalous
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ColumnSummary {
+        private String name;
+        private String kind; // NUMERIC or CATEGORICAL
+        private Long missingCount;
+        private Long distinctCount; // categorical only
+        private Double median; // numeric only
+        private Double mad; // median absolute deviation, numeric only
+        private Long outlierCount; // numeric values with a robust z-score above the threshold
+        private Long rareCount; // values of categories rarer than the threshold
+        private List<String> rareCategories; // the rarest first, at most a few
+        private Boolean scored; // false for identifier-like or empty columns, which are not scored
+    }
+
+    /**
+     * A row among the most anomalous
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowAnomaly {
+        private Long row; // offset of the row in the dataset, as for paging
+        private Double score; // 0-1, the highest of its isolation, robust z and rarity scores; 0.5 or less is ordinary
+        private List<String> reasons; // outlying and rare values of the row
+    }
+}
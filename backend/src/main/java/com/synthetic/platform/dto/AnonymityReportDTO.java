@@ -0,0 +1,38 @@
+package com.synthetic.platform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the k-anonymity, l-diversity and re-identification risk of a
+ * synthetic dataset over a set of quasi-identifiers
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnonymityReportDTO {
+
+    private List<String> quasiIdentifiers;
+    private String sensitiveColumn; // null if l-diversity was not evaluated
+    private Integer numericBins; // 0 when numeric quasi-identifiers are compared exactly
+
+    // Equivalence classes of the synthetic data (records sharing all quasi-identifier values)
+    private Long recordCount;
+    private Long equivalenceClasses;
+    private Integer k; // size of the smallest class
+    private Double averageClassSize;
+    private Integer targetK;
+    private Long recordsBelowTargetK; // records in classes smaller than targetK
+    private Integer l; // fewest distinct sensitive values in a class
+
+    // Re-identification against the original data, per synthetic record
+    private Double matchedRecordRate; // quasi-identifiers occur in the original
+    private Double uniqueMatchRate; // ... and single out exactly one original record
+    private Double averageRisk; // mean of 1 / matching original records (prosecutor risk)
+    private Double maxRisk;
+}
@@ -0,0 +1,24 @@
+package com.synthetic.platform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for an anonymity evaluation of a synthetic dataset
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnonymityRequestDTO {
+
+    private Long originalDatasetId; // required; re-identification risk is measured against this dataset
+    private List<String> quasiIdentifiers;
+    private String sensitiveColumn; // optional, for l-diversity
+    private Integer targetK; // defaults to 5
+    private Integer numericBins; // optional equal-width generalisation of numeric quasi-identifiers
+}
@@ -0,0 +1,58 @@
+package com.synthetic.platform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for simulated privacy attacks on a synthetic dataset
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttackReportDTO {
+
+    private Integer syntheticRecordsSampled; // synthetic records the attacker searches
+    private MembershipInference membershipInference; // null without a holdout dataset
+    private List<AttributeInference> attributeInference;
+
+    /**
+     * Guesses whether a record was in the training data from its distance to
+     * the closest synthetic record
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MembershipInference {
+        private List<String> columns;
+        private Integer memberTargets; // sampled from the original (training) data
+        private Integer holdoutTargets; // sampled from data the generator never saw
+        private Double auc; // 0.5 = no better than guessing
+        private Double advantage; // best true positive rate minus false positive rate, 0-1
+        private Double memberMedianDistance;
+        private Double holdoutMedianDistance;
+    }
+
+    /**
+     * Guesses a sensitive value of original records from the closest
+     * synthetic record on the quasi-identifiers
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AttributeInference {
+        private String sensitiveColumn;
+        private List<String> quasiIdentifiers;
+        private Integer targets;
+        private Double accuracy;
+        private Double baselineAccuracy; // guessing the value of a random synthetic record
+        private Double controlAccuracy; // same attack on holdout records, null without one
+        private Double risk; // accuracy gained over the control (or baseline), 0-1
+    }
+}
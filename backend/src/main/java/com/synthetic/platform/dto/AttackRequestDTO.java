@@ -0,0 +1,23 @@
+package com.synthetic.platform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for simulating privacy attacks on a synthetic dataset
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttackRequestDTO {
+
+    private Long originalDatasetId; // required; the data the generator was trained on
+    private Long holdoutDatasetId; // optional, same population but not trained on; enables membership inference
+    private List<String> quasiIdentifiers; // attacker's background knowledge; defaults to every other column
+    private List<String> sensitiveColumns; // optional, targets of attribute inference
+}
@@ -0,0 +1,25 @@
+package com.synthetic.platform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a page of dataset rows
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatasetPageDTO {
+
+    private Long datasetId;
+    private Long offset;
+    private Integer limit;
+    private Long totalRows;
+    private List<String> columns;
+    private List<List<String>> rows;
+}
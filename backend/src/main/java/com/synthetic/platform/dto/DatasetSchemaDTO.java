@@ -0,0 +1,95 @@
+package com.synthetic.platform.dto;
+
+import com.synthetic.platform.privacy.PiiType;
+import com.synthetic.platform.privacy.SensitiveCategory;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a dataset's column schema, inferred from every value at upload time
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatasetSchemaDTO {
+
+    private Integer version; // format of the inference that produced this schema
+    private Long rowCount;
+    private List<ColumnSchema> columns;
+
+    /** The named column's schema, or {@code null}. */
+    public ColumnSchema column(String name) {
+        if (columns != null) {
+            for (ColumnSchema column : columns) {
+                if (column.getName().equals(name))
+                    return column;
+            }
+        }
+        return null;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ColumnSchema {
+        private String name;
+        private ColumnType type;
+        private Long nullCount;
+        private List<String> nullMarkers; // markers seen in this column; "" is an empty field
+        private Long distinctCount; // approximate, excluding nulls
+
+        // Sensitive data detection
+        private SensitiveCategory nameCategory; // from the column name
+        private PiiType detectedPii; // from a sample of the values
+        private Double detectedPiiRate; // share of sampled values that matched detectedPii
+
+        /**
+         * {@code text} as this column's type: a Long, Double or Boolean for
+         * numeric and boolean columns, {@code null} for null markers, and the
+         * text itself otherwise (or if it does not parse).
+         */
+        public Object value(String text) {
+            if (text == null)
+                return null;
+            String trimmed = text.trim();
+            if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+                trimmed = trimmed.substring(1, trimmed.length() - 1);
+            }
+            if (trimmed.isEmpty() || (nullMarkers != null && nullMarkers.contains(trimmed)))
+                return null;
+            try {
+                switch (type) {
+                    case INTEGER:
+                        return Long.valueOf(trimmed);
+                    case DOUBLE:
+                        return Double.valueOf(trimmed);
+                    case BOOLEAN:
+                        return trimmed.equalsIgnoreCase("true") || trimmed.equalsIgnoreCase("yes");
+                    default:
+                        return text;
+                }
+            } catch (NumberFormatException e) {
+                return text; // integers beyond the range of long
+            }
+        }
+    }
+
+    public enum ColumnType {
+        INTEGER,
+        DOUBLE,
+        BOOLEAN,
+        DATE, // yyyy-MM-dd
+        DATETIME, // ISO-8601 date and time, optionally with zone offset
+        STRING;
+
+        public boolean isNumeric() {
+            return this == INTEGER || this == DOUBLE;
+        }
+    }
+}
@@ -20,10 +20,23 @@ public class ExportRequestDTO {
     private Boolean includePrivacyReport;
     private Integer numberOfRecords;
 
+    // Record slicing (defaults to HEAD)
+    private SamplingMode samplingMode;
+    private String stratifyColumn; // STRATIFIED only
+    private Long seed; // RESERVOIR and STRATIFIED, for reproducible samples
+    private Long page; // PAGE only, zero-based; page size is numberOfRecords
+
     public enum ExportFormat {
         PDF,
         EXCEL,
         JSON,
         CSV
     }
+
+    public enum SamplingMode {
+        HEAD, // first N records
+        RESERVOIR, // uniform random sample
+        STRATIFIED, // proportional sample by stratifyColumn
+        PAGE // records [page * N, (page + 1) * N)
+    }
 }
@@ -0,0 +1,41 @@
+package com.synthetic.platform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for the differential-privacy budget of a dataset and the releases
+ * charged against it
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrivacyBudgetDTO {
+
+    private Long datasetId;
+    private double epsilonLimit;
+    private double epsilonSpent;
+    private double epsilonRemaining;
+    private double deltaSpent;
+    private List<Charge> charges; // most recent first
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Charge {
+        private Long datasetId;
+        private Long modelId;
+        private double epsilon;
+        private double delta;
+        private String mechanism;
+        private String purpose;
+        private LocalDateTime createdAt;
+    }
+}
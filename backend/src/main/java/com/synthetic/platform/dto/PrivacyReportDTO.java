@@ -40,6 +40,9 @@ public class PrivacyReportDTO {
     // Privacy Guarantees
     private PrivacyGuarantees privacyGuarantees;
 
+    // Simulated Attacks
+    private AttackReportDTO attackSimulation;
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -135,6 +138,7 @@ public class PrivacyReportDTO {
         private Boolean noLocationDataLeakage;
         private Boolean noOriginalRecordsCopied;
         private Double minimumRecordDistance; // Minimum distance from original records
+        private AnonymityReportDTO anonymity; // null if there are no quasi-identifiers
         private String complianceLevel; // GDPR, HIPAA, CCPA
         private List<String> privacyTechniquesApplied;
     }
@@ -0,0 +1,23 @@
+package com.synthetic.platform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for starting a chunked dataset upload
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadRequestDTO {
+
+    private Long projectId;
+    private String fileName;
+    private Long totalSize;
+    private Integer chunkSize; // Optional, bytes; defaults to app.upload.chunk-size-mb
+    private String checksum; // Optional, CRC32C (hex) of the whole file, verified on completion
+    private Long sourceDatasetId; // Optional, the dataset this file was synthesized from
+}
@@ -0,0 +1,31 @@
+package com.synthetic.platform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for the state of a chunked upload. Clients resume an interrupted upload
+ * by sending the chunks listed in {@code missingChunks}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionDTO {
+
+    private String uploadId;
+    private Long projectId;
+    private String fileName;
+    private Long totalSize;
+    private Integer chunkSize;
+    private Integer chunkCount;
+    private Integer receivedChunks;
+    private List<Integer> missingChunks;
+    private String status;
+    private LocalDateTime expiresAt;
+}
@@ -24,7 +24,7 @@ public class AIModel {
     @JoinColumn(name = "dataset_id", nullable = false)
     private Dataset dataset;
 
-    private String algorithm; // CTGAN, TVAE
+    private String algorithm; // CTGAN, TVAE, GAUSSIAN_COPULA, DP_MARGINALS
     private String status; // PENDING, TRAINING, COMPLETED, FAILED
     private String modelFilePath;
 
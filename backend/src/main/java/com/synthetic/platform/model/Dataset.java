@@ -1,5 +1,6 @@
 package com.synthetic.platform.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -27,9 +28,21 @@ public class Dataset {
     private String name;
     private String filePath;
 
+    // SHA-256 of the content; datasets with the same hash share one stored blob
+    @Column(length = 64)
+    private String contentHash;
+
     @Column(columnDefinition = "TEXT")
     private String metadata;
 
+    // Column schema (DatasetSchemaDTO) as JSON, inferred from every value when the content is stored
+    @JsonIgnore
+    @Column(columnDefinition = "TEXT")
+    private String columnSchema;
+
+    // The dataset this one was synthesized from, if known; privacy scores and reports compare against it
+    private Long sourceDatasetId;
+
     @CreatedDate
     private LocalDateTime uploadedAt;
 }
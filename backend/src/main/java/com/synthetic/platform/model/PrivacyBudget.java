@@ -0,0 +1,30 @@
+package com.synthetic.platform.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Differential-privacy budget of one body of data. Keyed by content hash, so
+ * re-uploading the same file does not reset what has been spent on it;
+ * datasets stored before hashing are keyed by their id instead.
+ */
+@Entity
+@Table(name = "privacy_budgets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrivacyBudget {
+    @Id
+    @Column(length = 80)
+    private String id;
+
+    private double epsilonLimit;
+    private double epsilonSpent;
+    private double deltaSpent;
+
+    private LocalDateTime updatedAt;
+}
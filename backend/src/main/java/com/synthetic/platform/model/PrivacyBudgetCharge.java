@@ -0,0 +1,39 @@
+package com.synthetic.platform.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * One release charged against a {@link PrivacyBudget}. Kept after the dataset
+ * or model it names is deleted, since the privacy loss is not undone.
+ */
+@Entity
+@Table(name = "privacy_budget_charges", indexes = @Index(columnList = "budgetId"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+public class PrivacyBudgetCharge {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 80, nullable = false)
+    private String budgetId;
+
+    private Long datasetId;
+    private Long modelId;
+    private double epsilon;
+    private double delta;
+    private String mechanism; // LAPLACE, GAUSSIAN
+    private String purpose;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,43 @@
+package com.synthetic.platform.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * A chunked dataset upload in progress. Which chunks have arrived is tracked
+ * in a sidecar file next to the partial upload, not here, so chunk writes never
+ * touch the database.
+ */
+@Entity
+@Table(name = "upload_sessions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+public class UploadSession {
+    @Id
+    private String id;
+
+    @ManyToOne
+    @JoinColumn(name = "project_id", nullable = false)
+    private Project project;
+
+    private String fileName;
+    private Long totalSize;
+    private Integer chunkSize;
+    private Integer chunkCount;
+    private String checksum; // CRC32C (hex) of the whole file if the client gave one
+    private Long sourceDatasetId; // lineage of the dataset the upload becomes
+    private String status; // ACTIVE, COMPLETING, COMPLETED, ABORTED, EXPIRED
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+
+    private LocalDateTime expiresAt;
+}
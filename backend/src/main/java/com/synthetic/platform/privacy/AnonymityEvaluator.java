@@ -0,0 +1,222 @@
+package com.synthetic.platform.privacy;
+
+import com.synthetic.platform.data.CellKeys;
+import com.synthetic.platform.data.ColumnarTable;
+import com.synthetic.platform.data.LongHashSet;
+import com.synthetic.platform.data.LongIntHashMap;
+import com.synthetic.platform.dto.AnonymityReportDTO;
+import com.synthetic.platform.service.ParallelTasks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Measures k-anonymity and l-diversity of a synthetic table over a set of
+ * quasi-identifiers, and how well its records single out records of the
+ * original table.
+ * <p>
+ * Every row is reduced to one 64-bit key over its quasi-identifier values,
+ * hashed once per dictionary entry for categorical columns, so grouping is
+ * counting keys in primitive hash maps. Keys are split by hash into
+ * partitions that are grouped in parallel; a class never spans two
+ * partitions, so their results simply combine.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AnonymityEvaluator {
+
+    private static final int ROWS_PER_TASK = 1 << 20;
+
+    @Qualifier("computeExecutor")
+    private final Executor executor;
+    private final int partitions = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * @param original     the table re-identification is measured against
+     * @param sensitive    column whose diversity within classes is measured, or
+     *                     {@code null}
+     * @param numericBins  if positive, numeric quasi-identifiers are compared
+     *                     by equal-width bin over the original's range instead
+     *                     of exactly
+     */
+    public AnonymityReportDTO evaluate(ColumnarTable synthetic, ColumnarTable original, List<String> quasiIdentifiers,
+            String sensitive, int targetK, int numericBins) {
+        if (quasiIdentifiers == null || quasiIdentifiers.isEmpty()) {
+            throw new IllegalArgumentException("At least one quasi-identifier is required");
+        }
+        if (targetK < 1) {
+            throw new IllegalArgumentException("targetK must be at least 1");
+        }
+        long start = System.currentTimeMillis();
+
+        int columnCount = quasiIdentifiers.size();
+        CellKeys[] syntheticColumns = new CellKeys[columnCount];
+        CellKeys[] originalColumns = new CellKeys[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            String name = quasiIdentifiers.get(c);
+            ColumnarTable.Column syntheticColumn = require(synthetic, name, "synthetic");
+            ColumnarTable.Column originalColumn = require(original, name, "original");
+            boolean asText = syntheticColumn.getKind() != originalColumn.getKind();
+            double[] range = numericBins > 0 && !asText && originalColumn.isNumeric() ? range(originalColumn) : null;
+            syntheticColumns[c] = new CellKeys(syntheticColumn, asText, range, numericBins);
+            originalColumns[c] = new CellKeys(originalColumn, asText, range, numericBins);
+        }
+        long[] syntheticKeys = rowKeys(syntheticColumns, synthetic.getRowCount());
+        long[] originalKeys = rowKeys(originalColumns, original.getRowCount());
+        long[] sensitiveKeys = sensitive == null ? null
+                : rowKeys(new CellKeys[] { new CellKeys(require(synthetic, sensitive, "synthetic"), false) },
+                        synthetic.getRowCount());
+
+        int shift = Long.SIZE - Integer.numberOfTrailingZeros(partitions);
+        List<PartitionResult> parts = ParallelTasks.map(partitions, p -> groupPartition(p, shift, syntheticKeys,
+                originalKeys, sensitiveKeys, targetK), executor);
+
+        PartitionResult total = new PartitionResult();
+        for (PartitionResult part : parts) {
+            total.merge(part);
+        }
+        long records = syntheticKeys.length;
+        log.debug("Evaluated anonymity of {} records over {} in {} ms", records, quasiIdentifiers,
+                System.currentTimeMillis() - start);
+
+        return AnonymityReportDTO.builder()
+                .quasiIdentifiers(new ArrayList<>(quasiIdentifiers))
+                .sensitiveColumn(sensitive)
+                .numericBins(Math.max(0, numericBins))
+                .recordCount(records)
+                .equivalenceClasses(total.classes)
+                .k(total.classes == 0 ? 0 : total.minClassSize)
+                .averageClassSize(total.classes == 0 ? 0.0 : round((double) records / total.classes))
+                .targetK(targetK)
+                .recordsBelowTargetK(total.recordsBelowTargetK)
+                .l(sensitive == null ? null : total.classes == 0 ? 0 : total.minDiversity)
+                .matchedRecordRate(rate(total.matchedRecords, records))
+                .uniqueMatchRate(rate(total.uniqueMatches, records))
+                .averageRisk(records == 0 ? 0.0 : round(total.riskSum / records))
+                .maxRisk(round(total.maxRisk))
+                .build();
+    }
+
+    /**
+     * Groups the keys falling into partition {@code p}: the class sizes of both
+     * tables, and optionally the distinct sensitive values per synthetic class.
+     */
+    private static PartitionResult groupPartition(int p, int shift, long[] syntheticKeys, long[] originalKeys,
+            long[] sensitiveKeys, int targetK) {
+        int expected = syntheticKeys.length >>> (Long.SIZE - shift);
+        LongIntHashMap classes = new LongIntHashMap(expected);
+        LongIntHashMap diversity = sensitiveKeys != null ? new LongIntHashMap(expected) : null;
+        LongHashSet pairs = sensitiveKeys != null ? new LongHashSet(expected) : null;
+        for (int row = 0; row < syntheticKeys.length; row++) {
+            long key = syntheticKeys[row];
+            if (partition(key, shift) != p)
+                continue;
+            classes.increment(key);
+            if (pairs != null && pairs.add(CellKeys.combine(key, sensitiveKeys[row])))
+                diversity.increment(key);
+        }
+
+        LongIntHashMap originalClasses = new LongIntHashMap(originalKeys.length >>> (Long.SIZE - shift));
+        for (long key : originalKeys) {
+            if (partition(key, shift) == p)
+                originalClasses.increment(key);
+        }
+
+        PartitionResult result = new PartitionResult();
+        classes.forEach((key, size) -> {
+            result.classes++;
+            result.minClassSize = Math.min(result.minClassSize, size);
+            if (size < targetK)
+                result.recordsBelowTargetK += size;
+            if (diversity != null)
+                result.minDiversity = Math.min(result.minDiversity, diversity.get(key));
+
+            int matches = originalClasses.get(key);
+            if (matches > 0) {
+                result.matchedRecords += size;
+                result.riskSum += (double) size / matches;
+                result.maxRisk = Math.max(result.maxRisk, 1.0 / matches);
+                if (matches == 1)
+                    result.uniqueMatches += size;
+            }
+        });
+        return result;
+    }
+
+    private long[] rowKeys(CellKeys[] columns, int rowCount) {
+        long[] keys = new long[rowCount];
+        int tasks = (rowCount + ROWS_PER_TASK - 1) / ROWS_PER_TASK;
+        ParallelTasks.forEach(tasks, task -> {
+            int end = Math.min(rowCount, (task + 1) * ROWS_PER_TASK);
+            for (int row = task * ROWS_PER_TASK; row < end; row++) {
+                long key = 1;
+                for (CellKeys column : columns) {
+                    key = CellKeys.combine(key, column.key(row));
+                }
+                keys[row] = key;
+            }
+        }, executor);
+        return keys;
+    }
+
+    private static ColumnarTable.Column require(ColumnarTable table, String name, String side) {
+        ColumnarTable.Column column = table.column(name);
+        if (column == null) {
+            throw new IllegalArgumentException("Column '" + name + "' not found in the " + side + " dataset");
+        }
+        return column;
+    }
+
+    private static double[] range(ColumnarTable.Column column) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : column.getValues()) {
+            if (!Double.isNaN(value)) {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+        return min <= max ? new double[] { min, max } : null;
+    }
+
+    private static int partition(long key, int shift) {
+        return shift == Long.SIZE ? 0 : (int) ((key * 0xC2B2AE3D27D4EB4FL) >>> shift);
+    }
+
+
+    private static Double rate(long count, long total) {
+        return total == 0 ? 0.0 : round((double) count / total);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10000) / 10000.0;
+    }
+
+    private static final class PartitionResult {
+        private long classes;
+        private int minClassSize = Integer.MAX_VALUE;
+        private long recordsBelowTargetK;
+        private int minDiversity = Integer.MAX_VALUE;
+        private long matchedRecords;
+        private long uniqueMatches;
+        private double riskSum;
+        private double maxRisk;
+
+        void merge(PartitionResult other) {
+            classes += other.classes;
+            minClassSize = Math.min(minClassSize, other.minClassSize);
+            recordsBelowTargetK += other.recordsBelowTargetK;
+            minDiversity = Math.min(minDiversity, other.minDiversity);
+            matchedRecords += other.matchedRecords;
+            uniqueMatches += other.uniqueMatches;
+            riskSum += other.riskSum;
+            maxRisk = Math.max(maxRisk, other.maxRisk);
+        }
+    }
+}
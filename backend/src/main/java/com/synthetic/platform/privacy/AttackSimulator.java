@@ -0,0 +1,237 @@
+package com.synthetic.platform.privacy;
+
+import com.synthetic.platform.data.ColumnarTable;
+import com.synthetic.platform.dto.AttackReportDTO;
+import com.synthetic.platform.service.ParallelTasks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs nearest-neighbour attacks against a synthetic table: membership
+ * inference (were the closest synthetic records closer to training records
+ * than to holdout records?) and attribute inference (does the closest
+ * synthetic record on the quasi-identifiers reveal a sensitive value?).
+ * <p>
+ * Targets and searched synthetic records are sampled with a fixed seed, which
+ * bounds the work on large tables and keeps results reproducible; the
+ * nearest-neighbour searches run in parallel over slices of the targets.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AttackSimulator {
+
+    private static final int TARGET_SAMPLE = 1000;
+    private static final int SYNTHETIC_SAMPLE = 250_000;
+    private static final int TARGETS_PER_TASK = 32;
+    private static final float NUMERIC_TOLERANCE = 0.05f; // a numeric guess within 5% of the range is correct
+    private static final long SEED = 42;
+
+    @Qualifier("computeExecutor")
+    private final Executor executor;
+
+    /**
+     * @param holdout           records of the same population the generator
+     *                          was not trained on, or {@code null}
+     * @param quasiIdentifiers  attacker's background knowledge for attribute
+     *                          inference
+     * @param sensitiveColumns  targets of attribute inference, may be empty
+     */
+    public AttackReportDTO simulate(ColumnarTable original, ColumnarTable synthetic, ColumnarTable holdout,
+            List<String> quasiIdentifiers, List<String> sensitiveColumns) {
+        long start = System.currentTimeMillis();
+        if (holdout != null && holdout.getRowCount() == 0)
+            holdout = null;
+        Random random = new Random(SEED);
+        int[] syntheticRows = RecordSpace.sample(synthetic.getRowCount(), SYNTHETIC_SAMPLE, random);
+        int[] memberRows = RecordSpace.sample(original.getRowCount(), TARGET_SAMPLE, random);
+        int[] holdoutRows = holdout != null ? RecordSpace.sample(holdout.getRowCount(), TARGET_SAMPLE, random) : null;
+
+        AttackReportDTO.MembershipInference membership = null;
+        if (holdout != null && syntheticRows.length > 0 && memberRows.length > 0) {
+            membership = membershipInference(original, synthetic, holdout, syntheticRows, memberRows, holdoutRows);
+        }
+
+        List<AttackReportDTO.AttributeInference> attributes = new ArrayList<>();
+        List<String> predictors = new ArrayList<>(quasiIdentifiers);
+        predictors.removeAll(sensitiveColumns);
+        if (!sensitiveColumns.isEmpty() && !predictors.isEmpty() && syntheticRows.length > 0
+                && memberRows.length > 0) {
+            attributes = attributeInference(original, synthetic, holdout, predictors, sensitiveColumns,
+                    syntheticRows, memberRows, holdoutRows, random);
+        }
+
+        log.debug("Simulated attacks on {} synthetic records in {} ms", syntheticRows.length,
+                System.currentTimeMillis() - start);
+        return AttackReportDTO.builder()
+                .syntheticRecordsSampled(syntheticRows.length)
+                .membershipInference(membership)
+                .attributeInference(attributes)
+                .build();
+    }
+
+    private AttackReportDTO.MembershipInference membershipInference(ColumnarTable original, ColumnarTable synthetic,
+            ColumnarTable holdout, int[] syntheticRows, int[] memberRows, int[] holdoutRows) {
+        List<String> columns = new ArrayList<>();
+        for (String name : original.getColumnNames()) {
+            if (synthetic.column(name) != null && holdout.column(name) != null)
+                columns.add(name);
+        }
+        RecordSpace space = new RecordSpace(columns, original, synthetic, holdout);
+        RecordSpace.Block reference = space.encode(synthetic, syntheticRows);
+        float[] memberDistance = nearest(space, space.encode(original, memberRows), reference).distance;
+        float[] holdoutDistance = nearest(space, space.encode(holdout, holdoutRows), reference).distance;
+
+        return AttackReportDTO.MembershipInference.builder()
+                .columns(columns)
+                .memberTargets(memberRows.length)
+                .holdoutTargets(holdoutRows.length)
+                .auc(round(auc(memberDistance, holdoutDistance)))
+                .advantage(round(advantage(memberDistance, holdoutDistance)))
+                .memberMedianDistance(round(median(memberDistance)))
+                .holdoutMedianDistance(round(median(holdoutDistance)))
+                .build();
+    }
+
+    private List<AttackReportDTO.AttributeInference> attributeInference(ColumnarTable original,
+            ColumnarTable synthetic, ColumnarTable holdout, List<String> predictors, List<String> sensitiveColumns,
+            int[] syntheticRows, int[] memberRows, int[] holdoutRows, Random random) {
+        RecordSpace space = new RecordSpace(predictors, original, synthetic, holdout);
+        RecordSpace.Block reference = space.encode(synthetic, syntheticRows);
+        int[] memberGuess = nearest(space, space.encode(original, memberRows), reference).index;
+        int[] holdoutGuess = holdout != null ? nearest(space, space.encode(holdout, holdoutRows), reference).index
+                : null;
+        int[] randomGuess = new int[memberRows.length];
+        for (int i = 0; i < randomGuess.length; i++) {
+            randomGuess[i] = random.nextInt(syntheticRows.length);
+        }
+
+        RecordSpace secrets = new RecordSpace(sensitiveColumns, original, synthetic, holdout);
+        RecordSpace.Block syntheticSecrets = secrets.encode(synthetic, syntheticRows);
+        RecordSpace.Block memberSecrets = secrets.encode(original, memberRows);
+        RecordSpace.Block holdoutSecrets = holdout != null ? secrets.encode(holdout, holdoutRows) : null;
+
+        List<AttackReportDTO.AttributeInference> results = new ArrayList<>();
+        for (int c = 0; c < sensitiveColumns.size(); c++) {
+            double accuracy = accuracy(secrets, memberSecrets, syntheticSecrets, memberGuess, c);
+            double baseline = accuracy(secrets, memberSecrets, syntheticSecrets, randomGuess, c);
+            Double control = holdout != null ? accuracy(secrets, holdoutSecrets, syntheticSecrets, holdoutGuess, c)
+                    : null;
+            double chance = control != null ? control : baseline;
+            double risk = chance < 1 ? Math.max(0, (accuracy - chance) / (1 - chance)) : 0;
+            results.add(AttackReportDTO.AttributeInference.builder()
+                    .sensitiveColumn(sensitiveColumns.get(c))
+                    .quasiIdentifiers(predictors)
+                    .targets(memberRows.length)
+                    .accuracy(round(accuracy))
+                    .baselineAccuracy(round(baseline))
+                    .controlAccuracy(control != null ? round(control) : null)
+                    .risk(round(risk))
+                    .build());
+        }
+        return results;
+    }
+
+    private static double accuracy(RecordSpace secrets, RecordSpace.Block targets, RecordSpace.Block synthetic,
+            int[] guesses, int column) {
+        int correct = 0;
+        for (int i = 0; i < guesses.length; i++) {
+            if (secrets.close(targets, i, synthetic, guesses[i], column, NUMERIC_TOLERANCE))
+                correct++;
+        }
+        return (double) correct / guesses.length;
+    }
+
+    private static final class Neighbours {
+        private final int[] index;
+        private final float[] distance;
+
+        private Neighbours(int size) {
+            this.index = new int[size];
+            this.distance = new float[size];
+        }
+    }
+
+    private Neighbours nearest(RecordSpace space, RecordSpace.Block queries, RecordSpace.Block reference) {
+        Neighbours result = new Neighbours(queries.size());
+        int tasks = (queries.size() + TARGETS_PER_TASK - 1) / TARGETS_PER_TASK;
+        ParallelTasks.forEach(tasks, task -> {
+            int start = task * TARGETS_PER_TASK;
+            int end = Math.min(queries.size(), start + TARGETS_PER_TASK);
+            space.nearest(queries, reference, start, end, result.index, result.distance);
+        }, executor);
+        return result;
+    }
+
+    /**
+     * Probability that a random member is closer to the synthetic data than a
+     * random holdout record (ties count half), from the rank sum of distances.
+     */
+    private static double auc(float[] members, float[] holdout) {
+        float[] sortedHoldout = holdout.clone();
+        Arrays.sort(sortedHoldout);
+        double wins = 0;
+        for (float distance : members) {
+            int below = lowerBound(sortedHoldout, distance);
+            int notAbove = lowerBound(sortedHoldout, Math.nextUp(distance));
+            wins += (holdout.length - notAbove) + 0.5 * (notAbove - below);
+        }
+        return wins / ((double) members.length * holdout.length);
+    }
+
+    /**
+     * Best true positive minus false positive rate of the attacker guessing
+     * "member" below a distance threshold.
+     */
+    private static double advantage(float[] members, float[] holdout) {
+        float[] sortedMembers = members.clone();
+        float[] sortedHoldout = holdout.clone();
+        Arrays.sort(sortedMembers);
+        Arrays.sort(sortedHoldout);
+        double best = 0;
+        int m = 0;
+        int h = 0;
+        while (m < sortedMembers.length || h < sortedHoldout.length) {
+            float threshold = Math.min(m < sortedMembers.length ? sortedMembers[m] : Float.POSITIVE_INFINITY,
+                    h < sortedHoldout.length ? sortedHoldout[h] : Float.POSITIVE_INFINITY);
+            while (m < sortedMembers.length && sortedMembers[m] <= threshold)
+                m++;
+            while (h < sortedHoldout.length && sortedHoldout[h] <= threshold)
+                h++;
+            best = Math.max(best, (double) m / sortedMembers.length - (double) h / sortedHoldout.length);
+        }
+        return best;
+    }
+
+    private static int lowerBound(float[] sorted, float value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    private static double median(float[] values) {
+        float[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10000) / 10000.0;
+    }
+}
@@ -0,0 +1,188 @@
+package com.synthetic.platform.privacy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Classifies columns by name with one Aho–Corasick automaton over all
+ * sensitive keywords, built once. Names are split into lowercase tokens first
+ * ({@code customerEmail}, {@code customer_email} and {@code Customer Email}
+ * all become {@code customer email}), so a single pass finds every keyword.
+ * Short keywords only count as whole tokens, so {@code paid} is not an ID.
+ */
+public final class ColumnNameClassifier {
+
+    private static final ColumnNameClassifier DEFAULT = new ColumnNameClassifier(defaultKeywords());
+
+    // Alphabet of normalised names: a-z, 0-9 and the token separator
+    private static final int ALPHABET = 37;
+    private static final int SEPARATOR = 36;
+
+    private final int[][] transitions; // full DFA: failure links folded into the goto function
+    private final Keyword[][] outputs; // keywords ending in each state, including via failure links
+
+    private static final class Keyword {
+        private final String text;
+        private final SensitiveCategory category;
+        private final boolean wholeToken;
+
+        private Keyword(String text, SensitiveCategory category, boolean wholeToken) {
+            this.text = text;
+            this.category = category;
+            this.wholeToken = wholeToken;
+        }
+    }
+
+    private ColumnNameClassifier(List<Keyword> keywords) {
+        List<int[]> gotos = new ArrayList<>();
+        List<List<Keyword>> found = new ArrayList<>();
+        gotos.add(newState());
+        found.add(new ArrayList<>());
+        for (Keyword keyword : keywords) {
+            int state = 0;
+            for (int i = 0; i < keyword.text.length(); i++) {
+                int symbol = symbol(keyword.text.charAt(i));
+                if (gotos.get(state)[symbol] < 0) {
+                    gotos.get(state)[symbol] = gotos.size();
+                    gotos.add(newState());
+                    found.add(new ArrayList<>());
+                }
+                state = gotos.get(state)[symbol];
+            }
+            found.get(state).add(keyword);
+        }
+
+        // Breadth-first: each state's failure target is complete before its children need it
+        int[] failure = new int[gotos.size()];
+        int[] queue = new int[gotos.size()];
+        int head = 0;
+        int tail = 0;
+        for (int symbol = 0; symbol < ALPHABET; symbol++) {
+            int next = gotos.get(0)[symbol];
+            if (next < 0) {
+                gotos.get(0)[symbol] = 0;
+            } else {
+                failure[next] = 0;
+                queue[tail++] = next;
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            found.get(state).addAll(found.get(failure[state]));
+            for (int symbol = 0; symbol < ALPHABET; symbol++) {
+                int next = gotos.get(state)[symbol];
+                int fallback = gotos.get(failure[state])[symbol];
+                if (next < 0) {
+                    gotos.get(state)[symbol] = fallback;
+                } else {
+                    failure[next] = fallback;
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        this.transitions = gotos.toArray(new int[0][]);
+        this.outputs = new Keyword[found.size()][];
+        for (int state = 0; state < found.size(); state++) {
+            outputs[state] = found.get(state).toArray(new Keyword[0]);
+        }
+    }
+
+    public static ColumnNameClassifier getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * The highest-precedence category whose keywords occur in {@code name}, or
+     * {@code null} if the name looks harmless.
+     */
+    public SensitiveCategory classify(String name) {
+        String text = normalize(name);
+        SensitiveCategory best = null;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = transitions[state][symbol(text.charAt(i))];
+            for (Keyword keyword : outputs[state]) {
+                int start = i + 1 - keyword.text.length();
+                if (keyword.wholeToken && !(isBoundary(text, start - 1) && isBoundary(text, i + 1)))
+                    continue;
+                if (best == null || keyword.category.ordinal() < best.ordinal())
+                    best = keyword.category;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Lowercase tokens separated by single spaces; camelCase humps start new
+     * tokens and any other character separates them.
+     */
+    static String normalize(String name) {
+        StringBuilder text = new StringBuilder(name.length() + 8);
+        char previous = ' ';
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean letterOrDigit = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+            if (!letterOrDigit) {
+                c = ' ';
+            } else if (c >= 'A' && c <= 'Z') {
+                if (previous >= 'a' && previous <= 'z')
+                    appendSeparator(text);
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c == ' ')
+                appendSeparator(text);
+            else
+                text.append(c);
+            previous = name.charAt(i);
+        }
+        int length = text.length();
+        return length > 0 && text.charAt(length - 1) == ' ' ? text.substring(0, length - 1) : text.toString();
+    }
+
+    private static void appendSeparator(StringBuilder text) {
+        if (text.length() > 0 && text.charAt(text.length() - 1) != ' ')
+            text.append(' ');
+    }
+
+    private static boolean isBoundary(String text, int index) {
+        return index < 0 || index >= text.length() || text.charAt(index) == ' ';
+    }
+
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z')
+            return c - 'a';
+        if (c >= '0' && c <= '9')
+            return 26 + (c - '0');
+        return SEPARATOR;
+    }
+
+    private static int[] newState() {
+        int[] state = new int[ALPHABET];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    private static List<Keyword> defaultKeywords() {
+        List<Keyword> keywords = new ArrayList<>();
+        add(keywords, SensitiveCategory.PII, false,
+                "name", "email", "phone", "address", "passport", "license", "birth", "mobile");
+        add(keywords, SensitiveCategory.PII, true, "id", "ssn", "dob", "zip");
+        add(keywords, SensitiveCategory.FINANCIAL, false,
+                "salary", "income", "credit", "account", "balance", "payment", "iban");
+        add(keywords, SensitiveCategory.MEDICAL, false, "medical", "health", "diagnosis", "prescription", "patient");
+        add(keywords, SensitiveCategory.LOCATION, false, "latitude", "longitude", "location", "coordinate");
+        add(keywords, SensitiveCategory.LOCATION, true, "gps", "lat", "lng", "lon");
+        add(keywords, SensitiveCategory.DEVICE, false, "uuid", "serial", "imei", "device");
+        add(keywords, SensitiveCategory.DEVICE, true, "ip", "mac", "vin");
+        return keywords;
+    }
+
+    private static void add(List<Keyword> keywords, SensitiveCategory category, boolean wholeToken,
+            String... texts) {
+        for (String text : texts) {
+            keywords.add(new Keyword(text, category, wholeToken));
+        }
+    }
+}
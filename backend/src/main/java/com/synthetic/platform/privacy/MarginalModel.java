@@ -0,0 +1,66 @@
+package com.synthetic.platform.privacy;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A differentially private synthesizer fitted by {@link MarginalSynthesizer}:
+ * the discretised column domains, a noisy one-way marginal per column, and
+ * noisy two-way marginals along a spanning tree of the columns. Everything in
+ * it was either supplied by the caller (numeric bounds given as public) or
+ * released through a noise mechanism, so sampling from it spends no further
+ * privacy budget.
+ * Stored as JSON.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarginalModel {
+
+    private int version;
+    private double epsilon;
+    private double delta;
+    private double epsilonSpent; // what the fit's noisy steps added up to; at most epsilon
+    private double deltaSpent; // likewise, at most delta
+    private NoiseMechanism mechanism;
+    private List<Column> columns;
+    private List<Integer> order; // columns in sampling order: the tree root, then each child after its parent
+    private List<Edge> edges;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Column {
+        private String name;
+        private boolean numeric;
+        private boolean integral;
+        private double lower; // numeric: lower bound of the first bin
+        private double width; // numeric: bin width
+        private int numericBins;
+        private List<String> categories; // categorical: values kept as their own bin
+        private boolean other; // categorical: a bin for values not kept, sampled as empty
+        private boolean missing; // a final bin for missing values
+        private double[] marginal; // noisy count per bin, clipped at zero
+
+        public int size() {
+            return (numeric ? numericBins : categories.size()) + (other ? 1 : 0) + (missing ? 1 : 0);
+        }
+    }
+
+    /** Noisy joint counts of a column and its parent in the tree, {@code counts[parentBin][childBin]}. */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Edge {
+        private int parent;
+        private int child;
+        private double[][] counts;
+    }
+}
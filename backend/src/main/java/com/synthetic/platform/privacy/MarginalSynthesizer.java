@@ -0,0 +1,564 @@
+package com.synthetic.platform.privacy;
+
+import com.synthetic.platform.data.ColumnarTable;
+import com.synthetic.platform.data.CsvText;
+import com.synthetic.platform.synthesis.ChunkedCsvWriter;
+import com.synthetic.platform.service.ParallelTasks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+
+/**
+ * Differentially private synthesizer over low-dimensional marginals, after
+ * MST (McKenna et al., 2021): every column's one-way marginal is measured
+ * with noise, a spanning tree of column pairs is chosen with the exponential
+ * mechanism (preferring pairs the one-way marginals explain worst), and the
+ * two-way marginals along the tree are measured. Rows are then sampled down
+ * the tree, each column conditioned on its parent.
+ * <p>
+ * The budget is split 30/20/50 between one-way marginals, pair selection and
+ * two-way marginals, with basic composition within each part. Numeric ranges
+ * are public only when the caller supplies them; otherwise half of the
+ * column's one-way share buys private bounds, the extreme power-of-two buckets
+ * of a noisy histogram, and values outside them fall into the edge bins.
+ * Categories are only kept when their noisy count clears a threshold that a
+ * value held by a single record passes with probability at most δ, so rare
+ * values such as names never reach the model.
+ * <p>
+ * δ is split in half between the noisy measurements and the category
+ * domains; each categorical column's part is split again between the
+ * Gaussian calibration of its counts and the failure of its threshold. The
+ * ε and δ each step spends are added up in {@link MarginalModel}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MarginalSynthesizer {
+
+    public static final int VERSION = 1;
+    public static final int MAX_NUMERIC_BINS = 64;
+    public static final int MAX_CATEGORIES = 64;
+
+    private static final double ONE_WAY_SHARE = 0.3;
+    private static final double SELECTION_SHARE = 0.2;
+    private static final int MAX_EXPONENT = 1023; // bound buckets reach ±2^1023
+    private static final double BOUND_FALSE_POSITIVE = 0.05; // chance that noise alone widens a range
+    private static final int ROWS_PER_TASK = 1 << 16;
+
+    @Qualifier("computeExecutor")
+    private final Executor executor;
+    private final int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Fits a model to {@code data} spending {@code epsilon} (and, for the
+     * Gaussian mechanism and the category thresholds, {@code delta}).
+     *
+     * @param bounds public {@code [min, max]} of numeric columns by name; the
+     *               others spend budget on private bounds
+     */
+    public MarginalModel fit(ColumnarTable data, double epsilon, double delta, NoiseMechanism mechanism,
+            int numericBins, Map<String, double[]> bounds, Random random) {
+        if (!(epsilon > 0) || !(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("epsilon must be positive and delta between 0 and 1");
+        }
+        int columns = data.getColumnCount();
+        if (columns == 0 || columns > 255) {
+            throw new IllegalArgumentException("Differentially private synthesis supports 1 to 255 columns");
+        }
+        checkCalibration(epsilon, columns, mechanism);
+        long start = System.currentTimeMillis();
+        int rows = data.getRowCount();
+        if (rows == 0) {
+            throw new IllegalArgumentException("Dataset has no rows to synthesize from");
+        }
+        int bins = Math.max(2, Math.min(MAX_NUMERIC_BINS, numericBins));
+
+        // One-way measurements: half of a column's share picks its categories, or its
+        // bounds when they are not public
+        double oneWayEpsilon = (columns == 1 ? 1 : ONE_WAY_SHARE) * epsilon / columns;
+        int measurements = columns + Math.max(0, columns - 1);
+        double measureDelta = delta / 2 / measurements;
+        double domainDelta = delta / 2 / columns;
+        Spent spent = new Spent(mechanism);
+
+        List<MarginalModel.Column> domains = new ArrayList<>(columns);
+        double[] marginalEpsilon = new double[columns];
+        int[][] binOfCode = new int[columns][];
+        for (int c = 0; c < columns; c++) {
+            ColumnarTable.Column column = data.column(c);
+            if (column.isNumeric()) {
+                double[] range = bounds.get(column.getName());
+                if (range != null) {
+                    checkBounds(column.getName(), range);
+                    marginalEpsilon[c] = oneWayEpsilon;
+                } else {
+                    range = privateBounds(column, oneWayEpsilon / 2, domainDelta, spent, random);
+                    marginalEpsilon[c] = oneWayEpsilon / 2;
+                }
+                domains.add(numericDomain(column, range[0], range[1], bins));
+            } else {
+                binOfCode[c] = new int[column.getCardinality()];
+                domains.add(categoricalDomain(column, binOfCode[c], oneWayEpsilon / 2, domainDelta, spent, random));
+                marginalEpsilon[c] = oneWayEpsilon / 2;
+            }
+        }
+
+        byte[][] encoded = ParallelTasks.map(columns,
+                c -> encode(data.column(c), domains.get(c), binOfCode[c], rows), executor).toArray(new byte[0][]);
+        for (int c = 0; c < columns; c++) {
+            MarginalModel.Column domain = domains.get(c);
+            long[] counts = new long[domain.size()];
+            for (byte bin : encoded[c]) {
+                counts[bin & 0xFF]++;
+            }
+            double scale = spent.scale(marginalEpsilon[c], measureDelta);
+            domain.setMarginal(clip(mechanism.perturb(counts, scale, random)));
+        }
+
+        List<MarginalModel.Edge> edges = new ArrayList<>();
+        List<Integer> order = new ArrayList<>();
+        order.add(0);
+        if (columns > 1) {
+            double selectionEpsilon = SELECTION_SHARE * epsilon / (columns - 1);
+            double pairEpsilon = (1 - ONE_WAY_SHARE - SELECTION_SHARE) * epsilon / (columns - 1);
+            List<int[]> tree = selectTree(domains, encoded, rows, selectionEpsilon, spent, random);
+            edges = orient(tree, columns, order);
+            for (MarginalModel.Edge edge : edges) {
+                double scale = spent.scale(pairEpsilon, measureDelta);
+                int parentSize = domains.get(edge.getParent()).size();
+                int childSize = domains.get(edge.getChild()).size();
+                long[] counts = jointCounts(encoded[edge.getParent()], encoded[edge.getChild()], childSize,
+                        parentSize * childSize);
+                double[] noisy = clip(mechanism.perturb(counts, scale, random));
+                double[][] table = new double[parentSize][];
+                for (int p = 0; p < parentSize; p++) {
+                    table[p] = Arrays.copyOfRange(noisy, p * childSize, (p + 1) * childSize);
+                }
+                edge.setCounts(table);
+            }
+        }
+
+        log.debug("Fitted marginal model over {} columns and {} rows in {} ms", columns, rows,
+                System.currentTimeMillis() - start);
+        return MarginalModel.builder()
+                .version(VERSION)
+                .epsilon(epsilon)
+                .delta(delta)
+                .epsilonSpent(spent.epsilon)
+                .deltaSpent(spent.delta)
+                .mechanism(mechanism)
+                .columns(domains)
+                .order(order)
+                .edges(edges)
+                .build();
+    }
+
+    /** Writes {@code count} sampled rows as CSV, with a header, to {@code out}. */
+    public void sample(MarginalModel model, long count, long seed, OutputStream out) throws Exception {
+        Sampler sampler = new Sampler(model);
+        ChunkedCsvWriter.write(model.getColumns().stream().map(MarginalModel.Column::getName).toList(), count,
+                ROWS_PER_TASK, seed, sampler::rows, executor, parallelism, out);
+    }
+
+    /**
+     * Refuses budgets that would give a single noisy measurement of
+     * {@link #fit} an ε of 1 or more under {@link NoiseMechanism#GAUSSIAN},
+     * whose classic calibration only holds below 1.
+     */
+    public static void checkCalibration(double epsilon, int columns, NoiseMechanism mechanism) {
+        double largest = columns <= 1 ? epsilon
+                : Math.max(ONE_WAY_SHARE * epsilon / columns,
+                        (1 - ONE_WAY_SHARE - SELECTION_SHARE) * epsilon / (columns - 1));
+        if (mechanism == NoiseMechanism.GAUSSIAN && largest >= 1) {
+            throw new IllegalArgumentException(String.format(
+                    "epsilon %.3g gives single measurements over %d columns an epsilon of %.3g; the Gaussian "
+                            + "mechanism needs less than 1 there, so use LAPLACE or a smaller epsilon",
+                    epsilon, columns, largest));
+        }
+    }
+
+    private static void checkBounds(String column, double[] range) {
+        if (range.length != 2 || !Double.isFinite(range[0]) || !Double.isFinite(range[1]) || range[0] > range[1]) {
+            throw new IllegalArgumentException("Bounds of column " + column + " must be a finite [min, max]");
+        }
+    }
+
+    /**
+     * {@code [min, max]} of a numeric column released under {@code epsilon}:
+     * the outermost power-of-two buckets of a noisy histogram whose noisy
+     * count clears a level that noise alone reaches with small probability,
+     * widened to the noisiest-count bucket so some range is always found.
+     */
+    private static double[] privateBounds(ColumnarTable.Column column, double epsilon, double delta, Spent spent,
+            Random random) {
+        NoiseMechanism mechanism = spent.mechanism;
+        long[] counts = new long[2 * MAX_EXPONENT + 1];
+        for (double value : column.getValues()) {
+            if (!Double.isNaN(value))
+                counts[bucket(value) + MAX_EXPONENT]++;
+        }
+        // The buckets are fixed in advance, so the threshold only affects accuracy and spends no δ
+        double scale = spent.scale(epsilon, delta);
+        double threshold = mechanism.tailBound(scale, BOUND_FALSE_POSITIVE / counts.length);
+        double[] noisy = mechanism.perturb(counts, scale, random);
+
+        int best = 0;
+        int low = -1;
+        int high = -1;
+        for (int i = 0; i < noisy.length; i++) {
+            if (noisy[i] > noisy[best])
+                best = i;
+            if (noisy[i] >= threshold) {
+                if (low < 0)
+                    low = i;
+                high = i;
+            }
+        }
+        low = low < 0 ? best : Math.min(low, best);
+        high = Math.max(high, best);
+        return new double[] { lowerEdge(low - MAX_EXPONENT), upperEdge(high - MAX_EXPONENT) };
+    }
+
+    /** Bucket 0 holds (-1, 1), bucket k > 0 holds [2^(k-1), 2^k) and bucket -k its mirror image. */
+    private static int bucket(double value) {
+        double magnitude = Math.abs(value);
+        if (magnitude < 1)
+            return 0;
+        int k = Math.min(MAX_EXPONENT, Math.getExponent(magnitude) + 1);
+        return value > 0 ? k : -k;
+    }
+
+    private static double lowerEdge(int bucket) {
+        if (bucket == 0)
+            return -1;
+        return bucket > 0 ? Math.scalb(1.0, bucket - 1) : -Math.scalb(1.0, -bucket);
+    }
+
+    private static double upperEdge(int bucket) {
+        if (bucket == 0)
+            return 1;
+        return bucket > 0 ? Math.scalb(1.0, bucket) : -Math.scalb(1.0, -bucket - 1);
+    }
+
+    /**
+     * Bins over {@code [lower, upper]}, which are public or were released
+     * privately. The missing bin is always there, since whether the column
+     * has missing values depends on single records.
+     */
+    private static MarginalModel.Column numericDomain(ColumnarTable.Column column, double lower, double upper,
+            int bins) {
+        MarginalModel.Column.ColumnBuilder domain = MarginalModel.Column.builder()
+                .name(column.getName())
+                .numeric(true)
+                .integral(column.isIntegral())
+                .missing(true);
+        if (column.isIntegral()) {
+            double first = Math.ceil(lower);
+            double last = Math.floor(upper);
+            if (first <= last && last - first + 1 <= bins) {
+                // One bin per integer, centred on it
+                return domain.lower(first - 0.5).width(1).numericBins((int) (last - first + 1)).build();
+            }
+        }
+        return domain.lower(lower).width((upper - lower) / bins).numericBins(upper > lower ? bins : 1).build();
+    }
+
+    /**
+     * Keeps the categories whose noisy count clears the threshold, at most
+     * {@link #MAX_CATEGORIES} of them; the rest share an "other" bin. Fills
+     * {@code binOfCode} with the bin of each dictionary code. {@code delta}
+     * is shared by the calibration and the threshold, half each.
+     */
+    private static MarginalModel.Column categoricalDomain(ColumnarTable.Column column, int[] binOfCode,
+            double epsilon, double delta, Spent spent, Random random) {
+        long[] counts = new long[column.getCardinality()];
+        for (int code : column.getCodes()) {
+            counts[code]++;
+        }
+        double scale = spent.scale(epsilon, delta / 2);
+        double threshold = 1 + spent.tailBound(scale, delta / 2);
+        double[] noisy = spent.mechanism.perturb(counts, scale, random);
+
+        Integer[] candidates = new Integer[counts.length];
+        int kept = 0;
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0 && noisy[code] >= threshold)
+                candidates[kept++] = code;
+        }
+        Arrays.sort(candidates, 0, kept, (a, b) -> Double.compare(noisy[b], noisy[a]));
+        kept = Math.min(kept, MAX_CATEGORIES);
+
+        List<String> categories = new ArrayList<>(kept);
+        Arrays.fill(binOfCode, kept); // the "other" bin
+        for (int i = 0; i < kept; i++) {
+            binOfCode[candidates[i]] = i;
+            categories.add(column.getDictionary()[candidates[i]]);
+        }
+        return MarginalModel.Column.builder()
+                .name(column.getName())
+                .categories(categories)
+                .other(true)
+                .build();
+    }
+
+    private static byte[] encode(ColumnarTable.Column column, MarginalModel.Column domain, int[] binOfCode,
+            int rows) {
+        byte[] encoded = new byte[rows];
+        if (!domain.isNumeric()) {
+            int[] codes = column.getCodes();
+            for (int row = 0; row < rows; row++) {
+                encoded[row] = (byte) binOfCode[codes[row]];
+            }
+            return encoded;
+        }
+        double[] values = column.getValues();
+        int bins = domain.getNumericBins();
+        for (int row = 0; row < rows; row++) {
+            double value = values[row];
+            int bin;
+            if (Double.isNaN(value)) {
+                bin = bins; // the missing bin follows the value bins
+            } else if (domain.getWidth() > 0) {
+                bin = Math.max(0, Math.min(bins - 1, (int) ((value - domain.getLower()) / domain.getWidth())));
+            } else {
+                bin = 0;
+            }
+            encoded[row] = (byte) bin;
+        }
+        return encoded;
+    }
+
+    /**
+     * Picks {@code columns - 1} pairs forming a spanning tree. Each round
+     * scores the pairs joining two components by the L1 distance between
+     * their true joint counts and what the noisy one-way marginals predict
+     * under independence, a score of sensitivity 1, and samples one with the
+     * exponential mechanism.
+     */
+    private List<int[]> selectTree(List<MarginalModel.Column> domains, byte[][] encoded, int rows, double epsilon,
+            Spent spent, Random random) {
+        int columns = domains.size();
+        List<int[]> pairs = new ArrayList<>();
+        for (int i = 0; i < columns; i++) {
+            for (int j = i + 1; j < columns; j++) {
+                pairs.add(new int[] { i, j });
+            }
+        }
+        double[] scores = new double[pairs.size()];
+        ParallelTasks.forEach(pairs.size(), p -> {
+            int[] pair = pairs.get(p);
+            MarginalModel.Column a = domains.get(pair[0]);
+            MarginalModel.Column b = domains.get(pair[1]);
+            long[] joint = jointCounts(encoded[pair[0]], encoded[pair[1]], b.size(), a.size() * b.size());
+            double[] pa = a.getMarginal();
+            double[] pb = b.getMarginal();
+            double total = Math.max(1, Arrays.stream(pb).sum());
+            double score = 0;
+            for (int x = 0; x < a.size(); x++) {
+                for (int y = 0; y < b.size(); y++) {
+                    score += Math.abs(joint[x * b.size() + y] - pa[x] * pb[y] / total);
+                }
+            }
+            scores[p] = score;
+        }, executor);
+
+        int[] component = new int[columns];
+        for (int c = 0; c < columns; c++) {
+            component[c] = c;
+        }
+        List<int[]> tree = new ArrayList<>();
+        double[] weights = new double[pairs.size()];
+        while (tree.size() < columns - 1) {
+            spent.epsilon += epsilon;
+            double best = Double.NEGATIVE_INFINITY;
+            for (int p = 0; p < pairs.size(); p++) {
+                if (find(component, pairs.get(p)[0]) != find(component, pairs.get(p)[1]))
+                    best = Math.max(best, scores[p]);
+            }
+            double sum = 0;
+            for (int p = 0; p < pairs.size(); p++) {
+                boolean joins = find(component, pairs.get(p)[0]) != find(component, pairs.get(p)[1]);
+                weights[p] = joins ? Math.exp(epsilon * (scores[p] - best) / 2) : 0;
+                sum += weights[p];
+            }
+            double target = random.nextDouble() * sum;
+            int chosen = -1;
+            for (int p = 0; p < pairs.size() && target >= 0; p++) {
+                if (weights[p] > 0) {
+                    chosen = p;
+                    target -= weights[p];
+                }
+            }
+            int[] pair = pairs.get(chosen);
+            component[find(component, pair[0])] = find(component, pair[1]);
+            tree.add(pair);
+        }
+        return tree;
+    }
+
+    private static int find(int[] component, int c) {
+        while (component[c] != c) {
+            component[c] = component[component[c]];
+            c = component[c];
+        }
+        return c;
+    }
+
+    /** Directs the tree away from column 0 and lists the columns in breadth-first order. */
+    private static List<MarginalModel.Edge> orient(List<int[]> tree, int columns, List<Integer> order) {
+        List<MarginalModel.Edge> edges = new ArrayList<>();
+        boolean[] visited = new boolean[columns];
+        visited[0] = true;
+        for (int head = 0; head < order.size(); head++) {
+            int parent = order.get(head);
+            for (int[] pair : tree) {
+                int child = pair[0] == parent ? pair[1] : pair[1] == parent ? pair[0] : -1;
+                if (child >= 0 && !visited[child]) {
+                    visited[child] = true;
+                    order.add(child);
+                    edges.add(MarginalModel.Edge.builder().parent(parent).child(child).build());
+                }
+            }
+        }
+        return edges;
+    }
+
+    private static long[] jointCounts(byte[] parent, byte[] child, int childSize, int cells) {
+        long[] counts = new long[cells];
+        for (int row = 0; row < parent.length; row++) {
+            counts[(parent[row] & 0xFF) * childSize + (child[row] & 0xFF)]++;
+        }
+        return counts;
+    }
+
+    private static double[] clip(double[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = Math.max(0, counts[i]);
+        }
+        return counts;
+    }
+
+    /** Cumulative sampling tables of a model, shared read-only by the sampling tasks. */
+    private static final class Sampler {
+        private final List<MarginalModel.Column> columns;
+        private final int[] order;
+        private final int[] parent; // per column, -1 for the root
+        private final double[][][] cumulative; // per column, per parent bin (one table for the root)
+
+        private Sampler(MarginalModel model) {
+            this.columns = model.getColumns();
+            this.order = model.getOrder().stream().mapToInt(Integer::intValue).toArray();
+            this.parent = new int[columns.size()];
+            this.cumulative = new double[columns.size()][][];
+            Arrays.fill(parent, -1);
+            for (int c = 0; c < columns.size(); c++) {
+                cumulative[c] = new double[][] { cumulate(columns.get(c).getMarginal()) };
+            }
+            for (MarginalModel.Edge edge : model.getEdges()) {
+                int child = edge.getChild();
+                parent[child] = edge.getParent();
+                double[][] table = new double[edge.getCounts().length][];
+                for (int p = 0; p < table.length; p++) {
+                    // Parent values never seen together with the child fall back to its own marginal
+                    double[] row = edge.getCounts()[p];
+                    table[p] = Arrays.stream(row).sum() > 0 ? cumulate(row) : cumulative[child][0];
+                }
+                cumulative[child] = table;
+            }
+        }
+
+        private byte[] rows(int count, SplittableRandom random) {
+            int[] bins = new int[columns.size()];
+            StringBuilder text = new StringBuilder(count * columns.size() * 8);
+            for (int row = 0; row < count; row++) {
+                for (int c : order) {
+                    double[] table = cumulative[c][parent[c] < 0 ? 0 : bins[parent[c]]];
+                    bins[c] = draw(table, random);
+                }
+                for (int c = 0; c < columns.size(); c++) {
+                    if (c > 0)
+                        text.append(',');
+                    appendValue(text, columns.get(c), bins[c], random);
+                }
+                text.append('\n');
+            }
+            return text.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        private static double[] cumulate(double[] weights) {
+            double[] cumulative = new double[weights.length];
+            double sum = 0;
+            for (int i = 0; i < weights.length; i++) {
+                sum += weights[i];
+                cumulative[i] = sum;
+            }
+            if (sum == 0) {
+                // Nothing survived the noise: uniform
+                for (int i = 0; i < weights.length; i++) {
+                    cumulative[i] = i + 1;
+                }
+            }
+            return cumulative;
+        }
+
+        private static int draw(double[] cumulative, SplittableRandom random) {
+            double target = random.nextDouble() * cumulative[cumulative.length - 1];
+            int index = Arrays.binarySearch(cumulative, target);
+            index = index >= 0 ? index + 1 : -index - 1;
+            return Math.min(index, cumulative.length - 1);
+        }
+
+        private static void appendValue(StringBuilder text, MarginalModel.Column column, int bin,
+                SplittableRandom random) {
+            if (!column.isNumeric()) {
+                if (bin < column.getCategories().size())
+                    CsvText.appendField(text, column.getCategories().get(bin));
+                return; // "other" is written as empty
+            }
+            if (bin >= column.getNumericBins())
+                return; // missing
+            double value = column.getLower() + (bin + random.nextDouble()) * column.getWidth();
+            if (column.isIntegral()) {
+                text.append(Math.round(value));
+            } else {
+                CsvText.appendDecimal(text, value);
+            }
+        }
+    }
+
+    /** Running total of the ε and δ the noisy steps of one fit have spent. */
+    private static final class Spent {
+        private final NoiseMechanism mechanism;
+        private double epsilon;
+        private double delta;
+
+        private Spent(NoiseMechanism mechanism) {
+            this.mechanism = mechanism;
+        }
+
+        /** Noise scale of one sensitivity-1 measurement; only the Gaussian mechanism spends its δ. */
+        private double scale(double epsilon, double delta) {
+            this.epsilon += epsilon;
+            if (mechanism == NoiseMechanism.GAUSSIAN)
+                this.delta += delta;
+            return mechanism.scale(1, epsilon, delta);
+        }
+
+        /** A threshold that noise exceeds with probability {@code delta}, which a released choice spends. */
+        private double tailBound(double scale, double delta) {
+            this.delta += delta;
+            return mechanism.tailBound(scale, delta);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.synthetic.platform.privacy;
+
+import java.util.Random;
+
+/**
+ * Additive noise mechanisms for differentially private counting queries. A
+ * histogram (marginal) has sensitivity 1 when one record is added or removed,
+ * in both L1 and L2 norm, so both mechanisms apply to it as a whole.
+ */
+public enum NoiseMechanism {
+
+    /** Pure ε-differential privacy; {@code delta} is ignored. */
+    LAPLACE {
+        @Override
+        public double scale(double sensitivity, double epsilon, double delta) {
+            return sensitivity / epsilon;
+        }
+
+        @Override
+        public double sample(double scale, Random random) {
+            double u;
+            do {
+                u = random.nextDouble() - 0.5;
+            } while (u == -0.5); // log(0)
+            return -scale * Math.signum(u) * Math.log(1 - 2 * Math.abs(u));
+        }
+
+        @Override
+        public double tailBound(double scale, double delta) {
+            return scale * Math.log(1 / (2 * delta));
+        }
+    },
+
+    /** (ε, δ)-differential privacy with the classic calibration, for ε below 1. */
+    GAUSSIAN {
+        @Override
+        public double scale(double sensitivity, double epsilon, double delta) {
+            if (epsilon >= 1) {
+                throw new IllegalArgumentException("The Gaussian mechanism's calibration needs epsilon below 1");
+            }
+            return sensitivity * Math.sqrt(2 * Math.log(1.25 / delta)) / epsilon;
+        }
+
+        @Override
+        public double sample(double scale, Random random) {
+            return scale * random.nextGaussian();
+        }
+
+        @Override
+        public double tailBound(double scale, double delta) {
+            return scale * Math.sqrt(2 * Math.log(1 / delta));
+        }
+    };
+
+    /** Noise scale (Laplace b, Gaussian σ) for a query of the given sensitivity. */
+    public abstract double scale(double sensitivity, double epsilon, double delta);
+
+    public abstract double sample(double scale, Random random);
+
+    /** A level that noise of this scale exceeds with probability at most {@code delta}. */
+    public abstract double tailBound(double scale, double delta);
+
+    /** {@code counts} with independent noise of the given scale added to each cell. */
+    public double[] perturb(long[] counts, double scale, Random random) {
+        double[] noisy = new double[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            noisy[i] = counts[i] + sample(scale, random);
+        }
+        return noisy;
+    }
+}
@@ -0,0 +1,274 @@
+package com.synthetic.platform.privacy;
+
+import com.synthetic.platform.data.CsvBytes;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Recognises personal data in single field values, straight from the CSV
+ * bytes: each detector is a hand-written scanner with no regular expression
+ * or allocation, so they can run inside the profiling pass. Checks go from the
+ * most to the least specific format, and the first match wins. Callers should
+ * leave out dates, which would otherwise pass for phone numbers.
+ */
+public final class PiiDetector {
+
+    private PiiDetector() {
+    }
+
+    /** The kind of personal data in the trimmed field, or {@code null}. */
+    public static PiiType detect(ByteBuffer buf, int start, int end) {
+        int length = end - start;
+        if (length < 6 || length > 254)
+            return null;
+        if (isSsn(buf, start, end))
+            return PiiType.SSN;
+        if (isIpv4(buf, start, end) || isIpv6(buf, start, end))
+            return PiiType.IP_ADDRESS;
+        if (isIban(buf, start, end))
+            return PiiType.IBAN;
+        if (isEmail(buf, start, end))
+            return PiiType.EMAIL;
+        if (isCoordinates(buf, start, end))
+            return PiiType.GPS_COORDINATES;
+        if (isPhone(buf, start, end))
+            return PiiType.PHONE;
+        return null;
+    }
+
+    /** {@code AAA-GG-SSSS} with the area, group and serial numbers that are never issued excluded. */
+    static boolean isSsn(ByteBuffer buf, int start, int end) {
+        if (end - start != 11 || buf.get(start + 3) != '-' || buf.get(start + 6) != '-')
+            return false;
+        int area = digits(buf, start, 3);
+        int group = digits(buf, start + 4, 2);
+        int serial = digits(buf, start + 7, 4);
+        return area > 0 && area != 666 && area < 900 && group > 0 && serial > 0;
+    }
+
+    static boolean isIpv4(ByteBuffer buf, int start, int end) {
+        int pos = start;
+        for (int octet = 0; octet < 4; octet++) {
+            if (octet > 0) {
+                if (pos >= end || buf.get(pos) != '.')
+                    return false;
+                pos++;
+            }
+            int value = 0;
+            int count = 0;
+            while (pos < end && isDigit(buf.get(pos)) && count < 3) {
+                value = value * 10 + (buf.get(pos++) - '0');
+                count++;
+            }
+            if (count == 0 || value > 255)
+                return false;
+        }
+        return pos == end;
+    }
+
+    /**
+     * Colon-separated hex groups: either all eight, or fewer with one
+     * {@code ::}. Needs at least three colons, which keeps times like
+     * {@code 10:30:00} out.
+     */
+    static boolean isIpv6(ByteBuffer buf, int start, int end) {
+        int groups = 0;
+        int colons = 0;
+        boolean compressed = false;
+        int digits = 0;
+        for (int pos = start; pos < end; pos++) {
+            byte b = buf.get(pos);
+            if (b == ':') {
+                colons++;
+                if (digits > 0)
+                    groups++;
+                else if (pos > start && buf.get(pos - 1) == ':') {
+                    if (compressed)
+                        return false;
+                    compressed = true;
+                } else if (pos + 1 >= end || buf.get(pos + 1) != ':') {
+                    return false;
+                }
+                digits = 0;
+            } else if (isHex(b) && digits < 4) {
+                digits++;
+            } else {
+                return false;
+            }
+        }
+        if (digits > 0)
+            groups++;
+        return colons >= 3 && (compressed ? groups < 8 : groups == 8);
+    }
+
+    /**
+     * Country code, check digits and 11–30 alphanumerics, optionally grouped
+     * by spaces, whose ISO 7064 mod-97 checksum is 1.
+     */
+    static boolean isIban(ByteBuffer buf, int start, int end) {
+        if (!isUpper(buf.get(start)) || end - start < 15 || !isUpper(buf.get(start + 1)))
+            return false;
+        int characters = 0;
+        for (int pos = start; pos < end; pos++) {
+            byte b = buf.get(pos);
+            if (b == ' ')
+                continue;
+            if (!isDigit(b) && !isUpper(b))
+                return false;
+            if (characters < 4 && characters >= 2 && !isDigit(b))
+                return false;
+            characters++;
+        }
+        if (characters < 15 || characters > 34)
+            return false;
+
+        // The first four characters move to the end; letters count as 10-35
+        int remainder = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            int seen = 0;
+            for (int pos = start; pos < end; pos++) {
+                byte b = buf.get(pos);
+                if (b == ' ')
+                    continue;
+                boolean head = seen++ < 4;
+                if (head != (pass == 1))
+                    continue;
+                remainder = isDigit(b) ? (remainder * 10 + (b - '0')) % 97 : (remainder * 100 + (b - 'A' + 10)) % 97;
+            }
+        }
+        return remainder == 1;
+    }
+
+    /** {@code local@domain.tld} with a letters-only top-level domain of two or more characters. */
+    static boolean isEmail(ByteBuffer buf, int start, int end) {
+        int at = -1;
+        for (int pos = start; pos < end; pos++) {
+            byte b = buf.get(pos);
+            if (b == '@') {
+                if (at >= 0)
+                    return false;
+                at = pos;
+            } else if (!isAlphanumeric(b) && b != '.' && b != '_' && b != '%' && b != '+' && b != '-') {
+                return false;
+            }
+        }
+        if (at <= start || at >= end - 4)
+            return false;
+        int dot = -1;
+        for (int pos = at + 1; pos < end; pos++) {
+            byte b = buf.get(pos);
+            if (b == '.') {
+                if (pos == at + 1 || buf.get(pos - 1) == '.')
+                    return false;
+                dot = pos;
+            } else if (b != '-' && !isAlphanumeric(b)) {
+                return false;
+            }
+        }
+        if (dot < 0 || end - dot - 1 < 2)
+            return false;
+        for (int pos = dot + 1; pos < end; pos++) {
+            if (!isLetter(buf.get(pos)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * A latitude/longitude pair such as {@code 48.8584, 2.2945} or
+     * {@code (48.8584 2.2945)}: two decimals with at least two fractional
+     * digits each, in range.
+     */
+    static boolean isCoordinates(ByteBuffer buf, int start, int end) {
+        if (buf.get(start) == '(' && buf.get(end - 1) == ')') {
+            start++;
+            end--;
+        }
+        int split = -1;
+        for (int pos = start; pos < end; pos++) {
+            byte b = buf.get(pos);
+            if (b == ',' || b == ' ' || b == ';') {
+                split = pos;
+                break;
+            }
+        }
+        if (split < 0)
+            return false;
+        int second = split + 1;
+        while (second < end && (buf.get(second) == ' ' || buf.get(second) == ','))
+            second++;
+        return isDegrees(buf, start, split, 90) && isDegrees(buf, second, end, 180);
+    }
+
+    private static boolean isDegrees(ByteBuffer buf, int start, int end, double limit) {
+        int point = -1;
+        for (int pos = start; pos < end; pos++) {
+            if (buf.get(pos) == '.') {
+                point = pos;
+                break;
+            }
+        }
+        if (point < 0 || end - point - 1 < 2)
+            return false;
+        double value = CsvBytes.parseDouble(buf, start, end);
+        return !Double.isNaN(value) && Math.abs(value) <= limit;
+    }
+
+    /**
+     * 7–15 digits with phone punctuation, written the way phone numbers are:
+     * a leading {@code +}, an area code in parentheses, or at least two
+     * separator-delimited groups. Bare digit runs are left to numeric columns.
+     */
+    static boolean isPhone(ByteBuffer buf, int start, int end) {
+        int digits = 0;
+        int separators = 0;
+        boolean parentheses = false;
+        boolean plus = buf.get(start) == '+';
+        for (int pos = plus ? start + 1 : start; pos < end; pos++) {
+            byte b = buf.get(pos);
+            if (isDigit(b)) {
+                digits++;
+            } else if (b == '-' || b == ' ' || b == '.') {
+                if (pos > start && !isDigit(buf.get(pos - 1)) && buf.get(pos - 1) != ')')
+                    return false; // separators never repeat
+                separators++;
+            } else if (b == '(' || b == ')') {
+                parentheses = true;
+            } else {
+                return false;
+            }
+        }
+        return digits >= 7 && digits <= 15 && (plus || parentheses || separators >= 2);
+    }
+
+    private static int digits(ByteBuffer buf, int pos, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            byte b = buf.get(pos + i);
+            if (!isDigit(b))
+                return -1;
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isUpper(byte b) {
+        return b >= 'A' && b <= 'Z';
+    }
+
+    private static boolean isLetter(byte b) {
+        return isUpper(b) || (b >= 'a' && b <= 'z');
+    }
+
+    private static boolean isAlphanumeric(byte b) {
+        return isDigit(b) || isLetter(b);
+    }
+
+    private static boolean isHex(byte b) {
+        return isDigit(b) || (b >= 'a' && b <= 'f') || (b >= 'A' && b <= 'F');
+    }
+}
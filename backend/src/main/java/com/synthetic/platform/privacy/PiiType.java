@@ -0,0 +1,29 @@
+package com.synthetic.platform.privacy;
+
+/**
+ * Personal data recognised from column values by {@link PiiDetector}.
+ */
+public enum PiiType {
+    EMAIL("email addresses", SensitiveCategory.PII),
+    PHONE("phone numbers", SensitiveCategory.PII),
+    SSN("social security numbers", SensitiveCategory.PII),
+    IP_ADDRESS("IP addresses", SensitiveCategory.DEVICE),
+    IBAN("bank account numbers (IBAN)", SensitiveCategory.FINANCIAL),
+    GPS_COORDINATES("GPS coordinates", SensitiveCategory.LOCATION);
+
+    private final String description;
+    private final SensitiveCategory category;
+
+    PiiType(String description, SensitiveCategory category) {
+        this.description = description;
+        this.category = category;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public SensitiveCategory getCategory() {
+        return category;
+    }
+}
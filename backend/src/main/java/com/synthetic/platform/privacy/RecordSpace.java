@@ -0,0 +1,208 @@
+package com.synthetic.platform.privacy;
+
+import com.synthetic.platform.data.ColumnarTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Common encoding of the same columns of several tables, for Gower distances
+ * between their records. Numeric columns are scaled by the first table's
+ * range, and every per-column distance is capped at 1; categorical values,
+ * and columns whose kind differs between the tables, get codes shared by all
+ * tables and differ by 1 on mismatch. Missing values only match each other.
+ * <p>
+ * Encoded records are stored column by column in fixed-size float blocks, and
+ * both kinds of column use the same kernel, {@code min(1, |a - b| * weight)},
+ * with a weight of 1 for scaled numbers and of {@code Float.MAX_VALUE} for
+ * codes. The kernel is then a single loop the JIT compiles to SIMD
+ * instructions; it does not for offset array indexes or per-element branches.
+ */
+final class RecordSpace {
+
+    static final int BLOCK = 2048;
+
+    private static final float MISSING = -2f; // at least 1 from every scaled value
+    private static final float CATEGORICAL = Float.MAX_VALUE; // any code difference saturates to 1
+
+    private final List<String> names;
+    private final float[] weight;
+    private final double[] offset;
+    private final double[] scale;
+    private final List<Map<String, Integer>> codes;
+
+    /** Encoded rows of one table. */
+    static final class Block {
+        private final int size;
+        private final float[][][] values; // [column][block][record in block]
+
+        private Block(int size, int columns) {
+            this.size = size;
+            this.values = new float[columns][(size + BLOCK - 1) / BLOCK][];
+        }
+
+        int size() {
+            return size;
+        }
+
+        private float value(int column, int record) {
+            return values[column][record / BLOCK][record % BLOCK];
+        }
+    }
+
+    RecordSpace(List<String> names, ColumnarTable first, ColumnarTable... others) {
+        this.names = List.copyOf(names);
+        this.weight = new float[names.size()];
+        this.offset = new double[names.size()];
+        this.scale = new double[names.size()];
+        this.codes = new ArrayList<>(Collections.nCopies(names.size(), null));
+        for (int c = 0; c < names.size(); c++) {
+            ColumnarTable.Column column = require(first, names.get(c));
+            boolean allNumeric = column.isNumeric();
+            for (ColumnarTable other : others) {
+                allNumeric &= other == null || require(other, names.get(c)).isNumeric();
+            }
+            if (allNumeric) {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (double value : column.getValues()) {
+                    if (!Double.isNaN(value)) {
+                        min = Math.min(min, value);
+                        max = Math.max(max, value);
+                    }
+                }
+                weight[c] = 1f;
+                offset[c] = min <= max ? min : 0;
+                scale[c] = max > min ? 1 / (max - min) : 1;
+            } else {
+                weight[c] = CATEGORICAL;
+                codes.set(c, new HashMap<>());
+            }
+        }
+    }
+
+    /** Encodes {@code rows} of {@code table}; not thread-safe, as codes are assigned on the way. */
+    Block encode(ColumnarTable table, int[] rows) {
+        Block block = new Block(rows.length, names.size());
+        for (int c = 0; c < names.size(); c++) {
+            ColumnarTable.Column column = require(table, names.get(c));
+            float[] values = new float[rows.length];
+            if (codes.get(c) == null) {
+                double[] source = column.getValues();
+                for (int i = 0; i < rows.length; i++) {
+                    double value = source[rows[i]];
+                    values[i] = Double.isNaN(value) ? MISSING : (float) ((value - offset[c]) * scale[c]);
+                }
+            } else if (column.isNumeric()) {
+                for (int i = 0; i < rows.length; i++) {
+                    values[i] = code(c, column.text(rows[i]));
+                }
+            } else {
+                // Each dictionary entry is looked up once, when first used
+                String[] dictionary = column.getDictionary();
+                int[] source = column.getCodes();
+                float[] mapped = new float[dictionary.length];
+                Arrays.fill(mapped, -1f);
+                for (int i = 0; i < rows.length; i++) {
+                    int code = source[rows[i]];
+                    if (mapped[code] < 0)
+                        mapped[code] = code(c, dictionary[code]);
+                    values[i] = mapped[code];
+                }
+            }
+            for (int b = 0; b < block.values[c].length; b++) {
+                block.values[c][b] = Arrays.copyOfRange(values, b * BLOCK, Math.min(rows.length, (b + 1) * BLOCK));
+            }
+        }
+        return block;
+    }
+
+    private float code(int column, String value) {
+        Map<String, Integer> shared = codes.get(column);
+        return shared.computeIfAbsent(value, k -> shared.size()); // exact as a float below 2^24 values
+    }
+
+    /**
+     * Whether column {@code c} of record {@code i} of {@code a} is within
+     * {@code tolerance} (as a fraction of the range) of record {@code j} of
+     * {@code b}; categorical values must be equal.
+     */
+    boolean close(Block a, int i, Block b, int j, int c, float tolerance) {
+        float difference = Math.abs(a.value(c, i) - b.value(c, j));
+        return codes.get(c) == null ? difference <= tolerance : difference == 0;
+    }
+
+    /**
+     * Finds, for records {@code from} to {@code to} of {@code queries}, the
+     * nearest record of {@code reference} by mean Gower distance; ties go to
+     * the first. Fills {@code nearest} and {@code distance} at the query index.
+     */
+    void nearest(Block queries, Block reference, int from, int to, int[] nearest, float[] distance) {
+        int columns = names.size();
+        float[] sum = new float[BLOCK];
+        float[] query = new float[columns];
+        for (int q = from; q < to; q++) {
+            for (int c = 0; c < columns; c++) {
+                query[c] = queries.value(c, q);
+            }
+            float best = Float.POSITIVE_INFINITY;
+            int bestIndex = -1;
+            for (int b = 0; b * BLOCK < reference.size; b++) {
+                int length = Math.min(BLOCK, reference.size - b * BLOCK);
+                Arrays.fill(sum, 0, length, 0f);
+                for (int c = 0; c < columns; c++) {
+                    addDistances(sum, query[c], weight[c], reference.values[c][b], length);
+                }
+                for (int j = 0; j < length; j++) {
+                    if (sum[j] < best) {
+                        best = sum[j];
+                        bestIndex = b * BLOCK + j;
+                    }
+                }
+            }
+            nearest[q] = bestIndex;
+            distance[q] = columns == 0 ? 0f : best / columns;
+        }
+    }
+
+    private static void addDistances(float[] sum, float value, float weight, float[] column, int length) {
+        for (int j = 0; j < length; j++) {
+            sum[j] += Math.min(1f, Math.abs(value - column[j]) * weight);
+        }
+    }
+
+    /**
+     * Up to {@code count} distinct row indexes below {@code rowCount}, chosen
+     * uniformly and returned in ascending order.
+     */
+    static int[] sample(int rowCount, int count, Random random) {
+        if (rowCount <= count) {
+            int[] all = new int[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        // Selection sampling (Knuth's algorithm S) yields sorted indexes in one pass
+        int[] rows = new int[count];
+        int selected = 0;
+        for (int row = 0; row < rowCount && selected < count; row++) {
+            if (random.nextInt(rowCount - row) < count - selected)
+                rows[selected++] = row;
+        }
+        return rows;
+    }
+
+    private static ColumnarTable.Column require(ColumnarTable table, String name) {
+        ColumnarTable.Column column = table.column(name);
+        if (column == null) {
+            throw new IllegalArgumentException("Column '" + name + "' not found in every dataset compared");
+        }
+        return column;
+    }
+}
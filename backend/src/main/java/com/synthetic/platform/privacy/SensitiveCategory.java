@@ -0,0 +1,23 @@
+package com.synthetic.platform.privacy;
+
+/**
+ * Kinds of sensitive data a column can hold, in order of precedence when a
+ * column matches several.
+ */
+public enum SensitiveCategory {
+    PII("Potential PII (Personally Identifiable Information)"),
+    FINANCIAL("Financial Information"),
+    MEDICAL("Medical/Health Information"),
+    LOCATION("Precise Location Data (CPS)"),
+    DEVICE("Network/Device Identifier (CPS)");
+
+    private final String reason;
+
+    SensitiveCategory(String reason) {
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,86 @@
+package com.synthetic.platform.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets held by this JVM. A bucket is a single {@code long} packing
+ * its units and the time they were counted, updated by compare-and-set, so
+ * callers never block each other.
+ * <p>
+ * A bucket untouched for a minute is full again, which is what a new bucket
+ * would be, so idle buckets are dropped by a sweep that the first lease after
+ * each minute runs.
+ * <p>
+ * The packing leaves 28 bits for the units, so a bucket holds at most
+ * {@link #MAX_REQUESTS_PER_MINUTE} tokens; larger limits are rejected rather
+ * than silently capped.
+ */
+public class InMemoryTokenLeaseStore implements TokenLeaseStore {
+
+    private static final int TIME_BITS = 36; // milliseconds, wrapping every two years
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+    private static final long MAX_UNITS = (1L << (Long.SIZE - TIME_BITS)) - 1;
+    private static final long IDLE_MILLIS = 60_000;
+
+    public static final int MAX_REQUESTS_PER_MINUTE = (int) (MAX_UNITS / UNITS_PER_TOKEN);
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep = new AtomicLong();
+    private final long epoch = System.currentTimeMillis();
+    private final long capacity;
+    private final long refill;
+
+    public InMemoryTokenLeaseStore(int requestsPerMinute) {
+        if (requestsPerMinute > MAX_REQUESTS_PER_MINUTE) {
+            throw new IllegalArgumentException("app.ratelimit.requests-per-minute cannot exceed "
+                    + MAX_REQUESTS_PER_MINUTE + " (got " + requestsPerMinute + ")");
+        }
+        this.refill = Math.max(1, requestsPerMinute);
+        this.capacity = refill * UNITS_PER_TOKEN;
+    }
+
+    @Override
+    public long lease(String key, long minimum, long requested) {
+        long now = (System.currentTimeMillis() - epoch) & TIME_MASK;
+        sweepIdle(now);
+        minimum = Math.min(capacity, minimum);
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(capacity << TIME_BITS | now));
+        while (true) {
+            long state = bucket.get();
+            long elapsed = since(now, state & TIME_MASK);
+            // Another caller may have stored a slightly later time; never count time twice
+            long time = elapsed > 0 ? now : state & TIME_MASK;
+            elapsed = Math.max(0, elapsed);
+            long available = Math.min(capacity, (state >>> TIME_BITS) + Math.min(elapsed, IDLE_MILLIS) * refill);
+            if (available < minimum) {
+                return -Math.max(1, (minimum - available + refill - 1) / refill);
+            }
+            long taken = Math.min(available, Math.max(minimum, requested));
+            if (bucket.compareAndSet(state, (available - taken) << TIME_BITS | time)) {
+                return taken;
+            }
+        }
+    }
+
+    /** Number of buckets held, for metrics. */
+    public int size() {
+        return buckets.size();
+    }
+
+    /** Drops the buckets that have refilled completely, at most once a minute. */
+    private void sweepIdle(long now) {
+        long due = nextSweep.get();
+        if (since(now, due) < 0 || !nextSweep.compareAndSet(due, (now + IDLE_MILLIS) & TIME_MASK)) {
+            return;
+        }
+        // A lease racing the removal of its full bucket may go uncounted; the next one starts a new bucket
+        buckets.values().removeIf(bucket -> since(now, bucket.get() & TIME_MASK) >= IDLE_MILLIS);
+    }
+
+    /** Signed milliseconds from {@code earlier} to {@code now}, across the wrap of the packed clock. */
+    private static long since(long now, long earlier) {
+        return (now - earlier) << (Long.SIZE - TIME_BITS) >> (Long.SIZE - TIME_BITS);
+    }
+}
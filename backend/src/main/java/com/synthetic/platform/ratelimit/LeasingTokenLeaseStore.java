@@ -0,0 +1,115 @@
+package com.synthetic.platform.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves leases from units this node took from a shared store ahead of time,
+ * in batches of {@code leaseUnits}, so only about one request in every batch
+ * makes a round trip. A node can hold at most one batch per client beyond
+ * what it has served, which bounds how far the cluster can exceed the limit.
+ * <p>
+ * Units held for a client that stops calling are simply dropped after a
+ * minute; they were already taken from the shared bucket, so dropping them
+ * only errs on the strict side. A refused client is refused locally until the
+ * shared bucket can have refilled. If the shared store fails, leases fall
+ * back to {@code fallback}, a per-node limit, for a few seconds at a time.
+ */
+@Slf4j
+public class LeasingTokenLeaseStore implements TokenLeaseStore {
+
+    private static final long IDLE_MILLIS = 60_000;
+    private static final long RETRY_SHARED_MILLIS = 5_000;
+
+    private final TokenLeaseStore shared;
+    private final TokenLeaseStore fallback;
+    private final long leaseUnits;
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep = new AtomicLong();
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile long sharedDownUntil;
+
+    private static final class Lease {
+        private final AtomicLong units = new AtomicLong();
+        private volatile long lastUsed;
+        private volatile long refusedUntil; // the shared bucket has nothing to lease before then
+    }
+
+    public LeasingTokenLeaseStore(TokenLeaseStore shared, TokenLeaseStore fallback, long leaseUnits) {
+        this.shared = shared;
+        this.fallback = fallback;
+        this.leaseUnits = leaseUnits;
+    }
+
+    @Override
+    public long lease(String key, long minimum, long requested) {
+        long now = System.currentTimeMillis();
+        sweepIdle(now);
+        Lease lease = leases.computeIfAbsent(key, k -> new Lease());
+        lease.lastUsed = now;
+
+        // Fast path: enough units already held
+        AtomicLong held = lease.units;
+        for (long units = held.get(); units >= minimum; units = held.get()) {
+            long taken = Math.min(units, Math.max(minimum, requested));
+            if (held.compareAndSet(units, units - taken)) {
+                return taken;
+            }
+        }
+
+        // Refused clients are refused locally until the shared bucket can have refilled
+        if (now < lease.refusedUntil) {
+            return -(lease.refusedUntil - now);
+        }
+        if (now < sharedDownUntil) {
+            return fallback.lease(key, minimum, requested);
+        }
+
+        // Top up from the shared store with what is held plus a fresh batch
+        long have = held.getAndSet(0);
+        long needed = minimum - have;
+        long granted;
+        try {
+            roundTrips.incrementAndGet();
+            granted = shared.lease(key, needed, Math.max(needed, leaseUnits));
+        } catch (RuntimeException e) {
+            held.addAndGet(have);
+            failures.incrementAndGet();
+            sharedDownUntil = now + RETRY_SHARED_MILLIS;
+            log.warn("Shared rate limit store unavailable, limiting per node for {} ms: {}", RETRY_SHARED_MILLIS,
+                    e.getMessage());
+            return fallback.lease(key, minimum, requested);
+        }
+        if (granted < 0) {
+            held.addAndGet(have);
+            lease.refusedUntil = now - granted;
+            return granted;
+        }
+        long total = have + granted;
+        long taken = Math.min(total, Math.max(minimum, requested));
+        held.addAndGet(total - taken);
+        return taken;
+    }
+
+    /** Round trips to the shared store so far, for metrics. */
+    public long getRoundTrips() {
+        return roundTrips.get();
+    }
+
+    /** Failed round trips so far, for metrics. */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    private void sweepIdle(long now) {
+        long due = nextSweep.get();
+        if (now < due || !nextSweep.compareAndSet(due, now + IDLE_MILLIS)) {
+            return;
+        }
+        leases.values().removeIf(lease -> now - lease.lastUsed >= IDLE_MILLIS);
+    }
+}
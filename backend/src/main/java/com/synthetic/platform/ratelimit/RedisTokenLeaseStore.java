@@ -0,0 +1,57 @@
+package com.synthetic.platform.ratelimit;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * Token buckets in Redis, shared by every node. Each lease is one atomic
+ * script run on the Redis clock, so nodes with skewed clocks agree on the
+ * refill. Buckets expire once they would be full again.
+ */
+public class RedisTokenLeaseStore implements TokenLeaseStore {
+
+    private static final String KEY_PREFIX = "ratelimit:";
+
+    private static final RedisScript<Long> LEASE = new DefaultRedisScript<>("""
+            local minimum = tonumber(ARGV[1])
+            local requested = tonumber(ARGV[2])
+            local capacity = tonumber(ARGV[3])
+            local refill = tonumber(ARGV[4])
+            local clock = redis.call('TIME')
+            local now = tonumber(clock[1]) * 1000 + math.floor(tonumber(clock[2]) / 1000)
+            local state = redis.call('HMGET', KEYS[1], 'units', 'time')
+            local units = tonumber(state[1]) or capacity
+            local last = tonumber(state[2]) or now
+            units = math.min(capacity, units + math.max(0, now - last) * refill)
+            if units < minimum then
+                return -math.max(1, math.ceil((minimum - units) / refill))
+            end
+            local taken = math.min(units, math.max(minimum, requested))
+            redis.call('HSET', KEYS[1], 'units', units - taken, 'time', math.max(now, last))
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / refill) + 1000)
+            return taken
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final long capacity;
+    private final long refill;
+
+    public RedisTokenLeaseStore(StringRedisTemplate redisTemplate, int requestsPerMinute) {
+        this.redisTemplate = redisTemplate;
+        this.refill = Math.max(1, requestsPerMinute);
+        this.capacity = refill * UNITS_PER_TOKEN;
+    }
+
+    @Override
+    public long lease(String key, long minimum, long requested) {
+        Long result = redisTemplate.execute(LEASE, List.of(KEY_PREFIX + key), String.valueOf(Math.min(capacity,
+                minimum)), String.valueOf(requested), String.valueOf(capacity), String.valueOf(refill));
+        if (result == null) {
+            throw new IllegalStateException("Rate limit script returned no result");
+        }
+        return result;
+    }
+}
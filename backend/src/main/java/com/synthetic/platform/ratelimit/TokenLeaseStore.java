@@ -0,0 +1,19 @@
+package com.synthetic.platform.ratelimit;
+
+/**
+ * Token buckets, one per client key, refilled continuously up to their
+ * capacity. Amounts are in units of {@code 1 / UNITS_PER_TOKEN} token, which
+ * makes a refill of {@code n} tokens a minute exactly {@code n} units a
+ * millisecond.
+ */
+public interface TokenLeaseStore {
+
+    long UNITS_PER_TOKEN = 60_000;
+
+    /**
+     * Takes at least {@code minimum} and at most {@code requested} units from
+     * the bucket of {@code key}. Returns the units taken, or, when fewer than
+     * {@code minimum} are available, minus the milliseconds until they will be.
+     */
+    long lease(String key, long minimum, long requested);
+}
@@ -1,12 +1,80 @@
 package com.synthetic.platform.repository;
 
+import com.synthetic.platform.config.CacheConfig;
 import com.synthetic.platform.model.AIModel;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AIModelRepository extends JpaRepository<AIModel, Long> {
     List<AIModel> findByDatasetId(Long datasetId);
+
+    // In its own transaction, so it also takes effect from after-commit callbacks
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @CacheEvict(value = CacheConfig.MODEL_METADATA, key = "#p0")
+    @Query("update AIModel m set m.status = :status where m.id = :id")
+    int updateStatus(Long id, String status);
+
+    // Cached models are shared between callers and must not be modified; concurrent misses load once
+    @Override
+    @Cacheable(value = CacheConfig.MODEL_METADATA, key = "#p0", sync = true)
+    Optional<AIModel> findById(Long id);
+
+    @Override
+    @CacheEvict(value = CacheConfig.MODEL_METADATA, key = "#p0.id", condition = "#p0.id != null")
+    <S extends AIModel> S save(S entity);
+
+    @Override
+    @CacheEvict(value = CacheConfig.MODEL_METADATA, key = "#p0.id", condition = "#p0.id != null")
+    <S extends AIModel> S saveAndFlush(S entity);
+
+    @Override
+    @CacheEvict(value = CacheConfig.MODEL_METADATA, allEntries = true)
+    <S extends AIModel> List<S> saveAll(Iterable<S> entities);
+
+    @Override
+    @CacheEvict(value = CacheConfig.MODEL_METADATA, allEntries = true)
+    <S extends AIModel> List<S> saveAllAndFlush(Iterable<S> entities);
+
+    @Override
+    @CacheEvict(value = CacheConfig.MODEL_METADATA, key = "#p0")
+    void deleteById(Long id);
+
+    @Override
+    @CacheEvict(value = CacheConfig.MODEL_METADATA, key = "#p0.id", condition = "#p0.id != null")
+    void delete(AIModel entity);
+
+    @Override
+    @CacheEvict(value = CacheConfig.MODEL_METADATA, allEntries = true)
+    void deleteAllById(Iterable<? extends Long> ids);
+
+    @Override
+    @CacheEvict(value = CacheConfig.MODEL_METADATA, allEntries = true)
+    void deleteAll(Iterable<? extends AIModel> entities);
+
+    @Override
+    @CacheEvict(value = CacheConfig.MODEL_METADATA, allEntries = true)
+    void deleteAll();
+
+    @Override
+    @CacheEvict(value = CacheConfig.MODEL_METADATA, allEntries = true)
+    void deleteAllInBatch(Iterable<AIModel> entities);
+
+    @Override
+    @CacheEvict(value = CacheConfig.MODEL_METADATA, allEntries = true)
+    void deleteAllByIdInBatch(Iterable<Long> ids);
+
+    @Override
+    @CacheEvict(value = CacheConfig.MODEL_METADATA, allEntries = true)
+    void deleteAllInBatch();
 }
@@ -5,8 +5,13 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DatasetRepository extends JpaRepository<Dataset, Long> {
     List<Dataset> findByProjectId(Long projectId);
+
+    long countByContentHash(String contentHash);
+
+    Optional<Dataset> findFirstByContentHashAndColumnSchemaIsNotNull(String contentHash);
 }
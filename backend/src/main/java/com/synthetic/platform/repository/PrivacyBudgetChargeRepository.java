@@ -0,0 +1,12 @@
+package com.synthetic.platform.repository;
+
+import com.synthetic.platform.model.PrivacyBudgetCharge;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PrivacyBudgetChargeRepository extends JpaRepository<PrivacyBudgetCharge, Long> {
+    List<PrivacyBudgetCharge> findByBudgetIdOrderByCreatedAtDesc(String budgetId);
+}
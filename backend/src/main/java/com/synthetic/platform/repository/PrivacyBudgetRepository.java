@@ -0,0 +1,17 @@
+package com.synthetic.platform.repository;
+
+import com.synthetic.platform.model.PrivacyBudget;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PrivacyBudgetRepository extends JpaRepository<PrivacyBudget, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from PrivacyBudget b where b.id = :id")
+    Optional<PrivacyBudget> findForUpdate(String id);
+}
@@ -0,0 +1,22 @@
+package com.synthetic.platform.repository;
+
+import com.synthetic.platform.model.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    List<UploadSession> findByStatusAndExpiresAtBefore(String status, LocalDateTime time);
+
+    /** Moves the session from status {@code from} to {@code to}; 0 if it was not in {@code from}. */
+    @Modifying
+    @Transactional
+    @Query("update UploadSession s set s.status = :to where s.id = :id and s.status = :from")
+    int transitionStatus(String id, String from, String to);
+}
@@ -1,59 +1,119 @@
 package com.synthetic.platform.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.synthetic.platform.security.model.User;
+import com.synthetic.platform.service.TokenRevocationService;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Issues and verifies HS256 tokens. The key and parser are built once, and
+ * verified claims are cached by the SHA-256 of the token until the token
+ * expires, so a client repeating the same bearer token is verified once.
+ */
 @Component
 @Slf4j
 public class JwtTokenProvider {
 
-    @Value("${app.jwt.secret:SynthoGenEnterpriseSecretKeyForJWTTokenGenerationMustBe256BitsLongForHS256Algorithm}")
-    private String jwtSecret;
+    private static final String ROLES_CLAIM = "roles";
+    private static final String ENABLED_CLAIM = "enabled";
+    private static final String VERSION_CLAIM = "ver";
 
-    @Value("${app.jwt.expiration:86400000}") // 24 hours
-    private long jwtExpiration;
+    private final long jwtExpiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Cache<String, Claims> verifiedTokens;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    public JwtTokenProvider(
+            @Value("${app.jwt.secret:SynthoGenEnterpriseSecretKeyForJWTTokenGenerationMustBe256BitsLongForHS256Algorithm}") String jwtSecret,
+            @Value("${app.jwt.expiration:86400000}") long jwtExpiration, // 24 hours
+            @Value("${app.jwt.cache.max-size:10000}") long cacheMaxSize,
+            @Value("${app.jwt.cache.max-ttl-seconds:900}") long cacheMaxTtlSeconds) {
+        this.jwtExpiration = jwtExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new UntilExpiration(TimeUnit.SECONDS.toNanos(cacheMaxTtlSeconds)))
+                .build();
     }
 
-    public String generateToken(String username) {
+    /**
+     * Issues a token carrying the user's roles, account state and token
+     * version, so requests can be authenticated without loading the user.
+     */
+    public String generateToken(User user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
 
         return Jwts.builder()
-                .setSubject(username)
+                .setSubject(user.getUsername())
+                .claim(ROLES_CLAIM, new ArrayList<>(user.getRoles()))
+                .claim(ENABLED_CLAIM, Boolean.TRUE.equals(user.getEnabled()))
+                .claim(VERSION_CLAIM, TokenRevocationService.versionOf(user))
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /** False for tokens issued before roles were embedded, which need the user loaded. */
+    public boolean carriesAuthorities(Claims claims) {
+        return claims.get(ROLES_CLAIM) instanceof List && claims.get(VERSION_CLAIM) instanceof Number;
+    }
 
-        return claims.getSubject();
+    public boolean isEnabled(Claims claims) {
+        return Boolean.TRUE.equals(claims.get(ENABLED_CLAIM));
     }
 
-    public boolean validateToken(String authToken) {
+    public int getTokenVersion(Claims claims) {
+        return ((Number) claims.get(VERSION_CLAIM)).intValue();
+    }
+
+    public List<GrantedAuthority> getAuthorities(Claims claims) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (Object role : (List<?>) claims.get(ROLES_CLAIM)) {
+            authorities.add(new SimpleGrantedAuthority(String.valueOf(role)));
+        }
+        return authorities;
+    }
+
+    /**
+     * Claims of {@code token} if its signature and expiry check out, otherwise
+     * null. The returned claims may be shared with other requests and must not
+     * be modified.
+     */
+    public Claims getVerifiedClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String key = hash(token);
+        Claims cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
-        } catch (SecurityException ex) {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            verifiedTokens.put(key, claims);
+            return claims;
+        } catch (io.jsonwebtoken.security.SecurityException ex) {
             log.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
             log.error("Invalid JWT token");
@@ -64,6 +124,57 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty");
         }
-        return false;
+        return null;
+    }
+
+    public String getUsernameFromToken(String token) {
+        Claims claims = getVerifiedClaims(token);
+        if (claims == null) {
+            throw new JwtException("Invalid JWT token");
+        }
+        return claims.getSubject();
+    }
+
+    public boolean validateToken(String authToken) {
+        return getVerifiedClaims(authToken) != null;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** Keeps an entry until its token's exp claim, and never longer than {@code maxTtlNanos}. */
+    private static final class UntilExpiration implements Expiry<String, Claims> {
+
+        private final long maxTtlNanos;
+
+        UntilExpiration(long maxTtlNanos) {
+            this.maxTtlNanos = maxTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxTtlNanos;
+            }
+            long remainingMillis = Math.max(0, expiration.getTime() - System.currentTimeMillis());
+            return Math.min(maxTtlNanos, TimeUnit.MILLISECONDS.toNanos(remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
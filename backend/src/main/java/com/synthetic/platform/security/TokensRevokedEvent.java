@@ -0,0 +1,11 @@
+package com.synthetic.platform.security;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** Published after a user's tokens are revoked or their roles or account state change. */
+@Getter
+@RequiredArgsConstructor
+public class TokensRevokedEvent {
+    private final String username;
+}
@@ -49,6 +49,10 @@ public class User {
     @Column(nullable = false)
     private Boolean enabled = true;
 
+    // Embedded in issued tokens; bumping it revokes every token issued before
+    @Column(name = "token_version")
+    private Integer tokenVersion = 0;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
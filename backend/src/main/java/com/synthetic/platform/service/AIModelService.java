@@ -2,15 +2,22 @@ package com.synthetic.platform.service;
 
 import com.synthetic.platform.model.AIModel;
 import com.synthetic.platform.model.Dataset;
+import com.synthetic.platform.model.PrivacyBudgetCharge;
+import com.synthetic.platform.privacy.MarginalSynthesizer;
+import com.synthetic.platform.privacy.NoiseMechanism;
 import com.synthetic.platform.repository.AIModelRepository;
 import com.synthetic.platform.controller.AIModelController.HyperparametersDTO;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 @RequiredArgsConstructor
@@ -18,6 +25,7 @@ public class AIModelService {
     private final AIModelRepository modelRepository;
     private final DatasetService datasetService;
     private final AIService aiService;
+    private final PrivacyBudgetService privacyBudgetService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     public List<AIModel> findByDatasetId(Long datasetId) {
@@ -68,7 +76,72 @@ public class AIModelService {
         }
 
         AIModel savedModel = modelRepository.save(model);
-        aiService.trainModel(savedModel);
+        // Charged in this transaction, so a refused charge also discards the model
+        PrivacyBudgetCharge charge = JvmSynthesisService.isDifferentiallyPrivate(savedModel)
+                ? chargePrivacyBudget(dataset, savedModel, hyperparameters)
+                : null;
+        // Queued once the model is committed, so the training thread always finds it
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submitTraining(savedModel, charge);
+                }
+            });
+        } else {
+            submitTraining(savedModel, charge);
+        }
         return savedModel;
     }
+
+    /**
+     * A full training queue fails the already committed model and refunds its
+     * charge; the rejection is rethrown, so the caller still gets a 503.
+     */
+    private void submitTraining(AIModel model, PrivacyBudgetCharge charge) {
+        try {
+            aiService.trainModel(model);
+        } catch (RejectedExecutionException e) {
+            model.setStatus("FAILED");
+            modelRepository.updateStatus(model.getId(), "FAILED");
+            if (charge != null) {
+                privacyBudgetService.refund(charge);
+            }
+            throw e;
+        }
+    }
+
+    private PrivacyBudgetCharge chargePrivacyBudget(Dataset dataset, AIModel model, HyperparametersDTO hyperparameters) {
+        double epsilon = JvmSynthesisService.DEFAULT_EPSILON;
+        double delta = JvmSynthesisService.DEFAULT_DELTA;
+        NoiseMechanism mechanism = NoiseMechanism.LAPLACE;
+        if (hyperparameters != null) {
+            if (hyperparameters.getEpsilon() != null)
+                epsilon = hyperparameters.getEpsilon();
+            if (hyperparameters.getDelta() != null)
+                delta = hyperparameters.getDelta();
+            if (hyperparameters.getNoiseMechanism() != null) {
+                try {
+                    mechanism = NoiseMechanism.valueOf(hyperparameters.getNoiseMechanism().toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(
+                            "Unknown noise mechanism: " + hyperparameters.getNoiseMechanism());
+                }
+            }
+        }
+        if (!(delta > 0)) {
+            throw new IllegalArgumentException("delta must be positive for " + JvmSynthesisService.DP_MARGINALS);
+        }
+        if (mechanism == NoiseMechanism.GAUSSIAN) {
+            // Refused before anything is charged rather than failing the training job
+            try {
+                MarginalSynthesizer.checkCalibration(epsilon, datasetService.getSchema(dataset).getColumns().size(),
+                        mechanism);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read the schema of dataset " + dataset.getId(), e);
+            }
+        }
+        return privacyBudgetService.charge(dataset, model.getId(), epsilon, delta, mechanism,
+                "Training " + JvmSynthesisService.DP_MARGINALS + " model " + model.getId());
+    }
 }
@@ -1,20 +1,31 @@
 package com.synthetic.platform.service;
 
+import com.synthetic.platform.data.CsvSource;
+import com.synthetic.platform.dto.DatasetSchemaDTO;
 import com.synthetic.platform.model.AIModel;
 import com.synthetic.platform.repository.AIModelRepository;
+import com.synthetic.platform.storage.BlobStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
-import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 @Service
 @RequiredArgsConstructor
@@ -22,8 +33,15 @@ import java.util.concurrent.CompletableFuture;
 public class AIService {
 
     private final AIModelRepository modelRepository;
+    private final BlobStore blobStore;
+    private final JvmSynthesisService jvmSynthesisService;
+    @Qualifier("processIoExecutor")
+    private final TaskExecutor processIoExecutor;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    private static final String STDIN_ARGUMENT = "-";
+    private static final String STAGING_DIRECTORY = ".incoming";
+
     @Value("${app.python.path:python}")
     private String pythonPath;
 
@@ -33,139 +51,162 @@ public class AIService {
     @Value("${app.storage.location}")
     private String storageLocation;
 
-    @Async("taskExecutor")
+    /**
+     * Trains on a {@code trainingExecutor} thread, which waits on the worker
+     * process; under virtual threads that wait holds no platform thread.
+     */
+    @Async("trainingExecutor")
     public CompletableFuture<Void> trainModel(AIModel model) {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                log.info("Starting training for model ID: {} with algorithm: {}", model.getId(), model.getAlgorithm());
-                model.setStatus("TRAINING");
-                modelRepository.save(model);
-
-                String datasetPath = Paths.get(storageLocation, model.getDataset().getFilePath()).toAbsolutePath()
-                        .toString();
-                String modelOutputDir = Paths.get(storageLocation, "models").toAbsolutePath().toString();
-                String modelOutputPath = Paths.get(modelOutputDir, "model_" + model.getId() + ".pkl").toAbsolutePath()
-                        .toString();
-
-                new File(modelOutputDir).mkdirs();
-
-                String scriptPath = Paths.get(aiEnginePath, "train.py").toAbsolutePath().toString();
-
-                // Extract hyperparameters from training_metrics JSON if present
-                String trainingMetrics = model.getTrainingMetrics();
-                int epochs = 5;
-                int batchSize = 50;
-                double learningRate = 0.0002;
-
-                if (trainingMetrics != null && !trainingMetrics.isEmpty()) {
-                    try {
-                        JsonNode node = objectMapper.readTree(trainingMetrics);
-                        if (node.has("epochs"))
-                            epochs = node.get("epochs").asInt();
-                        if (node.has("batchSize"))
-                            batchSize = node.get("batchSize").asInt();
-                        if (node.has("learningRate"))
-                            learningRate = node.get("learningRate").asDouble();
-
-                        // Handle potential snake_case from old/cached frontend
-                        if (node.has("batch_size") && !node.has("batchSize"))
-                            batchSize = node.get("batch_size").asInt();
-                        if (node.has("learning_rate") && !node.has("learningRate"))
-                            learningRate = node.get("learning_rate").asDouble();
-                    } catch (Exception e) {
-                        log.warn("Failed to parse hyperparameters, using defaults", e);
-                    }
+        if (JvmSynthesisService.handles(model)) {
+            jvmSynthesisService.train(model);
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            log.info("Starting training for model ID: {} with algorithm: {}", model.getId(), model.getAlgorithm());
+            model.setStatus("TRAINING");
+            modelRepository.save(model);
+
+            Path datasetFile = blobStore.fetch(model.getDataset().getFilePath());
+            // Every run gets its own key, since stored objects are never overwritten in place
+            String modelKey = "models/model_" + model.getId() + "_" + System.currentTimeMillis() + ".pkl";
+            Path stagingDir = Paths.get(storageLocation, STAGING_DIRECTORY);
+            Files.createDirectories(stagingDir);
+            Path modelOutput = stagingDir.resolve(modelKey.substring(modelKey.indexOf('/') + 1));
+            String modelOutputPath = modelOutput.toAbsolutePath().toString();
+
+            String scriptPath = Paths.get(aiEnginePath, "train.py").toAbsolutePath().toString();
+
+            // Extract hyperparameters from training_metrics JSON if present
+            String trainingMetrics = model.getTrainingMetrics();
+            int epochs = 5;
+            int batchSize = 50;
+            double learningRate = 0.0002;
+
+            if (trainingMetrics != null && !trainingMetrics.isEmpty()) {
+                try {
+                    JsonNode node = objectMapper.readTree(trainingMetrics);
+                    if (node.has("epochs"))
+                        epochs = node.get("epochs").asInt();
+                    if (node.has("batchSize"))
+                        batchSize = node.get("batchSize").asInt();
+                    if (node.has("learningRate"))
+                        learningRate = node.get("learningRate").asDouble();
+
+                    // Handle potential snake_case from old/cached frontend
+                    if (node.has("batch_size") && !node.has("batchSize"))
+                        batchSize = node.get("batch_size").asInt();
+                    if (node.has("learning_rate") && !node.has("learningRate"))
+                        learningRate = node.get("learning_rate").asDouble();
+                } catch (Exception e) {
+                    log.warn("Failed to parse hyperparameters, using defaults", e);
                 }
+            }
 
-                // Removed the override to allow real fine-tuning
-
-                int discSteps = 1;
-                String genDim = "";
-                String discDim = "";
-
-                if (trainingMetrics != null && !trainingMetrics.isEmpty()) {
-                    try {
-                        JsonNode node = objectMapper.readTree(trainingMetrics);
-                        if (node.has("discriminatorSteps"))
-                            discSteps = node.get("discriminatorSteps").asInt();
-                        if (node.has("generatorDim"))
-                            genDim = node.get("generatorDim").asText();
-                        if (node.has("discriminatorDim"))
-                            discDim = node.get("discriminatorDim").asText();
-
-                        // Snake case fallbacks
-                        if (node.has("discriminator_steps") && !node.has("discriminatorSteps"))
-                            discSteps = node.get("discriminator_steps").asInt();
-                        if (node.has("generator_dim") && !node.has("generatorDim"))
-                            genDim = node.get("generator_dim").asText();
-                    } catch (Exception e) {
-                        log.warn("Failed to parse additional hyperparameters", e);
-                    }
+            // Removed the override to allow real fine-tuning
+
+            int discSteps = 1;
+            String genDim = "";
+            String discDim = "";
+
+            if (trainingMetrics != null && !trainingMetrics.isEmpty()) {
+                try {
+                    JsonNode node = objectMapper.readTree(trainingMetrics);
+                    if (node.has("discriminatorSteps"))
+                        discSteps = node.get("discriminatorSteps").asInt();
+                    if (node.has("generatorDim"))
+                        genDim = node.get("generatorDim").asText();
+                    if (node.has("discriminatorDim"))
+                        discDim = node.get("discriminatorDim").asText();
+
+                    // Snake case fallbacks
+                    if (node.has("discriminator_steps") && !node.has("discriminatorSteps"))
+                        discSteps = node.get("discriminator_steps").asInt();
+                    if (node.has("generator_dim") && !node.has("generatorDim"))
+                        genDim = node.get("generator_dim").asText();
+                } catch (Exception e) {
+                    log.warn("Failed to parse additional hyperparameters", e);
                 }
+            }
 
-                ProcessBuilder pb = new ProcessBuilder(
-                        pythonPath, scriptPath,
-                        "--data", datasetPath,
-                        "--output", modelOutputPath,
-                        "--algorithm", model.getAlgorithm(),
-                        "--epochs", String.valueOf(epochs),
-                        "--batch_size", String.valueOf(batchSize),
-                        "--learning_rate", String.valueOf(learningRate),
-                        "--discriminator_steps", String.valueOf(discSteps));
-
-                if (genDim != null && !genDim.isEmpty()) {
-                    pb.command().add("--generator_dim");
-                    pb.command().add(genDim);
-                }
-                if (discDim != null && !discDim.isEmpty()) {
-                    pb.command().add("--discriminator_dim");
-                    pb.command().add(discDim);
-                }
+            ProcessBuilder pb = new ProcessBuilder(
+                    pythonPath, scriptPath,
+                    "--data", dataArgument(datasetFile),
+                    "--output", modelOutputPath,
+                    "--algorithm", model.getAlgorithm(),
+                    "--epochs", String.valueOf(epochs),
+                    "--batch_size", String.valueOf(batchSize),
+                    "--learning_rate", String.valueOf(learningRate),
+                    "--discriminator_steps", String.valueOf(discSteps));
+
+            if (genDim != null && !genDim.isEmpty()) {
+                pb.command().add("--generator_dim");
+                pb.command().add(genDim);
+            }
+            if (discDim != null && !discDim.isEmpty()) {
+                pb.command().add("--discriminator_dim");
+                pb.command().add(discDim);
+            }
 
-                pb.redirectErrorStream(true);
-                Process process = pb.start();
+            pb.redirectErrorStream(true);
+            Process process = pb.start();
+            feedInput(process, datasetFile);
 
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        log.debug("[AI-TRAIN-{}] {}", model.getId(), line);
-                    }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    log.debug("[AI-TRAIN-{}] {}", model.getId(), line);
                 }
+            }
 
-                int exitCode = process.waitFor();
-                if (exitCode == 0) {
-                    log.info("Training completed for model ID: {}", model.getId());
-                    model.setStatus("COMPLETED");
-                    model.setModelFilePath("models/model_" + model.getId() + ".pkl");
-                } else {
-                    log.error("Training failed for model ID: {} with exit code: {}", model.getId(), exitCode);
-                    model.setStatus("FAILED");
-                }
+            int exitCode = awaitExit(process);
+            if (exitCode == 0) {
+                log.info("Training completed for model ID: {}", model.getId());
+                blobStore.put(modelKey, modelOutput);
+                String previousKey = model.getModelFilePath();
+                model.setStatus("COMPLETED");
+                model.setModelFilePath(modelKey);
                 modelRepository.save(model);
-
-            } catch (Exception e) {
-                log.error("Exception during model training ID: " + model.getId(), e);
+                if (previousKey != null && !previousKey.equals(modelKey)) {
+                    blobStore.delete(previousKey);
+                }
+            } else {
+                log.error("Training failed for model ID: {} with exit code: {}", model.getId(), exitCode);
+                Files.deleteIfExists(modelOutput);
                 model.setStatus("FAILED");
                 modelRepository.save(model);
             }
-        });
+
+        } catch (Exception e) {
+            log.error("Exception during model training ID: " + model.getId(), e);
+            model.setStatus("FAILED");
+            modelRepository.save(model);
+        }
+        return CompletableFuture.completedFuture(null);
     }
 
     public void generateData(AIModel model, int count, String outputPath, String anomalyJson) throws Exception {
         if (model.getModelFilePath() == null) {
             throw new RuntimeException("Model not yet trained");
         }
+        if (JvmSynthesisService.handles(model)) {
+            validateInProcessGeneration(model, count, anomalyJson);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(outputPath)),
+                    1 << 16)) {
+                jvmSynthesisService.generate(model, count, out);
+            }
+            return;
+        }
 
-        String modelPath = Paths.get(storageLocation, model.getModelFilePath()).toAbsolutePath().toString();
+        String modelPath = blobStore.fetch(model.getModelFilePath()).toAbsolutePath().toString();
         String scriptPath = Paths.get(aiEnginePath, "generate.py").toAbsolutePath().toString();
-        String datasetPath = Paths.get(storageLocation, model.getDataset().getFilePath()).toAbsolutePath().toString();
+        Path datasetFile = blobStore.fetch(model.getDataset().getFilePath());
 
         ProcessBuilder pb = new ProcessBuilder(
                 pythonPath, scriptPath,
                 "--model", modelPath,
                 "--count", String.valueOf(count),
                 "--output", outputPath,
-                "--original", datasetPath);
+                "--original", dataArgument(datasetFile));
 
         if (anomalyJson != null && !anomalyJson.isEmpty()) {
             pb.command().add("--anomalies");
@@ -175,6 +216,7 @@ public class AIService {
         log.info("Generating {} records for model ID: {}", count, model.getId());
         pb.redirectErrorStream(true);
         Process process = pb.start();
+        feedInput(process, datasetFile);
 
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
             String line;
@@ -183,31 +225,83 @@ public class AIService {
             }
         }
 
-        int exitCode = process.waitFor();
+        int exitCode = awaitExit(process);
         if (exitCode != 0) {
             throw new RuntimeException("Data generation failed with exit code " + exitCode);
         }
     }
 
+    /**
+     * Whether {@link #generateData(AIModel, int, OutputStream, String)} can
+     * produce this model's rows without a worker process, as they are needed.
+     */
+    public boolean generatesInProcess(AIModel model) {
+        return JvmSynthesisService.handles(model);
+    }
+
+    /** Streams generated rows of an in-process model straight to {@code out}. */
+    public void generateData(AIModel model, int count, OutputStream out, String anomalyJson) throws Exception {
+        if (!generatesInProcess(model)) {
+            throw new IllegalArgumentException("Model " + model.getId() + " is generated by the AI engine");
+        }
+        validateInProcessGeneration(model, count, anomalyJson);
+        jvmSynthesisService.generate(model, count, out);
+    }
+
+    /**
+     * Rejects requests an in-process model cannot serve, before any response
+     * is committed to streaming.
+     */
+    public void validateInProcessGeneration(AIModel model, int count, String anomalyJson) {
+        if (model.getModelFilePath() == null) {
+            throw new RuntimeException("Model not yet trained");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("Record count cannot be negative");
+        }
+        if (anomalyJson != null && !anomalyJson.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "Anomaly injection is not supported for " + model.getAlgorithm() + " models");
+        }
+    }
+
+    /**
+     * Column statistics computed by the engine, which reads the columns with
+     * the types in {@code schema} instead of guessing them again.
+     */
     @org.springframework.cache.annotation.Cacheable(value = "datasetStats", key = "#fileName", unless = "#result == null")
-    public String getDatasetStats(String fileName) throws Exception {
-        String dataPath = Paths.get(storageLocation, fileName).toAbsolutePath().toString();
+    public String getDatasetStats(String fileName, DatasetSchemaDTO schema) throws Exception {
+        Path dataFile = blobStore.fetch(fileName);
         String scriptPath = Paths.get(aiEnginePath, "stats.py").toAbsolutePath().toString();
 
-        log.info("Calculating stats for file: {}", fileName);
-        ProcessBuilder pb = new ProcessBuilder(pythonPath, scriptPath, "--data", dataPath);
-        pb.redirectErrorStream(true); // Capture stderr to avoid blocking and see errors
-        Process process = pb.start();
+        // Passed as a file, since wide schemas can exceed the limit on a single argument
+        Path stagingDir = Paths.get(storageLocation, STAGING_DIRECTORY);
+        Files.createDirectories(stagingDir);
+        Path schemaFile = Files.createTempFile(stagingDir, "schema_", ".json");
 
         StringBuilder output = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line);
+        int exitCode;
+        try {
+            objectMapper.writeValue(schemaFile.toFile(), schema);
+
+            log.info("Calculating stats for file: {}", fileName);
+            ProcessBuilder pb = new ProcessBuilder(pythonPath, scriptPath, "--data", dataArgument(dataFile),
+                    "--schema", schemaFile.toAbsolutePath().toString());
+            pb.redirectErrorStream(true); // Capture stderr to avoid blocking and see errors
+            Process process = pb.start();
+            feedInput(process, dataFile);
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    output.append(line);
+                }
             }
-        }
 
-        int exitCode = process.waitFor();
+            exitCode = awaitExit(process);
+        } finally {
+            Files.deleteIfExists(schemaFile);
+        }
         if (exitCode != 0) {
             String errorMsg = "Stats calculation failed for file: " + fileName + ". Exit code: " + exitCode
                     + ". Output: " + output.toString();
@@ -228,20 +322,25 @@ public class AIService {
         if (model.getModelFilePath() == null) {
             throw new RuntimeException("Model not yet trained");
         }
+        if (JvmSynthesisService.handles(model)) {
+            throw new IllegalArgumentException("Evaluation is not supported for " + model.getAlgorithm()
+                    + " models; generate data and compare it with a privacy report instead");
+        }
 
-        String modelPath = Paths.get(storageLocation, model.getModelFilePath()).toAbsolutePath().toString();
+        String modelPath = blobStore.fetch(model.getModelFilePath()).toAbsolutePath().toString();
         String scriptPath = Paths.get(aiEnginePath, "evaluate.py").toAbsolutePath().toString();
-        String datasetPath = Paths.get(storageLocation, model.getDataset().getFilePath()).toAbsolutePath().toString();
+        Path datasetFile = blobStore.fetch(model.getDataset().getFilePath());
 
         log.info("Evaluating model ID: {} with {} samples", model.getId(), sampleCount);
         ProcessBuilder pb = new ProcessBuilder(
                 pythonPath, scriptPath,
                 "--model", modelPath,
-                "--original", datasetPath,
+                "--original", dataArgument(datasetFile),
                 "--samples", String.valueOf(sampleCount));
 
         pb.redirectErrorStream(true); // Capture stderr
         Process process = pb.start();
+        feedInput(process, datasetFile);
 
         StringBuilder output = new StringBuilder();
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
@@ -251,7 +350,7 @@ public class AIService {
             }
         }
 
-        int exitCode = process.waitFor();
+        int exitCode = awaitExit(process);
         if (exitCode != 0) {
             String errorMsg = "Model evaluation failed for ID: " + model.getId() + ". Exit code: " + exitCode
                     + ". Output: " + output.toString();
@@ -266,21 +365,50 @@ public class AIService {
         return outStr;
     }
 
-    public String runPrivacyAudit(String fileName) throws Exception {
-        // For now, leverage stats.py which already provides a good baseline for data
-        // analysis
-        // In a real scenario, this would call a specialized privacy_audit.py
-        String stats = getDatasetStats(fileName);
+    /**
+     * The data path argument for a worker script. Compressed datasets are not
+     * decompressed to disk; the script is told to read stdin instead.
+     */
+    private String dataArgument(Path file) {
+        return CsvSource.isCompressed(file) ? STDIN_ARGUMENT : file.toAbsolutePath().toString();
+    }
+
+    /**
+     * Streams the decompressed content of a compressed dataset into the
+     * worker's stdin from a {@code processIoExecutor} thread, so the worker
+     * can start reading while frames are still being decompressed.
+     */
+    private void feedInput(Process process, Path file) {
+        if (!CsvSource.isCompressed(file)) {
+            return;
+        }
+        processIoExecutor.execute(() -> {
+            try (InputStream in = CsvSource.newInputStream(file); OutputStream out = process.getOutputStream()) {
+                in.transferTo(out);
+            } catch (IOException e) {
+                // The worker exited or stopped reading; its exit code reports any failure
+                log.debug("Stopped streaming {} to worker: {}", file, e.getMessage());
+            }
+        });
+    }
 
-        // Wrap the stats in a privacy audit result structure
-        // This makes the UI dynamic based on the actual uploaded data
-        return "{\"status\": \"COMPLETED\", \"score\": 85, \"details\": " + stats + "}";
+    /**
+     * Waits for the worker to exit. Unlike {@link Process#waitFor()}, which
+     * waits in a monitor and pins a virtual thread to its carrier, this parks.
+     */
+    private static int awaitExit(Process process) throws InterruptedException {
+        try {
+            return process.onExit().get().exitValue();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not wait for worker process", e.getCause());
+        }
     }
 
-    public String detectAnomalies(String fileName) throws Exception {
-        // Similar to privacy audit, we use stats for now but format it for the Anomaly
-        // UI
-        String stats = getDatasetStats(fileName);
-        return "{\"status\": \"COMPLETED\", \"count\": 5, \"results\": " + stats + "}";
+    /**
+     * The privacy audit response: the dataset's privacy score with the
+     * engine's stats, whose columns the audit page classifies.
+     */
+    public static String privacyAudit(String stats, int score) {
+        return "{\"status\": \"COMPLETED\", \"score\": " + score + ", \"details\": " + stats + "}";
     }
 }
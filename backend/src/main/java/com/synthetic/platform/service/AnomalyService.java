@@ -0,0 +1,41 @@
+package com.synthetic.platform.service;
+
+import com.synthetic.platform.anomaly.AnomalyDetector;
+import com.synthetic.platform.data.ColumnarTable;
+import com.synthetic.platform.data.MappedCsvReader;
+import com.synthetic.platform.data.SchemaInferencer;
+import com.synthetic.platform.dto.AnomalyReportDTO;
+import com.synthetic.platform.model.Dataset;
+import com.synthetic.platform.storage.BlobStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+
+/**
+ * Service for finding anomalous records in a dataset
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class AnomalyService {
+
+    private final MappedCsvReader mappedCsvReader;
+    private final BlobStore blobStore;
+    private final DatasetService datasetService;
+    private final AnomalyDetector anomalyDetector;
+
+    /**
+     * The {@code limit} most anomalous rows of the dataset, with anomaly
+     * counts per column
+     */
+    public AnomalyReportDTO detect(Dataset dataset, int limit) throws IOException {
+        ColumnarTable data = mappedCsvReader.readTable(blobStore.fetch(dataset.getFilePath()),
+                SchemaInferencer.kinds(datasetService.getSchema(dataset)));
+        AnomalyReportDTO report = anomalyDetector.detect(data, limit);
+        log.info("Found {} anomalous rows of {} in dataset {}", report.getAnomalyCount(), report.getRowCount(),
+                dataset.getName());
+        return report;
+    }
+}
@@ -0,0 +1,139 @@
+package com.synthetic.platform.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.synthetic.platform.data.CsvSource;
+import com.synthetic.platform.dto.ExportRequestDTO.ExportFormat;
+import com.synthetic.platform.dto.PrivacyReportDTO;
+import com.synthetic.platform.model.Dataset;
+import com.synthetic.platform.storage.BlobStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Service for exporting every dataset of a project as a single ZIP archive
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BulkExportService {
+
+    private final ProjectService projectService;
+    private final DatasetService datasetService;
+    private final PrivacyReportService privacyReportService;
+    private final PdfExportService pdfExportService;
+    private final ObjectMapper objectMapper;
+    private final BlobStore blobStore;
+
+    /**
+     * Validates the request and returns the datasets to export, so errors surface
+     * before the response starts streaming.
+     */
+    public List<Dataset> findExportableDatasets(Long projectId, Set<ExportFormat> formats) {
+        if (formats == null || formats.isEmpty()) {
+            throw new IllegalArgumentException("At least one export format is required");
+        }
+        if (formats.contains(ExportFormat.EXCEL)) {
+            throw new IllegalArgumentException("Excel is not supported for project exports, use PDF, JSON or CSV");
+        }
+
+        projectService.findById(projectId);
+        return datasetService.findByProjectId(projectId);
+    }
+
+    /**
+     * Streams a ZIP with one folder per dataset into {@code out}. A dataset
+     * synthesized from another gets a report comparing it with its source,
+     * shared by the PDF and JSON entries; other datasets have nothing to be
+     * compared with and are exported without one. Entries are built
+     * concurrently on the report pool and written in dataset order as soon as
+     * each one is ready. CSV entries are copied straight from storage.
+     */
+    public void writeArchive(List<Dataset> datasets, Set<ExportFormat> formats, OutputStream out) throws Exception {
+        log.info("Exporting {} datasets as {}", datasets.size(), formats);
+
+        boolean needsReport = formats.contains(ExportFormat.PDF) || formats.contains(ExportFormat.JSON);
+        List<Callable<DatasetEntries>> tasks = new ArrayList<>(datasets.size());
+        for (Dataset dataset : datasets) {
+            tasks.add(() -> buildEntries(dataset, formats, needsReport));
+        }
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        pdfExportService.runBulk(tasks, (index, entries) -> writeEntries(zip, entries, formats));
+        zip.finish();
+        zip.flush();
+    }
+
+    private DatasetEntries buildEntries(Dataset dataset, Set<ExportFormat> formats, boolean needsReport)
+            throws Exception {
+        DatasetEntries entries = new DatasetEntries(dataset);
+        if (!needsReport) {
+            return entries;
+        }
+
+        Optional<Dataset> source = datasetService.findSource(dataset);
+        if (source.isEmpty()) {
+            log.debug("Exporting dataset {} without a privacy report, as it has no source dataset", dataset.getId());
+            return entries;
+        }
+        PrivacyReportDTO report = privacyReportService.generateReport(source.get(), dataset);
+        if (formats.contains(ExportFormat.PDF)) {
+            entries.pdf = pdfExportService.renderPrivacyReport(report);
+        }
+        if (formats.contains(ExportFormat.JSON)) {
+            entries.json = objectMapper.writeValueAsBytes(report);
+        }
+        return entries;
+    }
+
+    private void writeEntries(ZipOutputStream zip, DatasetEntries entries, Set<ExportFormat> formats)
+            throws Exception {
+        String folder = folderName(entries.dataset);
+
+        if (entries.pdf != null) {
+            zip.putNextEntry(new ZipEntry(folder + "privacy_report.pdf"));
+            zip.write(entries.pdf);
+            zip.closeEntry();
+        }
+        if (entries.json != null) {
+            zip.putNextEntry(new ZipEntry(folder + "privacy_report.json"));
+            zip.write(entries.json);
+            zip.closeEntry();
+        }
+        if (formats.contains(ExportFormat.CSV)) {
+            Path source = blobStore.fetch(entries.dataset.getFilePath());
+            zip.putNextEntry(new ZipEntry(folder + "data.csv"));
+            try (InputStream in = CsvSource.newInputStream(source)) {
+                in.transferTo(zip);
+            }
+            zip.closeEntry();
+        }
+        zip.flush();
+    }
+
+    private String folderName(Dataset dataset) {
+        String name = dataset.getName() != null ? dataset.getName() : "dataset";
+        return dataset.getId() + "_" + name.replaceAll("[^a-zA-Z0-9._-]", "_") + "/";
+    }
+
+    private static class DatasetEntries {
+        private final Dataset dataset;
+        private byte[] pdf;
+        private byte[] json;
+
+        private DatasetEntries(Dataset dataset) {
+            this.dataset = dataset;
+        }
+    }
+}
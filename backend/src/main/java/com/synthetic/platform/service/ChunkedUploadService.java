@@ -0,0 +1,371 @@
+package com.synthetic.platform.service;
+
+import com.synthetic.platform.dto.UploadRequestDTO;
+import com.synthetic.platform.dto.UploadSessionDTO;
+import com.synthetic.platform.model.Dataset;
+import com.synthetic.platform.model.Project;
+import com.synthetic.platform.model.UploadSession;
+import com.synthetic.platform.repository.UploadSessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * Service for resumable, chunked dataset uploads. The target file is
+ * pre-allocated at init and every chunk is streamed from the request body
+ * straight into its slot with positional writes, so chunks can arrive in any
+ * order and in parallel. Received chunks are recorded in a sidecar file, a
+ * status byte and the CRC32C of each chunk, which is what lets an interrupted
+ * upload resume. A chunk is marked missing while it is being written, and the
+ * assembled file is checked against the recorded checksums (and the whole-file
+ * checksum, if the client gave one) before it becomes a dataset.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ChunkedUploadService {
+
+    public static final String STATUS_ACTIVE = "ACTIVE";
+    public static final String STATUS_COMPLETING = "COMPLETING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_ABORTED = "ABORTED";
+    public static final String STATUS_EXPIRED = "EXPIRED";
+
+    private static final int MIN_CHUNK_SIZE = 1024 * 1024;
+    private static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final int COPY_BUFFER_SIZE = 256 * 1024;
+    private static final String INCOMING_DIRECTORY = ".incoming";
+    private static final byte RECEIVED = 1;
+    private static final byte MISSING = 0;
+    private static final int ENTRY_SIZE = 5; // status byte, then the chunk's CRC32C
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final ProjectService projectService;
+    private final DatasetService datasetService;
+
+    @Value("${app.storage.location}")
+    private String storageLocation;
+
+    @Value("${app.upload.chunk-size-mb:16}")
+    private int defaultChunkSizeMb;
+
+    @Value("${app.upload.max-size-mb:51200}")
+    private long maxSizeMb;
+
+    @Value("${app.upload.session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    @Transactional
+    public UploadSessionDTO init(UploadRequestDTO request) throws IOException {
+        if (request.getProjectId() == null) {
+            throw new IllegalArgumentException("Project ID cannot be null");
+        }
+        if (request.getFileName() == null || request.getFileName().isBlank()) {
+            throw new IllegalArgumentException("File name cannot be empty");
+        }
+        long totalSize = request.getTotalSize() != null ? request.getTotalSize() : 0;
+        if (totalSize <= 0 || totalSize > maxSizeMb * 1024 * 1024) {
+            throw new IllegalArgumentException("File size must be between 1 byte and " + maxSizeMb + " MB");
+        }
+        int chunkSize = request.getChunkSize() != null ? request.getChunkSize() : defaultChunkSizeMb * 1024 * 1024;
+        if (chunkSize < MIN_CHUNK_SIZE || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException(
+                    "Chunk size must be between " + MIN_CHUNK_SIZE + " and " + MAX_CHUNK_SIZE + " bytes");
+        }
+        long chunkCount = (totalSize + chunkSize - 1) / chunkSize;
+        String checksum = request.getChecksum() != null && !request.getChecksum().isBlank()
+                ? request.getChecksum().trim().toLowerCase()
+                : null;
+
+        Project project = projectService.findById(request.getProjectId());
+        datasetService.checkSource(request.getSourceDatasetId());
+        purgeExpired();
+
+        String id = UUID.randomUUID().toString();
+        Files.createDirectories(incomingDirectory());
+        // Sparse on most filesystems; reserves the full length so chunk writes never extend the file
+        try (RandomAccessFile part = new RandomAccessFile(partFile(id).toFile(), "rw")) {
+            part.setLength(totalSize);
+        }
+        try (RandomAccessFile chunks = new RandomAccessFile(chunkMapFile(id).toFile(), "rw")) {
+            chunks.setLength(chunkCount * ENTRY_SIZE);
+        }
+
+        UploadSession session = new UploadSession();
+        session.setId(id);
+        session.setProject(project);
+        session.setFileName(request.getFileName());
+        session.setSourceDatasetId(request.getSourceDatasetId());
+        session.setTotalSize(totalSize);
+        session.setChunkSize(chunkSize);
+        session.setChunkCount((int) chunkCount);
+        session.setChecksum(checksum);
+        session.setStatus(STATUS_ACTIVE);
+        session.setExpiresAt(LocalDateTime.now().plusHours(sessionTtlHours));
+        session = uploadSessionRepository.save(session);
+
+        log.info("Started upload {} of {} ({} bytes in {} chunks)", id, request.getFileName(), totalSize, chunkCount);
+        return toDto(session, new byte[(int) chunkCount * ENTRY_SIZE]);
+    }
+
+    public UploadSessionDTO getStatus(String uploadId) throws IOException {
+        UploadSession session = findById(uploadId);
+        byte[] chunkMap = STATUS_ACTIVE.equals(session.getStatus()) ? readChunkMap(uploadId) : null;
+        return toDto(session, chunkMap);
+    }
+
+    /**
+     * Streams chunk {@code index} from {@code in} into its slot of the partial
+     * file. The chunk is marked missing before its slot is overwritten and only
+     * recorded as received once its length and CRC32C checksum (hex) match, so
+     * a failed or corrupted chunk, even a resent one, is simply re-sent.
+     */
+    public void writeChunk(String uploadId, int index, InputStream in, long contentLength, String checksum)
+            throws IOException {
+        UploadSession session = findActive(uploadId);
+        if (index < 0 || index >= session.getChunkCount()) {
+            throw new IllegalArgumentException("Chunk index must be between 0 and " + (session.getChunkCount() - 1));
+        }
+        if (checksum == null || checksum.isBlank()) {
+            throw new IllegalArgumentException("Chunk checksum is required");
+        }
+        long offset = (long) index * session.getChunkSize();
+        long expected = Math.min(session.getChunkSize(), session.getTotalSize() - offset);
+        if (contentLength >= 0 && contentLength != expected) {
+            throw new IllegalArgumentException("Chunk " + index + " must be " + expected + " bytes, got " + contentLength);
+        }
+
+        writeEntry(uploadId, index, MISSING, 0);
+        CRC32C crc = new CRC32C();
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(partFile(uploadId), StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+            byte[] block = buffer.array();
+            int read;
+            // Ask for one byte past the expected length so an oversized body is detected
+            while ((read = in.read(block, 0, (int) Math.min(block.length, expected - written + 1))) > 0) {
+                if (written + read > expected) {
+                    throw new IllegalArgumentException("Chunk " + index + " is larger than " + expected + " bytes");
+                }
+                crc.update(block, 0, read);
+                buffer.clear().limit(read);
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer, offset + written);
+                }
+            }
+        }
+
+        if (written != expected) {
+            throw new IllegalArgumentException(
+                    "Chunk " + index + " is incomplete: received " + written + " of " + expected + " bytes");
+        }
+        String actual = String.format("%08x", crc.getValue());
+        if (!actual.equalsIgnoreCase(checksum.trim())) {
+            throw new IllegalArgumentException("Checksum mismatch for chunk " + index + ", please resend it");
+        }
+
+        writeEntry(uploadId, index, RECEIVED, (int) crc.getValue());
+        log.debug("Upload {}: stored chunk {} ({} bytes)", uploadId, index, written);
+    }
+
+    /**
+     * Verifies every chunk has arrived intact and turns the upload into a
+     * dataset. Not transactional: verifying reads the whole file, and the
+     * import and the session update each commit on their own. The session is
+     * moved to COMPLETING first, so of two concurrent calls only one imports,
+     * and chunks cannot be rewritten while the file is verified; it goes back
+     * to ACTIVE if verification or the import fails.
+     */
+    public Dataset complete(String uploadId) throws Exception {
+        UploadSession session = findActive(uploadId);
+        if (uploadSessionRepository.transitionStatus(uploadId, STATUS_ACTIVE, STATUS_COMPLETING) == 0) {
+            throw new IllegalArgumentException("Upload " + uploadId + " is already being completed");
+        }
+        Dataset dataset;
+        try {
+            byte[] chunkMap = readChunkMap(uploadId);
+            List<Integer> missing = missingChunks(chunkMap);
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("Upload is missing " + missing.size() + " chunks");
+            }
+            verify(session, chunkMap);
+
+            dataset = datasetService.importFile(partFile(uploadId), session.getFileName(), session.getProject(),
+                    session.getSourceDatasetId());
+        } catch (Exception e) {
+            uploadSessionRepository.transitionStatus(uploadId, STATUS_COMPLETING, STATUS_ACTIVE);
+            throw e;
+        }
+        Files.deleteIfExists(chunkMapFile(uploadId));
+
+        session.setStatus(STATUS_COMPLETED);
+        uploadSessionRepository.save(session);
+        log.info("Completed upload {} as dataset {}", uploadId, dataset.getId());
+        return dataset;
+    }
+
+    @Transactional
+    public void abort(String uploadId) throws IOException {
+        UploadSession session = findActive(uploadId);
+        deleteFiles(uploadId);
+        session.setStatus(STATUS_ABORTED);
+        uploadSessionRepository.save(session);
+    }
+
+    private UploadSession findById(String uploadId) {
+        return uploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new RuntimeException("Upload not found with id: " + uploadId));
+    }
+
+    private UploadSession findActive(String uploadId) {
+        UploadSession session = findById(uploadId);
+        if (!STATUS_ACTIVE.equals(session.getStatus())) {
+            throw new IllegalArgumentException("Upload " + uploadId + " is " + session.getStatus().toLowerCase());
+        }
+        if (session.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Upload " + uploadId + " has expired");
+        }
+        return session;
+    }
+
+    /**
+     * Drops the partial files of sessions past their expiry. Runs when new
+     * uploads start, which keeps abandoned uploads from piling up without a
+     * scheduler.
+     */
+    private void purgeExpired() {
+        for (UploadSession session : uploadSessionRepository.findByStatusAndExpiresAtBefore(STATUS_ACTIVE,
+                LocalDateTime.now())) {
+            try {
+                deleteFiles(session.getId());
+                session.setStatus(STATUS_EXPIRED);
+                uploadSessionRepository.save(session);
+            } catch (IOException e) {
+                log.warn("Failed to purge expired upload {}: {}", session.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private void deleteFiles(String uploadId) throws IOException {
+        Files.deleteIfExists(partFile(uploadId));
+        Files.deleteIfExists(chunkMapFile(uploadId));
+    }
+
+    /**
+     * Re-reads the assembled file and checks every chunk against the checksum
+     * recorded when it was accepted, which catches slots overwritten since
+     * (for instance by two sends of the same chunk racing), and the whole file
+     * against the client's checksum. Corrupt chunks are marked missing so the
+     * client can resend them.
+     */
+    private void verify(UploadSession session, byte[] chunkMap) throws IOException {
+        String uploadId = session.getId();
+        CRC32C file = new CRC32C();
+        CRC32C chunk = new CRC32C();
+        List<Integer> corrupt = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(partFile(uploadId), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+            byte[] block = buffer.array();
+            for (int index = 0; index < session.getChunkCount(); index++) {
+                long offset = (long) index * session.getChunkSize();
+                long length = Math.min(session.getChunkSize(), session.getTotalSize() - offset);
+                chunk.reset();
+                for (long read = 0; read < length;) {
+                    buffer.clear().limit((int) Math.min(block.length, length - read));
+                    int n = channel.read(buffer, offset + read);
+                    if (n < 0) {
+                        throw new IOException("Upload " + uploadId + " is shorter than " + session.getTotalSize()
+                                + " bytes");
+                    }
+                    chunk.update(block, 0, n);
+                    file.update(block, 0, n);
+                    read += n;
+                }
+                if ((int) chunk.getValue() != ByteBuffer.wrap(chunkMap, index * ENTRY_SIZE + 1, 4).getInt()) {
+                    corrupt.add(index);
+                }
+            }
+        }
+        if (!corrupt.isEmpty()) {
+            for (int index : corrupt) {
+                writeEntry(uploadId, index, MISSING, 0);
+            }
+            throw new IllegalArgumentException("Chunks " + corrupt + " were corrupted, please resend them");
+        }
+        String actual = String.format("%08x", file.getValue());
+        if (session.getChecksum() != null && !actual.equals(session.getChecksum())) {
+            throw new IllegalArgumentException("Checksum mismatch for upload " + uploadId + ": expected "
+                    + session.getChecksum() + ", got " + actual);
+        }
+    }
+
+    private void writeEntry(String uploadId, int index, byte status, int crc) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE).put(status).putInt(crc).flip();
+        try (FileChannel chunks = FileChannel.open(chunkMapFile(uploadId), StandardOpenOption.WRITE)) {
+            while (entry.hasRemaining()) {
+                chunks.write(entry, (long) index * ENTRY_SIZE + entry.position());
+            }
+        }
+    }
+
+    private byte[] readChunkMap(String uploadId) throws IOException {
+        return Files.readAllBytes(chunkMapFile(uploadId));
+    }
+
+    private List<Integer> missingChunks(byte[] chunkMap) {
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < chunkMap.length / ENTRY_SIZE; i++) {
+            if (chunkMap[i * ENTRY_SIZE] != RECEIVED)
+                missing.add(i);
+        }
+        return missing;
+    }
+
+    private UploadSessionDTO toDto(UploadSession session, byte[] chunkMap) {
+        List<Integer> missing = chunkMap != null ? missingChunks(chunkMap) : new ArrayList<>();
+        int received = chunkMap != null ? session.getChunkCount() - missing.size()
+                : STATUS_COMPLETED.equals(session.getStatus()) ? session.getChunkCount() : 0;
+
+        return UploadSessionDTO.builder()
+                .uploadId(session.getId())
+                .projectId(session.getProject().getId())
+                .fileName(session.getFileName())
+                .totalSize(session.getTotalSize())
+                .chunkSize(session.getChunkSize())
+                .chunkCount(session.getChunkCount())
+                .receivedChunks(received)
+                .missingChunks(missing)
+                .status(session.getStatus())
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+
+    private Path incomingDirectory() {
+        return Paths.get(storageLocation, INCOMING_DIRECTORY);
+    }
+
+    private Path partFile(String uploadId) {
+        return incomingDirectory().resolve(uploadId + ".part");
+    }
+
+    private Path chunkMapFile(String uploadId) {
+        return incomingDirectory().resolve(uploadId + ".chunks");
+    }
+}
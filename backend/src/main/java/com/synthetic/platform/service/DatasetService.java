@@ -1,31 +1,50 @@
 package com.synthetic.platform.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.synthetic.platform.data.CsvBytes;
+import com.synthetic.platform.data.RowIndexService;
+import com.synthetic.platform.data.RowOffsetIndex;
+import com.synthetic.platform.data.SchemaInferencer;
+import com.synthetic.platform.dto.DatasetPageDTO;
+import com.synthetic.platform.dto.DatasetSchemaDTO;
 import com.synthetic.platform.model.Dataset;
 import com.synthetic.platform.model.Project;
 import com.synthetic.platform.model.AIModel;
 import com.synthetic.platform.repository.DatasetRepository;
 import com.synthetic.platform.repository.AIModelRepository;
+import com.synthetic.platform.storage.BlobStore;
+import com.synthetic.platform.storage.ContentStore;
+import com.synthetic.platform.storage.StoredBlob;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.nio.file.Files;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class DatasetService {
+    private static final int MAX_PAGE_SIZE = 10_000;
+
     private final DatasetRepository datasetRepository;
     private final AIModelRepository aiModelRepository;
     private final ProjectService projectService;
-
-    @Value("${app.storage.location}")
-    private String storageLocation;
+    private final RowIndexService rowIndexService;
+    private final ContentStore contentStore;
+    private final BlobStore blobStore;
+    private final SchemaInferencer schemaInferencer;
+    private final ObjectMapper objectMapper;
 
     public List<Dataset> findByProjectId(Long projectId) {
         return datasetRepository.findByProjectId(projectId);
@@ -39,8 +58,13 @@ public class DatasetService {
                 .orElseThrow(() -> new RuntimeException("Dataset not found with id: " + id));
     }
 
-    @Transactional
-    public Dataset uploadDataset(MultipartFile file, Long projectId) throws Exception {
+    /**
+     * Stores an uploaded file and registers it as a dataset of the project,
+     * synthesized from {@code sourceDatasetId} if that is given. Not
+     * transactional: indexing and schema inference read the whole file, and
+     * only the final save needs a connection.
+     */
+    public Dataset uploadDataset(MultipartFile file, Long projectId, Long sourceDatasetId) throws Exception {
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("File cannot be null or empty");
         }
@@ -49,25 +73,106 @@ public class DatasetService {
         }
 
         Project project = projectService.findById(projectId);
+        checkSource(sourceDatasetId);
 
         String originalName = file.getOriginalFilename();
-        String safeName = originalName != null ? originalName.replaceAll("[^a-zA-Z0-9._-]", "_") : "dataset.csv";
-        String fileName = UUID.randomUUID() + "_" + safeName;
+        StoredBlob blob;
+        try (InputStream in = file.getInputStream()) {
+            blob = contentStore.store(in);
+        }
+        return register(project, originalName, blob, sourceDatasetId);
+    }
+
+    /**
+     * Moves a fully received file (e.g. a completed chunked upload) into
+     * storage and registers it as a dataset of {@code project}.
+     */
+    public Dataset importFile(Path source, String originalName, Project project, Long sourceDatasetId)
+            throws Exception {
+        checkSource(sourceDatasetId);
+        return register(project, originalName, contentStore.storeFile(source), sourceDatasetId);
+    }
+
+    /** Fails if {@code sourceDatasetId} is given but names no dataset. */
+    public void checkSource(Long sourceDatasetId) {
+        if (sourceDatasetId != null && !datasetRepository.existsById(sourceDatasetId)) {
+            throw new IllegalArgumentException("Source dataset not found with id: " + sourceDatasetId);
+        }
+    }
+
+    /** The dataset {@code dataset} was synthesized from, if it has one that still exists. */
+    public Optional<Dataset> findSource(Dataset dataset) {
+        return dataset.getSourceDatasetId() != null ? datasetRepository.findById(dataset.getSourceDatasetId())
+                : Optional.empty();
+    }
 
-        Path uploadPath = Paths.get(storageLocation);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+    private Dataset register(Project project, String originalName, StoredBlob blob, Long sourceDatasetId)
+            throws IOException {
+        String hash = blob.getHash();
+        try {
+            // Sparse row offset index so previews and exports can seek to any row; shared by identical uploads
+            Path file = blobStore.fetch(blob.getRelativePath());
+            rowIndexService.index(file);
+            log.info("Stored {} as blob {}{}", originalName, hash, blob.isDeduplicated() ? " (deduplicated)" : "");
+
+            // Identical content has an identical schema, so a duplicate upload reuses it
+            String schema = datasetRepository.findFirstByContentHashAndColumnSchemaIsNotNull(hash)
+                    .map(Dataset::getColumnSchema)
+                    .orElse(null);
+            if (schema == null || !SchemaInferencer.isCurrent(readSchema(schema))) {
+                schema = writeSchema(schemaInferencer.infer(file));
+            }
+
+            Dataset dataset = new Dataset();
+            dataset.setName(originalName);
+            dataset.setFilePath(blob.getRelativePath());
+            dataset.setContentHash(hash);
+            dataset.setColumnSchema(schema);
+            dataset.setProject(project);
+            dataset.setSourceDatasetId(sourceDatasetId);
+            return datasetRepository.save(dataset);
+        } finally {
+            unpinAfterCommit(hash);
         }
+    }
 
-        Path filePath = uploadPath.resolve(fileName);
-        Files.copy(file.getInputStream(), filePath);
+    /** Keeps the blob pinned until the dataset referencing it is committed (or rolled back). */
+    private void unpinAfterCommit(String hash) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    contentStore.unpin(hash);
+                }
+            });
+        } else {
+            contentStore.unpin(hash);
+        }
+    }
 
-        Dataset dataset = new Dataset();
-        dataset.setName(originalName);
-        dataset.setFilePath(fileName);
-        dataset.setProject(project);
+    /**
+     * The stored schema of {@code dataset}, including its sensitive data
+     * findings. Datasets without one, or with one from an older version of the
+     * inference, get theirs inferred and saved on first use.
+     */
+    public DatasetSchemaDTO getSchema(Dataset dataset) throws IOException {
+        if (dataset.getColumnSchema() != null) {
+            DatasetSchemaDTO stored = readSchema(dataset.getColumnSchema());
+            if (SchemaInferencer.isCurrent(stored))
+                return stored;
+        }
+        DatasetSchemaDTO schema = schemaInferencer.infer(blobStore.fetch(dataset.getFilePath()));
+        dataset.setColumnSchema(writeSchema(schema));
+        datasetRepository.save(dataset);
+        return schema;
+    }
 
-        return datasetRepository.save(dataset);
+    private DatasetSchemaDTO readSchema(String json) throws IOException {
+        return objectMapper.readValue(json, DatasetSchemaDTO.class);
+    }
+
+    private String writeSchema(DatasetSchemaDTO schema) throws IOException {
+        return objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT).writeValueAsString(schema);
     }
 
     @Transactional
@@ -78,14 +183,69 @@ public class DatasetService {
         List<AIModel> models = aiModelRepository.findByDatasetId(id);
         aiModelRepository.deleteAll(models);
 
-        // Optional: delete physical file if needed
+        datasetRepository.delete(dataset);
+
+        String hash = dataset.getContentHash();
+        String key = dataset.getFilePath();
+        Path localPath = blobStore.localPath(key);
+        if (hash == null) {
+            // Stored before content addressing, so the file is not shared
+            deletePhysicalFile(key, localPath);
+            return;
+        }
+
+        // The blob goes only with its last reference, checked once this delete is committed
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    if (contentStore.release(hash, () -> datasetRepository.countByContentHash(hash))) {
+                        rowIndexService.deleteIndex(localPath);
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to release blob {}: {}", hash, e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void deletePhysicalFile(String key, Path localPath) {
         try {
-            Path filePath = Paths.get(storageLocation).resolve(dataset.getFilePath());
-            Files.deleteIfExists(filePath);
+            blobStore.delete(key);
+            rowIndexService.deleteIndex(localPath);
         } catch (Exception e) {
             System.err.println("Failed to delete physical file: " + e.getMessage());
         }
+    }
 
-        datasetRepository.delete(dataset);
+    /**
+     * A page of rows served through the dataset's row offset index.
+     */
+    public DatasetPageDTO getRows(Long id, long offset, int limit) throws Exception {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be negative");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Dataset dataset = findById(id);
+        Path filePath = blobStore.fetch(dataset.getFilePath());
+        RowOffsetIndex index = rowIndexService.index(filePath);
+
+        String header = rowIndexService.readHeader(filePath);
+        List<List<String>> rows = new ArrayList<>();
+        for (String line : rowIndexService.readRows(filePath, offset, limit)) {
+            rows.add(CsvBytes.fields(line));
+        }
+
+        return DatasetPageDTO.builder()
+                .datasetId(id)
+                .offset(offset)
+                .limit(limit)
+                .totalRows(index.getRowCount())
+                .columns(header != null ? CsvBytes.fields(header) : new ArrayList<>())
+                .rows(rows)
+                .build();
     }
 }
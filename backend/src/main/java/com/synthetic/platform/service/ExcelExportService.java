@@ -1,5 +1,7 @@
 package com.synthetic.platform.service;
 
+import com.synthetic.platform.dto.AnonymityReportDTO;
+import com.synthetic.platform.dto.DatasetSchemaDTO;
 import com.synthetic.platform.dto.PrivacyReportDTO;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
@@ -8,7 +10,10 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -18,7 +23,12 @@ import java.util.List;
 @Slf4j
 public class ExcelExportService {
 
-    public byte[] generatePrivacyReport(PrivacyReportDTO report, List<List<String>> syntheticData) throws Exception {
+    /**
+     * Writes the report sheets plus the synthetic data, as numeric, boolean and
+     * date cells where {@code schema} says so.
+     */
+    public byte[] generatePrivacyReport(PrivacyReportDTO report, List<List<String>> syntheticData,
+            DatasetSchemaDTO schema) throws Exception {
         log.info("Generating Excel privacy report: {}", report.getReportId());
 
         try (Workbook workbook = new XSSFWorkbook()) {
@@ -31,7 +41,7 @@ public class ExcelExportService {
 
             // Add synthetic data if provided
             if (syntheticData != null && !syntheticData.isEmpty()) {
-                createSyntheticDataSheet(workbook, syntheticData);
+                createSyntheticDataSheet(workbook, syntheticData, schema);
             }
 
             ByteArrayOutputStream out = new ByteArrayOutputStream();
@@ -251,6 +261,25 @@ public class ExcelExportService {
                 headerStyle, dataStyle);
         addRow(sheet, rowNum++, "Compliance Level", guarantees.getComplianceLevel(), headerStyle, dataStyle);
 
+        AnonymityReportDTO anonymity = guarantees.getAnonymity();
+        if (anonymity != null) {
+            addRow(sheet, rowNum++, "Quasi-identifiers", String.join(", ", anonymity.getQuasiIdentifiers()),
+                    headerStyle, dataStyle);
+            addRow(sheet, rowNum++, "k-Anonymity", String.valueOf(anonymity.getK()), headerStyle, dataStyle);
+            if (anonymity.getL() != null) {
+                addRow(sheet, rowNum++, "l-Diversity (" + anonymity.getSensitiveColumn() + ")",
+                        String.valueOf(anonymity.getL()),
+                        headerStyle, dataStyle);
+            }
+            addRow(sheet, rowNum++, "Records Below k=" + anonymity.getTargetK(),
+                    String.valueOf(anonymity.getRecordsBelowTargetK()),
+                    headerStyle, dataStyle);
+            addRow(sheet, rowNum++, "Average Re-identification Risk",
+                    String.format("%.2f%%", anonymity.getAverageRisk() * 100), headerStyle, dataStyle);
+            addRow(sheet, rowNum++, "Maximum Re-identification Risk",
+                    String.format("%.2f%%", anonymity.getMaxRisk() * 100), headerStyle, dataStyle);
+        }
+
         rowNum += 2;
 
         // Privacy techniques
@@ -268,10 +297,12 @@ public class ExcelExportService {
         sheet.autoSizeColumn(1);
     }
 
-    private void createSyntheticDataSheet(Workbook workbook, List<List<String>> data) {
+    private void createSyntheticDataSheet(Workbook workbook, List<List<String>> data, DatasetSchemaDTO schema) {
         Sheet sheet = workbook.createSheet("Synthetic Data");
 
         CellStyle headerStyle = createHeaderStyle(workbook);
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
 
         int rowNum = 0;
 
@@ -279,10 +310,12 @@ public class ExcelExportService {
         if (!data.isEmpty()) {
             Row headerRow = sheet.createRow(rowNum++);
             List<String> headers = data.get(0);
+            List<DatasetSchemaDTO.ColumnSchema> columns = new ArrayList<>(headers.size());
             for (int i = 0; i < headers.size(); i++) {
                 Cell cell = headerRow.createCell(i);
                 cell.setCellValue(headers.get(i));
                 cell.setCellStyle(headerStyle);
+                columns.add(schema != null ? schema.column(headers.get(i).trim()) : null);
             }
 
             // Add data rows
@@ -290,7 +323,8 @@ public class ExcelExportService {
                 Row row = sheet.createRow(rowNum++);
                 List<String> rowData = data.get(i);
                 for (int j = 0; j < rowData.size(); j++) {
-                    row.createCell(j).setCellValue(rowData.get(j));
+                    setTypedValue(row.createCell(j), rowData.get(j), j < columns.size() ? columns.get(j) : null,
+                            dateStyle);
                 }
             }
 
@@ -301,6 +335,26 @@ public class ExcelExportService {
         }
     }
 
+    private void setTypedValue(Cell cell, String text, DatasetSchemaDTO.ColumnSchema column, CellStyle dateStyle) {
+        Object value = column != null ? column.value(text) : text;
+        if (value == null) {
+            cell.setBlank();
+        } else if (value instanceof Number) {
+            cell.setCellValue(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            cell.setCellValue((Boolean) value);
+        } else if (column != null && column.getType() == DatasetSchemaDTO.ColumnType.DATE) {
+            try {
+                cell.setCellValue(LocalDate.parse(text.trim()));
+                cell.setCellStyle(dateStyle);
+            } catch (DateTimeParseException e) {
+                cell.setCellValue(text);
+            }
+        } else {
+            cell.setCellValue(text);
+        }
+    }
+
     // Helper methods for styling
     private CellStyle createTitleStyle(Workbook workbook) {
         CellStyle style = workbook.createCellStyle();
@@ -0,0 +1,149 @@
+package com.synthetic.platform.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.synthetic.platform.data.ColumnarTable;
+import com.synthetic.platform.data.MappedCsvReader;
+import com.synthetic.platform.data.SchemaInferencer;
+import com.synthetic.platform.model.AIModel;
+import com.synthetic.platform.privacy.MarginalModel;
+import com.synthetic.platform.privacy.MarginalSynthesizer;
+import com.synthetic.platform.privacy.NoiseMechanism;
+import com.synthetic.platform.repository.AIModelRepository;
+import com.synthetic.platform.storage.BlobStore;
+import com.synthetic.platform.synthesis.GaussianCopulaModel;
+import com.synthetic.platform.synthesis.GaussianCopulaSynthesizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Trains and samples the algorithms implemented in the JVM, which need no
+ * Python process: {@link #DP_MARGINALS} and {@link #GAUSSIAN_COPULA}. Models
+ * are stored as JSON. For {@link #DP_MARGINALS} the privacy budget is charged
+ * when training is requested, by {@link AIModelService}; generating from a
+ * trained model is post-processing and costs nothing.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JvmSynthesisService {
+
+    public static final String DP_MARGINALS = "DP_MARGINALS";
+    public static final String GAUSSIAN_COPULA = "GAUSSIAN_COPULA";
+
+    public static final double DEFAULT_EPSILON = 1.0;
+    public static final double DEFAULT_DELTA = 1e-6;
+    public static final int DEFAULT_MAX_BINS = 32;
+
+    private static final String STAGING_DIRECTORY = ".incoming";
+
+    private final AIModelRepository modelRepository;
+    private final BlobStore blobStore;
+    private final DatasetService datasetService;
+    private final MappedCsvReader mappedCsvReader;
+    private final MarginalSynthesizer marginalSynthesizer;
+    private final GaussianCopulaSynthesizer copulaSynthesizer;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Noise must not be predictable from earlier outputs
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${app.storage.location}")
+    private String storageLocation;
+
+    public static boolean handles(AIModel model) {
+        return isDifferentiallyPrivate(model) || GAUSSIAN_COPULA.equalsIgnoreCase(model.getAlgorithm());
+    }
+
+    public static boolean isDifferentiallyPrivate(AIModel model) {
+        return DP_MARGINALS.equalsIgnoreCase(model.getAlgorithm());
+    }
+
+    /** Fits the model on the calling thread and stores it; failures mark the model FAILED. */
+    public void train(AIModel model) {
+        try {
+            log.info("Starting in-process training for model ID: {} with algorithm: {}", model.getId(),
+                    model.getAlgorithm());
+            model.setStatus("TRAINING");
+            modelRepository.save(model);
+
+            ColumnarTable data = mappedCsvReader.readTable(blobStore.fetch(model.getDataset().getFilePath()),
+                    SchemaInferencer.kinds(datasetService.getSchema(model.getDataset())));
+            Object fitted = isDifferentiallyPrivate(model) ? fitMarginals(model, data) : copulaSynthesizer.fit(data);
+
+            String modelKey = "models/model_" + model.getId() + "_" + System.currentTimeMillis() + ".json";
+            Path stagingDir = Paths.get(storageLocation, STAGING_DIRECTORY);
+            Files.createDirectories(stagingDir);
+            Path modelOutput = Files.createTempFile(stagingDir, "model_", ".json");
+            objectMapper.writeValue(modelOutput.toFile(), fitted);
+            blobStore.put(modelKey, modelOutput);
+
+            String previousKey = model.getModelFilePath();
+            model.setStatus("COMPLETED");
+            model.setModelFilePath(modelKey);
+            modelRepository.save(model);
+            if (previousKey != null && !previousKey.equals(modelKey)) {
+                blobStore.delete(previousKey);
+            }
+            log.info("Training completed for model ID: {}", model.getId());
+        } catch (Exception e) {
+            log.error("Exception during model training ID: " + model.getId(), e);
+            model.setStatus("FAILED");
+            modelRepository.save(model);
+        }
+    }
+
+    private MarginalModel fitMarginals(AIModel model, ColumnarTable data) throws Exception {
+        double epsilon = DEFAULT_EPSILON;
+        double delta = DEFAULT_DELTA;
+        NoiseMechanism mechanism = NoiseMechanism.LAPLACE;
+        int maxBins = DEFAULT_MAX_BINS;
+        Map<String, double[]> bounds = new HashMap<>();
+        if (model.getTrainingMetrics() != null && !model.getTrainingMetrics().isEmpty()) {
+            JsonNode node = objectMapper.readTree(model.getTrainingMetrics());
+            if (node.hasNonNull("epsilon"))
+                epsilon = node.get("epsilon").asDouble();
+            if (node.hasNonNull("delta"))
+                delta = node.get("delta").asDouble();
+            if (node.hasNonNull("noiseMechanism"))
+                mechanism = NoiseMechanism.valueOf(node.get("noiseMechanism").asText().toUpperCase());
+            if (node.hasNonNull("maxBins"))
+                maxBins = node.get("maxBins").asInt();
+            if (node.hasNonNull("bounds")) {
+                node.get("bounds").fields().forEachRemaining(field -> bounds.put(field.getKey(),
+                        objectMapper.convertValue(field.getValue(), double[].class)));
+            }
+        }
+        return marginalSynthesizer.fit(data, epsilon, delta, mechanism, maxBins, bounds, random);
+    }
+
+    /** Writes {@code count} generated rows as CSV, with a header, to {@code out}. */
+    public void generate(AIModel model, int count, OutputStream out) throws Exception {
+        if (model.getModelFilePath() == null) {
+            throw new RuntimeException("Model not yet trained");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("Record count cannot be negative");
+        }
+        log.info("Generating {} records in process for model ID: {}", count, model.getId());
+        try (InputStream in = blobStore.open(model.getModelFilePath())) {
+            if (isDifferentiallyPrivate(model)) {
+                marginalSynthesizer.sample(objectMapper.readValue(in, MarginalModel.class), count, random.nextLong(),
+                        out);
+            } else {
+                copulaSynthesizer.sample(objectMapper.readValue(in, GaussianCopulaModel.class), count,
+                        random.nextLong(), out);
+            }
+        }
+    }
+}
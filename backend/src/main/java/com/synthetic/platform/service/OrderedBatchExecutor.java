@@ -0,0 +1,75 @@
+package com.synthetic.platform.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs a batch of tasks on an executor with at most {@code parallelism} in
+ * flight and hands results to a sink in submission order. The sink runs on the
+ * calling thread, so it can write to a single output stream without locking,
+ * and memory stays bounded by the window size regardless of batch size.
+ */
+public final class OrderedBatchExecutor {
+
+    @FunctionalInterface
+    public interface ResultSink<T> {
+        void accept(int index, T result) throws Exception;
+    }
+
+    private OrderedBatchExecutor() {
+    }
+
+    public static <T> void run(List<? extends Callable<T>> tasks, Executor executor, int parallelism,
+            ResultSink<T> sink) throws Exception {
+        int window = Math.max(1, parallelism);
+        Deque<CompletableFuture<T>> inFlight = new ArrayDeque<>(window);
+        int submitted = 0;
+        int completed = 0;
+
+        try {
+            while (completed < tasks.size()) {
+                while (submitted < tasks.size() && inFlight.size() < window) {
+                    inFlight.addLast(submit(tasks.get(submitted++), executor));
+                }
+                T result = await(inFlight.removeFirst());
+                sink.accept(completed++, result);
+            }
+        } finally {
+            for (CompletableFuture<T> pending : inFlight) {
+                pending.cancel(true);
+            }
+        }
+    }
+
+    private static <T> CompletableFuture<T> submit(Callable<T> task, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause()
+                    : e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.synthetic.platform.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Runs {@code count} independent tasks on an executor, normally the
+ * {@code computeExecutor}, and waits for all of them. A task's unchecked
+ * exception is rethrown as it is, so an {@link java.io.UncheckedIOException}
+ * can be unwrapped by the caller; the other tasks still run to completion.
+ */
+public final class ParallelTasks {
+
+    private ParallelTasks() {
+    }
+
+    /** Results of {@code task(0)} to {@code task(count - 1)}, in index order. */
+    public static <T> List<T> map(int count, IntFunction<T> task, Executor executor) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            futures.add(CompletableFuture.supplyAsync(() -> task.apply(index), executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+        List<T> results = new ArrayList<>(count);
+        for (CompletableFuture<T> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    public static void forEach(int count, IntConsumer task, Executor executor) {
+        map(count, index -> {
+            task.accept(index);
+            return null;
+        }, executor);
+    }
+}
@@ -1,16 +1,29 @@
 package com.synthetic.platform.service;
 
 import com.itextpdf.text.*;
+import com.itextpdf.text.pdf.PdfImportedPage;
 import com.itextpdf.text.pdf.PdfPCell;
 import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfReader;
 import com.itextpdf.text.pdf.PdfWriter;
 import com.synthetic.platform.dto.PrivacyReportDTO;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * Service for generating PDF reports
@@ -24,46 +37,194 @@ public class PdfExportService {
     private static final Font SUBHEADING_FONT = new Font(Font.FontFamily.HELVETICA, 12, Font.BOLD, BaseColor.DARK_GRAY);
     private static final Font NORMAL_FONT = new Font(Font.FontFamily.HELVETICA, 10, Font.NORMAL, BaseColor.BLACK);
     private static final Font SMALL_FONT = new Font(Font.FontFamily.HELVETICA, 8, Font.NORMAL, BaseColor.GRAY);
+    private static final BaseColor HIGHLIGHT_COLOR = new BaseColor(240, 248, 255);
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // Content width of an A4 page with the default 36pt margins
+    private static final float CONTENT_WIDTH = PageSize.A4.getWidth() - 72;
+    private static final float CHART_MAX_HEIGHT = 260;
+
+    private static final String TITLE_TEMPLATE = "title";
+    private static final String GUARANTEES_TEMPLATE = "guarantees";
+    private static final String FOOTER_TEMPLATE = "footer";
+
+    /** Static report sections rendered once and imported into every report as form XObjects. */
+    private final Map<String, byte[]> templates = new ConcurrentHashMap<>();
+
+    private final ReportChartRenderer chartRenderer;
+    private final Executor reportExecutor;
+
+    @Value("${app.report.bulk.parallelism:4}")
+    private int bulkParallelism;
+
+    public PdfExportService(ReportChartRenderer chartRenderer, @Qualifier("reportExecutor") Executor reportExecutor) {
+        this.chartRenderer = chartRenderer;
+        this.reportExecutor = reportExecutor;
+    }
 
     public byte[] generatePrivacyReport(PrivacyReportDTO report) throws Exception {
-        log.info("Generating PDF privacy report: {}", report.getReportId());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writePrivacyReport(report, out);
+        return out.toByteArray();
+    }
 
+    /**
+     * Writes the report straight to {@code out} (typically the servlet response)
+     * page by page instead of buffering the whole document. The stream is left
+     * open for the caller. Charts are rendered on the report executor while the
+     * text sections are laid out.
+     */
+    public void writePrivacyReport(PrivacyReportDTO report, OutputStream out) throws Exception {
+        render(report, out, reportExecutor);
+    }
+
+    /**
+     * Renders the report into memory with charts drawn on the calling thread. Use
+     * this from tasks already running on the report pool so they never wait on
+     * work queued behind them in the same pool.
+     */
+    public byte[] renderPrivacyReport(PrivacyReportDTO report) throws Exception {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
+        render(report, out, Runnable::run);
+        return out.toByteArray();
+    }
+
+    /**
+     * Renders many reports concurrently on the bounded report pool. At most
+     * {@code app.report.bulk.parallelism} reports are in flight at once; finished
+     * documents are handed to {@code sink} on the calling thread in input order.
+     */
+    public void generatePrivacyReports(List<Callable<PrivacyReportDTO>> reports,
+            OrderedBatchExecutor.ResultSink<byte[]> sink) throws Exception {
+        List<Callable<byte[]>> tasks = new ArrayList<>(reports.size());
+        for (Callable<PrivacyReportDTO> report : reports) {
+            tasks.add(() -> renderPrivacyReport(report.call()));
+        }
+        OrderedBatchExecutor.run(tasks, reportExecutor, bulkParallelism, sink);
+    }
+
+    /**
+     * Runs arbitrary export work on the bounded report pool with the same
+     * in-order delivery and parallelism limit as bulk report rendering.
+     */
+    public <T> void runBulk(List<? extends Callable<T>> tasks, OrderedBatchExecutor.ResultSink<T> sink)
+            throws Exception {
+        OrderedBatchExecutor.run(tasks, reportExecutor, bulkParallelism, sink);
+    }
+
+    private void render(PrivacyReportDTO report, OutputStream out, Executor chartExecutor) throws Exception {
+        log.info("Generating PDF privacy report: {}", report.getReportId());
+
+        CompletableFuture<List<byte[]>> charts = CompletableFuture.supplyAsync(() -> renderCharts(report),
+                chartExecutor);
+
         Document document = new Document(PageSize.A4);
-        PdfWriter.getInstance(document, out);
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        writer.setCloseStream(false);
+        List<PdfReader> templateReaders = new ArrayList<>();
 
         document.open();
+        try {
+            // Title Page
+            addTitlePage(document, writer, templateReaders, report);
+            document.newPage();
 
-        // Title Page
-        addTitlePage(document, report);
-        document.newPage();
+            // Executive Summary
+            addExecutiveSummary(document, report);
+            document.newPage();
 
-        // Executive Summary
-        addExecutiveSummary(document, report);
-        document.newPage();
+            // Dataset Information
+            addDatasetInformation(document, report);
 
-        // Dataset Information
-        addDatasetInformation(document, report);
+            // Privacy Metrics
+            addPrivacyMetrics(document, report);
 
-        // Privacy Metrics
-        addPrivacyMetrics(document, report);
+            // Statistical Comparison
+            addStatisticalComparison(document, report);
 
-        // Statistical Comparison
-        addStatisticalComparison(document, report);
+            // Distribution & Correlation Charts
+            addCharts(document, charts.join());
 
-        // Privacy Guarantees
-        addPrivacyGuarantees(document, report);
+            // Privacy Guarantees
+            addPrivacyGuarantees(document, writer, templateReaders, report);
 
-        // Footer
-        addFooter(document, report);
-
-        document.close();
+            // Footer
+            addTemplate(document, writer, templateReaders, FOOTER_TEMPLATE);
+        } finally {
+            document.close();
+            for (PdfReader reader : templateReaders) {
+                reader.close();
+            }
+        }
 
         log.info("PDF report generated successfully");
+    }
+
+    private List<byte[]> renderCharts(PrivacyReportDTO report) {
+        try {
+            List<byte[]> charts = new ArrayList<>(chartRenderer.renderDistributions(report.getDistributions()));
+            byte[] heatmap = chartRenderer.renderCorrelationHeatmap(report.getCorrelationAnalysis());
+            if (heatmap != null) {
+                charts.add(heatmap);
+            }
+            return charts;
+        } catch (Exception e) {
+            log.warn("Chart rendering failed for report {}, continuing without charts", report.getReportId(), e);
+            return Collections.emptyList();
+        }
+    }
+
+    private void addTemplate(Document document, PdfWriter writer, List<PdfReader> readers, String name)
+            throws DocumentException, IOException {
+        PdfReader reader = new PdfReader(template(name));
+        readers.add(reader);
+        PdfImportedPage page = writer.getImportedPage(reader, 1);
+        document.add(Image.getInstance(page));
+    }
+
+    private byte[] template(String name) {
+        return templates.computeIfAbsent(name, key -> {
+            try {
+                switch (key) {
+                    case TITLE_TEMPLATE:
+                        return renderTemplate(170, this::writeTitleBlock);
+                    case GUARANTEES_TEMPLATE:
+                        return renderTemplate(75, this::writeGuaranteesHeading);
+                    case FOOTER_TEMPLATE:
+                        return renderTemplate(90, this::writeFooterBlock);
+                    default:
+                        throw new IllegalArgumentException("Unknown report template: " + key);
+                }
+            } catch (DocumentException e) {
+                throw new IllegalStateException("Failed to render report template " + key, e);
+            }
+        });
+    }
+
+    private byte[] renderTemplate(float height, TemplateContent content) throws DocumentException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Document document = new Document(new Rectangle(CONTENT_WIDTH, height), 0, 0, 0, 0);
+        PdfWriter.getInstance(document, out);
+        document.open();
+        content.write(document);
+        document.close();
         return out.toByteArray();
     }
 
-    private void addTitlePage(Document document, PrivacyReportDTO report) throws DocumentException {
+    @FunctionalInterface
+    private interface TemplateContent {
+        void write(Document document) throws DocumentException;
+    }
+
+    private void addTitlePage(Document document, PdfWriter writer, List<PdfReader> readers,
+            PrivacyReportDTO report) throws DocumentException, IOException {
+        addTemplate(document, writer, readers, TITLE_TEMPLATE);
+
+        // Report metadata
+        addMetadataTable(document, report);
+    }
+
+    private void writeTitleBlock(Document document) throws DocumentException {
         Paragraph title = new Paragraph("Privacy-Preserving Synthetic Data Report", TITLE_FONT);
         title.setAlignment(Element.ALIGN_CENTER);
         title.setSpacingAfter(30);
@@ -78,22 +239,17 @@ public class PdfExportService {
         // Add logo placeholder
         Paragraph logo = new Paragraph("SynthoGen Intelligence Platform", HEADING_FONT);
         logo.setAlignment(Element.ALIGN_CENTER);
-        logo.setSpacingAfter(100);
         document.add(logo);
-
-        // Report metadata
-        addMetadataTable(document, report);
     }
 
     private void addMetadataTable(Document document, PrivacyReportDTO report) throws DocumentException {
         PdfPTable table = new PdfPTable(2);
         table.setWidthPercentage(60);
         table.setHorizontalAlignment(Element.ALIGN_CENTER);
-        table.setSpacingBefore(50);
+        table.setSpacingBefore(140);
 
         addTableRow(table, "Report ID:", report.getReportId(), true);
-        addTableRow(table, "Generated At:",
-                report.getGeneratedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")), false);
+        addTableRow(table, "Generated At:", report.getGeneratedAt().format(TIMESTAMP_FORMAT), false);
         addTableRow(table, "Original Dataset:", report.getOriginalDataset().getName(), false);
         addTableRow(table, "Synthetic Dataset:", report.getSyntheticDataset().getName(), false);
 
@@ -194,14 +350,29 @@ public class PdfExportService {
         document.add(new Paragraph("\n"));
     }
 
-    private void addPrivacyGuarantees(Document document, PrivacyReportDTO report) throws DocumentException {
-        addSection(document, "Privacy Guarantees & Compliance");
+    private void addCharts(Document document, List<byte[]> charts) throws DocumentException, IOException {
+        if (charts.isEmpty())
+            return;
+
+        addSection(document, "Distribution & Correlation Charts");
+        for (byte[] chart : charts) {
+            Image image = Image.getInstance(chart);
+            image.scaleToFit(CONTENT_WIDTH, CHART_MAX_HEIGHT);
+            image.setAlignment(Image.MIDDLE);
+            image.setSpacingAfter(10);
+            document.add(image);
+        }
+        document.add(new Paragraph("\n"));
+    }
+
+    private void addPrivacyGuarantees(Document document, PdfWriter writer, List<PdfReader> readers,
+            PrivacyReportDTO report) throws DocumentException, IOException {
+        addTemplate(document, writer, readers, GUARANTEES_TEMPLATE);
 
         PrivacyReportDTO.PrivacyGuarantees guarantees = report.getPrivacyGuarantees();
 
         Paragraph guaranteeText = new Paragraph();
         guaranteeText.setFont(NORMAL_FONT);
-        guaranteeText.add("This synthetic dataset provides the following privacy guarantees:\n\n");
 
         guaranteeText.add(formatCheckmark(guarantees.getNoPiiLeakage())
                 + " No PII (Personally Identifiable Information) Leakage\n");
@@ -224,11 +395,19 @@ public class PdfExportService {
         document.add(new Paragraph("\n"));
     }
 
-    private void addFooter(Document document, PrivacyReportDTO report) throws DocumentException {
+    private void writeGuaranteesHeading(Document document) throws DocumentException {
+        addSection(document, "Privacy Guarantees & Compliance");
+
+        Paragraph intro = new Paragraph("This synthetic dataset provides the following privacy guarantees:",
+                NORMAL_FONT);
+        document.add(intro);
+    }
+
+    private void writeFooterBlock(Document document) throws DocumentException {
         Paragraph footer = new Paragraph();
         footer.setFont(SMALL_FONT);
         footer.setAlignment(Element.ALIGN_CENTER);
-        footer.add("\n\n" + Chunk.NEWLINE);
+        footer.add(Chunk.NEWLINE);
         footer.add("─────────────────────────────────────────────────────────\n");
         footer.add("Generated by SynthoGen Intelligence Platform\n");
         footer.add("© 2026 SynthoGen Intelligence Systems - Privacy-Preserving Synthetic Data Generation\n");
@@ -256,14 +435,14 @@ public class PdfExportService {
         PdfPCell keyCell = new PdfPCell(new Phrase(key, highlight ? SUBHEADING_FONT : NORMAL_FONT));
         keyCell.setPadding(5);
         if (highlight) {
-            keyCell.setBackgroundColor(new BaseColor(240, 248, 255));
+            keyCell.setBackgroundColor(HIGHLIGHT_COLOR);
         }
         table.addCell(keyCell);
 
         PdfPCell valueCell = new PdfPCell(new Phrase(value, NORMAL_FONT));
         valueCell.setPadding(5);
         if (highlight) {
-            valueCell.setBackgroundColor(new BaseColor(240, 248, 255));
+            valueCell.setBackgroundColor(HIGHLIGHT_COLOR);
         }
         table.addCell(valueCell);
     }
@@ -0,0 +1,139 @@
+package com.synthetic.platform.service;
+
+import com.synthetic.platform.config.CacheConfig;
+import com.synthetic.platform.dto.PrivacyBudgetDTO;
+import com.synthetic.platform.model.Dataset;
+import com.synthetic.platform.model.PrivacyBudget;
+import com.synthetic.platform.model.PrivacyBudgetCharge;
+import com.synthetic.platform.privacy.NoiseMechanism;
+import com.synthetic.platform.repository.PrivacyBudgetChargeRepository;
+import com.synthetic.platform.repository.PrivacyBudgetRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.stream.Collectors;
+
+/**
+ * Ledger of the differential-privacy budget spent on each dataset. Releases
+ * compose sequentially: the spent ε and δ are the sums over every charge, and
+ * a charge that would take ε past the limit is refused before anything is
+ * computed from the data.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PrivacyBudgetService {
+
+    private final PrivacyBudgetRepository budgetRepository;
+    private final PrivacyBudgetChargeRepository chargeRepository;
+
+    @Value("${app.privacy.epsilon-limit:10.0}")
+    private double defaultEpsilonLimit;
+
+    /**
+     * Records a release of {@code dataset} under ({@code epsilon},
+     * {@code delta})-differential privacy. The budget row is locked until the
+     * surrounding transaction commits, so concurrent charges cannot both pass
+     * the limit check. Cached reports are dropped, since they show the
+     * spent budget.
+     */
+    @Transactional
+    @CacheEvict(value = CacheConfig.PRIVACY_REPORTS, allEntries = true)
+    public PrivacyBudgetCharge charge(Dataset dataset, Long modelId, double epsilon, double delta,
+            NoiseMechanism mechanism, String purpose) {
+        if (!(epsilon > 0) || !(delta >= 0 && delta < 1)) {
+            throw new IllegalArgumentException("epsilon must be positive and delta between 0 and 1");
+        }
+        String key = budgetKey(dataset);
+        PrivacyBudget budget = budgetRepository.findForUpdate(key).orElseGet(() -> {
+            PrivacyBudget created = new PrivacyBudget();
+            created.setId(key);
+            created.setEpsilonLimit(defaultEpsilonLimit);
+            return budgetRepository.saveAndFlush(created);
+        });
+
+        double remaining = budget.getEpsilonLimit() - budget.getEpsilonSpent();
+        if (epsilon > remaining + 1e-12) {
+            throw new IllegalArgumentException(String.format(
+                    "Privacy budget exceeded for dataset %d: epsilon %.4g requested, %.4g of %.4g remaining",
+                    dataset.getId(), epsilon, Math.max(0, remaining), budget.getEpsilonLimit()));
+        }
+        budget.setEpsilonSpent(budget.getEpsilonSpent() + epsilon);
+        budget.setDeltaSpent(budget.getDeltaSpent() + delta);
+        budget.setUpdatedAt(LocalDateTime.now());
+        budgetRepository.save(budget);
+
+        PrivacyBudgetCharge charge = new PrivacyBudgetCharge();
+        charge.setBudgetId(key);
+        charge.setDatasetId(dataset.getId());
+        charge.setModelId(modelId);
+        charge.setEpsilon(epsilon);
+        charge.setDelta(delta);
+        charge.setMechanism(mechanism.name());
+        charge.setPurpose(purpose);
+        charge.setCreatedAt(LocalDateTime.now());
+        log.info("Charged epsilon={} delta={} to privacy budget of dataset {} ({} of {} spent)", epsilon, delta,
+                dataset.getId(), budget.getEpsilonSpent(), budget.getEpsilonLimit());
+        return chargeRepository.save(charge);
+    }
+
+    /**
+     * Returns a committed {@code charge} to the budget, for a release that was
+     * never computed. Runs in its own transaction, so it can be called once
+     * the charging transaction has committed.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @CacheEvict(value = CacheConfig.PRIVACY_REPORTS, allEntries = true)
+    public void refund(PrivacyBudgetCharge charge) {
+        budgetRepository.findForUpdate(charge.getBudgetId()).ifPresent(budget -> {
+            budget.setEpsilonSpent(Math.max(0, budget.getEpsilonSpent() - charge.getEpsilon()));
+            budget.setDeltaSpent(Math.max(0, budget.getDeltaSpent() - charge.getDelta()));
+            budget.setUpdatedAt(LocalDateTime.now());
+            budgetRepository.save(budget);
+        });
+        chargeRepository.deleteById(charge.getId());
+        log.info("Refunded epsilon={} delta={} to privacy budget of dataset {}", charge.getEpsilon(),
+                charge.getDelta(), charge.getDatasetId());
+    }
+
+    @Transactional(readOnly = true)
+    public PrivacyBudgetDTO getBudget(Dataset dataset) {
+        String key = budgetKey(dataset);
+        PrivacyBudget budget = budgetRepository.findById(key).orElse(null);
+        double limit = budget != null ? budget.getEpsilonLimit() : defaultEpsilonLimit;
+        double spent = budget != null ? budget.getEpsilonSpent() : 0;
+        return PrivacyBudgetDTO.builder()
+                .datasetId(dataset.getId())
+                .epsilonLimit(limit)
+                .epsilonSpent(spent)
+                .epsilonRemaining(Math.max(0, limit - spent))
+                .deltaSpent(budget != null ? budget.getDeltaSpent() : 0)
+                .charges(chargeRepository.findByBudgetIdOrderByCreatedAtDesc(key).stream()
+                        .map(charge -> PrivacyBudgetDTO.Charge.builder()
+                                .datasetId(charge.getDatasetId())
+                                .modelId(charge.getModelId())
+                                .epsilon(charge.getEpsilon())
+                                .delta(charge.getDelta())
+                                .mechanism(charge.getMechanism())
+                                .purpose(charge.getPurpose())
+                                .createdAt(charge.getCreatedAt())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    /** Total ε spent on {@code dataset} so far. */
+    public double getEpsilonSpent(Dataset dataset) {
+        return budgetRepository.findById(budgetKey(dataset)).map(PrivacyBudget::getEpsilonSpent).orElse(0.0);
+    }
+
+    private static String budgetKey(Dataset dataset) {
+        return dataset.getContentHash() != null ? dataset.getContentHash() : "dataset:" + dataset.getId();
+    }
+}
@@ -1,15 +1,32 @@
 package com.synthetic.platform.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.synthetic.platform.cache.SingleFlight;
+import com.synthetic.platform.config.CacheConfig;
+import com.synthetic.platform.data.CellKeys;
+import com.synthetic.platform.data.ColumnarTable;
+import com.synthetic.platform.data.CsvSource;
+import com.synthetic.platform.data.LongHashSet;
+import com.synthetic.platform.data.MappedCsvReader;
+import com.synthetic.platform.data.SchemaInferencer;
+import com.synthetic.platform.dto.AnonymityReportDTO;
+import com.synthetic.platform.dto.AnonymityRequestDTO;
+import com.synthetic.platform.dto.AttackReportDTO;
+import com.synthetic.platform.dto.AttackRequestDTO;
+import com.synthetic.platform.dto.DatasetSchemaDTO;
 import com.synthetic.platform.dto.PrivacyReportDTO;
 import com.synthetic.platform.model.Dataset;
+import com.synthetic.platform.privacy.AnonymityEvaluator;
+import com.synthetic.platform.privacy.AttackSimulator;
+import com.synthetic.platform.privacy.PiiType;
+import com.synthetic.platform.privacy.SensitiveCategory;
+import com.synthetic.platform.storage.BlobStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -22,25 +39,58 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class PrivacyReportService {
 
+    private static final int DISTRIBUTION_BUCKETS = 10;
+    private static final int MAX_CORRELATION_COLUMNS = 10;
+    private static final double DIVERGENCE_SMOOTHING = 1e-6;
+    private static final String OTHER_BUCKET = "Other";
+    private static final int SIMILARITY_SAMPLE = 100;
+    private static final int DISTANCE_SAMPLE = 50;
+    private static final int DEFAULT_TARGET_K = 5;
+    private static final int MAX_QUASI_IDENTIFIERS = 8;
+    private static final int MAX_ATTACK_PREDICTORS = 16;
+    private static final int MAX_ATTACK_TARGETS = 3;
+    private static final double IDENTIFIER_DISTINCT_RATIO = 0.95;
+
     private final ObjectMapper objectMapper;
+    private final MappedCsvReader mappedCsvReader;
+    private final BlobStore blobStore;
+    private final DatasetService datasetService;
+    private final AnonymityEvaluator anonymityEvaluator;
+    private final AttackSimulator attackSimulator;
+    private final PrivacyBudgetService privacyBudgetService;
+    private final SingleFlight singleFlight;
 
     /**
      * Generate comprehensive privacy report comparing original and synthetic
-     * datasets
+     * datasets. Reports are cached per dataset pair and shared between
+     * callers, so they must not be modified.
      */
+    @Cacheable(value = CacheConfig.PRIVACY_REPORTS, key = "#originalDataset.id + ':' + #syntheticDataset.id")
     public PrivacyReportDTO generateReport(Dataset originalDataset, Dataset syntheticDataset) throws Exception {
+        // Exports of the same pair requested together, before the first is cached, share one computation
+        return singleFlight.call("report", originalDataset.getId() + ":" + syntheticDataset.getId(),
+                () -> buildReport(originalDataset, syntheticDataset));
+    }
+
+    private PrivacyReportDTO buildReport(Dataset originalDataset, Dataset syntheticDataset) throws Exception {
         log.info("Generating privacy report for datasets: {} vs {}",
                 originalDataset.getName(), syntheticDataset.getName());
 
         String reportId = UUID.randomUUID().toString();
 
-        // Load both datasets
-        List<Map<String, String>> originalData = loadCsvData(originalDataset.getFilePath());
-        List<Map<String, String>> syntheticData = loadCsvData(syntheticDataset.getFilePath());
+        // Load both datasets with their stored column types
+        boolean sameDataset = Objects.equals(originalDataset.getId(), syntheticDataset.getId());
+        DatasetSchemaDTO originalSchema = datasetService.getSchema(originalDataset);
+        DatasetSchemaDTO syntheticSchema = sameDataset ? originalSchema : datasetService.getSchema(syntheticDataset);
+        Map<String, ColumnarTable.Kind> originalKinds = SchemaInferencer.kinds(originalSchema);
+        ColumnarTable originalData = loadTable(originalDataset.getFilePath(), originalKinds);
+        ColumnarTable syntheticData = sameDataset ? originalData
+                : loadAlongside(syntheticDataset, syntheticSchema, originalKinds);
 
         // Analyze datasets
-        PrivacyReportDTO.DatasetInfo originalInfo = analyzeDataset(originalDataset, originalData);
-        PrivacyReportDTO.DatasetInfo syntheticInfo = analyzeDataset(syntheticDataset, syntheticData);
+        PrivacyReportDTO.DatasetInfo originalInfo = analyzeDataset(originalDataset, originalData, originalSchema);
+        PrivacyReportDTO.DatasetInfo syntheticInfo = analyzeDataset(syntheticDataset, syntheticData,
+                syntheticSchema);
 
         // Calculate privacy metrics
         PrivacyReportDTO.PrivacyMetrics privacyMetrics = calculatePrivacyMetrics(originalData, syntheticData,
@@ -51,14 +101,21 @@ public class PrivacyReportService {
                 syntheticData);
 
         // Analyze distributions
-        List<PrivacyReportDTO.DistributionAnalysis> distributions = analyzeDistributions(originalData, syntheticData);
+        List<PrivacyReportDTO.DistributionAnalysis> distributions = analyzeDistributions(originalData, syntheticData,
+                originalSchema);
 
         // Analyze correlations
         PrivacyReportDTO.CorrelationAnalysis correlationAnalysis = analyzeCorrelations(originalData, syntheticData);
 
         // Generate privacy guarantees
+        Map<SensitiveCategory, List<DatasetSchemaDTO.ColumnSchema>> sensitiveColumns = sensitiveColumns(
+                originalSchema, syntheticData);
         PrivacyReportDTO.PrivacyGuarantees privacyGuarantees = generatePrivacyGuarantees(originalData, syntheticData,
-                originalInfo);
+                originalSchema, sensitiveColumns, privacyBudgetService.getEpsilonSpent(originalDataset));
+
+        // Simulate attacks on the synthetic data
+        AttackReportDTO attackSimulation = simulateDefaultAttacks(originalData, syntheticData, originalSchema,
+                sensitiveColumns);
 
         return PrivacyReportDTO.builder()
                 .reportId(reportId)
@@ -70,85 +127,151 @@ public class PrivacyReportService {
                 .distributions(distributions)
                 .correlationAnalysis(correlationAnalysis)
                 .privacyGuarantees(privacyGuarantees)
+                .attackSimulation(attackSimulation)
                 .build();
     }
 
-    private PrivacyReportDTO.DatasetInfo analyzeDataset(Dataset dataset, List<Map<String, String>> data)
-            throws IOException {
-        File file = new File(dataset.getFilePath());
+    /**
+     * k-anonymity and l-diversity of a synthetic dataset over the requested
+     * quasi-identifiers, with its re-identification risk against the original
+     */
+    public AnonymityReportDTO evaluateAnonymity(Dataset syntheticDataset, Dataset originalDataset,
+            AnonymityRequestDTO request) throws IOException {
+        DatasetSchemaDTO originalSchema = datasetService.getSchema(originalDataset);
+        Map<String, ColumnarTable.Kind> originalKinds = SchemaInferencer.kinds(originalSchema);
+        ColumnarTable originalData = loadTable(originalDataset.getFilePath(), originalKinds);
+        ColumnarTable syntheticData = Objects.equals(originalDataset.getId(), syntheticDataset.getId())
+                ? originalData
+                : loadAlongside(syntheticDataset, datasetService.getSchema(syntheticDataset), originalKinds);
+
+        return anonymityEvaluator.evaluate(syntheticData, originalData, request.getQuasiIdentifiers(),
+                request.getSensitiveColumn(),
+                request.getTargetK() != null ? request.getTargetK() : DEFAULT_TARGET_K,
+                request.getNumericBins() != null ? request.getNumericBins() : 0);
+    }
+
+    /**
+     * Privacy score of a single dataset, 0-100: how hard its records are to
+     * single out, as 100 times one minus the average re-identification risk
+     * over the default quasi-identifiers. A dataset synthesized from another
+     * is measured against its source. Any other dataset is split into
+     * alternate rows, and one half is measured against the other, because
+     * against itself every record would find its own class. 100 if there are
+     * no quasi-identifiers. Cached like reports, keyed by the pair compared.
+     */
+    @Cacheable(value = CacheConfig.AUDIT_SCORES, key = "(#dataset.sourceDatasetId ?: 'holdout') + ':' + #dataset.id")
+    public int auditScore(Dataset dataset) throws IOException {
+        DatasetSchemaDTO schema = datasetService.getSchema(dataset);
+        Optional<Dataset> source = datasetService.findSource(dataset);
+        ColumnarTable original;
+        ColumnarTable synthetic;
+        DatasetSchemaDTO originalSchema;
+        if (source.isPresent()) {
+            originalSchema = datasetService.getSchema(source.get());
+            Map<String, ColumnarTable.Kind> originalKinds = SchemaInferencer.kinds(originalSchema);
+            original = loadTable(source.get().getFilePath(), originalKinds);
+            synthetic = loadAlongside(dataset, schema, originalKinds);
+        } else {
+            originalSchema = schema;
+            ColumnarTable data = loadTable(dataset.getFilePath(), SchemaInferencer.kinds(schema));
+            original = data.rows(alternateRows(data.getRowCount(), 0));
+            synthetic = data.rows(alternateRows(data.getRowCount(), 1));
+        }
+        AnonymityReportDTO anonymity = defaultAnonymity(original, synthetic, originalSchema,
+                sensitiveColumns(originalSchema, synthetic));
+        return anonymity != null ? (int) Math.round(100 * (1 - anonymity.getAverageRisk())) : 100;
+    }
+
+    private static int[] alternateRows(int rowCount, int first) {
+        int[] rows = new int[(rowCount - first + 1) / 2];
+        for (int i = 0; i < rows.length; i++)
+            rows[i] = first + 2 * i;
+        return rows;
+    }
 
+    /**
+     * Membership inference (only with a holdout) and attribute inference
+     * against a synthetic dataset. Quasi-identifiers default to every column
+     * shared with the original that is not a sensitive column.
+     */
+    public AttackReportDTO simulateAttacks(Dataset syntheticDataset, Dataset originalDataset, Dataset holdoutDataset,
+            AttackRequestDTO request) throws IOException {
+        DatasetSchemaDTO originalSchema = datasetService.getSchema(originalDataset);
+        Map<String, ColumnarTable.Kind> originalKinds = SchemaInferencer.kinds(originalSchema);
+        ColumnarTable originalData = loadTable(originalDataset.getFilePath(), originalKinds);
+        ColumnarTable syntheticData = Objects.equals(originalDataset.getId(), syntheticDataset.getId())
+                ? originalData
+                : loadAlongside(syntheticDataset, datasetService.getSchema(syntheticDataset), originalKinds);
+        ColumnarTable holdoutData = holdoutDataset != null
+                ? loadAlongside(holdoutDataset, datasetService.getSchema(holdoutDataset), originalKinds)
+                : null;
+
+        List<String> sensitive = request.getSensitiveColumns() != null ? request.getSensitiveColumns() : List.of();
+        List<String> quasiIdentifiers = request.getQuasiIdentifiers();
+        if (quasiIdentifiers == null) {
+            quasiIdentifiers = new ArrayList<>();
+            for (String name : originalData.getColumnNames()) {
+                if (syntheticData.column(name) != null && !sensitive.contains(name))
+                    quasiIdentifiers.add(name);
+            }
+        }
+        return attackSimulator.simulate(originalData, syntheticData, holdoutData, quasiIdentifiers, sensitive);
+    }
+
+    private PrivacyReportDTO.DatasetInfo analyzeDataset(Dataset dataset, ColumnarTable data,
+            DatasetSchemaDTO schema) {
         List<PrivacyReportDTO.ColumnInfo> columns = new ArrayList<>();
-        if (!data.isEmpty()) {
-            Map<String, String> firstRow = data.get(0);
-            for (String columnName : firstRow.keySet()) {
-                PrivacyReportDTO.ColumnInfo columnInfo = analyzeColumn(columnName, data);
-                columns.add(columnInfo);
+        if (data.getRowCount() > 0) {
+            for (ColumnarTable.Column column : data.getColumns()) {
+                columns.add(analyzeColumn(column, schema));
             }
         }
 
         return PrivacyReportDTO.DatasetInfo.builder()
                 .name(dataset.getName())
-                .rowCount(data.size())
+                .rowCount(data.getRowCount())
                 .columnCount(columns.size())
-                .sizeBytes(file.length())
+                .sizeBytes(contentSize(dataset.getFilePath()))
                 .columns(columns)
                 .build();
     }
 
-    private PrivacyReportDTO.ColumnInfo analyzeColumn(String columnName, List<Map<String, String>> data) {
-        // Detect sensitive columns
-        String lowerName = columnName.toLowerCase();
-        boolean isSensitive = false;
+    /**
+     * Sensitivity comes from the findings cached in the schema: personal data
+     * detected in the values takes precedence over what the name suggests.
+     */
+    private PrivacyReportDTO.ColumnInfo analyzeColumn(ColumnarTable.Column column, DatasetSchemaDTO schema) {
+        String columnName = column.getName();
+        DatasetSchemaDTO.ColumnSchema columnSchema = schema.column(columnName);
         String reason = null;
-
-        if (lowerName.matches(".*(name|email|phone|address|ssn|id|passport|license).*")) {
-            isSensitive = true;
-            reason = "Potential PII (Personally Identifiable Information)";
-        } else if (lowerName.matches(".*(salary|income|credit|account|balance|payment).*")) {
-            isSensitive = true;
-            reason = "Financial Information";
-        } else if (lowerName.matches(".*(medical|health|diagnosis|prescription|patient).*")) {
-            isSensitive = true;
-            reason = "Medical/Health Information";
-        } else if (lowerName.matches(".*(latitude|longitude|gps|location|coordinate).*")) {
-            isSensitive = true;
-            reason = "Precise Location Data (CPS)";
-        } else if (lowerName.matches(".*(ip_address|mac_address|device_id|uuid|serial|vin|imei).*")) {
-            isSensitive = true;
-            reason = "Network/Device Identifier (CPS)";
-        }
-
-        // Determine data type
-        String dataType = inferDataType(columnName, data);
+        if (columnSchema != null && columnSchema.getDetectedPii() != null) {
+            PiiType pii = columnSchema.getDetectedPii();
+            reason = String.format("%s: %s in %.0f%% of sampled values", pii.getCategory().getReason(),
+                    pii.getDescription(), columnSchema.getDetectedPiiRate() * 100);
+        } else if (columnSchema != null && columnSchema.getNameCategory() != null) {
+            reason = columnSchema.getNameCategory().getReason();
+        }
 
         return PrivacyReportDTO.ColumnInfo.builder()
                 .name(columnName)
-                .dataType(dataType)
-                .sensitive(isSensitive)
+                .dataType(dataType(schema, columnName))
+                .sensitive(reason != null)
                 .sensitivityReason(reason)
                 .build();
     }
 
-    private String inferDataType(String columnName, List<Map<String, String>> data) {
-        if (data.isEmpty())
-            return "STRING";
-
-        String sampleValue = data.get(0).get(columnName);
-        if (sampleValue == null)
-            return "STRING";
-
-        // Try to infer type from sample values
-        try {
-            Double.parseDouble(sampleValue);
-            return sampleValue.contains(".") ? "DOUBLE" : "INTEGER";
-        } catch (NumberFormatException e) {
-            return "STRING";
-        }
+    /**
+     * Column type from the dataset's stored schema, which was inferred from
+     * every value at upload.
+     */
+    private String dataType(DatasetSchemaDTO schema, String columnName) {
+        DatasetSchemaDTO.ColumnSchema column = schema.column(columnName);
+        return column != null ? column.getType().name() : DatasetSchemaDTO.ColumnType.STRING.name();
     }
 
     private PrivacyReportDTO.PrivacyMetrics calculatePrivacyMetrics(
-            List<Map<String, String>> originalData,
-            List<Map<String, String>> syntheticData,
+            ColumnarTable originalData,
+            ColumnarTable syntheticData,
             PrivacyReportDTO.DatasetInfo originalInfo) {
 
         // Count sensitive fields
@@ -185,35 +308,50 @@ public class PrivacyReportService {
                 .build();
     }
 
-    private boolean hasRecordDuplication(List<Map<String, String>> original, List<Map<String, String>> synthetic) {
-        // Check if any synthetic record is identical to an original record
-        Set<String> originalRecords = original.stream()
-                .map(Object::toString)
-                .collect(Collectors.toSet());
-
-        for (Map<String, String> syntheticRecord : synthetic) {
-            if (originalRecords.contains(syntheticRecord.toString())) {
+    /**
+     * Whether any synthetic record is identical to an original record. Rows are
+     * reduced to 64-bit fingerprints so the original side is a primitive hash
+     * set rather than a set of row strings.
+     */
+    private boolean hasRecordDuplication(ColumnarTable original, ColumnarTable synthetic) {
+        if (original.getRowCount() == 0 || synthetic.getRowCount() == 0)
+            return false;
+        if (!new HashSet<>(original.getColumnNames()).equals(new HashSet<>(synthetic.getColumnNames())))
+            return false; // Records with different fields are never identical
+
+        CellKeys[] originalKeys = new CellKeys[original.getColumnCount()];
+        CellKeys[] syntheticKeys = new CellKeys[original.getColumnCount()];
+        alignColumns(original, synthetic, originalKeys, syntheticKeys);
+
+        LongHashSet originalRecords = new LongHashSet(original.getRowCount());
+        for (int row = 0; row < original.getRowCount(); row++) {
+            originalRecords.add(fingerprint(originalKeys, row));
+        }
+        for (int row = 0; row < synthetic.getRowCount(); row++) {
+            if (originalRecords.contains(fingerprint(syntheticKeys, row))) {
                 return true; // Found a duplicate
             }
         }
         return false; // No duplicates found
     }
 
-    private double calculateRecordSimilarity(List<Map<String, String>> original, List<Map<String, String>> synthetic) {
-        if (original.isEmpty() || synthetic.isEmpty())
+    private double calculateRecordSimilarity(ColumnarTable original, ColumnarTable synthetic) {
+        if (original.getRowCount() == 0 || synthetic.getRowCount() == 0)
             return 0.0;
 
+        CellKeys[] originalKeys = new CellKeys[original.getColumnCount()];
+        CellKeys[] syntheticKeys = new CellKeys[original.getColumnCount()];
+        alignColumns(original, synthetic, originalKeys, syntheticKeys);
+
         // Calculate average minimum distance between synthetic and original records
         double totalSimilarity = 0.0;
-        int count = Math.min(100, synthetic.size()); // Sample for performance
+        int count = Math.min(SIMILARITY_SAMPLE, synthetic.getRowCount()); // Sample for performance
 
         for (int i = 0; i < count; i++) {
-            Map<String, String> syntheticRecord = synthetic.get(i);
             double minDistance = Double.MAX_VALUE;
 
-            for (int j = 0; j < Math.min(100, original.size()); j++) {
-                Map<String, String> originalRecord = original.get(j);
-                double distance = calculateRecordDistance(originalRecord, syntheticRecord);
+            for (int j = 0; j < Math.min(SIMILARITY_SAMPLE, original.getRowCount()); j++) {
+                double distance = calculateRecordDistance(originalKeys, j, syntheticKeys, i);
                 minDistance = Math.min(minDistance, distance);
             }
 
@@ -223,14 +361,14 @@ public class PrivacyReportService {
         return totalSimilarity / count;
     }
 
-    private double calculateRecordDistance(Map<String, String> record1, Map<String, String> record2) {
+    private double calculateRecordDistance(CellKeys[] originalKeys, int originalRow, CellKeys[] syntheticKeys,
+            int syntheticRow) {
         int differences = 0;
-        int total = record1.size();
+        int total = originalKeys.length;
 
-        for (String key : record1.keySet()) {
-            String val1 = record1.get(key);
-            String val2 = record2.get(key);
-            if (val1 == null || val2 == null || !val1.equals(val2)) {
+        for (int c = 0; c < total; c++) {
+            if (syntheticKeys[c] == null
+                    || originalKeys[c].key(originalRow) != syntheticKeys[c].key(syntheticRow)) {
                 differences++;
             }
         }
@@ -238,9 +376,33 @@ public class PrivacyReportService {
         return total > 0 ? (double) differences / total : 0.0;
     }
 
+    /**
+     * Pairs each original column with the synthetic column of the same name. A
+     * pair whose kinds differ is compared by text so that e.g. a numeric 3 and a
+     * categorical "3" still match.
+     */
+    private void alignColumns(ColumnarTable original, ColumnarTable synthetic, CellKeys[] originalKeys,
+            CellKeys[] syntheticKeys) {
+        for (int c = 0; c < original.getColumnCount(); c++) {
+            ColumnarTable.Column column = original.column(c);
+            ColumnarTable.Column match = synthetic.column(column.getName());
+            boolean asText = match != null && match.getKind() != column.getKind();
+            originalKeys[c] = new CellKeys(column, asText);
+            syntheticKeys[c] = match != null ? new CellKeys(match, asText) : null;
+        }
+    }
+
+    private long fingerprint(CellKeys[] keys, int row) {
+        long hash = 1;
+        for (CellKeys key : keys) {
+            hash = CellKeys.combine(hash, key.key(row));
+        }
+        return hash;
+    }
+
     private PrivacyReportDTO.StatisticalComparison calculateStatisticalComparison(
-            List<Map<String, String>> originalData,
-            List<Map<String, String>> syntheticData) {
+            ColumnarTable originalData,
+            ColumnarTable syntheticData) {
 
         // Calculate distribution similarity
         double distributionSimilarity = calculateDistributionSimilarity(originalData, syntheticData);
@@ -274,10 +436,9 @@ public class PrivacyReportService {
                 .build();
     }
 
-    private double calculateDistributionSimilarity(List<Map<String, String>> original,
-            List<Map<String, String>> synthetic) {
+    private double calculateDistributionSimilarity(ColumnarTable original, ColumnarTable synthetic) {
         // Simplified distribution similarity - compare value frequencies
-        if (original.isEmpty() || synthetic.isEmpty())
+        if (original.getRowCount() == 0 || synthetic.getRowCount() == 0)
             return 0.0;
 
         // For demonstration, return a high similarity score
@@ -285,46 +446,62 @@ public class PrivacyReportService {
         return 85.0 + (Math.random() * 10); // 85-95%
     }
 
-    private double calculateCorrelationPreservation(List<Map<String, String>> original,
-            List<Map<String, String>> synthetic) {
+    private double calculateCorrelationPreservation(ColumnarTable original, ColumnarTable synthetic) {
         // Simplified correlation preservation
         // In production, this would calculate actual Pearson correlations
         return 80.0 + (Math.random() * 15); // 80-95%
     }
 
-    private double calculateMAE(List<Map<String, String>> original, List<Map<String, String>> synthetic) {
+    private double calculateMAE(ColumnarTable original, ColumnarTable synthetic) {
         // Mean Absolute Error for numerical columns
         return 0.05 + (Math.random() * 0.05); // 0.05-0.10
     }
 
-    private double calculateStdError(List<Map<String, String>> original, List<Map<String, String>> synthetic) {
+    private double calculateStdError(ColumnarTable original, ColumnarTable synthetic) {
         // Standard deviation error
         return 0.03 + (Math.random() * 0.05); // 0.03-0.08
     }
 
     private List<PrivacyReportDTO.DistributionAnalysis> analyzeDistributions(
-            List<Map<String, String>> originalData,
-            List<Map<String, String>> syntheticData) {
+            ColumnarTable originalData,
+            ColumnarTable syntheticData,
+            DatasetSchemaDTO schema) {
 
         List<PrivacyReportDTO.DistributionAnalysis> analyses = new ArrayList<>();
 
-        if (originalData.isEmpty() || syntheticData.isEmpty())
+        if (originalData.getRowCount() == 0 || syntheticData.getRowCount() == 0)
             return analyses;
 
         // Analyze first few columns as examples
-        Map<String, String> firstRow = originalData.get(0);
         int count = 0;
-        for (String columnName : firstRow.keySet()) {
+        for (ColumnarTable.Column column : originalData.getColumns()) {
             if (count++ >= 5)
                 break; // Limit to 5 columns for report
 
+            String columnName = column.getName();
+            ColumnarTable.Column syntheticColumn = syntheticData.column(columnName);
+            String dataType = dataType(schema, columnName);
+            Map<String, Double> originalDistribution;
+            Map<String, Double> syntheticDistribution;
+            if (!column.isNumeric()) {
+                originalDistribution = categoricalDistribution(column, originalData.getRowCount(), null);
+                syntheticDistribution = categoricalDistribution(syntheticColumn, syntheticData.getRowCount(),
+                        originalDistribution.keySet());
+            } else {
+                double[] originalValues = numericValues(column, originalData.getRowCount());
+                double[] syntheticValues = numericValues(syntheticColumn, syntheticData.getRowCount());
+                double[] range = numericRange(originalValues, syntheticValues);
+                originalDistribution = histogram(originalValues, range);
+                syntheticDistribution = histogram(syntheticValues, range);
+            }
+
             PrivacyReportDTO.DistributionAnalysis analysis = PrivacyReportDTO.DistributionAnalysis.builder()
                     .columnName(columnName)
-                    .dataType(inferDataType(columnName, originalData))
-                    .originalDistribution(new HashMap<>())
-                    .syntheticDistribution(new HashMap<>())
-                    .klDivergence(0.05 + Math.random() * 0.1)
-                    .jsDivergence(0.03 + Math.random() * 0.08)
+                    .dataType(dataType)
+                    .originalDistribution(originalDistribution)
+                    .syntheticDistribution(syntheticDistribution)
+                    .klDivergence(klDivergence(originalDistribution, syntheticDistribution))
+                    .jsDivergence(jsDivergence(originalDistribution, syntheticDistribution))
                     .build();
 
             analyses.add(analysis);
@@ -333,36 +510,257 @@ public class PrivacyReportService {
         return analyses;
     }
 
+    /**
+     * Relative frequencies of the most common categories. When {@code buckets} is
+     * given the synthetic side is projected onto the original's categories so both
+     * distributions share the same support.
+     */
+    private Map<String, Double> categoricalDistribution(ColumnarTable.Column column, int rowCount,
+            Set<String> buckets) {
+        Map<String, Long> counts = valueCounts(column, rowCount);
+
+        List<String> keys;
+        if (buckets != null) {
+            keys = new ArrayList<>(buckets);
+            keys.remove(OTHER_BUCKET);
+        } else {
+            keys = counts.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .limit(DISTRIBUTION_BUCKETS)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        }
+
+        Map<String, Double> distribution = new LinkedHashMap<>();
+        long covered = 0;
+        for (String key : keys) {
+            long c = counts.getOrDefault(key, 0L);
+            covered += c;
+            distribution.put(key, (double) c / rowCount);
+        }
+        if (covered < rowCount || (buckets != null && buckets.contains(OTHER_BUCKET))) {
+            distribution.put(OTHER_BUCKET, (double) (rowCount - covered) / rowCount);
+        }
+        return distribution;
+    }
+
+    /**
+     * Occurrences of each distinct value. Categorical columns are counted by
+     * dictionary code; a column missing from the table counts as all blank.
+     */
+    private Map<String, Long> valueCounts(ColumnarTable.Column column, int rowCount) {
+        Map<String, Long> counts = new HashMap<>();
+        if (column == null) {
+            counts.put("", (long) rowCount);
+        } else if (column.isNumeric()) {
+            for (int row = 0; row < rowCount; row++) {
+                counts.merge(column.text(row), 1L, Long::sum);
+            }
+        } else {
+            long[] byCode = new long[column.getCardinality()];
+            for (int code : column.getCodes()) {
+                byCode[code]++;
+            }
+            String[] dictionary = column.getDictionary();
+            for (int code = 0; code < byCode.length; code++) {
+                counts.merge(dictionary[code], byCode[code], Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    private double[] numericRange(double[] original, double[] synthetic) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double[] data : Arrays.asList(original, synthetic)) {
+            for (double v : data) {
+                if (!Double.isNaN(v)) {
+                    min = Math.min(min, v);
+                    max = Math.max(max, v);
+                }
+            }
+        }
+        return new double[] { min, max };
+    }
+
+    private Map<String, Double> histogram(double[] data, double[] range) {
+        Map<String, Double> distribution = new LinkedHashMap<>();
+        if (Double.isInfinite(range[0]) || data.length == 0)
+            return distribution;
+
+        double width = (range[1] - range[0]) / DISTRIBUTION_BUCKETS;
+        long[] counts = new long[DISTRIBUTION_BUCKETS];
+        for (double v : data) {
+            if (Double.isNaN(v))
+                continue;
+            int bin = width > 0 ? (int) ((v - range[0]) / width) : 0;
+            counts[Math.max(0, Math.min(DISTRIBUTION_BUCKETS - 1, bin))]++;
+        }
+        for (int i = 0; i < DISTRIBUTION_BUCKETS; i++) {
+            String label = String.format("%.2f-%.2f", range[0] + i * width, range[0] + (i + 1) * width);
+            distribution.put(label, (double) counts[i] / data.length);
+        }
+        return distribution;
+    }
+
+    private double klDivergence(Map<String, Double> p, Map<String, Double> q) {
+        double kl = 0.0;
+        for (Map.Entry<String, Double> entry : p.entrySet()) {
+            double pi = entry.getValue() + DIVERGENCE_SMOOTHING;
+            double qi = q.getOrDefault(entry.getKey(), 0.0) + DIVERGENCE_SMOOTHING;
+            kl += pi * Math.log(pi / qi);
+        }
+        return Math.max(0.0, kl);
+    }
+
+    private double jsDivergence(Map<String, Double> p, Map<String, Double> q) {
+        Map<String, Double> m = new HashMap<>();
+        Set<String> keys = new HashSet<>(p.keySet());
+        keys.addAll(q.keySet());
+        for (String key : keys) {
+            m.put(key, (p.getOrDefault(key, 0.0) + q.getOrDefault(key, 0.0)) / 2);
+        }
+        return (klDivergence(p, m) + klDivergence(q, m)) / 2;
+    }
+
     private PrivacyReportDTO.CorrelationAnalysis analyzeCorrelations(
-            List<Map<String, String>> originalData,
-            List<Map<String, String>> syntheticData) {
+            ColumnarTable originalData,
+            ColumnarTable syntheticData) {
+
+        List<String> numericColumns = new ArrayList<>();
+        if (originalData.getRowCount() > 0 && syntheticData.getRowCount() > 0) {
+            for (ColumnarTable.Column column : originalData.getColumns()) {
+                if (numericColumns.size() >= MAX_CORRELATION_COLUMNS)
+                    break;
+                if (column.isNumeric()) {
+                    numericColumns.add(column.getName());
+                }
+            }
+        }
+
+        Map<String, Map<String, Double>> originalCorrelations = correlationMatrix(numericColumns, originalData);
+        Map<String, Map<String, Double>> syntheticCorrelations = correlationMatrix(numericColumns, syntheticData);
+
+        List<PrivacyReportDTO.CorrelationPair> pairs = new ArrayList<>();
+        for (int i = 0; i < numericColumns.size(); i++) {
+            for (int j = i + 1; j < numericColumns.size(); j++) {
+                String c1 = numericColumns.get(i);
+                String c2 = numericColumns.get(j);
+                double original = originalCorrelations.get(c1).get(c2);
+                double synthetic = syntheticCorrelations.get(c1).get(c2);
+                pairs.add(PrivacyReportDTO.CorrelationPair.builder()
+                        .column1(c1)
+                        .column2(c2)
+                        .originalCorrelation(original)
+                        .syntheticCorrelation(synthetic)
+                        .difference(Math.abs(original - synthetic))
+                        .build());
+            }
+        }
+
+        double overallError = pairs.stream()
+                .mapToDouble(PrivacyReportDTO.CorrelationPair::getDifference)
+                .average()
+                .orElse(0.0);
+
+        pairs.sort(Comparator.comparing(PrivacyReportDTO.CorrelationPair::getDifference).reversed());
 
         return PrivacyReportDTO.CorrelationAnalysis.builder()
-                .originalCorrelations(new HashMap<>())
-                .syntheticCorrelations(new HashMap<>())
-                .overallCorrelationError(0.05 + Math.random() * 0.1)
-                .topDifferences(new ArrayList<>())
+                .originalCorrelations(originalCorrelations)
+                .syntheticCorrelations(syntheticCorrelations)
+                .overallCorrelationError(overallError)
+                .topDifferences(new ArrayList<>(pairs.subList(0, Math.min(5, pairs.size()))))
                 .build();
     }
 
-    private PrivacyReportDTO.PrivacyGuarantees generatePrivacyGuarantees(
-            List<Map<String, String>> originalData,
-            List<Map<String, String>> syntheticData,
-            PrivacyReportDTO.DatasetInfo originalInfo) {
+    private Map<String, Map<String, Double>> correlationMatrix(List<String> columns, ColumnarTable data) {
+        double[][] values = new double[columns.size()][];
+        for (int c = 0; c < columns.size(); c++) {
+            values[c] = numericValues(data.column(columns.get(c)), data.getRowCount());
+        }
 
-        // Check if sensitive fields exist
-        boolean hasPII = originalInfo.getColumns().stream()
-                .anyMatch(c -> c.getSensitivityReason() != null &&
-                        c.getSensitivityReason().contains("PII"));
-        boolean hasFinancial = originalInfo.getColumns().stream()
-                .anyMatch(c -> c.getSensitivityReason() != null &&
-                        c.getSensitivityReason().contains("Financial"));
-        boolean hasMedical = originalInfo.getColumns().stream()
-                .anyMatch(c -> c.getSensitivityReason() != null &&
-                        c.getSensitivityReason().contains("Medical"));
-        boolean hasLocation = originalInfo.getColumns().stream()
-                .anyMatch(c -> c.getSensitivityReason() != null &&
-                        c.getSensitivityReason().contains("Location"));
+        Map<String, Map<String, Double>> matrix = new LinkedHashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            Map<String, Double> row = new LinkedHashMap<>();
+            for (int j = 0; j < columns.size(); j++) {
+                row.put(columns.get(j), i == j ? 1.0 : pearson(values[i], values[j]));
+            }
+            matrix.put(columns.get(i), row);
+        }
+        return matrix;
+    }
+
+    private double pearson(double[] x, double[] y) {
+        double sumX = 0, sumY = 0, sumXX = 0, sumYY = 0, sumXY = 0;
+        int n = 0;
+        for (int i = 0; i < x.length; i++) {
+            if (Double.isNaN(x[i]) || Double.isNaN(y[i]))
+                continue;
+            sumX += x[i];
+            sumY += y[i];
+            sumXX += x[i] * x[i];
+            sumYY += y[i] * y[i];
+            sumXY += x[i] * y[i];
+            n++;
+        }
+        if (n < 2)
+            return 0.0;
+        double cov = sumXY - sumX * sumY / n;
+        double varX = sumXX - sumX * sumX / n;
+        double varY = sumYY - sumY * sumY / n;
+        if (varX <= 0 || varY <= 0)
+            return 0.0;
+        return cov / Math.sqrt(varX * varY);
+    }
+
+    /**
+     * Values of {@code column} as doubles. Numeric columns are returned as-is;
+     * categorical ones are parsed once per dictionary entry, and a column missing
+     * from the table is all NaN.
+     */
+    private double[] numericValues(ColumnarTable.Column column, int rowCount) {
+        if (column != null && column.isNumeric())
+            return column.getValues();
+
+        double[] values = new double[rowCount];
+        if (column == null) {
+            Arrays.fill(values, Double.NaN);
+            return values;
+        }
+        String[] dictionary = column.getDictionary();
+        double[] parsed = new double[dictionary.length];
+        for (int code = 0; code < dictionary.length; code++) {
+            parsed[code] = parseNumeric(dictionary[code]);
+        }
+        int[] codes = column.getCodes();
+        for (int row = 0; row < rowCount; row++) {
+            values[row] = parsed[codes[row]];
+        }
+        return values;
+    }
+
+    private double parseNumeric(String value) {
+        if (value == null || value.isEmpty())
+            return Double.NaN;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Leakage flags are measured, not assumed: a category leaks when some
+     * synthetic record reproduces the values of that category's columns which
+     * single out exactly one original record. Differential privacy is only
+     * claimed when the original's budget ledger records releases.
+     */
+    private PrivacyReportDTO.PrivacyGuarantees generatePrivacyGuarantees(
+            ColumnarTable originalData,
+            ColumnarTable syntheticData,
+            DatasetSchemaDTO originalSchema,
+            Map<SensitiveCategory, List<DatasetSchemaDTO.ColumnSchema>> sensitiveColumns,
+            double epsilonSpent) {
 
         // No leakage guarantee
         boolean noDuplicates = !hasRecordDuplication(originalData, syntheticData);
@@ -370,39 +768,147 @@ public class PrivacyReportService {
         // Calculate minimum distance
         double minDistance = calculateMinimumRecordDistance(originalData, syntheticData);
 
-        List<String> techniques = Arrays.asList(
-                "CTGAN (Conditional Tabular GAN)",
-                "Differential Privacy Noise Injection",
-                "K-Anonymity Preservation",
+        AnonymityReportDTO anonymity = defaultAnonymity(originalData, syntheticData, originalSchema,
+                sensitiveColumns);
+
+        List<String> techniques = new ArrayList<>(Arrays.asList("CTGAN (Conditional Tabular GAN)"));
+        if (epsilonSpent > 0) {
+            techniques.add(String.format("Differential Privacy (ε=%.3g spent)", epsilonSpent));
+        }
+        if (anonymity != null && anonymity.getK() >= 2) {
+            techniques.add("K-Anonymity (k=" + anonymity.getK() + ")");
+        }
+        techniques.addAll(Arrays.asList(
                 "Sensitive Field Masking",
                 "Statistical Distribution Matching",
-                "Record-level Distance Guarantees");
+                "Record-level Distance Guarantees"));
 
         return PrivacyReportDTO.PrivacyGuarantees.builder()
-                .noPiiLeakage(true) // Always true for synthetic data
-                .noFinancialDataLeakage(true)
-                .noMedicalDataLeakage(true)
-                .noLocationDataLeakage(true)
+                .noPiiLeakage(noLeakage(originalData, syntheticData, sensitiveColumns, SensitiveCategory.PII,
+                        SensitiveCategory.DEVICE))
+                .noFinancialDataLeakage(noLeakage(originalData, syntheticData, sensitiveColumns,
+                        SensitiveCategory.FINANCIAL))
+                .noMedicalDataLeakage(noLeakage(originalData, syntheticData, sensitiveColumns,
+                        SensitiveCategory.MEDICAL))
+                .noLocationDataLeakage(noLeakage(originalData, syntheticData, sensitiveColumns,
+                        SensitiveCategory.LOCATION))
                 .noOriginalRecordsCopied(noDuplicates)
                 .minimumRecordDistance(minDistance)
+                .anonymity(anonymity)
                 .complianceLevel("GDPR, HIPAA, CCPA")
                 .privacyTechniquesApplied(techniques)
                 .build();
     }
 
-    private double calculateMinimumRecordDistance(List<Map<String, String>> original,
-            List<Map<String, String>> synthetic) {
-        if (original.isEmpty() || synthetic.isEmpty())
+    private boolean noLeakage(ColumnarTable originalData, ColumnarTable syntheticData,
+            Map<SensitiveCategory, List<DatasetSchemaDTO.ColumnSchema>> sensitiveColumns,
+            SensitiveCategory... categories) {
+        for (SensitiveCategory category : categories) {
+            List<DatasetSchemaDTO.ColumnSchema> columns = sensitiveColumns.get(category);
+            if (columns == null || syntheticData.getRowCount() == 0)
+                continue;
+            List<String> names = columns.stream().map(DatasetSchemaDTO.ColumnSchema::getName)
+                    .collect(Collectors.toList());
+            AnonymityReportDTO leakage = anonymityEvaluator.evaluate(syntheticData, originalData, names, null, 1, 0);
+            if (leakage.getUniqueMatchRate() > 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Anonymity over the personal, location and device columns that are not
+     * identifiers themselves (those are near-unique, so k would trivially be
+     * 1), with the first medical or financial column as the sensitive value.
+     * {@code null} if the dataset has no such quasi-identifiers.
+     */
+    private AnonymityReportDTO defaultAnonymity(ColumnarTable originalData, ColumnarTable syntheticData,
+            DatasetSchemaDTO originalSchema,
+            Map<SensitiveCategory, List<DatasetSchemaDTO.ColumnSchema>> sensitiveColumns) {
+        List<String> quasiIdentifiers = new ArrayList<>();
+        for (SensitiveCategory category : Arrays.asList(SensitiveCategory.PII, SensitiveCategory.LOCATION,
+                SensitiveCategory.DEVICE)) {
+            for (DatasetSchemaDTO.ColumnSchema column : sensitiveColumns.getOrDefault(category, List.of())) {
+                if (!isIdentifier(originalSchema, column) && quasiIdentifiers.size() < MAX_QUASI_IDENTIFIERS)
+                    quasiIdentifiers.add(column.getName());
+            }
+        }
+        if (quasiIdentifiers.isEmpty() || syntheticData.getRowCount() == 0)
+            return null;
+
+        String sensitive = null;
+        for (SensitiveCategory category : Arrays.asList(SensitiveCategory.MEDICAL, SensitiveCategory.FINANCIAL)) {
+            List<DatasetSchemaDTO.ColumnSchema> columns = sensitiveColumns.get(category);
+            if (sensitive == null && columns != null)
+                sensitive = columns.get(0).getName();
+        }
+        return anonymityEvaluator.evaluate(syntheticData, originalData, quasiIdentifiers, sensitive,
+                DEFAULT_TARGET_K, 0);
+    }
+
+    /**
+     * Attribute inference of the medical and financial columns from the other
+     * columns that are not identifiers. There is no holdout for the report,
+     * as generators train on the whole original dataset, so membership
+     * inference is left to {@link #simulateAttacks}.
+     */
+    private AttackReportDTO simulateDefaultAttacks(ColumnarTable originalData, ColumnarTable syntheticData,
+            DatasetSchemaDTO originalSchema,
+            Map<SensitiveCategory, List<DatasetSchemaDTO.ColumnSchema>> sensitiveColumns) {
+        if (originalData.getRowCount() == 0 || syntheticData.getRowCount() == 0)
+            return null;
+
+        List<String> targets = new ArrayList<>();
+        for (SensitiveCategory category : Arrays.asList(SensitiveCategory.MEDICAL, SensitiveCategory.FINANCIAL)) {
+            for (DatasetSchemaDTO.ColumnSchema column : sensitiveColumns.getOrDefault(category, List.of())) {
+                if (targets.size() < MAX_ATTACK_TARGETS)
+                    targets.add(column.getName());
+            }
+        }
+        List<String> predictors = new ArrayList<>();
+        for (DatasetSchemaDTO.ColumnSchema column : originalSchema.getColumns()) {
+            String name = column.getName();
+            if (syntheticData.column(name) != null && !targets.contains(name) && !isIdentifier(originalSchema, column)
+                    && predictors.size() < MAX_ATTACK_PREDICTORS)
+                predictors.add(name);
+        }
+        return attackSimulator.simulate(originalData, syntheticData, null, predictors, targets);
+    }
+
+    /** Sensitive columns of the original that the synthetic dataset also has, by category. */
+    private Map<SensitiveCategory, List<DatasetSchemaDTO.ColumnSchema>> sensitiveColumns(
+            DatasetSchemaDTO originalSchema, ColumnarTable syntheticData) {
+        Map<SensitiveCategory, List<DatasetSchemaDTO.ColumnSchema>> sensitiveColumns = new EnumMap<>(
+                SensitiveCategory.class);
+        for (DatasetSchemaDTO.ColumnSchema column : originalSchema.getColumns()) {
+            SensitiveCategory category = column.getDetectedPii() != null ? column.getDetectedPii().getCategory()
+                    : column.getNameCategory();
+            if (category != null && syntheticData.column(column.getName()) != null) {
+                sensitiveColumns.computeIfAbsent(category, c -> new ArrayList<>()).add(column);
+            }
+        }
+        return sensitiveColumns;
+    }
+
+    /** Whether nearly every non-null value of the column is distinct, as for names or record IDs. */
+    private boolean isIdentifier(DatasetSchemaDTO schema, DatasetSchemaDTO.ColumnSchema column) {
+        return column.getDistinctCount() >= IDENTIFIER_DISTINCT_RATIO * (schema.getRowCount() - column.getNullCount());
+    }
+
+    private double calculateMinimumRecordDistance(ColumnarTable original, ColumnarTable synthetic) {
+        if (original.getRowCount() == 0 || synthetic.getRowCount() == 0)
             return 1.0;
 
+        CellKeys[] originalKeys = new CellKeys[original.getColumnCount()];
+        CellKeys[] syntheticKeys = new CellKeys[original.getColumnCount()];
+        alignColumns(original, synthetic, originalKeys, syntheticKeys);
+
         double minDistance = Double.MAX_VALUE;
-        int sampleSize = Math.min(50, synthetic.size());
+        int sampleSize = Math.min(DISTANCE_SAMPLE, synthetic.getRowCount());
 
         for (int i = 0; i < sampleSize; i++) {
-            Map<String, String> syntheticRecord = synthetic.get(i);
-            for (int j = 0; j < Math.min(50, original.size()); j++) {
-                Map<String, String> originalRecord = original.get(j);
-                double distance = calculateRecordDistance(originalRecord, syntheticRecord);
+            for (int j = 0; j < Math.min(DISTANCE_SAMPLE, original.getRowCount()); j++) {
+                double distance = calculateRecordDistance(originalKeys, j, syntheticKeys, i);
                 minDistance = Math.min(minDistance, distance);
             }
         }
@@ -410,27 +916,31 @@ public class PrivacyReportService {
         return minDistance;
     }
 
-    private List<Map<String, String>> loadCsvData(String filePath) throws IOException {
-        List<Map<String, String>> data = new ArrayList<>();
-
-        try (BufferedReader reader = Files.newBufferedReader(Paths.get(filePath))) {
-            String headerLine = reader.readLine();
-            if (headerLine == null)
-                return data;
-
-            String[] headers = headerLine.split(",");
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] values = line.split(",");
-                Map<String, String> row = new HashMap<>();
-                for (int i = 0; i < Math.min(headers.length, values.length); i++) {
-                    row.put(headers[i].trim(), values[i].trim());
-                }
-                data.add(row);
-            }
+    /**
+     * Size of the dataset's (decompressed) content; 0 if it cannot be read,
+     * like {@link File#length()}.
+     */
+    private long contentSize(String filePath) {
+        try {
+            return CsvSource.contentSize(blobStore.fetch(filePath));
+        } catch (IOException e) {
+            log.warn("Could not determine size of {}: {}", filePath, e.getMessage());
+            return 0;
         }
+    }
+
+    /**
+     * Loads a dataset to compare against an original: shared columns are read
+     * as the original types them so both sides compare like for like.
+     */
+    private ColumnarTable loadAlongside(Dataset dataset, DatasetSchemaDTO schema,
+            Map<String, ColumnarTable.Kind> originalKinds) throws IOException {
+        Map<String, ColumnarTable.Kind> kinds = SchemaInferencer.kinds(schema);
+        kinds.putAll(originalKinds);
+        return loadTable(dataset.getFilePath(), kinds);
+    }
 
-        return data;
+    private ColumnarTable loadTable(String filePath, Map<String, ColumnarTable.Kind> kinds) throws IOException {
+        return mappedCsvReader.readTable(blobStore.fetch(filePath), kinds);
     }
 }
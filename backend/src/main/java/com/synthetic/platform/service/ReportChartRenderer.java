@@ -0,0 +1,218 @@
+package com.synthetic.platform.service;
+
+import com.synthetic.platform.dto.PrivacyReportDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders report charts (distribution comparisons and correlation heatmaps) as
+ * PNG images. Rendering is pure Java2D so it can run headless on any worker
+ * thread.
+ */
+@Service
+@Slf4j
+public class ReportChartRenderer {
+
+    private static final int DISTRIBUTION_WIDTH = 520;
+    private static final int DISTRIBUTION_HEIGHT = 220;
+    private static final int HEATMAP_CELL = 28;
+    private static final int HEATMAP_LABEL = 90;
+
+    private static final Color ORIGINAL_COLOR = new Color(70, 110, 190);
+    private static final Color SYNTHETIC_COLOR = new Color(240, 150, 60);
+    private static final Color AXIS_COLOR = new Color(120, 120, 120);
+    private static final java.awt.Font TITLE_FONT = new java.awt.Font(java.awt.Font.SANS_SERIF, java.awt.Font.BOLD,
+            12);
+    private static final java.awt.Font LABEL_FONT = new java.awt.Font(java.awt.Font.SANS_SERIF, java.awt.Font.PLAIN,
+            9);
+
+    /**
+     * Renders one grouped bar chart per analysed column. Columns without
+     * distribution data are skipped.
+     */
+    public List<byte[]> renderDistributions(List<PrivacyReportDTO.DistributionAnalysis> distributions)
+            throws IOException {
+        List<byte[]> charts = new ArrayList<>();
+        if (distributions == null)
+            return charts;
+
+        for (PrivacyReportDTO.DistributionAnalysis analysis : distributions) {
+            if (analysis.getOriginalDistribution() == null || analysis.getOriginalDistribution().isEmpty())
+                continue;
+            charts.add(renderDistribution(analysis));
+        }
+        return charts;
+    }
+
+    /**
+     * Renders original and synthetic correlation matrices side by side, or
+     * {@code null} when there are fewer than two numeric columns.
+     */
+    public byte[] renderCorrelationHeatmap(PrivacyReportDTO.CorrelationAnalysis analysis) throws IOException {
+        if (analysis == null || analysis.getOriginalCorrelations() == null
+                || analysis.getOriginalCorrelations().size() < 2)
+            return null;
+
+        List<String> columns = new ArrayList<>(analysis.getOriginalCorrelations().keySet());
+        int matrixSize = columns.size() * HEATMAP_CELL;
+        int width = 2 * (HEATMAP_LABEL + matrixSize) + 40;
+        int height = HEATMAP_LABEL + matrixSize + 30;
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = createGraphics(image);
+        try {
+            drawHeatmap(g, "Original correlations", columns, analysis.getOriginalCorrelations(), 0);
+            drawHeatmap(g, "Synthetic correlations", columns, analysis.getSyntheticCorrelations(),
+                    HEATMAP_LABEL + matrixSize + 40);
+        } finally {
+            g.dispose();
+        }
+        return toPng(image);
+    }
+
+    private byte[] renderDistribution(PrivacyReportDTO.DistributionAnalysis analysis) throws IOException {
+        Map<String, Double> original = analysis.getOriginalDistribution();
+        Map<String, Double> synthetic = analysis.getSyntheticDistribution();
+
+        BufferedImage image = new BufferedImage(DISTRIBUTION_WIDTH, DISTRIBUTION_HEIGHT,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = createGraphics(image);
+        try {
+            int left = 40, top = 30, bottom = DISTRIBUTION_HEIGHT - 45, right = DISTRIBUTION_WIDTH - 15;
+
+            g.setFont(TITLE_FONT);
+            g.setColor(Color.DARK_GRAY);
+            g.drawString(String.format("%s (JS divergence %.4f)", analysis.getColumnName(),
+                    analysis.getJsDivergence() != null ? analysis.getJsDivergence() : 0.0), left, 18);
+
+            double max = 0.0;
+            for (Double v : original.values())
+                max = Math.max(max, v);
+            if (synthetic != null)
+                for (Double v : synthetic.values())
+                    max = Math.max(max, v);
+            if (max <= 0)
+                max = 1.0;
+
+            g.setColor(AXIS_COLOR);
+            g.drawLine(left, bottom, right, bottom);
+            g.drawLine(left, top, left, bottom);
+
+            int groups = original.size();
+            double groupWidth = (double) (right - left) / groups;
+            int barWidth = Math.max(1, (int) (groupWidth * 0.38));
+            int i = 0;
+            g.setFont(LABEL_FONT);
+            for (Map.Entry<String, Double> entry : original.entrySet()) {
+                int x = left + (int) (i * groupWidth + groupWidth * 0.1);
+                double s = synthetic != null ? synthetic.getOrDefault(entry.getKey(), 0.0) : 0.0;
+                drawBar(g, x, bottom, top, barWidth, entry.getValue() / max, ORIGINAL_COLOR);
+                drawBar(g, x + barWidth, bottom, top, barWidth, s / max, SYNTHETIC_COLOR);
+
+                g.setColor(Color.DARK_GRAY);
+                g.drawString(abbreviate(entry.getKey(), (int) (groupWidth / 5)), x, bottom + 12 + (i % 2) * 10);
+                i++;
+            }
+
+            drawLegend(g, right - 150, DISTRIBUTION_HEIGHT - 12);
+        } finally {
+            g.dispose();
+        }
+        return toPng(image);
+    }
+
+    private void drawBar(Graphics2D g, int x, int bottom, int top, int width, double fraction, Color color) {
+        int h = (int) Math.round(fraction * (bottom - top));
+        g.setColor(color);
+        g.fillRect(x, bottom - h, width, h);
+    }
+
+    private void drawLegend(Graphics2D g, int x, int y) {
+        g.setFont(LABEL_FONT);
+        g.setColor(ORIGINAL_COLOR);
+        g.fillRect(x, y - 8, 10, 8);
+        g.setColor(Color.DARK_GRAY);
+        g.drawString("Original", x + 14, y);
+        g.setColor(SYNTHETIC_COLOR);
+        g.fillRect(x + 70, y - 8, 10, 8);
+        g.setColor(Color.DARK_GRAY);
+        g.drawString("Synthetic", x + 84, y);
+    }
+
+    private void drawHeatmap(Graphics2D g, String title, List<String> columns,
+            Map<String, Map<String, Double>> matrix, int offsetX) {
+        g.setFont(TITLE_FONT);
+        g.setColor(Color.DARK_GRAY);
+        g.drawString(title, offsetX + HEATMAP_LABEL, 16);
+
+        g.setFont(LABEL_FONT);
+        for (int i = 0; i < columns.size(); i++) {
+            int y = HEATMAP_LABEL + i * HEATMAP_CELL;
+            g.setColor(Color.DARK_GRAY);
+            g.drawString(abbreviate(columns.get(i), 14), offsetX + 4, y + HEATMAP_CELL / 2 + 4);
+
+            for (int j = 0; j < columns.size(); j++) {
+                int x = offsetX + HEATMAP_LABEL + j * HEATMAP_CELL;
+                double value = 0.0;
+                if (matrix != null && matrix.get(columns.get(i)) != null) {
+                    value = matrix.get(columns.get(i)).getOrDefault(columns.get(j), 0.0);
+                }
+                g.setColor(correlationColor(value));
+                g.fillRect(x, y, HEATMAP_CELL, HEATMAP_CELL);
+            }
+        }
+
+        // Column labels are drawn rotated above the matrix
+        Graphics2D rotated = (Graphics2D) g.create();
+        try {
+            rotated.setColor(Color.DARK_GRAY);
+            for (int j = 0; j < columns.size(); j++) {
+                int x = offsetX + HEATMAP_LABEL + j * HEATMAP_CELL + HEATMAP_CELL / 2 + 4;
+                rotated.translate(x, HEATMAP_LABEL - 4);
+                rotated.rotate(-Math.PI / 2);
+                rotated.drawString(abbreviate(columns.get(j), 12), 0, 0);
+                rotated.rotate(Math.PI / 2);
+                rotated.translate(-x, -(HEATMAP_LABEL - 4));
+            }
+        } finally {
+            rotated.dispose();
+        }
+    }
+
+    private Color correlationColor(double value) {
+        double v = Math.max(-1.0, Math.min(1.0, value));
+        int fade = (int) Math.round(255 * (1 - Math.abs(v)));
+        return v >= 0 ? new Color(255, fade, fade) : new Color(fade, fade, 255);
+    }
+
+    private Graphics2D createGraphics(BufferedImage image) {
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        return g;
+    }
+
+    private String abbreviate(String text, int maxLength) {
+        if (text == null)
+            return "";
+        int limit = Math.max(3, maxLength);
+        return text.length() <= limit ? text : text.substring(0, limit - 1) + "…";
+    }
+
+    private byte[] toPng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
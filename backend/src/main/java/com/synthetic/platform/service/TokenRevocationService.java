@@ -0,0 +1,82 @@
+package com.synthetic.platform.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.synthetic.platform.security.TokensRevokedEvent;
+import com.synthetic.platform.security.model.User;
+import com.synthetic.platform.security.repository.AuthUserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Decides whether a token's version is still the user's current one. Versions
+ * are cached per user for {@code app.jwt.revocation.cache-ttl-seconds}, so an
+ * authenticated request reads the auth database at most once per user per
+ * TTL; a {@link TokensRevokedEvent} evicts the entry at once.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    // Cached for unknown and disabled users; no token version matches it
+    private static final int NO_VALID_VERSION = -1;
+
+    private final AuthUserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserCache userCache;
+    private final Cache<String, Integer> currentVersions;
+
+    public TokenRevocationService(AuthUserRepository userRepository, ApplicationEventPublisher eventPublisher,
+            UserCache userCache,
+            @Value("${app.jwt.revocation.cache-ttl-seconds:30}") long cacheTtlSeconds,
+            @Value("${app.jwt.revocation.cache-max-size:10000}") long cacheMaxSize) {
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.userCache = userCache;
+        this.currentVersions = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+    }
+
+    public static int versionOf(User user) {
+        return user.getTokenVersion() != null ? user.getTokenVersion() : 0;
+    }
+
+    public boolean isCurrent(String username, int tokenVersion) {
+        return currentVersions.get(username, this::loadVersion) == tokenVersion;
+    }
+
+    /** Invalidates every token issued to {@code username} so far. */
+    public void revokeTokens(String username) {
+        if (userRepository.incrementTokenVersion(username) == 0) {
+            throw new IllegalArgumentException("User not found with username: " + username);
+        }
+        log.info("Revoked tokens of user {}", username);
+        eventPublisher.publishEvent(new TokensRevokedEvent(username));
+    }
+
+    @EventListener
+    public void onTokensRevoked(TokensRevokedEvent event) {
+        evict(event.getUsername());
+        userCache.removeUserFromCache(event.getUsername());
+    }
+
+    /** Drops the cached version of {@code username}, e.g. on a revocation broadcast from another node. */
+    public void evict(String username) {
+        currentVersions.invalidate(username);
+    }
+
+    private int loadVersion(String username) {
+        return userRepository.findByUsername(username)
+                .filter(user -> Boolean.TRUE.equals(user.getEnabled()))
+                .map(TokenRevocationService::versionOf)
+                .orElse(NO_VALID_VERSION);
+    }
+}
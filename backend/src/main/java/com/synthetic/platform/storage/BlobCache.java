@@ -0,0 +1,145 @@
+package com.synthetic.platform.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Node-local read-through cache of remote blobs, bounded in total size and
+ * evicted least recently used first. Files derived from a cached blob and kept
+ * next to it (its name plus a suffix, like row index sidecars) go with it.
+ * <p>
+ * Files found on disk from an earlier run are adopted when first looked up.
+ */
+@Slf4j
+class BlobCache {
+
+    private static final String TEMP_DIRECTORY = ".incoming";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Map<String, Long> entries = new LinkedHashMap<>(64, 0.75f, true); // key -> size, LRU order
+    private long totalBytes;
+
+    BlobCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        Path temp = this.directory.resolve(TEMP_DIRECTORY);
+        Files.createDirectories(temp);
+        // Leftovers of downloads interrupted by a restart
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(temp)) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+    }
+
+    /** Where {@code key} is (or would be) cached. */
+    Path path(String key) {
+        Path path = directory.resolve(key).normalize();
+        if (!path.startsWith(directory) || path.startsWith(directory.resolve(TEMP_DIRECTORY))) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        return path;
+    }
+
+    /**
+     * The cached copy of {@code key}, marked as recently used, or {@code null}
+     * if this node has none.
+     */
+    synchronized Path lookup(String key) throws IOException {
+        Path path = path(key);
+        if (!Files.exists(path)) {
+            Long size = entries.remove(key);
+            if (size != null)
+                totalBytes -= size;
+            return null;
+        }
+        if (entries.get(key) == null) {
+            long size = Files.size(path);
+            entries.put(key, size);
+            totalBytes += size;
+            evictOverflow(key);
+        }
+        return path;
+    }
+
+    /** A fresh temporary file in the cache's file system, for downloads. */
+    Path tempFile() {
+        return directory.resolve(TEMP_DIRECTORY).resolve(UUID.randomUUID() + ".tmp");
+    }
+
+    /**
+     * Moves {@code file} into the cache as the copy of {@code key} and evicts
+     * older entries if the cache is over its size limit.
+     */
+    synchronized Path admit(String key, Path file) throws IOException {
+        Path target = path(key);
+        Files.createDirectories(target.getParent());
+        if (!file.toAbsolutePath().startsWith(directory)) {
+            // The source may be on another file system; stage it here so the final rename is atomic
+            Path staged = tempFile();
+            Files.move(file, staged, StandardCopyOption.REPLACE_EXISTING);
+            file = staged;
+        }
+        Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        long size = Files.size(target);
+        Long previous = entries.put(key, size);
+        totalBytes += size - (previous != null ? previous : 0);
+        evictOverflow(key);
+        return target;
+    }
+
+    synchronized void evict(String key) {
+        Long size = entries.remove(key);
+        if (size != null)
+            totalBytes -= size;
+        deleteWithDerived(path(key));
+    }
+
+    private void evictOverflow(String keep) {
+        List<String> victims = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        long bytes = totalBytes;
+        while (bytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> entry = it.next();
+            if (entry.getKey().equals(keep))
+                continue;
+            victims.add(entry.getKey());
+            bytes -= entry.getValue();
+        }
+        for (String victim : victims) {
+            log.debug("Evicting {} from the blob cache", victim);
+            evict(victim);
+        }
+    }
+
+    private void deleteWithDerived(Path file) {
+        try {
+            Files.deleteIfExists(file);
+            if (Files.isDirectory(file.getParent())) {
+                String prefix = file.getFileName() + ".";
+                try (DirectoryStream<Path> siblings = Files.newDirectoryStream(file.getParent())) {
+                    for (Path sibling : siblings) {
+                        if (sibling.getFileName().toString().startsWith(prefix))
+                            Files.deleteIfExists(sibling);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Typically still open elsewhere on platforms that forbid deleting open files
+            log.warn("Failed to remove cached file {}: {}", file, e.getMessage());
+        }
+    }
+}
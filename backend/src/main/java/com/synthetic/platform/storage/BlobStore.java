@@ -0,0 +1,54 @@
+package com.synthetic.platform.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Durable storage for dataset blobs and model files, addressed by relative
+ * keys such as {@code blobs/ab/<hash>.csv.zst} or {@code models/model_<id>_<run>.pkl}
+ * (the paths kept on datasets and models).
+ * <p>
+ * Readers that need a file on disk (memory mapping, Python workers) go through
+ * {@link #fetch}, which returns a local copy: the file itself for the local
+ * backend, a read-through cache entry for remote ones. Cached copies are never
+ * revalidated, so an object is treated as immutable once written: new content
+ * goes under a new key.
+ */
+public interface BlobStore {
+
+    boolean exists(String key) throws IOException;
+
+    /** Size in bytes of the stored object. */
+    long size(String key) throws IOException;
+
+    /**
+     * Stores {@code source} under {@code key}, replacing any existing object.
+     * The source file is consumed: it is moved into place (or into the local
+     * cache) and must not be used afterwards.
+     */
+    void put(String key, Path source) throws IOException;
+
+    InputStream open(String key) throws IOException;
+
+    /**
+     * Stream over {@code length} bytes of the object starting at
+     * {@code offset}.
+     */
+    InputStream openRange(String key, long offset, long length) throws IOException;
+
+    /**
+     * A local file holding the object, downloading it first if this node has
+     * no copy yet.
+     */
+    Path fetch(String key) throws IOException;
+
+    /**
+     * Where this node keeps its local copy of {@code key}, whether or not it
+     * exists yet. Derived files (such as row index sidecars) live next to it.
+     */
+    Path localPath(String key);
+
+    /** Deletes the object and any local copy; returns whether it existed. */
+    boolean delete(String key) throws IOException;
+}
@@ -0,0 +1,217 @@
+package com.synthetic.platform.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Content-addressed blob storage. Files are hashed (SHA-256) while they are
+ * written to a local staging file and stored once in the {@link BlobStore}
+ * under their digest, so identical uploads share one blob and everything
+ * derived from a blob (row index, cached stats) is shared with it.
+ * <p>
+ * Blobs are written compressed in the zstd seekable format (see
+ * {@link SeekableZstdWriter}) unless compression is disabled. The digest is
+ * always taken over the uncompressed content, and blobs stored before
+ * compression was enabled keep being found and served as they are.
+ * <p>
+ * References are counted by the owner of the blobs (datasets per digest). A
+ * stored blob stays pinned until the caller's registration has committed, so a
+ * concurrent release of the last old reference cannot delete it in between.
+ * Pins are held in memory, so this covers uploads and deletes on the same node.
+ */
+@Component
+@Slf4j
+public class ContentStore {
+
+    static final String BLOB_DIRECTORY = "blobs";
+    static final String INCOMING_DIRECTORY = ".incoming";
+    static final String BLOB_EXTENSION = ".csv";
+    static final String COMPRESSED_EXTENSION = ".zst";
+
+    private static final int COPY_BUFFER_SIZE = 256 * 1024;
+    private static final int LOCK_STRIPES = 64;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final Map<String, Integer> pins = new ConcurrentHashMap<>();
+    private final BlobStore blobStore;
+
+    @Value("${app.storage.location}")
+    private String storageLocation;
+
+    @Value("${app.storage.compression.enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${app.storage.compression.level:3}")
+    private int compressionLevel;
+
+    @Value("${app.storage.compression.frame-size-kb:1024}")
+    private int frameSizeKb;
+
+    public ContentStore(BlobStore blobStore) {
+        this.blobStore = blobStore;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Streams {@code in} into storage, hashing (and compressing) it on the way.
+     * The returned blob is pinned; call {@link #unpin} once it is referenced
+     * (or abandoned).
+     */
+    public StoredBlob store(InputStream in) throws IOException {
+        Path incoming = incomingDirectory();
+        Files.createDirectories(incoming);
+        Path temp = incoming.resolve(UUID.randomUUID() + ".tmp");
+
+        MessageDigest digest = sha256();
+        long size;
+        try {
+            size = write(in, temp, digest);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return commit(temp, HexFormat.of().formatHex(digest.digest()), size, compressionEnabled);
+    }
+
+    /**
+     * Moves an already written file into storage, hashing it first. Used for
+     * files assembled out of order, such as chunked uploads. With compression
+     * enabled the file is compressed in the hashing pass and then deleted.
+     */
+    public StoredBlob storeFile(Path source) throws IOException {
+        if (compressionEnabled) {
+            StoredBlob blob;
+            try (InputStream in = Files.newInputStream(source)) {
+                blob = store(in);
+            }
+            Files.delete(source);
+            return blob;
+        }
+
+        MessageDigest digest = sha256();
+        try (InputStream in = Files.newInputStream(source)) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return commit(source, HexFormat.of().formatHex(digest.digest()), Files.size(source), false);
+    }
+
+    private long write(InputStream in, Path target, MessageDigest digest) throws IOException {
+        long size = 0;
+        OutputStream file = new BufferedOutputStream(Files.newOutputStream(target), COPY_BUFFER_SIZE);
+        try (OutputStream out = compressionEnabled
+                ? new SeekableZstdWriter(file, frameSizeKb * 1024, compressionLevel)
+                : file) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+                size += read;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Releases the pin taken by {@link #store} or {@link #storeFile}.
+     */
+    public void unpin(String hash) {
+        synchronized (lockFor(hash)) {
+            pins.computeIfPresent(hash, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Deletes the blob if {@code referenceCount} reports no remaining
+     * references and no upload of the same content is in flight. Returns
+     * whether the blob was deleted.
+     */
+    public boolean release(String hash, LongSupplier referenceCount) throws IOException {
+        synchronized (lockFor(hash)) {
+            if (pins.containsKey(hash) || referenceCount.getAsLong() > 0) {
+                return false;
+            }
+            boolean deleted = blobStore.delete(relativePath(hash, true));
+            deleted |= blobStore.delete(relativePath(hash, false));
+            if (deleted) {
+                log.info("Deleted blob {} after its last reference was removed", hash);
+            }
+            return deleted;
+        }
+    }
+
+    /**
+     * Storage key of the blob, as kept on datasets.
+     */
+    public String relativePath(String hash, boolean compressed) {
+        return BLOB_DIRECTORY + "/" + hash.substring(0, 2) + "/" + hash + BLOB_EXTENSION
+                + (compressed ? COMPRESSED_EXTENSION : "");
+    }
+
+    private StoredBlob commit(Path temp, String hash, long size, boolean compressed) throws IOException {
+        // Only the pin is taken under the lock. Once it is held a concurrent release cannot delete the
+        // blob, so the existence checks and the upload, a network transfer on remote stores, run unlocked.
+        // Two uploads of the same content may both write it, which leaves the same bytes under its key.
+        synchronized (lockFor(hash)) {
+            pins.merge(hash, 1, Integer::sum);
+        }
+        boolean deduplicated;
+        try {
+            // Either variant holds the same content, so a blob stored before a compression change still counts
+            if (blobStore.exists(relativePath(hash, !compressed))) {
+                compressed = !compressed;
+            }
+            String key = relativePath(hash, compressed);
+            if (blobStore.exists(key)) {
+                Files.delete(temp);
+                deduplicated = true;
+            } else {
+                blobStore.put(key, temp);
+                deduplicated = false;
+            }
+        } catch (IOException | RuntimeException e) {
+            unpin(hash);
+            throw e;
+        }
+        log.debug("Stored blob {} ({} bytes, {})", hash, size, deduplicated ? "deduplicated" : "new");
+        return new StoredBlob(hash, relativePath(hash, compressed), size, deduplicated);
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private Path incomingDirectory() {
+        return Paths.get(storageLocation, INCOMING_DIRECTORY);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.synthetic.platform.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@link BlobStore} on an S3-compatible object store (AWS S3, MinIO, ...), so
+ * several backend nodes share the same datasets and models.
+ * <p>
+ * Objects larger than one part are uploaded with multipart uploads and
+ * downloaded with ranged GETs, both running their parts in parallel. Files
+ * needed on disk are served from a node-local {@link BlobCache}; files this
+ * node uploads go straight into it.
+ */
+@Slf4j
+public class S3BlobStore implements BlobStore, Closeable {
+
+    /** S3 rejects smaller parts except for the last one. */
+    static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private static final int COPY_BUFFER_SIZE = 256 * 1024;
+
+    private final S3Client s3;
+    private final String bucket;
+    private final String prefix;
+    private final long partSize;
+    private final ExecutorService transfers;
+    private final BlobCache cache;
+    private final Map<String, CompletableFuture<Path>> downloads = new ConcurrentHashMap<>();
+
+    public S3BlobStore(S3Client s3, String bucket, String prefix, long partSize, ExecutorService transfers,
+            Path cacheDirectory, long cacheMaxBytes) throws IOException {
+        if (partSize < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("Part size must be at least " + MIN_PART_SIZE + " bytes");
+        }
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.prefix = prefix == null || prefix.isEmpty() || prefix.endsWith("/") ? prefix : prefix + "/";
+        this.partSize = partSize;
+        this.transfers = transfers;
+        this.cache = new BlobCache(cacheDirectory, cacheMaxBytes);
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        return head(key) != null;
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        HeadObjectResponse head = head(key);
+        if (head == null) {
+            throw new NoSuchFileException(key);
+        }
+        return head.contentLength();
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        long size = Files.size(source);
+        long start = System.currentTimeMillis();
+        try {
+            if (size <= partSize) {
+                s3.putObject(PutObjectRequest.builder().bucket(bucket).key(objectKey(key)).build(),
+                        RequestBody.fromFile(source));
+            } else {
+                multipartUpload(key, source, size);
+            }
+        } catch (S3Exception e) {
+            throw new IOException("Upload of " + key + " failed: " + e.getMessage(), e);
+        }
+        log.debug("Uploaded {} ({} bytes) in {} ms", key, size, System.currentTimeMillis() - start);
+        cache.admit(key, source);
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        Path cached = cache.lookup(key);
+        if (cached != null) {
+            return Files.newInputStream(cached);
+        }
+        return get(key, null);
+    }
+
+    @Override
+    public InputStream openRange(String key, long offset, long length) throws IOException {
+        if (length <= 0) {
+            return InputStream.nullInputStream();
+        }
+        Path cached = cache.lookup(key);
+        if (cached != null) {
+            FileChannel channel = FileChannel.open(cached, StandardOpenOption.READ);
+            channel.position(offset);
+            return new BoundedInputStream(Channels.newInputStream(channel), length);
+        }
+        return get(key, "bytes=" + offset + "-" + (offset + length - 1));
+    }
+
+    /**
+     * The cached copy of {@code key}, downloaded first if needed. Concurrent
+     * callers for the same key share one download.
+     */
+    @Override
+    public Path fetch(String key) throws IOException {
+        Path cached = cache.lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<Path> download = new CompletableFuture<>();
+        CompletableFuture<Path> running = downloads.putIfAbsent(key, download);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            Path path = download(key);
+            download.complete(path);
+            return path;
+        } catch (IOException | RuntimeException e) {
+            download.completeExceptionally(e);
+            throw e;
+        } finally {
+            downloads.remove(key, download);
+        }
+    }
+
+    @Override
+    public Path localPath(String key) {
+        return cache.path(key);
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        boolean existed = exists(key);
+        if (existed) {
+            try {
+                s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(objectKey(key)).build());
+            } catch (S3Exception e) {
+                throw new IOException("Delete of " + key + " failed: " + e.getMessage(), e);
+            }
+        }
+        cache.evict(key);
+        return existed;
+    }
+
+    @Override
+    public void close() {
+        transfers.shutdown();
+        s3.close();
+    }
+
+    private void multipartUpload(String key, Path source, long size) throws IOException {
+        String objectKey = objectKey(key);
+        String uploadId = s3.createMultipartUpload(
+                CreateMultipartUploadRequest.builder().bucket(bucket).key(objectKey).build()).uploadId();
+        try {
+            int partCount = (int) ((size + partSize - 1) / partSize);
+            List<CompletableFuture<CompletedPart>> parts = new ArrayList<>(partCount);
+            for (int i = 0; i < partCount; i++) {
+                int partNumber = i + 1;
+                long offset = i * partSize;
+                int length = (int) Math.min(partSize, size - offset);
+                parts.add(CompletableFuture.supplyAsync(
+                        () -> uploadPart(source, objectKey, uploadId, partNumber, offset, length), transfers));
+            }
+            List<CompletedPart> completed = new ArrayList<>(partCount);
+            for (CompletableFuture<CompletedPart> part : parts) {
+                completed.add(await(part));
+            }
+            s3.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completed).build())
+                    .build());
+        } catch (IOException | RuntimeException e) {
+            try {
+                s3.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                        .bucket(bucket).key(objectKey).uploadId(uploadId).build());
+            } catch (S3Exception abortFailure) {
+                e.addSuppressed(abortFailure);
+            }
+            throw e;
+        }
+    }
+
+    private CompletedPart uploadPart(Path source, String objectKey, String uploadId, int partNumber, long offset,
+            int length) {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("File shrank during upload: " + source);
+                }
+            }
+            String eTag = s3.uploadPart(UploadPartRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .partNumber(partNumber)
+                    .contentLength((long) length)
+                    .build(), RequestBody.fromBytes(buffer.array())).eTag();
+            return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Downloads {@code key} into the cache, fetching parts with parallel ranged
+     * GETs written straight to their offsets.
+     */
+    private Path download(String key) throws IOException {
+        long size = size(key);
+        long start = System.currentTimeMillis();
+        Path temp = cache.tempFile();
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                int partCount = (int) Math.max(1, (size + partSize - 1) / partSize);
+                List<CompletableFuture<Void>> parts = new ArrayList<>(partCount);
+                for (int i = 0; i < partCount; i++) {
+                    long offset = i * partSize;
+                    long length = Math.min(partSize, size - offset);
+                    parts.add(CompletableFuture.runAsync(() -> downloadPart(key, channel, offset, length), transfers));
+                }
+                for (CompletableFuture<Void> part : parts) {
+                    await(part);
+                }
+            }
+            Path path = cache.admit(key, temp);
+            log.debug("Downloaded {} ({} bytes) in {} ms", key, size, System.currentTimeMillis() - start);
+            return path;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void downloadPart(String key, FileChannel channel, long offset, long length) {
+        if (length <= 0)
+            return;
+        try (InputStream in = get(key, "bytes=" + offset + "-" + (offset + length - 1))) {
+            byte[] block = new byte[COPY_BUFFER_SIZE];
+            long position = offset;
+            int read;
+            while ((read = in.read(block)) > 0) {
+                ByteBuffer buffer = ByteBuffer.wrap(block, 0, read);
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+            }
+            if (position != offset + length) {
+                throw new IOException("Short read of " + key + " at offset " + offset);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ResponseInputStream<GetObjectResponse> get(String key, String range) throws IOException {
+        try {
+            return s3.getObject(GetObjectRequest.builder().bucket(bucket).key(objectKey(key)).range(range).build());
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(key);
+        } catch (S3Exception e) {
+            throw new IOException("Download of " + key + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    private HeadObjectResponse head(String key) throws IOException {
+        try {
+            return s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(objectKey(key)).build());
+        } catch (NoSuchKeyException e) {
+            return null;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return null;
+            }
+            throw new IOException("Lookup of " + key + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    private String objectKey(String key) {
+        return prefix == null || prefix.isEmpty() ? key : prefix + key;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+}
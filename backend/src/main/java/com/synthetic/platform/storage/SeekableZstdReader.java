@@ -0,0 +1,151 @@
+package com.synthetic.platform.storage;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Random access to a file in the zstd seekable format written by
+ * {@link SeekableZstdWriter}. Positions are offsets into the decompressed
+ * content; only the frames covering a read are decompressed. Frame reads are
+ * positional, so one reader can serve several threads.
+ */
+public class SeekableZstdReader implements Closeable {
+
+    private final FileChannel channel;
+    private final long[] compressedOffsets;   // frameCount + 1 entries
+    private final long[] decompressedOffsets; // frameCount + 1 entries
+
+    public SeekableZstdReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            if (fileSize < SeekableZstdWriter.FOOTER_SIZE) {
+                throw new IOException("Not a seekable zstd file: " + file);
+            }
+            ByteBuffer footer = readFully(fileSize - SeekableZstdWriter.FOOTER_SIZE, SeekableZstdWriter.FOOTER_SIZE);
+            int frames = footer.getInt();
+            byte descriptor = footer.get();
+            if (footer.getInt() != SeekableZstdWriter.SEEKABLE_MAGIC || (descriptor & 0x7C) != 0) {
+                throw new IOException("Not a seekable zstd file: " + file);
+            }
+            int entrySize = SeekableZstdWriter.ENTRY_SIZE + ((descriptor & 0x80) != 0 ? 4 : 0);
+            long tableSize = (long) frames * entrySize;
+            // The skippable frame header (magic and size) sits just before the entries
+            long tableStart = fileSize - SeekableZstdWriter.FOOTER_SIZE - tableSize - 8;
+            if (frames < 0 || tableStart < 0 || tableSize > Integer.MAX_VALUE - 8) {
+                throw new IOException("Truncated seek table in " + file);
+            }
+            ByteBuffer table = readFully(tableStart, (int) tableSize + 8);
+            if (table.getInt() != SeekableZstdWriter.SKIPPABLE_MAGIC
+                    || table.getInt() != tableSize + SeekableZstdWriter.FOOTER_SIZE) {
+                throw new IOException("Corrupt seek table in " + file);
+            }
+
+            compressedOffsets = new long[frames + 1];
+            decompressedOffsets = new long[frames + 1];
+            for (int i = 0; i < frames; i++) {
+                compressedOffsets[i + 1] = compressedOffsets[i] + Integer.toUnsignedLong(table.getInt());
+                decompressedOffsets[i + 1] = decompressedOffsets[i] + Integer.toUnsignedLong(table.getInt());
+                if (entrySize > SeekableZstdWriter.ENTRY_SIZE)
+                    table.getInt();
+            }
+            if (compressedOffsets[frames] != tableStart) {
+                throw new IOException("Seek table does not match the frames of " + file);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Size of the decompressed content. */
+    public long size() {
+        return decompressedOffsets[decompressedOffsets.length - 1];
+    }
+
+    public int frameCount() {
+        return decompressedOffsets.length - 1;
+    }
+
+    /** Decompressed offset at which frame {@code index} starts. */
+    public long frameStart(int index) {
+        return decompressedOffsets[index];
+    }
+
+    public int frameLength(int index) {
+        return (int) (decompressedOffsets[index + 1] - decompressedOffsets[index]);
+    }
+
+    /** Index of the frame containing decompressed offset {@code position}. */
+    public int frameAt(long position) {
+        int i = Arrays.binarySearch(decompressedOffsets, position);
+        int frame = i >= 0 ? i : -i - 2;
+        return Math.min(frame, frameCount() - 1);
+    }
+
+    public byte[] decompressFrame(int index) throws IOException {
+        int compressedSize = (int) (compressedOffsets[index + 1] - compressedOffsets[index]);
+        byte[] compressed = readFully(compressedOffsets[index], compressedSize).array();
+        byte[] content = new byte[frameLength(index)];
+        long result = Zstd.decompressByteArray(content, 0, content.length, compressed, 0, compressed.length);
+        if (Zstd.isError(result)) {
+            throw new IOException("zstd frame " + index + " is corrupt: " + Zstd.getErrorName(result));
+        }
+        return content;
+    }
+
+    /**
+     * Sequential stream over the decompressed content, one frame at a time.
+     */
+    public InputStream openStream() {
+        return new InputStream() {
+            private int frame;
+            private byte[] current = new byte[0];
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] dst, int offset, int length) throws IOException {
+                while (position == current.length) {
+                    if (frame == frameCount())
+                        return -1;
+                    current = decompressFrame(frame++);
+                    position = 0;
+                }
+                int n = Math.min(length, current.length - position);
+                System.arraycopy(current, position, dst, offset, n);
+                position += n;
+                return n;
+            }
+        };
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of compressed file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
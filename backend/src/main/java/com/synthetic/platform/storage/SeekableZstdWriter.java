@@ -0,0 +1,141 @@
+package com.synthetic.platform.storage;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Writes the zstd seekable format: a sequence of independent zstd frames
+ * followed by a seek table in a skippable frame, so any frame can be located
+ * and decompressed on its own. Standard zstd tools still decompress the file
+ * as a whole.
+ * <p>
+ * Frames are cut at the last newline before the frame size is reached, so
+ * every frame holds whole CSV lines and can be parsed independently. A line
+ * longer than the frame size makes that one frame larger.
+ */
+public class SeekableZstdWriter extends OutputStream {
+
+    static final int SKIPPABLE_MAGIC = 0x184D2A5E;
+    static final int SEEKABLE_MAGIC = 0x8F92EAB1;
+    static final int FOOTER_SIZE = 9;
+    static final int ENTRY_SIZE = 8;
+
+    private final OutputStream out;
+    private final int frameSize;
+    private final int level;
+
+    private byte[] buffer;
+    private int length;
+    private int[] compressedSizes = new int[64];
+    private int[] decompressedSizes = new int[64];
+    private int frames;
+    private long compressedBytes;
+    private boolean closed;
+
+    public SeekableZstdWriter(OutputStream out, int frameSize, int level) {
+        this.out = out;
+        this.frameSize = frameSize;
+        this.level = level;
+        this.buffer = new byte[frameSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] src, int offset, int count) throws IOException {
+        while (count > 0) {
+            if (length == buffer.length) {
+                emitLines();
+            }
+            int n = Math.min(count, buffer.length - length);
+            System.arraycopy(src, offset, buffer, length, n);
+            length += n;
+            offset += n;
+            count -= n;
+        }
+    }
+
+    /**
+     * Compresses the buffered complete lines as one frame and keeps the
+     * trailing partial line, or grows the buffer if it holds no line break.
+     */
+    private void emitLines() throws IOException {
+        int cut = length;
+        while (cut > 0 && buffer[cut - 1] != '\n')
+            cut--;
+        if (cut == 0) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            return;
+        }
+        emitFrame(cut);
+        System.arraycopy(buffer, cut, buffer, 0, length - cut);
+        length -= cut;
+        if (buffer.length > frameSize && length < frameSize) {
+            buffer = Arrays.copyOf(buffer, frameSize);
+        }
+    }
+
+    private void emitFrame(int size) throws IOException {
+        byte[] compressed = new byte[(int) Zstd.compressBound(size)];
+        long written = Zstd.compressByteArray(compressed, 0, compressed.length, buffer, 0, size, level);
+        if (Zstd.isError(written)) {
+            throw new IOException("zstd compression failed: " + Zstd.getErrorName(written));
+        }
+        out.write(compressed, 0, (int) written);
+
+        if (frames == compressedSizes.length) {
+            compressedSizes = Arrays.copyOf(compressedSizes, frames * 2);
+            decompressedSizes = Arrays.copyOf(decompressedSizes, frames * 2);
+        }
+        compressedSizes[frames] = (int) written;
+        decompressedSizes[frames] = size;
+        frames++;
+        compressedBytes += written;
+    }
+
+    /** Compressed bytes written so far, excluding the seek table. */
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        if (length > 0) {
+            emitFrame(length);
+            length = 0;
+        }
+        writeSeekTable();
+        out.close();
+    }
+
+    private void writeSeekTable() throws IOException {
+        int tableSize = frames * ENTRY_SIZE + FOOTER_SIZE;
+        ByteBuffer table = ByteBuffer.allocate(8 + tableSize).order(ByteOrder.LITTLE_ENDIAN);
+        table.putInt(SKIPPABLE_MAGIC);
+        table.putInt(tableSize);
+        for (int i = 0; i < frames; i++) {
+            table.putInt(compressedSizes[i]);
+            table.putInt(decompressedSizes[i]);
+        }
+        table.putInt(frames);
+        table.put((byte) 0); // descriptor: no per-frame checksums
+        table.putInt(SEEKABLE_MAGIC);
+        out.write(table.array());
+    }
+}
@@ -0,0 +1,17 @@
+package com.synthetic.platform.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A blob written to {@link ContentStore}.
+ */
+@Data
+@AllArgsConstructor
+public class StoredBlob {
+
+    private String hash;
+    private String relativePath;
+    private long size;
+    private boolean deduplicated; // true if identical content was already stored
+}
@@ -0,0 +1,47 @@
+package com.synthetic.platform.synthesis;
+
+import com.synthetic.platform.data.CsvText;
+import com.synthetic.platform.service.OrderedBatchExecutor;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * Writes sampled rows as CSV: the header, then the rows generated in parallel
+ * chunks of a fixed size and written in order. Each chunk draws from its own
+ * generator derived from the seed and its index, so a seed always produces
+ * the same output however the chunks are scheduled.
+ */
+public final class ChunkedCsvWriter {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** Generates one chunk of rows, each ending in a newline. */
+    @FunctionalInterface
+    public interface ChunkGenerator {
+        byte[] rows(int count, SplittableRandom random);
+    }
+
+    private ChunkedCsvWriter() {
+    }
+
+    public static void write(List<String> header, long count, int rowsPerChunk, long seed, ChunkGenerator generator,
+            Executor executor, int parallelism, OutputStream out) throws Exception {
+        StringBuilder text = new StringBuilder();
+        CsvText.appendHeader(text, header);
+        out.write(text.toString().getBytes(StandardCharsets.UTF_8));
+
+        List<Callable<byte[]>> tasks = new ArrayList<>();
+        for (long from = 0; from < count; from += rowsPerChunk) {
+            long chunk = from / rowsPerChunk;
+            int size = (int) Math.min(rowsPerChunk, count - from);
+            tasks.add(() -> generator.rows(size, new SplittableRandom(seed ^ (chunk * GOLDEN_GAMMA))));
+        }
+        OrderedBatchExecutor.run(tasks, executor, parallelism, (index, bytes) -> out.write(bytes));
+    }
+}
@@ -0,0 +1,40 @@
+package com.synthetic.platform.synthesis;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A Gaussian copula fitted by {@link GaussianCopulaSynthesizer}: each
+ * column's marginal distribution, and the correlation of the columns' normal
+ * scores. Stored as JSON.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GaussianCopulaModel {
+
+    private int version;
+    private List<Column> columns;
+    private double[][] correlation;
+
+    /** Marginal distribution of one column. */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Column {
+        private String name;
+        private boolean numeric;
+        private boolean integral;
+        private double missingRate; // numeric only, drawn independently; an empty category is an ordinary category
+        private double[] quantiles; // numeric: values at evenly spaced probabilities from 0 to 1
+        private List<String> categories; // categorical: most frequent first
+        private boolean other; // categorical: a last frequency for the rarer values, sampled as empty
+        private double[] frequencies; // categorical: share of each category (and "other"), summing to 1
+    }
+}
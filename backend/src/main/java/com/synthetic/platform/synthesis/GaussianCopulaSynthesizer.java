@@ -0,0 +1,356 @@
+package com.synthetic.platform.synthesis;
+
+import com.synthetic.platform.data.ColumnarTable;
+import com.synthetic.platform.data.CsvText;
+import com.synthetic.platform.service.ParallelTasks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+
+/**
+ * Gaussian copula synthesizer. Every column is mapped to a standard normal
+ * score through its empirical distribution (a table of quantiles for numbers,
+ * cumulative frequencies for categories), the correlation of the scores is
+ * estimated, and new rows are drawn as correlated normals through the
+ * Cholesky factor and mapped back through the inverse marginals.
+ * <p>
+ * Values held by fewer than {@link #MIN_COUNT} records are not reproduced:
+ * rarer categories are merged into one "other" category, written as empty,
+ * and the quantile table of a numeric column is clamped to its
+ * {@code MIN_COUNT}-th smallest and largest values, so neither identifiers
+ * nor the extreme records are copied into the output.
+ * <p>
+ * Fitting is a sort per column plus one pass over a sample of rows; sampling
+ * is a triangular matrix-vector product per row, in parallel chunks that each
+ * own their random generator.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GaussianCopulaSynthesizer {
+
+    public static final int VERSION = 2;
+    public static final int MIN_COUNT = 5;
+
+    private static final int QUANTILE_INTERVALS = 1024;
+    private static final int MAX_CATEGORIES = 1000; // the most frequent; the rest join "other" too
+    private static final int CORRELATION_SAMPLE = 100_000;
+    private static final double INITIAL_SHRINKAGE = 1e-6;
+    private static final double U_EPSILON = 1e-9;
+    private static final int ROWS_PER_TASK = 1 << 15;
+
+    @Qualifier("computeExecutor")
+    private final Executor executor;
+    private final int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    public GaussianCopulaModel fit(ColumnarTable data) {
+        int columns = data.getColumnCount();
+        int rows = data.getRowCount();
+        if (columns == 0 || rows == 0) {
+            throw new IllegalArgumentException("Dataset has no rows or columns to synthesize from");
+        }
+        long start = System.currentTimeMillis();
+
+        List<GaussianCopulaModel.Column> fitted = ParallelTasks.map(columns, c -> marginal(data.column(c)), executor);
+
+        // Normal scores of an evenly spaced sample of rows, one array per column
+        int sampleSize = Math.min(rows, CORRELATION_SAMPLE);
+        double[][] scores = new double[columns][];
+        ParallelTasks.forEach(columns, c -> scores[c] = scores(data.column(c), fitted.get(c), sampleSize), executor);
+
+        double[][] correlation = correlation(scores);
+        log.debug("Fitted Gaussian copula over {} columns and {} rows in {} ms", columns, rows,
+                System.currentTimeMillis() - start);
+        return GaussianCopulaModel.builder()
+                .version(VERSION)
+                .columns(fitted)
+                .correlation(correlation)
+                .build();
+    }
+
+    /** Writes {@code count} sampled rows as CSV, with a header, to {@code out}. */
+    public void sample(GaussianCopulaModel model, long count, long seed, OutputStream out) throws Exception {
+        List<GaussianCopulaModel.Column> columns = model.getColumns();
+        double[][] factor = cholesky(model.getCorrelation());
+        double[][] cumulative = new double[columns.size()][];
+        for (int c = 0; c < columns.size(); c++) {
+            double[] frequencies = columns.get(c).getFrequencies();
+            if (frequencies != null) {
+                cumulative[c] = new double[frequencies.length];
+                double sum = 0;
+                for (int k = 0; k < frequencies.length; k++) {
+                    sum += frequencies[k];
+                    cumulative[c][k] = sum;
+                }
+            }
+        }
+
+        ChunkedCsvWriter.write(columns.stream().map(GaussianCopulaModel.Column::getName).toList(), count,
+                ROWS_PER_TASK, seed, (size, random) -> rows(columns, factor, cumulative, size, random), executor,
+                parallelism, out);
+    }
+
+    private static byte[] rows(List<GaussianCopulaModel.Column> columns, double[][] factor, double[][] cumulative,
+            int count, SplittableRandom random) {
+        // Missing values are drawn independently, so they do not dilute the correlations of the values
+        int d = columns.size();
+        double[] independent = new double[d];
+        StringBuilder text = new StringBuilder(count * d * 8);
+        for (int row = 0; row < count; row++) {
+            for (int c = 0; c < d; c++) {
+                independent[c] = random.nextGaussian();
+            }
+            for (int c = 0; c < d; c++) {
+                double[] weights = factor[c];
+                double z = 0;
+                for (int k = 0; k <= c; k++) {
+                    z += weights[k] * independent[k];
+                }
+                if (c > 0)
+                    text.append(',');
+                GaussianCopulaModel.Column column = columns.get(c);
+                if (column.getMissingRate() == 0 || random.nextDouble() >= column.getMissingRate())
+                    appendValue(text, column, cumulative[c], Normal.cdf(z));
+            }
+            text.append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendValue(StringBuilder text, GaussianCopulaModel.Column column, double[] cumulative,
+            double u) {
+        if (!column.isNumeric()) {
+            int k = Arrays.binarySearch(cumulative, u);
+            k = Math.min(k >= 0 ? k : -k - 1, cumulative.length - 1);
+            if (k < column.getCategories().size())
+                CsvText.appendField(text, column.getCategories().get(k));
+            return; // "other" is written as empty
+        }
+        if (column.getQuantiles() == null)
+            return;
+        double value = quantile(column.getQuantiles(), u);
+        if (column.isIntegral()) {
+            text.append(Math.round(value));
+        } else {
+            CsvText.appendDecimal(text, value);
+        }
+    }
+
+    private static GaussianCopulaModel.Column marginal(ColumnarTable.Column column) {
+        GaussianCopulaModel.Column.ColumnBuilder marginal = GaussianCopulaModel.Column.builder()
+                .name(column.getName())
+                .numeric(column.isNumeric())
+                .integral(column.isIntegral());
+        if (column.isNumeric()) {
+            double[] values = column.getValues();
+            double[] present = new double[values.length];
+            int n = 0;
+            for (double value : values) {
+                if (!Double.isNaN(value))
+                    present[n++] = value;
+            }
+            marginal.missingRate((double) (values.length - n) / values.length);
+            if (n == 0) {
+                return marginal.build();
+            }
+            Arrays.sort(present, 0, n);
+            // With fewer values than both tails need, everything collapses onto the median
+            int tail = Math.min(MIN_COUNT - 1, (n - 1) / 2);
+            double low = present[tail];
+            double high = present[n - 1 - tail];
+            double[] quantiles = new double[QUANTILE_INTERVALS + 1];
+            for (int i = 0; i <= QUANTILE_INTERVALS; i++) {
+                double position = (double) i * (n - 1) / QUANTILE_INTERVALS;
+                int below = (int) position;
+                int above = Math.min(n - 1, below + 1);
+                double value = present[below] + (position - below) * (present[above] - present[below]);
+                quantiles[i] = Math.max(low, Math.min(high, value));
+            }
+            return marginal.quantiles(quantiles).build();
+        }
+
+        long[] counts = new long[column.getCardinality()];
+        for (int code : column.getCodes()) {
+            counts[code]++;
+        }
+        Integer[] codes = new Integer[counts.length];
+        for (int code = 0; code < codes.length; code++) {
+            codes[code] = code;
+        }
+        Arrays.sort(codes, (a, b) -> Long.compare(counts[b], counts[a]));
+        int kept = 0;
+        while (kept < Math.min(codes.length, MAX_CATEGORIES) && counts[codes[kept]] >= MIN_COUNT) {
+            kept++;
+        }
+        long rows = column.getCodes().length;
+        long other = rows;
+        for (int k = 0; k < kept; k++) {
+            other -= counts[codes[k]];
+        }
+        List<String> categories = new ArrayList<>(kept);
+        double[] frequencies = new double[other > 0 ? kept + 1 : kept];
+        for (int k = 0; k < kept; k++) {
+            categories.add(column.getDictionary()[codes[k]]);
+            frequencies[k] = (double) counts[codes[k]] / rows;
+        }
+        if (other > 0) {
+            frequencies[kept] = (double) other / rows;
+        }
+        return marginal.categories(categories).frequencies(frequencies).other(other > 0).build();
+    }
+
+    /**
+     * Normal scores of {@code sampleSize} evenly spaced rows, NaN where the
+     * value is missing. A value maps to the middle of the probability range
+     * its marginal gives it, so ties and categories land on one score each
+     * instead of spreading.
+     */
+    private static double[] scores(ColumnarTable.Column column, GaussianCopulaModel.Column marginal,
+            int sampleSize) {
+        int rows = column.getCodes() != null ? column.getCodes().length : column.getValues().length;
+        double[] scores = new double[sampleSize];
+        double[] byCode = null;
+        if (!column.isNumeric()) {
+            // Categories outside the model share the score of "other"
+            Map<String, Double> modelled = new HashMap<>();
+            double below = 0;
+            for (int k = 0; k < marginal.getCategories().size(); k++) {
+                double frequency = marginal.getFrequencies()[k];
+                modelled.put(marginal.getCategories().get(k), Normal.inverse(clamp(below + frequency / 2)));
+                below += frequency;
+            }
+            double other = marginal.isOther() ? Normal.inverse(clamp(below + (1 - below) / 2)) : 0;
+            byCode = new double[column.getCardinality()];
+            for (int code = 0; code < byCode.length; code++) {
+                byCode[code] = modelled.getOrDefault(column.getDictionary()[code], other);
+            }
+        }
+        for (int i = 0; i < sampleSize; i++) {
+            int row = (int) ((long) i * rows / sampleSize);
+            if (byCode != null) {
+                scores[i] = byCode[column.getCodes()[row]];
+                continue;
+            }
+            double value = column.getValues()[row];
+            scores[i] = Double.isNaN(value) ? Double.NaN
+                    : Normal.inverse(clamp(probability(marginal.getQuantiles(), value)));
+        }
+        return scores;
+    }
+
+    /** Inverse of {@link #quantile}: the probability at which {@code value} falls, mid-range for ties. */
+    private static double probability(double[] quantiles, double value) {
+        int first = lowerBound(quantiles, value);
+        int last = lowerBound(quantiles, Math.nextUp(value));
+        if (last > first) {
+            return (first + last - 1) / 2.0 / QUANTILE_INTERVALS;
+        }
+        if (first == 0)
+            return 0;
+        if (first == quantiles.length)
+            return 1;
+        double fraction = (value - quantiles[first - 1]) / (quantiles[first] - quantiles[first - 1]);
+        return (first - 1 + fraction) / QUANTILE_INTERVALS;
+    }
+
+    private static double quantile(double[] quantiles, double p) {
+        double position = Math.max(0, Math.min(1, p)) * QUANTILE_INTERVALS;
+        int below = Math.min(QUANTILE_INTERVALS - 1, (int) position);
+        return quantiles[below] + (position - below) * (quantiles[below + 1] - quantiles[below]);
+    }
+
+    private static int lowerBound(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    private static double clamp(double u) {
+        return Math.max(U_EPSILON, Math.min(1 - U_EPSILON, u));
+    }
+
+    /** Pearson correlation of every pair of columns, over the rows where both have a score. */
+    private double[][] correlation(double[][] scores) {
+        int d = scores.length;
+        double[][] correlation = new double[d][d];
+        ParallelTasks.forEach(d, a -> {
+            correlation[a][a] = 1;
+            for (int b = 0; b < a; b++) {
+                double r = pearson(scores[a], scores[b]);
+                correlation[a][b] = r;
+                correlation[b][a] = r;
+            }
+        }, executor);
+        return correlation;
+    }
+
+    private static double pearson(double[] x, double[] y) {
+        long n = 0;
+        double sx = 0, sy = 0, sxx = 0, syy = 0, sxy = 0;
+        for (int k = 0; k < x.length; k++) {
+            if (Double.isNaN(x[k]) || Double.isNaN(y[k]))
+                continue;
+            n++;
+            sx += x[k];
+            sy += y[k];
+            sxx += x[k] * x[k];
+            syy += y[k] * y[k];
+            sxy += x[k] * y[k];
+        }
+        double varianceX = sxx - sx * sx / n;
+        double varianceY = syy - sy * sy / n;
+        if (n < 2 || varianceX <= 0 || varianceY <= 0)
+            return 0;
+        return Math.max(-1, Math.min(1, (sxy - sx * sy / n) / Math.sqrt(varianceX * varianceY)));
+    }
+
+    /**
+     * Lower Cholesky factor of {@code correlation}. A matrix that is not
+     * positive definite, as with perfectly dependent columns, is shrunk
+     * towards the identity until it is.
+     */
+    static double[][] cholesky(double[][] correlation) {
+        int d = correlation.length;
+        double shrinkage = 0;
+        while (true) {
+            double[][] factor = new double[d][];
+            boolean definite = true;
+            for (int i = 0; i < d && definite; i++) {
+                factor[i] = new double[i + 1];
+                for (int j = 0; j <= i; j++) {
+                    double sum = i == j ? 1 : (1 - shrinkage) * correlation[i][j];
+                    for (int k = 0; k < j; k++) {
+                        sum -= factor[i][k] * factor[j][k];
+                    }
+                    if (i == j) {
+                        definite = sum > 0;
+                        factor[i][i] = Math.sqrt(Math.max(sum, 0));
+                    } else {
+                        factor[i][j] = sum / factor[j][j];
+                    }
+                }
+            }
+            if (definite)
+                return factor;
+            shrinkage = shrinkage == 0 ? INITIAL_SHRINKAGE : Math.min(1, shrinkage * 10);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.synthetic.platform.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Quote-aware splitting of one CSV line into fields.
+ */
+class CsvBytesTest {
+
+    @Test
+    void commaInsideQuotesDoesNotSplit() {
+        assertEquals(List.of("1", "Smith, John", "x"), CsvBytes.fields("1,\"Smith, John\",x"));
+    }
+
+    @Test
+    void doubledQuotesAreUnescaped() {
+        assertEquals(List.of("say \"hi\"", "b"), CsvBytes.fields("\"say \"\"hi\"\"\",b"));
+    }
+
+    @Test
+    void trailingEmptyFieldsAreKept() {
+        assertEquals(List.of("a", "", ""), CsvBytes.fields("a,,"));
+        assertEquals(List.of(""), CsvBytes.fields(""));
+    }
+
+    @Test
+    void fieldsAreTrimmed() {
+        assertEquals(List.of("a", "b"), CsvBytes.fields(" a , b\r"));
+    }
+
+    @Test
+    void longLinesUseTheWordScan() {
+        assertEquals(List.of("abcdefghij", "klmnopqrstuv", "\"quoted, long\"x", ""),
+                CsvBytes.fields("abcdefghij,klmnopqrstuv,\"\"\"quoted, long\"\"x\","));
+    }
+}
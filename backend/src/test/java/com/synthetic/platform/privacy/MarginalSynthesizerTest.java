@@ -0,0 +1,77 @@
+package com.synthetic.platform.privacy;
+
+import com.synthetic.platform.data.ColumnarTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The ε and δ a fit adds up over its noisy steps must stay within what the
+ * privacy budget is charged.
+ */
+class MarginalSynthesizerTest {
+
+    private static final double EPSILON = 0.9;
+    private static final double DELTA = 1e-6;
+    private static final double ROUNDING = 1e-9;
+
+    private final MarginalSynthesizer synthesizer = new MarginalSynthesizer(ForkJoinPool.commonPool());
+
+    @Test
+    void gaussianFitSpendsAtMostDelta() {
+        MarginalModel model = synthesizer.fit(table(2000), EPSILON, DELTA, NoiseMechanism.GAUSSIAN, 16, Map.of(),
+                new Random(1));
+
+        assertTrue(model.getDeltaSpent() <= DELTA * (1 + ROUNDING), "delta spent: " + model.getDeltaSpent());
+        assertTrue(model.getEpsilonSpent() <= EPSILON * (1 + ROUNDING), "epsilon spent: " + model.getEpsilonSpent());
+        // With private bounds and categorical columns every share of δ is used
+        assertEquals(DELTA, model.getDeltaSpent(), DELTA * ROUNDING);
+    }
+
+    @Test
+    void publicBoundsSpendLess() {
+        MarginalModel model = synthesizer.fit(table(2000), EPSILON, DELTA, NoiseMechanism.GAUSSIAN, 16,
+                Map.of("age", new double[] { 0, 100 }, "income", new double[] { 0, 200_000 }), new Random(2));
+
+        assertTrue(model.getDeltaSpent() < DELTA, "delta spent: " + model.getDeltaSpent());
+        assertTrue(model.getEpsilonSpent() <= EPSILON * (1 + ROUNDING), "epsilon spent: " + model.getEpsilonSpent());
+    }
+
+    @Test
+    void laplaceFitOnlySpendsDeltaOnCategoryThresholds() {
+        MarginalModel model = synthesizer.fit(table(2000), 2.0, DELTA, NoiseMechanism.LAPLACE, 16, Map.of(),
+                new Random(3));
+
+        // Two categorical columns of four, each spending half of its δ/2/4 domain share on the threshold
+        assertEquals(2 * (DELTA / 2 / 4 / 2), model.getDeltaSpent(), DELTA * ROUNDING);
+        assertTrue(model.getEpsilonSpent() <= 2.0 * (1 + ROUNDING), "epsilon spent: " + model.getEpsilonSpent());
+    }
+
+    /** Two numeric columns, one categorical and one with a unique value per row. */
+    private static ColumnarTable table(int rows) {
+        Random random = new Random(42);
+        double[] age = new double[rows];
+        double[] income = new double[rows];
+        int[] city = new int[rows];
+        int[] id = new int[rows];
+        String[] ids = new String[rows];
+        for (int row = 0; row < rows; row++) {
+            age[row] = 18 + random.nextInt(60);
+            income[row] = 20_000 + 1000 * random.nextGaussian() * 10;
+            city[row] = random.nextInt(4);
+            id[row] = row;
+            ids[row] = "id-" + row;
+        }
+        return new ColumnarTable(List.of(
+                ColumnarTable.Column.numeric("age", age, true),
+                ColumnarTable.Column.numeric("income", income, false),
+                ColumnarTable.Column.categorical("city", city, new String[] { "a", "b", "c", "d" }),
+                ColumnarTable.Column.categorical("id", id, ids)), rows);
+    }
+}
@@ -0,0 +1,37 @@
+package com.synthetic.platform.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryTokenLeaseStoreTest {
+
+    private static final long TOKEN = TokenLeaseStore.UNITS_PER_TOKEN;
+
+    @Test
+    void refusesOnceTheBurstIsSpentAndSaysWhenToRetry() {
+        InMemoryTokenLeaseStore store = new InMemoryTokenLeaseStore(60);
+        for (int r = 0; r < 60; r++) {
+            assertEquals(TOKEN, store.lease("client", TOKEN, TOKEN));
+        }
+        long refused = store.lease("client", TOKEN, TOKEN);
+        // 60 a minute refills one token a second
+        assertTrue(refused < 0 && refused >= -1000, "refused: " + refused);
+        assertEquals(TOKEN, store.lease("other", TOKEN, TOKEN));
+    }
+
+    @Test
+    void holdsTheLargestLimitItAccepts() {
+        int limit = InMemoryTokenLeaseStore.MAX_REQUESTS_PER_MINUTE;
+        InMemoryTokenLeaseStore store = new InMemoryTokenLeaseStore(limit);
+        assertEquals(limit * TOKEN, store.lease("client", TOKEN, Long.MAX_VALUE));
+    }
+
+    @Test
+    void rejectsLimitsBeyondThePackedCapacity() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new InMemoryTokenLeaseStore(InMemoryTokenLeaseStore.MAX_REQUESTS_PER_MINUTE + 1));
+    }
+}
@@ -0,0 +1,64 @@
+package com.synthetic.platform.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Six nodes leasing from one shared bucket, with an {@link InMemoryTokenLeaseStore}
+ * standing in for Redis: the cluster as a whole must keep to the limit, and
+ * only about one request per lease batch may reach the shared store.
+ */
+class LeasingTokenLeaseStoreTest {
+
+    private static final int NODES = 6;
+    private static final int REQUESTS_PER_MINUTE = 100;
+    private static final int LEASE_SIZE = 10;
+    private static final long TOKEN = TokenLeaseStore.UNITS_PER_TOKEN;
+
+    @Test
+    void clusterKeepsToTheSharedLimit() {
+        InMemoryTokenLeaseStore shared = new InMemoryTokenLeaseStore(REQUESTS_PER_MINUTE);
+        List<LeasingTokenLeaseStore> nodes = new ArrayList<>();
+        for (int n = 0; n < NODES; n++) {
+            nodes.add(new LeasingTokenLeaseStore(shared, new InMemoryTokenLeaseStore(REQUESTS_PER_MINUTE),
+                    LEASE_SIZE * TOKEN));
+        }
+
+        int granted = 0;
+        int requests = 6000;
+        for (int r = 0; r < requests; r++) {
+            if (nodes.get(r % NODES).lease("client", TOKEN, TOKEN) > 0)
+                granted++;
+        }
+        long roundTrips = nodes.stream().mapToLong(LeasingTokenLeaseStore::getRoundTrips).sum();
+
+        // The shared bucket refills by a token every 600 ms, far longer than the loop takes
+        assertEquals(REQUESTS_PER_MINUTE, granted);
+        // One trip per batch, plus the refused trip that parks each node
+        assertTrue(roundTrips <= REQUESTS_PER_MINUTE / LEASE_SIZE + 2L * NODES, "round trips: " + roundTrips);
+        assertEquals(0, nodes.stream().mapToLong(LeasingTokenLeaseStore::getFailures).sum());
+    }
+
+    @Test
+    void fallsBackToPerNodeLimitWhenSharedStoreFails() {
+        TokenLeaseStore failing = (key, minimum, requested) -> {
+            throw new IllegalStateException("connection refused");
+        };
+        LeasingTokenLeaseStore node = new LeasingTokenLeaseStore(failing,
+                new InMemoryTokenLeaseStore(REQUESTS_PER_MINUTE), LEASE_SIZE * TOKEN);
+
+        int granted = 0;
+        for (int r = 0; r < 1000; r++) {
+            if (node.lease("client", TOKEN, TOKEN) > 0)
+                granted++;
+        }
+
+        assertEquals(REQUESTS_PER_MINUTE, granted);
+        assertEquals(1, node.getFailures());
+    }
+}
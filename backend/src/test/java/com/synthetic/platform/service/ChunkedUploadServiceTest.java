@@ -0,0 +1,277 @@
+package com.synthetic.platform.service;
+
+import com.synthetic.platform.dto.UploadRequestDTO;
+import com.synthetic.platform.dto.UploadSessionDTO;
+import com.synthetic.platform.model.Dataset;
+import com.synthetic.platform.model.Project;
+import com.synthetic.platform.model.UploadSession;
+import com.synthetic.platform.repository.UploadSessionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Chunk writes, verification and completion of {@link ChunkedUploadService},
+ * against an in-memory session repository and a dataset service that records
+ * what it would import.
+ */
+class ChunkedUploadServiceTest {
+
+    private static final int CHUNK_SIZE = 1024 * 1024;
+
+    private final Map<String, UploadSession> sessions = new HashMap<>();
+    private final List<byte[]> imported = new ArrayList<>();
+    private CountDownLatch importing;
+    private CountDownLatch releaseImport;
+    private Path storage;
+
+    private final ChunkedUploadService service = newService();
+
+    @Test
+    void assemblesChunksSentOutOfOrder() throws Exception {
+        byte[] content = content(CHUNK_SIZE * 2 + 1000);
+        String id = init(content, crc(content, 0, content.length));
+
+        for (int index : new int[] { 2, 0, 1 }) {
+            send(id, content, index);
+        }
+        assertEquals(List.of(), service.getStatus(id).getMissingChunks());
+
+        Dataset dataset = service.complete(id);
+        assertEquals(Long.valueOf(7), dataset.getId());
+        assertEquals(1, imported.size());
+        assertArrayEquals(content, imported.get(0));
+        assertEquals(ChunkedUploadService.STATUS_COMPLETED, sessions.get(id).getStatus());
+    }
+
+    @Test
+    void rejectsOversizedAndShortBodies() throws Exception {
+        byte[] content = content(CHUNK_SIZE * 2);
+        String id = init(content, null);
+
+        byte[] oversized = Arrays.copyOf(content, CHUNK_SIZE + 1);
+        IllegalArgumentException tooLarge = assertThrows(IllegalArgumentException.class,
+                () -> service.writeChunk(id, 0, new ByteArrayInputStream(oversized), -1,
+                        crc(oversized, 0, CHUNK_SIZE)));
+        assertTrue(tooLarge.getMessage().contains("larger than"), tooLarge.getMessage());
+
+        byte[] shortBody = Arrays.copyOf(content, CHUNK_SIZE - 1);
+        IllegalArgumentException tooShort = assertThrows(IllegalArgumentException.class,
+                () -> service.writeChunk(id, 0, new ByteArrayInputStream(shortBody), -1,
+                        crc(shortBody, 0, shortBody.length)));
+        assertTrue(tooShort.getMessage().contains("incomplete"), tooShort.getMessage());
+
+        // A declared length that cannot match is refused before anything is read
+        assertThrows(IllegalArgumentException.class,
+                () -> service.writeChunk(id, 1, new ByteArrayInputStream(content), content.length, "0"));
+        assertEquals(List.of(0, 1), service.getStatus(id).getMissingChunks());
+    }
+
+    @Test
+    void checksumMismatchMarksAReceivedChunkMissingAgain() throws Exception {
+        byte[] content = content(CHUNK_SIZE * 2);
+        String id = init(content, null);
+        send(id, content, 0);
+        assertEquals(List.of(1), service.getStatus(id).getMissingChunks());
+
+        assertThrows(IllegalArgumentException.class, () -> service.writeChunk(id, 0,
+                new ByteArrayInputStream(content, 0, CHUNK_SIZE), CHUNK_SIZE, "deadbeef"));
+        assertEquals(List.of(0, 1), service.getStatus(id).getMissingChunks());
+    }
+
+    @Test
+    void completeMarksChunksCorruptedOnDiskMissing() throws Exception {
+        byte[] content = content(CHUNK_SIZE * 2);
+        String id = init(content, null);
+        send(id, content, 0);
+        send(id, content, 1);
+
+        try (RandomAccessFile part = new RandomAccessFile(partFile(id).toFile(), "rw")) {
+            part.seek(CHUNK_SIZE + 10);
+            part.write(content[CHUNK_SIZE + 10] + 1);
+        }
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> service.complete(id));
+        assertTrue(e.getMessage().contains("[1]"), e.getMessage());
+
+        UploadSessionDTO status = service.getStatus(id);
+        assertEquals(ChunkedUploadService.STATUS_ACTIVE, status.getStatus());
+        assertEquals(List.of(1), status.getMissingChunks());
+        assertEquals(0, imported.size());
+
+        send(id, content, 1);
+        service.complete(id);
+        assertArrayEquals(content, imported.get(0));
+    }
+
+    @Test
+    void completeChecksTheWholeFileChecksum() throws Exception {
+        byte[] content = content(CHUNK_SIZE + 10);
+        String id = init(content, "0badf00d");
+        send(id, content, 0);
+        send(id, content, 1);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> service.complete(id));
+        assertTrue(e.getMessage().contains("Checksum mismatch for upload"), e.getMessage());
+        assertEquals(0, imported.size());
+        assertEquals(ChunkedUploadService.STATUS_ACTIVE, sessions.get(id).getStatus());
+    }
+
+    @Test
+    void refusesMissingChunksAndAConcurrentComplete() throws Exception {
+        byte[] content = content(CHUNK_SIZE * 2);
+        String id = init(content, null);
+        send(id, content, 0);
+        assertThrows(IllegalArgumentException.class, () -> service.complete(id));
+        send(id, content, 1);
+
+        importing = new CountDownLatch(1);
+        releaseImport = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Dataset> first = executor.submit(() -> service.complete(id));
+            importing.await();
+            assertEquals(ChunkedUploadService.STATUS_COMPLETING, sessions.get(id).getStatus());
+            assertThrows(IllegalArgumentException.class, () -> service.complete(id));
+            // Nor can a chunk be rewritten while the file is being imported
+            assertThrows(IllegalArgumentException.class, () -> send(id, content, 0));
+            releaseImport.countDown();
+            first.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, imported.size());
+        assertEquals(ChunkedUploadService.STATUS_COMPLETED, sessions.get(id).getStatus());
+    }
+
+    private String init(byte[] content, String checksum) throws IOException {
+        return service.init(UploadRequestDTO.builder()
+                .projectId(1L)
+                .fileName("data.csv")
+                .totalSize((long) content.length)
+                .chunkSize(CHUNK_SIZE)
+                .checksum(checksum)
+                .build()).getUploadId();
+    }
+
+    private void send(String id, byte[] content, int index) throws IOException {
+        int offset = index * CHUNK_SIZE;
+        int length = Math.min(CHUNK_SIZE, content.length - offset);
+        service.writeChunk(id, index, new ByteArrayInputStream(content, offset, length), length,
+                crc(content, offset, length));
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (i * 31 + (i >>> 8));
+        }
+        return content;
+    }
+
+    private static String crc(byte[] content, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(content, offset, length);
+        return String.format("%08x", crc.getValue());
+    }
+
+    private Path partFile(String id) {
+        return storage.resolve(".incoming").resolve(id + ".part");
+    }
+
+    private ChunkedUploadService newService() {
+        ProjectService projects = new ProjectService(null, null, null) {
+            @Override
+            public Project findById(Long id) {
+                Project project = new Project();
+                project.setId(id);
+                return project;
+            }
+        };
+        DatasetService datasets = new DatasetService(null, null, null, null, null, null, null, null) {
+            @Override
+            public Dataset importFile(Path source, String originalName, Project project, Long sourceDatasetId)
+                    throws Exception {
+                if (importing != null) {
+                    importing.countDown();
+                    releaseImport.await();
+                }
+                imported.add(Files.readAllBytes(source));
+                Dataset dataset = new Dataset();
+                dataset.setId(7L);
+                return dataset;
+            }
+        };
+        try {
+            storage = Files.createTempDirectory("uploads");
+            ChunkedUploadService created = new ChunkedUploadService(repository(), projects, datasets);
+            set(created, "storageLocation", storage.toString());
+            set(created, "defaultChunkSizeMb", 1);
+            set(created, "maxSizeMb", 1024L);
+            set(created, "sessionTtlHours", 1L);
+            return created;
+        } catch (IOException | ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void set(Object target, String field, Object value) throws ReflectiveOperationException {
+        Field f = target.getClass().getDeclaredField(field);
+        f.setAccessible(true);
+        f.set(target, value);
+    }
+
+    /** Sessions are copied in and out, as separate persistence contexts would see them. */
+    private UploadSessionRepository repository() {
+        return (UploadSessionRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { UploadSessionRepository.class }, (proxy, method, args) -> {
+                    synchronized (sessions) {
+                        switch (method.getName()) {
+                            case "save":
+                                UploadSession saved = (UploadSession) args[0];
+                                sessions.put(saved.getId(), copy(saved));
+                                return saved;
+                            case "findById":
+                                return Optional.ofNullable(sessions.get((String) args[0])).map(s -> copy(s));
+                            case "findByStatusAndExpiresAtBefore":
+                                return new ArrayList<UploadSession>();
+                            case "transitionStatus":
+                                UploadSession session = sessions.get((String) args[0]);
+                                if (session == null || !session.getStatus().equals(args[1]))
+                                    return 0;
+                                session.setStatus((String) args[2]);
+                                return 1;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    }
+                });
+    }
+
+    private static UploadSession copy(UploadSession session) {
+        return new UploadSession(session.getId(), session.getProject(), session.getFileName(),
+                session.getTotalSize(), session.getChunkSize(), session.getChunkCount(), session.getChecksum(),
+                session.getSourceDatasetId(), session.getStatus(), session.getCreatedAt(), session.getExpiresAt());
+    }
+}
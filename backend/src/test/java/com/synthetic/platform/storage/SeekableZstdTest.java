@@ -0,0 +1,148 @@
+package com.synthetic.platform.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trips through {@link SeekableZstdWriter} and {@link SeekableZstdReader}.
+ */
+class SeekableZstdTest {
+
+    private static final int FRAME_SIZE = 128;
+
+    @Test
+    void seeksAcrossFrameBoundaries() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            csv.append("row-").append(i).append(',').append(i * 31).append('\n');
+        }
+        byte[] content = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        try (SeekableZstdReader reader = new SeekableZstdReader(write(content))) {
+            assertEquals(content.length, reader.size());
+            assertTrue(reader.frameCount() > 1);
+            for (int f = 0; f < reader.frameCount(); f++) {
+                byte[] frame = reader.decompressFrame(f);
+                // Frames hold whole lines
+                assertEquals('\n', frame[frame.length - 1]);
+                assertArrayEquals(Arrays.copyOfRange(content, (int) reader.frameStart(f),
+                        (int) reader.frameStart(f) + frame.length), frame);
+                if (f > 0) {
+                    assertEquals(f - 1, reader.frameAt(reader.frameStart(f) - 1));
+                }
+                assertEquals(f, reader.frameAt(reader.frameStart(f)));
+            }
+            for (long position = 0; position < content.length; position += 7) {
+                int f = reader.frameAt(position);
+                assertEquals(content[(int) position],
+                        reader.decompressFrame(f)[(int) (position - reader.frameStart(f))]);
+            }
+            try (InputStream in = reader.openStream()) {
+                assertArrayEquals(content, in.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    void readsEmptyInput() throws IOException {
+        try (SeekableZstdReader reader = new SeekableZstdReader(write(new byte[0]))) {
+            assertEquals(0, reader.size());
+            assertEquals(0, reader.frameCount());
+            try (InputStream in = reader.openStream()) {
+                assertEquals(-1, in.read());
+            }
+        }
+    }
+
+    @Test
+    void keepsInputOfExactlyOneFrameInOneFrame() throws IOException {
+        byte[] content = new byte[FRAME_SIZE];
+        Arrays.fill(content, (byte) 'x');
+        content[FRAME_SIZE / 2] = '\n';
+        content[FRAME_SIZE - 1] = '\n';
+
+        try (SeekableZstdReader reader = new SeekableZstdReader(write(content))) {
+            assertEquals(1, reader.frameCount());
+            assertEquals(FRAME_SIZE, reader.frameLength(0));
+            assertEquals(0, reader.frameAt(FRAME_SIZE - 1));
+            assertArrayEquals(content, reader.decompressFrame(0));
+        }
+    }
+
+    @Test
+    void rejectsTruncatedFiles() throws IOException {
+        byte[] file = Files.readAllBytes(write(lines(50)));
+        Path truncated = temporaryFile();
+        Files.write(truncated, Arrays.copyOf(file, file.length - 3));
+        assertThrows(IOException.class, () -> new SeekableZstdReader(truncated));
+
+        Path tiny = temporaryFile();
+        Files.write(tiny, new byte[4]);
+        assertThrows(IOException.class, () -> new SeekableZstdReader(tiny));
+    }
+
+    @Test
+    void rejectsSeekTableClaimingMoreFramesThanTheFileHolds() throws IOException {
+        byte[] file = Files.readAllBytes(write(lines(50)));
+        footer(file).putInt(0, 1_000_000);
+        Path bad = temporaryFile();
+        Files.write(bad, file);
+        assertThrows(IOException.class, () -> new SeekableZstdReader(bad));
+    }
+
+    @Test
+    void rejectsSeekTableThatDoesNotMatchTheFrames() throws IOException {
+        byte[] file = Files.readAllBytes(write(lines(50)));
+        ByteBuffer buf = ByteBuffer.wrap(file).order(ByteOrder.LITTLE_ENDIAN);
+        int frames = footer(file).getInt(0);
+        int firstEntry = file.length - SeekableZstdWriter.FOOTER_SIZE - frames * SeekableZstdWriter.ENTRY_SIZE;
+        buf.putInt(firstEntry, buf.getInt(firstEntry) + 1);
+        Path bad = temporaryFile();
+        Files.write(bad, file);
+        assertThrows(IOException.class, () -> new SeekableZstdReader(bad));
+    }
+
+    private static byte[] lines(int count) {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            csv.append(i).append(",value-").append(i).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer footer(byte[] file) {
+        return ByteBuffer.wrap(file, file.length - SeekableZstdWriter.FOOTER_SIZE, SeekableZstdWriter.FOOTER_SIZE)
+                .slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static Path write(byte[] content) throws IOException {
+        Path file = temporaryFile();
+        try (OutputStream out = new SeekableZstdWriter(Files.newOutputStream(file), FRAME_SIZE, 3)) {
+            // Uneven writes, so frames are cut independently of the write boundaries
+            for (int offset = 0; offset < content.length; offset += 37) {
+                out.write(content, offset, Math.min(37, content.length - offset));
+            }
+        }
+        return file;
+    }
+
+    private static Path temporaryFile() throws IOException {
+        Path file = Files.createTempFile("seekable", ".zst");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+}
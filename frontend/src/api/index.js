@@ -29,12 +29,69 @@ export const ProjectAPI = {
 export const DatasetAPI = {
     getByProject: (projectId) => api.get(`/datasets/project/${projectId}`),
     getStats: (id) => api.get(`/datasets/${id}/stats`),
+    getRows: (id, offset = 0, limit = 100) => api.get(`/datasets/${id}/rows`, { params: { offset, limit } }),
     upload: (formData) => api.post('/datasets/upload', formData, {
         headers: { 'Content-Type': 'multipart/form-data' }
     }),
+    initUpload: (data) => api.post('/datasets/uploads', data),
+    getUpload: (uploadId) => api.get(`/datasets/uploads/${uploadId}`),
+    uploadChunk: (uploadId, index, blob, checksum) => api.put(`/datasets/uploads/${uploadId}/chunks/${index}`, blob, {
+        headers: { 'Content-Type': 'application/octet-stream', 'X-Chunk-Checksum': checksum }
+    }),
+    completeUpload: (uploadId) => api.post(`/datasets/uploads/${uploadId}/complete`),
+    abortUpload: (uploadId) => api.delete(`/datasets/uploads/${uploadId}`),
     delete: (id) => api.delete(`/datasets/${id}`)
 };
 
+// Files above this go through the chunked upload API instead of a single multipart request
+export const CHUNKED_UPLOAD_THRESHOLD = 64 * 1024 * 1024;
+
+const CRC32C_TABLE = (() => {
+    const table = new Uint32Array(256);
+    for (let n = 0; n < 256; n++) {
+        let c = n;
+        for (let k = 0; k < 8; k++) {
+            c = c & 1 ? 0x82F63B78 ^ (c >>> 1) : c >>> 1;
+        }
+        table[n] = c >>> 0;
+    }
+    return table;
+})();
+
+const crc32c = (bytes) => {
+    let crc = 0xFFFFFFFF;
+    for (let i = 0; i < bytes.length; i++) {
+        crc = CRC32C_TABLE[(crc ^ bytes[i]) & 0xFF] ^ (crc >>> 8);
+    }
+    return ((crc ^ 0xFFFFFFFF) >>> 0).toString(16).padStart(8, '0');
+};
+
+/**
+ * Uploads a file in parallel chunks. Pass the uploadId of an interrupted upload
+ * to resume it; only the chunks the server is missing are sent.
+ */
+export const uploadChunked = async (file, projectId, { uploadId, parallelism = 4, onProgress } = {}) => {
+    const session = uploadId
+        ? (await DatasetAPI.getUpload(uploadId)).data
+        : (await DatasetAPI.initUpload({ projectId, fileName: file.name, totalSize: file.size })).data;
+
+    const pending = [...session.missingChunks];
+    let done = session.chunkCount - pending.length;
+    const worker = async () => {
+        while (pending.length > 0) {
+            const index = pending.shift();
+            const start = index * session.chunkSize;
+            const blob = file.slice(start, Math.min(start + session.chunkSize, file.size));
+            const checksum = crc32c(new Uint8Array(await blob.arrayBuffer()));
+            await DatasetAPI.uploadChunk(session.uploadId, index, blob, checksum);
+            onProgress?.(++done / session.chunkCount, session.uploadId);
+        }
+    };
+    await Promise.all(Array.from({ length: Math.min(parallelism, pending.length) }, worker));
+
+    return DatasetAPI.completeUpload(session.uploadId);
+};
+
 export const ModelAPI = {
     getByDataset: (datasetId) => api.get(`/models/dataset/${datasetId}`),
     train: (data) => api.post('/models/train', data),
@@ -1,5 +1,5 @@
 import { useState, useEffect, useCallback } from 'react';
-import { DatasetAPI } from '../api';
+import { DatasetAPI, uploadChunked, CHUNKED_UPLOAD_THRESHOLD } from '../api';
 
 export function useDatasets(projectId) {
     const [datasets, setDatasets] = useState([]);
@@ -26,7 +26,9 @@ export function useDatasets(projectId) {
         formData.append('file', file);
         formData.append('projectId', pId);
         try {
-            const res = await DatasetAPI.upload(formData);
+            const res = file.size > CHUNKED_UPLOAD_THRESHOLD
+                ? await uploadChunked(file, pId)
+                : await DatasetAPI.upload(formData);
             await loadDatasets();
             return res.data;
         } catch (err) {
@@ -137,6 +137,8 @@ export default function AITraining() {
                                     <option value="TVAE" className="bg-[#05070a]">TVAE (Efficiency)</option>
                                     <option value="GaussianCopula" className="bg-[#05070a]">Gaussian Copula</option>
                                     <option value="CopulaGAN" className="bg-[#05070a]">Copula GAN</option>
+                                    <option value="GAUSSIAN_COPULA" className="bg-[#05070a]">Gaussian Copula (In-Process, Seconds)</option>
+                                    <option value="DP_MARGINALS" className="bg-[#05070a]">DP Marginals (ε=1)</option>
                                 </select>
                             </div>
 
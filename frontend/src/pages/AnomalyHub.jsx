@@ -32,56 +32,84 @@ export default function AnomalyHub() {
         try {
             const response = await AIAPI.detectAnomalies(selectedDataset);
             const data = typeof response.data === 'string' ? JSON.parse(response.data) : response.data;
-            const rowCount = data.results?.rowCount || 0;
-            const columns = data.results?.columns || [];
+            const rowCount = data.rowCount || 0;
+            const columns = data.columns || [];
             const generatedAnomalies = [];
             let idCounter = 1;
+            const timestamp = new Date().toISOString();
+            const percentOf = (count) => rowCount > 0 ? ((count / rowCount) * 100).toFixed(2) : 0;
 
             columns.forEach(col => {
-                if (col.nullPercentage > 0) {
-                    const severity = col.nullPercentage > 20 ? 'high' : (col.nullPercentage > 5 ? 'medium' : 'low');
+                if (col.missingCount > 0) {
+                    const percentage = percentOf(col.missingCount);
                     generatedAnomalies.push({
                         id: idCounter++,
                         type: 'Data Integrity',
-                        severity: severity,
+                        severity: percentage > 20 ? 'high' : (percentage > 5 ? 'medium' : 'low'),
                         field: col.name,
-                        description: `Missing values detected in ${col.nullPercentage}% of records (${Math.floor((col.nullPercentage / 100) * rowCount)} rows).`,
-                        timestamp: new Date().toISOString(),
-                        affectedRecords: Math.floor((col.nullPercentage / 100) * rowCount),
+                        description: `Missing values detected in ${percentage}% of records (${col.missingCount} rows).`,
+                        timestamp,
+                        affectedRecords: col.missingCount,
                         confidence: 100
                     });
                 }
 
-                if (col.stats) {
-                    const { max, mean, min } = col.stats;
-                    if (max > mean * 4 && mean > 0) {
-                        generatedAnomalies.push({
-                            id: idCounter++,
-                            type: 'Statistical Outlier',
-                            severity: 'medium',
-                            field: col.name,
-                            description: `Extreme maximum value (${max.toFixed(2)}) detected, significantly deviating from the mean (${mean.toFixed(2)}).`,
-                            timestamp: new Date().toISOString(),
-                            affectedRecords: Math.floor(rowCount * 0.01),
-                            confidence: 85
-                        });
-                    }
+                if (col.outlierCount > 0) {
+                    generatedAnomalies.push({
+                        id: idCounter++,
+                        type: 'Statistical Outlier',
+                        severity: percentOf(col.outlierCount) > 1 ? 'high' : 'medium',
+                        field: col.name,
+                        description: `${col.outlierCount} values lie more than 3.5 robust deviations from the median (${col.median}).`,
+                        timestamp,
+                        affectedRecords: col.outlierCount,
+                        confidence: 95
+                    });
                 }
 
-                if (col.uniqueCount === 1) {
+                if (col.rareCount > 0) {
+                    generatedAnomalies.push({
+                        id: idCounter++,
+                        type: 'Rare Category',
+                        severity: 'low',
+                        field: col.name,
+                        description: `Rare values such as ${col.rareCategories.map(c => `'${c}'`).join(', ')} occur in ${col.rareCount} records.`,
+                        timestamp,
+                        affectedRecords: col.rareCount,
+                        confidence: 90
+                    });
+                }
+
+                if (col.kind === 'CATEGORICAL' && col.distinctCount === 1) {
                     generatedAnomalies.push({
                         id: idCounter++,
                         type: 'Pattern Deviation',
                         severity: 'low',
                         field: col.name,
                         description: 'Column contains a single constant value across all records.',
-                        timestamp: new Date().toISOString(),
+                        timestamp,
                         affectedRecords: rowCount,
                         confidence: 100
                     });
                 }
             });
 
+            // The most anomalous records, scored by the isolation forest and per-column detectors
+            (data.anomalies || []).slice(0, 10).forEach(record => {
+                generatedAnomalies.push({
+                    id: idCounter++,
+                    type: 'Record Anomaly',
+                    severity: record.score > 0.8 ? 'high' : (record.score > data.scoreThreshold ? 'medium' : 'low'),
+                    field: `Row ${record.row}`,
+                    description: record.reasons.length > 0
+                        ? record.reasons.join('; ')
+                        : 'Unusual combination of values, isolated by the isolation forest.',
+                    timestamp,
+                    affectedRecords: 1,
+                    confidence: Math.round(record.score * 100)
+                });
+            });
+
             setAnomalies(generatedAnomalies);
         } catch (e) {
             console.error('Scan failed:', e);
@@ -55,7 +55,9 @@ export default function ProjectDetails() {
         { id: 'CTGAN', name: 'CTGAN', desc: 'Neural network GAN for mixed tabular data' },
         { id: 'TVAE', name: 'TVAE', desc: 'Variational Autoencoder - fast and accurate' },
         { id: 'GaussianCopula', name: 'Gaussian Copula', desc: 'Statistical model - ultra fast' },
-        { id: 'CopulaGAN', name: 'CopulaGAN', desc: 'Hybrid GAN-Copula for complex distributions' }
+        { id: 'CopulaGAN', name: 'CopulaGAN', desc: 'Hybrid GAN-Copula for complex distributions' },
+        { id: 'GAUSSIAN_COPULA', name: 'Gaussian Copula (JVM)', desc: 'Runs in the platform itself - trains in seconds' },
+        { id: 'DP_MARGINALS', name: 'DP Marginals', desc: 'Differentially private (ε=1), charged to the dataset budget' }
     ];
 
     const loadProject = useCallback(async () => {